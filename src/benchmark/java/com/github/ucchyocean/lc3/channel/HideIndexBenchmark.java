@@ -0,0 +1,112 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.channel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import junit.framework.TestCase;
+
+/**
+ * HideIndexの処理時間の計測
+ * @author ucchy
+ */
+public class HideIndexBenchmark extends TestCase {
+
+    /**
+     * 大きなhidelistで、以前の形式（hideされる側ごとのリスト）と、受信者から抜く処理、
+     * hideしている相手の一覧の取得にかかる時間を比較する。
+     */
+    public void testBenchmark() {
+
+        int players = 20000;
+        int relations = 200000;
+        int recipientsCount = 200;
+        int rounds = 2000;
+
+        String[] ids = new String[players];
+        for (int i = 0; i < players; i++) {
+            ids[i] = "$" + new UUID(0, i);
+        }
+        Random random = new Random(1);
+        HideIndex index = new HideIndex();
+        Map<String, List<String>> old = new HashMap<String, List<String>>();
+        while (index.size() < relations) {
+            String hider = ids[random.nextInt(players)];
+            String hidden = ids[random.nextInt(200)];
+            if (!hider.equals(hidden) && index.add(hider, hidden)) {
+                old.computeIfAbsent(hidden, k -> new ArrayList<String>()).add(hider);
+            }
+        }
+
+        // 受信者から、hideしているプレイヤーを抜く
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            List<String> recipients = recipients(ids, r, recipientsCount);
+            List<String> hiders = old.get(ids[r % 200]);
+            if (hiders != null) {
+                for (String id : hiders) {
+                    recipients.remove(id);
+                }
+            }
+            sink += recipients.size();
+        }
+        long oldFilter = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            List<String> recipients = recipients(ids, r, recipientsCount);
+            Set<String> hiders = index.getHiders(ids[r % 200]);
+            if (!hiders.isEmpty()) {
+                recipients.removeIf(hiders::contains);
+            }
+            sink -= recipients.size();
+        }
+        long newFilter = System.nanoTime() - start;
+        assertEquals(0, sink);
+
+        // hideしている相手の一覧
+        start = System.nanoTime();
+        for (int r = 0; r < 200; r++) {
+            String hider = ids[r * 97 % players];
+            for (Map.Entry<String, List<String>> entry : old.entrySet()) {
+                if (entry.getValue().contains(hider)) {
+                    sink++;
+                }
+            }
+        }
+        long oldInfo = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int r = 0; r < 200; r++) {
+            sink -= index.getHidden(ids[r * 97 % players]).size();
+        }
+        long newInfo = System.nanoTime() - start;
+        assertEquals(0, sink);
+
+        System.out.println(String.format(
+                "hidelist %d relations : filter list %.1fus/msg, index %.1fus/msg; hideinfo scan %.1fus, index %.2fus",
+                index.size(), oldFilter / 1000.0 / rounds, newFilter / 1000.0 / rounds,
+                oldInfo / 1000.0 / 200, newInfo / 1000.0 / 200));
+    }
+
+    /**
+     * 受信者のリストを作成する
+     */
+    private static List<String> recipients(String[] ids, int round, int count) {
+        List<String> recipients = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            recipients.add(ids[(round * 31 + i * 101) % ids.length]);
+        }
+        return recipients;
+    }
+}
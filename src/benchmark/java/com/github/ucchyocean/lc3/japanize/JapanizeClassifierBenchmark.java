@@ -0,0 +1,64 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.japanize;
+
+import java.nio.charset.StandardCharsets;
+
+import junit.framework.TestCase;
+
+/**
+ * JapanizeClassifierの処理時間の計測
+ * @author ucchy
+ */
+public class JapanizeClassifierBenchmark extends TestCase {
+
+    /**
+     * 以前の判定方法との処理時間の比較
+     */
+    public void testBenchmark() {
+
+        String[] messages = {
+                "hello, how are you doing today?",
+                "kyou ha ii tenki desune. %player_name% san",
+                "check this out https://example.com/path?query=1",
+                "こんにちは、今日はいい天気ですね",
+                "ｺﾝﾆﾁﾊ ｾｶｲ",
+        };
+        int rounds = 200000;
+
+        // ウォームアップ
+        int sink = 0;
+        for (int i = 0; i < rounds; i++) {
+            String m = messages[i % messages.length];
+            sink += isNeedToJapanizeOld(m) ? 1 : 0;
+            sink += JapanizeClassifier.classify(m);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += isNeedToJapanizeOld(messages[i % messages.length]) ? 1 : 0;
+        }
+        long old = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += JapanizeClassifier.classify(messages[i % messages.length]);
+        }
+        long current = System.nanoTime() - start;
+
+        System.out.println(String.format(
+                "JapanizeClassifier: getBytes+regex %.1fns/msg, classify %.1fns/msg (%d)",
+                old / (double) rounds, current / (double) rounds, sink & 1));
+    }
+
+    /**
+     * 以前の判定方法
+     */
+    private static boolean isNeedToJapanizeOld(String text) {
+        return !(text.getBytes(StandardCharsets.UTF_8).length > text.length()
+                || text.matches("[ \\uFF61-\\uFF9F]+"));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import junit.framework.TestCase;
+
+/**
+ * PlayerHandlesの処理時間の計測
+ * @author ucchy
+ */
+public class PlayerHandlesBenchmark extends TestCase {
+
+    /**
+     * 1つの発言を配信するまでに、サーバーからプレイヤーを探す回数と時間を、
+     * メソッドごとに探す場合と、ハンドルを保持する場合とで比較する。
+     * 受信者は、チャンネルの参加者として長く保持されているメンバーで、プレイヤーのログインより前に作成されている。
+     * 発言者は、表示名、プレフィックス、サフィックス、ワールド、位置、パーミッションなどで12回、
+     * 受信者は、オンライン確認、パーミッション、メッセージ送信で4回ずつ、プレイヤーを参照する。
+     * 途中で一部のプレイヤーが再ログインする。
+     */
+    public void testLookupBenchmark() {
+
+        final int online = 500;
+        final int recipients = 100;
+        final int speakerCalls = 12;
+        final int recipientCalls = 4;
+        final int messages = 20000;
+
+        UUID[] ids = new UUID[online];
+        Map<UUID, Object> server = new ConcurrentHashMap<UUID, Object>();
+        for (int i = 0; i < online; i++) {
+            ids[i] = new UUID(0, i);
+            server.put(ids[i], new Object());
+        }
+        AtomicLong serverLookups = new AtomicLong();
+        Function<UUID, Object> resolver = id -> {
+            serverLookups.incrementAndGet();
+            return server.get(id);
+        };
+
+        // 以前の方法: メソッドを呼ぶたびにサーバーから探す
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int m = 0; m < messages; m++) {
+            UUID speaker = ids[m % online];
+            for (int c = 0; c < speakerCalls; c++) {
+                sink += (resolver.apply(speaker) != null) ? 1 : 0;
+            }
+            for (int r = 0; r < recipients; r++) {
+                UUID recipient = ids[(m + r * 7) % online];
+                for (int c = 0; c < recipientCalls; c++) {
+                    sink += (resolver.apply(recipient) != null) ? 1 : 0;
+                }
+            }
+        }
+        long before = System.nanoTime() - start;
+        long beforeLookups = serverLookups.getAndSet(0);
+
+        // 新しい方法: メンバーを作成してから、ログイン時に結び付ける
+        PlayerHandles<Object> handles = new PlayerHandles<Object>(resolver);
+        List<Member<Object>> members = new ArrayList<Member<Object>>();
+        for (int i = 0; i < online; i++) {
+            members.add(new Member<Object>(handles, ids[i]));
+        }
+        for (UUID id : ids) {
+            handles.bind(id, server.get(id));
+        }
+        start = System.nanoTime();
+        for (int m = 0; m < messages; m++) {
+            if (m % 1000 == 0) {
+                // 再ログイン
+                UUID rejoin = ids[m / 1000];
+                handles.unbind(rejoin);
+                handles.bind(rejoin, server.get(rejoin));
+            }
+            Member<Object> speaker = members.get(m % online);
+            for (int c = 0; c < speakerCalls; c++) {
+                sink -= (speaker.getPlayer() != null) ? 1 : 0;
+            }
+            for (int r = 0; r < recipients; r++) {
+                Member<Object> recipient = members.get((m + r * 7) % online);
+                for (int c = 0; c < recipientCalls; c++) {
+                    sink -= (recipient.getPlayer() != null) ? 1 : 0;
+                }
+            }
+        }
+        long after = System.nanoTime() - start;
+        assertEquals(0, sink);
+        assertEquals(0, handles.getLookupCount());
+        assertEquals((long) messages * (speakerCalls + recipients * recipientCalls), beforeLookups);
+
+        System.out.println(String.format(
+                "player lookups per message (%d recipients) : per call %d (%.2fus), handle %d (%.2fus)",
+                recipients, beforeLookups / messages, before / 1000.0 / messages,
+                handles.getLookupCount() / messages, after / 1000.0 / messages));
+    }
+
+    /**
+     * ChannelMemberPlayer と同じようにハンドルを保持する、テスト用のメンバー
+     */
+    private static class Member<P> {
+
+        private final PlayerHandles<P> handles;
+        private final UUID id;
+        private PlayerHandles.Handle<P> handle;
+
+        private Member(PlayerHandles<P> handles, UUID id) {
+            this.handles = handles;
+            this.id = id;
+        }
+
+        private P getPlayer() {
+            PlayerHandles.Handle<P> current = handles.current(handle, id);
+            handle = current;
+            return handles.get(current, id);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.messaging;
+
+import com.github.ucchyocean.lc3.LunaChat;
+import com.github.ucchyocean.lc3.member.ChannelMemberOther;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+/**
+ * InMemoryMessageBusの処理時間の計測
+ * @author ucchy
+ */
+public class InMemoryMessageBusBenchmark extends TestCase {
+
+    private static final String TOPIC_BROADCAST = "lunachat:broadcast";
+
+    /**
+     * BungeeCordと複数のBukkitサーバーを模擬して、Bungeeパススルーモードの発言が
+     * 全てのサーバーに届くまでの時間と、処理量を計測する。
+     * 各Bukkitサーバーは発言をBungeeCordへ送信し、BungeeCordはそれを全てのBukkitサーバーへ配信する。
+     */
+    public void testProxyAndBackendsBenchmark() throws InterruptedException {
+
+        final int backends = 4;
+        final int messagesPerBackend = 5000;
+        final int total = backends * messagesPerBackend;
+
+        InMemoryMessageBus.Network network = new InMemoryMessageBus.Network(true);
+        InMemoryMessageBus proxy = network.createNode("proxy");
+        proxy.subscribe(LunaChat.PMC_MESSAGE, envelope -> {
+            BukkitChatMessage msg = BukkitChatMessage.fromByteArray(envelope.getPayload());
+            if (msg != null) {
+                proxy.publish(TOPIC_BROADCAST, envelope.getPayload());
+            }
+        });
+
+        Map<Long, Long> sentNanos = new ConcurrentHashMap<Long, Long>();
+        CountDownLatch delivered = new CountDownLatch(total * backends);
+        AtomicLong latencySum = new AtomicLong();
+        AtomicLong latencyMax = new AtomicLong();
+        List<InMemoryMessageBus> servers = new ArrayList<InMemoryMessageBus>();
+        for (int i = 0; i < backends; i++) {
+            InMemoryMessageBus server = network.createNode("server" + i);
+            server.subscribe(TOPIC_BROADCAST, envelope -> {
+                BukkitChatMessage msg = BukkitChatMessage.fromByteArray(envelope.getPayload());
+                long latency = System.nanoTime() - sentNanos.get(msg.getMessageId());
+                latencySum.addAndGet(latency);
+                latencyMax.accumulateAndGet(latency, Math::max);
+                delivered.countDown();
+            });
+            servers.add(server);
+        }
+
+        long start = System.nanoTime();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < backends; i++) {
+            final int index = i;
+            Thread thread = new Thread(() -> {
+                InMemoryMessageBus server = servers.get(index);
+                ChannelMemberOther member = new ChannelMemberOther("player" + index);
+                for (int j = 0; j < messagesPerBackend; j++) {
+                    long id = (long) index * messagesPerBackend + j + 1;
+                    sentNanos.put(id, System.nanoTime());
+                    server.publish(LunaChat.PMC_MESSAGE,
+                            new BukkitChatMessage(member, "hello " + j, null, id).toByteArray());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(delivered.await(30, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - start;
+        network.close();
+
+        System.out.println(String.format(
+                "proxy + %d backends : %d messages, %d deliveries in %.1fms (%.0f msg/s), latency avg=%.3fms max=%.3fms",
+                backends, total, total * backends, elapsed / 1000000.0,
+                total / (elapsed / (double) TimeUnit.SECONDS.toNanos(1)),
+                latencySum.get() / 1000000.0 / (total * backends), latencyMax.get() / 1000000.0));
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.messaging;
+
+import com.github.ucchyocean.lc3.member.ChannelMemberOther;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * PluginMessageBatcherの処理時間の計測
+ * @author ucchy
+ */
+public class PluginMessageBatcherBenchmark extends TestCase {
+
+    /**
+     * 1tickに複数の発言がある場合に、まとめた数と追加された遅延を出力する
+     */
+    public void testMetrics() {
+
+        final int[] sentBytes = new int[1];
+        PluginMessageBatcher batcher = new PluginMessageBatcher(bytes -> sentBytes[0] += bytes.length);
+        Random random = new Random(7);
+        int frameBytes = 0;
+
+        for (int tick = 0; tick < 1200; tick++) {
+            for (int i = random.nextInt(10); i > 0; i--) {
+                byte[] frame = new BukkitChatMessage(
+                        new ChannelMemberOther("player" + i), "hello " + tick).toByteArray();
+                frameBytes += frame.length;
+                batcher.add(frame, 1);
+            }
+            batcher.tick();
+        }
+        batcher.flush();
+
+        System.out.println(batcher + String.format(", bytes=%d/%d", sentBytes[0], frameBytes));
+        assertTrue(batcher.getFrameCount() > batcher.getBatchCount());
+    }
+}
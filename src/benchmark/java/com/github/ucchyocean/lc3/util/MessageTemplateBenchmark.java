@@ -0,0 +1,60 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.util;
+
+import junit.framework.TestCase;
+
+/**
+ * MessageTemplateの処理時間の計測
+ * @author ucchy
+ */
+public class MessageTemplateBenchmark extends TestCase {
+
+    /**
+     * 以前の作成方法との処理時間の比較
+     */
+    public void testBenchmark() {
+
+        String message = "&f[%color%%channel%&f]&7%player% さんをチャンネルからBANしました。";
+        MessageTemplate template = MessageTemplate.compile(null, message, "color", "channel", "player");
+        String[] players = {"ucchy", "notch", "jeb_", "dinnerbone"};
+        int rounds = 100000;
+
+        // ウォームアップ
+        int sink = 0;
+        for (int i = 0; i < rounds; i++) {
+            sink += formatOld(message, players[i % players.length]).length();
+            sink += template.format("&a", "world", players[i % players.length]).length();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += formatOld(message, players[i % players.length]).length();
+        }
+        long old = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += template.format("&a", "world", players[i % players.length]).length();
+        }
+        long current = System.nanoTime() - start;
+
+        System.out.println(String.format(
+                "MessageTemplate: KeywordReplacer+regex %.1fns/msg, template %.1fns/msg (%d)",
+                old / (double) rounds, current / (double) rounds, sink & 1));
+    }
+
+    /**
+     * 以前の作成方法
+     */
+    private static String formatOld(String message, String player) {
+        KeywordReplacer kr = new KeywordReplacer(message);
+        kr.replace("%color%", "&a");
+        kr.replace("%channel%", "world");
+        kr.replace("%player%", player);
+        return Utility.replaceColorCode(kr.toString());
+    }
+}
@@ -8,6 +8,7 @@ package com.github.ucchyocean.lc.event;
 import com.github.ucchyocean.lc.channel.ChannelPlayer;
 
 import java.util.ArrayList;
+import java.util.function.Supplier;
 
 /**
  * チャンネルチャットのメッセージイベント、
@@ -21,6 +22,9 @@ public class LunaChatChannelMessageEvent extends LunaChatBaseEvent {
     private final ChannelPlayer player;
     private String message;
     private ArrayList<ChannelPlayer> recipients;
+    private Supplier<ArrayList<ChannelPlayer>> recipientsLoader;
+    private boolean recipientsReplaced;
+    private int recipientsModCount;
     private final String displayName;
     private final String originalMessage;
 
@@ -33,6 +37,28 @@ public class LunaChatChannelMessageEvent extends LunaChatBaseEvent {
         this.recipients = recipients;
         this.displayName = displayName;
         this.originalMessage = originalMessage;
+        this.recipientsReplaced = true;
+    }
+
+    /**
+     * コンストラクタ。受信者リストは、getRecipients() が最初に呼び出されたときに作成される。
+     *
+     * @param channelName       チャンネル名
+     * @param player            発言プレイヤー
+     * @param message           メッセージ
+     * @param recipientsLoader  受信者リストを作成する処理
+     * @param displayName       発言者の表示名
+     * @param originalMessage   オリジナルメッセージ
+     */
+    public LunaChatChannelMessageEvent(String channelName,
+                                       ChannelPlayer player, String message, Supplier<ArrayList<ChannelPlayer>> recipientsLoader,
+                                       String displayName, String originalMessage) {
+        super(channelName);
+        this.player = player;
+        this.message = message;
+        this.recipientsLoader = recipientsLoader;
+        this.displayName = displayName;
+        this.originalMessage = originalMessage;
     }
 
     /**
@@ -59,9 +85,31 @@ public class LunaChatChannelMessageEvent extends LunaChatBaseEvent {
      * @return recipients プレイヤーリスト
      */
     public ArrayList<ChannelPlayer> getRecipients() {
+        if (recipientsLoader != null) {
+            RecipientList list = new RecipientList(recipientsLoader.get());
+            recipientsLoader = null;
+            recipientsModCount = list.getModCount();
+            recipients = list;
+        }
         return recipients;
     }
 
+    /**
+     * 受信者リストが、リスナーによって変更された可能性があるかどうかを返す。
+     * 受信者リストが一度も参照されていなければ、falseを返す。
+     *
+     * @return 変更された可能性があるかどうか
+     */
+    public boolean isRecipientsChanged() {
+        if (recipientsLoader != null) {
+            return false;
+        }
+        if (recipientsReplaced || !(recipients instanceof RecipientList)) {
+            return true;
+        }
+        return ((RecipientList) recipients).getModCount() != recipientsModCount;
+    }
+
     /**
      * 発言者の表示名を取得する
      *
@@ -96,5 +144,32 @@ public class LunaChatChannelMessageEvent extends LunaChatBaseEvent {
      */
     public void setRecipients(ArrayList<ChannelPlayer> recipients) {
         this.recipients = recipients;
+        this.recipientsLoader = null;
+        this.recipientsReplaced = true;
+    }
+
+    /**
+     * 変更されたかどうかを確認できる受信者リスト。
+     * ArrayList の set は modCount を増やさないため、ここで増やして、置き換えも変更として扱う。
+     * （ListIterator#set や Collections#swap なども、set を経由する）
+     */
+    private static class RecipientList extends ArrayList<ChannelPlayer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private RecipientList(ArrayList<ChannelPlayer> list) {
+            super(list);
+        }
+
+        @Override
+        public ChannelPlayer set(int index, ChannelPlayer element) {
+            ChannelPlayer old = super.set(index, element);
+            modCount++;
+            return old;
+        }
+
+        private int getModCount() {
+            return modCount;
+        }
     }
 }
@@ -8,10 +8,15 @@ package com.github.ucchyocean.lc3;
 import com.github.ucchyocean.lc3.channel.Channel;
 import com.github.ucchyocean.lc3.japanize.JapanizeType;
 import com.github.ucchyocean.lc3.member.ChannelMember;
+import com.github.ucchyocean.lc3.util.Utility;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * LunaChat APIクラス
@@ -161,6 +166,56 @@ public interface LunaChatAPI {
      */
     List<ChannelMember> getHidelist(ChannelMember key);
 
+    /**
+     * 該当のプレイヤーをhideしているプレイヤーのIDを取得する。
+     * チャットの受信者から、hideしているプレイヤーを除くときに使用する。
+     * デフォルトでは getHidelist から作成する。
+     *
+     * @param key プレイヤー
+     * @return 指定されたプレイヤーをhideしているプレイヤーのID(ChannelMember#toString())のセット(変更不可、非null)
+     */
+    default Set<String> getHidelistIds(ChannelMember key) {
+        Set<String> ids = new HashSet<String>();
+        for (ChannelMember member : getHidelist(key)) {
+            ids.add(member.toString());
+        }
+        return Collections.unmodifiableSet(ids);
+    }
+
+    /**
+     * 該当のプレイヤーをhideしているプレイヤーのUUIDを取得する。
+     * チャットの受信者から、hideしているプレイヤーを除くときに使用する。
+     * デフォルトでは getHidelistIds から作成する。
+     *
+     * @param key プレイヤー
+     * @return 指定されたプレイヤーをhideしているプレイヤーのUUIDのセット(変更不可、非null)
+     */
+    default Set<UUID> getHidelistUUIDs(ChannelMember key) {
+        Set<UUID> uuids = new HashSet<UUID>();
+        for (String id : getHidelistIds(key)) {
+            UUID uuid = Utility.toUUID(id);
+            if (uuid != null) {
+                uuids.add(uuid);
+            }
+        }
+        return Collections.unmodifiableSet(uuids);
+    }
+
+    /**
+     * 指定されたプレイヤーが、指定されたプレイヤーをhideしているかどうかを返す。
+     * デフォルトでは getHidelist から確認する。
+     *
+     * @param player hideする側のプレイヤー
+     * @param hided  hideされる側のプレイヤー
+     * @return hideしているかどうか
+     */
+    default boolean containsHidelist(ChannelMember player, ChannelMember hided) {
+        if (player == null || hided == null) {
+            return false;
+        }
+        return getHidelist(hided).contains(player);
+    }
+
     /**
      * 該当のプレイヤーがhideしているプレイヤーのリストを返す。
      *
@@ -6,17 +6,35 @@
 package com.github.ucchyocean.lc3;
 
 import com.github.ucchyocean.lc3.bridge.DynmapBridge;
+import com.github.ucchyocean.lc3.bridge.LuckPermsEventBridge;
 import com.github.ucchyocean.lc3.bridge.McMMOBridge;
 import com.github.ucchyocean.lc3.bridge.MultiverseCoreBridge;
 import com.github.ucchyocean.lc3.bridge.VaultChatBridge;
 import com.github.ucchyocean.lc3.bukkit.BukkitEventListener;
 import com.github.ucchyocean.lc3.bukkit.BukkitEventSender;
+import com.github.ucchyocean.lc3.bukkit.BukkitPluginMessageBus;
+import com.github.ucchyocean.lc3.bukkit.BungeeForwardMessageBus;
+import com.github.ucchyocean.lc3.bukkit.PlaceholderService;
+import com.github.ucchyocean.lc3.channel.BukkitChannel;
+import com.github.ucchyocean.lc3.channel.Channel;
 import com.github.ucchyocean.lc3.channel.ChannelManager;
+import com.github.ucchyocean.lc3.channel.ExpireScheduler;
+import com.github.ucchyocean.lc3.channel.JapanizeExecutor;
+import com.github.ucchyocean.lc3.channel.JapanizeMetrics;
 import com.github.ucchyocean.lc3.command.LunaChatCommand;
 import com.github.ucchyocean.lc3.command.LunaChatJapanizeCommand;
 import com.github.ucchyocean.lc3.command.LunaChatMessageCommand;
 import com.github.ucchyocean.lc3.command.LunaChatReplyCommand;
 import com.github.ucchyocean.lc3.member.ChannelMember;
+import com.github.ucchyocean.lc3.member.ChannelMemberPlayer;
+import com.github.ucchyocean.lc3.member.GlobalListeners;
+import com.github.ucchyocean.lc3.member.MemberDecorationCache;
+import com.github.ucchyocean.lc3.member.PermissionSnapshot;
+import com.github.ucchyocean.lc3.messaging.BukkitChatMessage;
+import com.github.ucchyocean.lc3.messaging.ChannelFederation;
+import com.github.ucchyocean.lc3.pipeline.ChatPipeline;
+import com.github.ucchyocean.lc3.storage.StoreWriter;
+import com.github.ucchyocean.lc3.util.PlaceholderScanner;
 import org.bstats.bukkit.Metrics;
 import org.bstats.charts.DrilldownPie;
 import org.bukkit.Bukkit;
@@ -25,7 +43,6 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
 import java.util.*;
@@ -48,8 +65,10 @@ public class LunaChatBukkit extends JavaPlugin implements PluginInterface {
     private VaultChatBridge vaultchat;
     private DynmapBridge dynmap;
     private MultiverseCoreBridge multiverse;
+    private PlaceholderService placeholders;
+    private BukkitPluginMessageBus messageBus;
+    private ChannelFederation federation;
 
-    private BukkitTask expireCheckerTask;
     private LunaChatLogger normalChatLogger;
 
     private LunaChatCommand lunachatCommand;
@@ -65,6 +84,8 @@ public class LunaChatBukkit extends JavaPlugin implements PluginInterface {
     @Override
     public void onEnable() {
 
+        long enableStart = System.currentTimeMillis();
+
         LunaChat.setPlugin(this);
         LunaChat.setMode(LunaChatMode.BUKKIT);
 
@@ -98,6 +119,11 @@ public class LunaChatBukkit extends JavaPlugin implements PluginInterface {
             manager.removeAllDefaultChannels();
         }
 
+        // PlaceholderAPI の導入状況の確認
+        // 後から有効化・無効化された場合は、イベントを受けて更新する
+        placeholders = new PlaceholderService();
+        getServer().getPluginManager().registerEvents(placeholders, this);
+
         // Vault のロード
         Plugin temp = getServer().getPluginManager().getPlugin("Vault");
         if (temp != null) {
@@ -119,6 +145,22 @@ public class LunaChatBukkit extends JavaPlugin implements PluginInterface {
             multiverse = MultiverseCoreBridge.load(temp);
         }
 
+        // LuckPerms で権限やグループが変更されたら、プレイヤーの装飾と権限の確認結果を破棄し、
+        // 全チャンネルの発言を受信するパーミッションを確認し直す
+        if (getServer().getPluginManager().isPluginEnabled("LuckPerms")) {
+            LuckPermsEventBridge.subscribeRecalculate(this, MemberDecorationCache.getInstance()::invalidate);
+            LuckPermsEventBridge.subscribeRecalculate(this, PermissionSnapshot.getInstance()::invalidate);
+            LuckPermsEventBridge.subscribeRecalculate(this, this::updateGlobalListener);
+        }
+
+        // オンラインのプレイヤーの結び付けと、全チャンネルの発言を受信するプレイヤーの確認
+        // （/reload で有効化された場合のため）
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            ChannelMemberPlayer.bind(p);
+        }
+        GlobalListeners.getInstance().setOnlinePlayers(this::getOnlineMembers);
+        GlobalListeners.getInstance().refresh();
+
         // mcMMOのロード
         if (getServer().getPluginManager().isPluginEnabled("mcMMO")) {
             getServer().getPluginManager().registerEvents(new McMMOBridge(), this);
@@ -133,15 +175,26 @@ public class LunaChatBukkit extends JavaPlugin implements PluginInterface {
         replyCommand = new LunaChatReplyCommand();
         lcjapanizeCommand = new LunaChatJapanizeCommand();
 
-        // 期限チェッカータスクの起動
-        expireCheckerTask = Bukkit.getScheduler().runTaskTimerAsynchronously(
-                this, new ExpireCheckTask(), 100, 600);
+        // 期限スケジューラの起動
+        ExpireScheduler.getInstance().start();
 
         // イベント実行クラスの登録
-        LunaChat.setEventSender(new BukkitEventSender());
-
-        // プラグインチャンネル登録
-        getServer().getMessenger().registerOutgoingPluginChannel(this, LunaChat.PMC_MESSAGE);
+        // プラグインの有効化・無効化を受けて、イベントのリスナーの登録状況を確認し直す
+        BukkitEventSender eventSender = new BukkitEventSender();
+        LunaChat.setEventSender(eventSender);
+        getServer().getPluginManager().registerEvents(eventSender, this);
+
+        // プラグインチャンネル登録と、プラグインメッセージをまとめて送信するタスクの起動
+        messageBus = new BukkitPluginMessageBus(this, () -> config.getBungeePassThroughBatchTicks());
+        messageBus.register();
+
+        // 連携チャンネルの発言を、BungeeCordの転送機能でほかのサーバーと共有する
+        BungeeForwardMessageBus forwardBus = new BungeeForwardMessageBus(this);
+        forwardBus.register();
+        federation = new ChannelFederation(forwardBus, config.getChannelFederationRateLimit(),
+                this::deliverFederatedMessage);
+
+        log(Level.INFO, "Enabled in " + (System.currentTimeMillis() - enableStart) + " ms.");
     }
 
     /**
@@ -152,10 +205,24 @@ public class LunaChatBukkit extends JavaPlugin implements PluginInterface {
     @Override
     public void onDisable() {
 
-        // 期限チェッカータスクの停止
-        if (expireCheckerTask != null) {
-            expireCheckerTask.cancel();
+        // 期限スケジューラの停止
+        ExpireScheduler.getInstance().stop();
+
+        // Japanize変換スレッドの停止
+        JapanizeExecutor.shutdown();
+
+        ChannelMemberPlayer.getPlayerHandles().clear();
+        if (messageBus != null) {
+            messageBus.flush();
+        }
+
+        // 書き込み待ちのデータを保存して、ストレージを閉じる
+        if (manager != null) {
+            manager.closeStorage();
         }
+
+        // 遅延書き込み用スレッドの停止（残っている書き込みは、ここで実行する）
+        StoreWriter.shutdown();
     }
 
     /**
@@ -241,8 +308,45 @@ public class LunaChatBukkit extends JavaPlugin implements PluginInterface {
         return config;
     }
 
+    /**
+     * PlaceholderAPIが利用可能かどうかを返す
+     *
+     * @return 利用可能かどうか
+     */
     public boolean enablePlaceholderAPI() {
-        return Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null;
+        return placeholders != null && placeholders.isEnabled();
+    }
+
+    /**
+     * 拡張プレースホルダーの置き換えを行うクラスを返す
+     *
+     * @return PlaceholderService
+     */
+    public PlaceholderService getPlaceholders() {
+        return placeholders;
+    }
+
+    /**
+     * 連携チャンネルの発言を、ほかのサーバーと共有するクラスを返す
+     *
+     * @return ChannelFederation
+     */
+    public ChannelFederation getFederation() {
+        return federation;
+    }
+
+    /**
+     * ほかのサーバーから受信した連携チャンネルの発言を、このサーバーのチャンネルに表示する。
+     * 同じ名前の連携チャンネルが無い場合は、何もしない。
+     *
+     * @param message 受信した発言
+     */
+    private void deliverFederatedMessage(BukkitChatMessage message) {
+        Channel channel = manager.getChannel(message.getChannelName());
+        if (channel instanceof BukkitChannel && channel.isFederated() && !channel.isWorldRange()) {
+            ((BukkitChannel) channel).chatFromFederation(
+                    message.getMember(), message.getMessage(), message.isPreformatted());
+        }
     }
 
     /**
@@ -252,9 +356,8 @@ public class LunaChatBukkit extends JavaPlugin implements PluginInterface {
      * @return 未解決のプレースホルダーを空文字に置換した文字列
      */
     public static String stripUnresolvedPlaceholders(String text) {
-        if (text == null) return null;
         // PlaceholderAPIの未解決プレースホルダー（%xxx%形式）を空文字に置換
-        return text.replaceAll("%[^%]+%", "");
+        return PlaceholderScanner.strip(text);
     }
 
     /**
@@ -350,12 +453,80 @@ public class LunaChatBukkit extends JavaPlugin implements PluginInterface {
         Bukkit.getScheduler().runTaskAsynchronously(this, task);
     }
 
+    /**
+     * チャット処理の統計情報を取得する
+     *
+     * @return 統計情報の行のリスト
+     * @see com.github.ucchyocean.lc3.PluginInterface#getStatistics()
+     */
+    @Override
+    public List<String> getStatistics() {
+        List<String> lines = new ArrayList<String>();
+        lines.add(ChatPipeline.getMetrics().toString());
+        JapanizeMetrics japanize = JapanizeExecutor.getRunningMetrics();
+        if (japanize != null) {
+            lines.add(japanize.toString());
+        }
+        lines.add(MemberDecorationCache.getInstance().toString());
+        lines.add(PermissionSnapshot.getInstance().toString());
+        lines.add(ChannelMemberPlayer.getPlayerHandles().toString());
+        if (messageBus != null && messageBus.getBatcher().getBatchCount() > 0) {
+            lines.add(messageBus.getBatcher().toString());
+        }
+        if (federation != null
+                && federation.getPublishedCount() + federation.getReceivedCount() > 0) {
+            lines.add(federation.toString());
+        }
+        if (placeholders != null) {
+            lines.add(placeholders.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * オンラインのプレイヤーを返す
+     *
+     * @return オンラインのプレイヤー
+     */
+    private List<ChannelMember> getOnlineMembers() {
+        List<ChannelMember> online = new ArrayList<ChannelMember>();
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            online.add(ChannelMember.getChannelMember(p));
+        }
+        return online;
+    }
+
+    /**
+     * 権限が再計算されたプレイヤーについて、全チャンネルの発言を受信するパーミッションを確認し直す
+     *
+     * @param id プレイヤーのUUID
+     */
+    private void updateGlobalListener(UUID id) {
+        Player player = Bukkit.getPlayer(id);
+        if (player != null) {
+            GlobalListeners.getInstance().update(ChannelMember.getChannelMember(player));
+        } else {
+            GlobalListeners.getInstance().remove(id);
+        }
+    }
+
     /**
      * プラグインメッセージを送信する
      *
      * @param bytes 送信内容
      */
     public void sendPluginMessage(byte[] bytes) {
-        getServer().sendPluginMessage(this, LunaChat.PMC_MESSAGE, bytes);
+        if (messageBus != null) {
+            messageBus.publish(LunaChat.PMC_MESSAGE, bytes);
+        }
+    }
+
+    /**
+     * BungeeCordとデータを送受信するMessageBusを返す
+     *
+     * @return MessageBus
+     */
+    public BukkitPluginMessageBus getMessageBus() {
+        return messageBus;
     }
 }
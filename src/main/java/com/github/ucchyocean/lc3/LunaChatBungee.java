@@ -7,19 +7,34 @@ package com.github.ucchyocean.lc3;
 
 import com.github.ucchyocean.lc3.bridge.BungeePermsBridge;
 import com.github.ucchyocean.lc3.bridge.LuckPermsBridge;
+import com.github.ucchyocean.lc3.bridge.LuckPermsEventBridge;
 import com.github.ucchyocean.lc3.bungee.*;
 import com.github.ucchyocean.lc3.channel.ChannelManager;
+import com.github.ucchyocean.lc3.channel.ExpireScheduler;
+import com.github.ucchyocean.lc3.channel.JapanizeExecutor;
+import com.github.ucchyocean.lc3.channel.JapanizeMetrics;
+import com.github.ucchyocean.lc3.member.ChannelMember;
+import com.github.ucchyocean.lc3.member.GlobalListeners;
+import com.github.ucchyocean.lc3.member.PermissionSnapshot;
+import com.github.ucchyocean.lc3.pipeline.ChatPipeline;
+import com.github.ucchyocean.lc3.storage.StoreWriter;
+import com.github.ucchyocean.lc3.util.StripedExecutor;
 import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.api.plugin.Plugin;
 import org.bstats.bungeecord.Metrics;
+import org.bstats.charts.AdvancedPie;
 import org.bstats.charts.DrilldownPie;
+import org.bstats.charts.SingleLineChart;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.logging.Level;
 
@@ -41,6 +56,9 @@ public class LunaChatBungee extends Plugin implements PluginInterface {
     private BungeePermsBridge bungeeperms;
     private LuckPermsBridge luckperms;
 
+    private StripedExecutor chatExecutor;
+    private BungeeMessageBus messageBus;
+
     /**
      * プラグインが有効化されたときに呼び出されるメソッド
      *
@@ -49,6 +67,8 @@ public class LunaChatBungee extends Plugin implements PluginInterface {
     @Override
     public void onEnable() {
 
+        long enableStart = System.currentTimeMillis();
+
         LunaChat.setPlugin(this);
         LunaChat.setMode(LunaChatMode.BUNGEE);
 
@@ -66,6 +86,21 @@ public class LunaChatBungee extends Plugin implements PluginInterface {
             }
         }));
 
+        // チャット処理スレッドの、処理時間のヒストグラムと、
+        // 前回の送信からの、待ち行列の長さの最大値と、破棄した発言の数
+        metrics.addCustomChart(new AdvancedPie("chat_latency", () -> {
+            if (chatExecutor == null) return null;
+            Map<String, Integer> map = new HashMap<String, Integer>();
+            for (Map.Entry<String, Long> entry : chatExecutor.getLabeledHistogram().entrySet()) {
+                map.put(entry.getKey(), (int) Math.min(Integer.MAX_VALUE, entry.getValue()));
+            }
+            return map;
+        }));
+        metrics.addCustomChart(new SingleLineChart("chat_max_queue_depth",
+                () -> (chatExecutor == null) ? 0 : (int) chatExecutor.takeIntervalMaxQueueDepth()));
+        metrics.addCustomChart(new SingleLineChart("chat_rejected",
+                () -> (chatExecutor == null) ? 0 : (int) chatExecutor.takeIntervalRejectedCount()));
+
         // 初期化
         config = new LunaChatConfig(getDataFolder(), getFile());
         uuidCacheData = new UUIDCacheData(getDataFolder());
@@ -90,8 +125,17 @@ public class LunaChatBungee extends Plugin implements PluginInterface {
         temp = getProxy().getPluginManager().getPlugin("LuckPerms");
         if (temp != null) {
             luckperms = LuckPermsBridge.load(temp);
+
+            // 権限やグループが変更されたら、権限の確認結果を破棄し、
+            // 全チャンネルの発言を受信するパーミッションを確認し直す
+            LuckPermsEventBridge.subscribeRecalculate(this, PermissionSnapshot.getInstance()::invalidate);
+            LuckPermsEventBridge.subscribeRecalculate(this, this::updateGlobalListener);
         }
 
+        // 全チャンネルの発言を受信するプレイヤーの確認
+        GlobalListeners.getInstance().setOnlinePlayers(this::getOnlineMembers);
+        GlobalListeners.getInstance().refresh();
+
         // コマンド登録
         getProxy().getPluginManager().registerCommand(this,
                 new LunaChatCommandBungee("lunachat", "", "lc", "ch"));
@@ -102,14 +146,99 @@ public class LunaChatBungee extends Plugin implements PluginInterface {
         getProxy().getPluginManager().registerCommand(this,
                 new JapanizeCommandBungee("japanize", "", "jp"));
 
+        // チャット処理スレッドの起動
+        // スレッド数などの設定は、起動時にだけ読み込まれる
+        chatExecutor = new StripedExecutor("LunaChat-Chat",
+                config.getBungeeChatThreads(), config.getBungeeChatQueueSize());
+
+        // プラグインメッセージの送受信
+        // プラグインチャンネルは、リスナーが購読するときに登録される
+        messageBus = new BungeeMessageBus(getProxy());
+        getProxy().getPluginManager().registerListener(this, messageBus);
+
         // リスナー登録
         getProxy().getPluginManager().registerListener(this, new BungeeEventListener(this));
 
         // イベント実行クラスの登録
         LunaChat.setEventSender(new BungeeEventSender());
 
-        // プラグインチャンネル登録
-        getProxy().registerChannel(LunaChat.PMC_MESSAGE);
+        // 期限スケジューラの起動
+        ExpireScheduler.getInstance().start();
+
+        log(Level.INFO, "Enabled in " + (System.currentTimeMillis() - enableStart) + " ms.");
+    }
+
+    /**
+     * プラグインが無効化されたときに呼び出されるメソッド
+     *
+     * @see net.md_5.bungee.api.plugin.Plugin#onDisable()
+     */
+    @Override
+    public void onDisable() {
+
+        // 期限スケジューラの停止
+        ExpireScheduler.getInstance().stop();
+
+        // Japanize変換スレッドの停止
+        JapanizeExecutor.shutdown();
+
+        // チャット処理スレッドの停止
+        if (chatExecutor != null) {
+            chatExecutor.shutdown();
+        }
+
+        // 書き込み待ちのデータを保存して、ストレージを閉じる
+        if (manager != null) {
+            manager.closeStorage();
+        }
+
+        // 遅延書き込み用スレッドの停止（残っている書き込みは、ここで実行する）
+        StoreWriter.shutdown();
+    }
+
+    /**
+     * チャットを処理するエグゼキュータを返す
+     *
+     * @return エグゼキュータ
+     */
+    public StripedExecutor getChatExecutor() {
+        return chatExecutor;
+    }
+
+    /**
+     * オンラインのプレイヤーを返す
+     *
+     * @return オンラインのプレイヤー
+     */
+    private List<ChannelMember> getOnlineMembers() {
+        List<ChannelMember> online = new ArrayList<ChannelMember>();
+        for (ProxiedPlayer p : getProxy().getPlayers()) {
+            online.add(ChannelMember.getChannelMember(p));
+        }
+        return online;
+    }
+
+    /**
+     * 権限が再計算されたプレイヤーについて、全チャンネルの発言を受信するパーミッションを確認し直す
+     *
+     * @param id プレイヤーのUUID
+     */
+    private void updateGlobalListener(UUID id) {
+        ProxiedPlayer player = getProxy().getPlayer(id);
+        if (player != null) {
+            GlobalListeners.getInstance().update(ChannelMember.getChannelMember(player));
+        } else {
+            GlobalListeners.getInstance().remove(id);
+        }
+    }
+
+    /**
+     * Bukkitサーバーとデータを送受信するMessageBusを返す
+     *
+     * @return MessageBus
+     */
+    public BungeeMessageBus getMessageBus() {
+        return messageBus;
     }
 
     /**
@@ -243,6 +372,27 @@ public class LunaChatBungee extends Plugin implements PluginInterface {
         ProxyServer.getInstance().getScheduler().runAsync(this, task);
     }
 
+    /**
+     * チャット処理の統計情報を取得する
+     *
+     * @return 統計情報の行のリスト
+     * @see com.github.ucchyocean.lc3.PluginInterface#getStatistics()
+     */
+    @Override
+    public List<String> getStatistics() {
+        List<String> lines = new ArrayList<String>();
+        lines.add(ChatPipeline.getMetrics().toString());
+        JapanizeMetrics japanize = JapanizeExecutor.getRunningMetrics();
+        if (japanize != null) {
+            lines.add(japanize.toString());
+        }
+        lines.add(PermissionSnapshot.getInstance().toString());
+        if (chatExecutor != null) {
+            lines.add(chatExecutor.toString());
+        }
+        return lines;
+    }
+
     /**
      * BungeePerms連携クラスを取得する
      *
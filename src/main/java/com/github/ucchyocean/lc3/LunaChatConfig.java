@@ -5,7 +5,14 @@
  */
 package com.github.ucchyocean.lc3;
 
+import com.github.ucchyocean.lc3.channel.JapanizeExecutor;
+import com.github.ucchyocean.lc3.japanize.JapanizeOverflowAction;
 import com.github.ucchyocean.lc3.japanize.JapanizeType;
+import com.github.ucchyocean.lc3.member.GlobalListeners;
+import com.github.ucchyocean.lc3.member.MemberDecorationCache;
+import com.github.ucchyocean.lc3.member.PermissionSnapshot;
+import com.github.ucchyocean.lc3.pipeline.ChatPipeline;
+import com.github.ucchyocean.lc3.storage.StorageType;
 import com.github.ucchyocean.lc3.util.EventPriority;
 import com.github.ucchyocean.lc3.util.Utility;
 import com.github.ucchyocean.lc3.util.YamlConfig;
@@ -231,6 +238,46 @@ public class LunaChatConfig {
      */
     private int japanizeWait;
 
+    /**
+     * Japanize変換を行うワーカースレッドの数。隠し設定。
+     */
+    private int japanizeThreads;
+
+    /**
+     * Japanize変換の待ち行列の長さ。隠し設定。
+     */
+    private int japanizeQueueSize;
+
+    /**
+     * プレイヤーごとの、同時に変換中にできるJapanize変換の数。隠し設定。
+     */
+    private int japanizePlayerLimit;
+
+    /**
+     * Japanize変換の待ち行列があふれたとき、または、プレイヤーごとの上限を超えたときの動作。隠し設定。
+     */
+    private JapanizeOverflowAction japanizeOverflowAction;
+
+    /**
+     * Japanize2行表示で、先の発言の変換結果を待つ最大の時間（ミリ秒）。隠し設定。
+     */
+    private int japanizeReorderTimeout;
+
+    /**
+     * プレイヤーの表示名、プレフィックス、サフィックスを再利用する時間（ミリ秒）。0で無効。隠し設定。
+     */
+    private int memberDecorationCacheTtl;
+
+    /**
+     * 発言の処理で確認したパーミッションの結果を再利用する時間（ミリ秒）。0で無効。隠し設定。
+     */
+    private int permissionCacheTtl;
+
+    /**
+     * 全てのチャンネルの発言を受信するプレイヤーを、確認し直す間隔（ミリ秒）。0で無効。隠し設定。
+     */
+    private int globalListenersRefreshInterval;
+
     // === 以下、BungeeCord用設定 ===
 
     /**
@@ -238,6 +285,33 @@ public class LunaChatConfig {
      */
     private boolean bungeePassThroughMode;
 
+    /**
+     * Bungeeパススルーモードで、チャットのプラグインメッセージをまとめて送信するまでの最大tick数。0で無効。隠し設定。
+     */
+    private int bungeePassThroughBatchTicks;
+
+    /**
+     * BungeeCordでチャットを処理するスレッドの数。隠し設定。
+     */
+    private int bungeeChatThreads;
+
+    /**
+     * BungeeCordでチャットを処理するスレッドごとの、待ち行列の長さ。隠し設定。
+     */
+    private int bungeeChatQueueSize;
+
+    /**
+     * 連携チャンネルの発言を、ほかのサーバーへ送信する1秒あたりの上限。0で無制限。隠し設定。
+     */
+    private int channelFederationRateLimit;
+
+    // === 以下、データ保存設定 ===
+
+    /**
+     * チャンネルやプレイヤーごとの設定の保存先
+     */
+    private StorageType storageType;
+
     /**
      * コンストラクタ
      *
@@ -351,8 +425,39 @@ public class LunaChatConfig {
         noneJapanizeMarker = config.getString("noneJapanizeMarker", "$");
         japanizePlayerDefault = config.getBoolean("japanizePlayerDefault", true);
         japanizeWait = config.getInt("japanizeWait", 1);
+        japanizeThreads = Math.max(1, config.getInt("japanizeThreads", 2));
+        japanizeQueueSize = Math.max(1, config.getInt("japanizeQueueSize", 64));
+        japanizePlayerLimit = Math.max(1, config.getInt("japanizePlayerLimit", 2));
+        japanizeOverflowAction = JapanizeOverflowAction.fromID(
+                config.getString("japanizeOverflowAction"), JapanizeOverflowAction.KANA);
+        japanizeReorderTimeout = Math.max(0, config.getInt("japanizeReorderTimeout", 2000));
+        memberDecorationCacheTtl = Math.max(0, config.getInt("memberDecorationCacheTtl", 1000));
+        permissionCacheTtl = Math.max(0, config.getInt("permissionCacheTtl", 5000));
+        globalListenersRefreshInterval = Math.max(0, config.getInt("globalListenersRefreshInterval", 10000));
 
         bungeePassThroughMode = config.getBoolean("bungeePassThroughMode", false);
+        bungeePassThroughBatchTicks = Math.max(0, config.getInt("bungeePassThroughBatchTicks", 0));
+        bungeeChatThreads = Math.max(1, config.getInt("bungeeChatThreads", 2));
+        bungeeChatQueueSize = Math.max(1, config.getInt("bungeeChatQueueSize", 128));
+        channelFederationRateLimit = Math.max(0, config.getInt("channelFederationRateLimit", 20));
+
+        // 設定を元に、チャット処理パイプラインを作り直す
+        ChatPipeline.rebuild(this);
+
+        // プレイヤーの装飾のキャッシュを破棄して、有効期限を設定し直す
+        MemberDecorationCache.getInstance().setTtl(memberDecorationCacheTtl);
+
+        // 権限の確認結果を破棄して、有効期限を設定し直す
+        PermissionSnapshot.getInstance().setTtl(permissionCacheTtl);
+
+        // Japanize変換のスレッド数などを反映する
+        JapanizeExecutor.reload(this);
+
+        // 全てのチャンネルの発言を受信するプレイヤーを、確認し直す
+        GlobalListeners.getInstance().setRefreshInterval(globalListenersRefreshInterval);
+        GlobalListeners.getInstance().refresh();
+
+        storageType = StorageType.fromID(config.getString("storageType"), StorageType.YAML);
 
         // globalチャンネルが、使用可能なチャンネル名かどうかを調べる
         if (globalChannel != null && !globalChannel.equals("") &&
@@ -701,6 +806,78 @@ public class LunaChatConfig {
         return japanizeWait;
     }
 
+    /**
+     * Japanize変換を行うワーカースレッドの数
+     *
+     * @return japanizeThreadsを返す
+     */
+    public int getJapanizeThreads() {
+        return japanizeThreads;
+    }
+
+    /**
+     * Japanize変換の待ち行列の長さ
+     *
+     * @return japanizeQueueSizeを返す
+     */
+    public int getJapanizeQueueSize() {
+        return japanizeQueueSize;
+    }
+
+    /**
+     * プレイヤーごとの、同時に変換中にできるJapanize変換の数
+     *
+     * @return japanizePlayerLimitを返す
+     */
+    public int getJapanizePlayerLimit() {
+        return japanizePlayerLimit;
+    }
+
+    /**
+     * Japanize変換の待ち行列があふれたとき、または、プレイヤーごとの上限を超えたときの動作
+     *
+     * @return japanizeOverflowActionを返す
+     */
+    public JapanizeOverflowAction getJapanizeOverflowAction() {
+        return japanizeOverflowAction;
+    }
+
+    /**
+     * Japanize2行表示で、先の発言の変換結果を待つ最大の時間（ミリ秒）
+     *
+     * @return japanizeReorderTimeoutを返す
+     */
+    public int getJapanizeReorderTimeout() {
+        return japanizeReorderTimeout;
+    }
+
+    /**
+     * プレイヤーの表示名、プレフィックス、サフィックスを再利用する時間（ミリ秒）
+     *
+     * @return memberDecorationCacheTtlを返す
+     */
+    public int getMemberDecorationCacheTtl() {
+        return memberDecorationCacheTtl;
+    }
+
+    /**
+     * 発言の処理で確認したパーミッションの結果を再利用する時間（ミリ秒）
+     *
+     * @return permissionCacheTtlを返す
+     */
+    public int getPermissionCacheTtl() {
+        return permissionCacheTtl;
+    }
+
+    /**
+     * 全てのチャンネルの発言を受信するプレイヤーを、確認し直す間隔（ミリ秒）
+     *
+     * @return globalListenersRefreshIntervalを返す
+     */
+    public int getGlobalListenersRefreshInterval() {
+        return globalListenersRefreshInterval;
+    }
+
     /**
      * 通常チャットで、カラーコードを使用可能にするかどうか
      *
@@ -737,6 +914,51 @@ public class LunaChatConfig {
         return bungeePassThroughMode;
     }
 
+    /**
+     * Bungeeパススルーモードで、チャットのプラグインメッセージをまとめて送信するまでの最大tick数を返す
+     *
+     * @return bungeePassThroughBatchTicks、0の場合はまとめずに送信する
+     */
+    public int getBungeePassThroughBatchTicks() {
+        return bungeePassThroughBatchTicks;
+    }
+
+    /**
+     * BungeeCordでチャットを処理するスレッドの数
+     *
+     * @return bungeeChatThreadsを返す
+     */
+    public int getBungeeChatThreads() {
+        return bungeeChatThreads;
+    }
+
+    /**
+     * BungeeCordでチャットを処理するスレッドごとの、待ち行列の長さ
+     *
+     * @return bungeeChatQueueSizeを返す
+     */
+    public int getBungeeChatQueueSize() {
+        return bungeeChatQueueSize;
+    }
+
+    /**
+     * 連携チャンネルの発言を、ほかのサーバーへ送信する1秒あたりの上限
+     *
+     * @return channelFederationRateLimitを返す
+     */
+    public int getChannelFederationRateLimit() {
+        return channelFederationRateLimit;
+    }
+
+    /**
+     * チャンネルやプレイヤーごとの設定の保存先を返す
+     *
+     * @return storageType
+     */
+    public StorageType getStorageType() {
+        return storageType;
+    }
+
     /**
      * 指定された文字列から、対応するEventPriorityを返す。
      *
@@ -6,9 +6,12 @@
 package com.github.ucchyocean.lc3;
 
 import com.github.ucchyocean.lc3.channel.ChannelManager;
+import com.github.ucchyocean.lc3.pipeline.ChatPipeline;
 
 import java.io.File;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
 
@@ -111,4 +114,17 @@ public class LunaChatStandalone implements PluginInterface {
     public void runAsyncTask(Runnable task) {
         new Thread(task).start();
     }
+
+    /**
+     * チャット処理の統計情報を取得する
+     *
+     * @return 統計情報の行のリスト
+     * @see com.github.ucchyocean.lc3.PluginInterface#getStatistics()
+     */
+    @Override
+    public List<String> getStatistics() {
+        List<String> lines = new ArrayList<String>();
+        lines.add(ChatPipeline.getMetrics().toString());
+        return lines;
+    }
 }
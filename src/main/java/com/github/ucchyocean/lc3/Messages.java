@@ -6,13 +6,16 @@
 package com.github.ucchyocean.lc3;
 
 import com.github.ucchyocean.lc3.util.ClickableFormat;
-import com.github.ucchyocean.lc3.util.KeywordReplacer;
+import com.github.ucchyocean.lc3.util.MessageTemplate;
 import com.github.ucchyocean.lc3.util.Utility;
 import com.github.ucchyocean.lc3.util.YamlConfig;
 import net.md_5.bungee.api.chat.BaseComponent;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
@@ -24,6 +27,7 @@ import java.util.zip.ZipEntry;
 public class Messages {
 
     private static YamlConfig resources;
+    private static volatile Map<String, MessageTemplate> templates = new HashMap<String, MessageTemplate>();
     private static File _messageFolder;
     private static File _jar;
 
@@ -77,6 +81,9 @@ public class Messages {
 
         resources = YamlConfig.load(file);
         resources.addDefaults(defaultMessages);
+
+        // メッセージテンプレートを作成しておく
+        templates = compileTemplates(resources);
     }
 
     /**
@@ -88,2070 +95,1625 @@ public class Messages {
         initialize(_jar, _messageFolder, lang);
     }
 
+    /**
+     * 指定したキーのメッセージが、空でないかどうかを返す。
+     * メッセージを作成せずに判定できるため、表示するかどうかの確認に使用する。
+     *
+     * @param key メッセージのキー
+     * @return 空でないかどうか
+     */
+    public static boolean hasMessage(String key) {
+        return !getTemplate(key).isEmpty();
+    }
+
+    /**
+     * 指定したキーのメッセージテンプレートを返す
+     *
+     * @param key メッセージのキー
+     * @return メッセージテンプレート、無い場合は MessageTemplate.MISSING
+     */
+    private static MessageTemplate getTemplate(String key) {
+        MessageTemplate template = templates.get(key);
+        return (template != null) ? template : MessageTemplate.MISSING;
+    }
+
+    /**
+     * 全てのメッセージのテンプレートを作成する
+     *
+     * @param resources メッセージリソース
+     * @return キーとテンプレートのマップ
+     */
+    private static Map<String, MessageTemplate> compileTemplates(YamlConfig resources) {
+        Map<String, MessageTemplate> result = new HashMap<String, MessageTemplate>();
+        for (String[] entry : TEMPLATE_KEYWORDS) {
+            String prefix = entry[1].isEmpty() ? null : resources.getString(entry[1], "");
+            result.put(entry[0], MessageTemplate.compile(prefix, resources.getString(entry[0]),
+                    Arrays.copyOfRange(entry, 2, entry.length)));
+        }
+        return result;
+    }
+
     // ここから下は自動生成メソッドです。変更をしないでください。
 
     // === Auto-generated methods area start. ===
+    /**
+     * メッセージテンプレートの一覧（キー、前に付けるメッセージのキー、キーワード）
+     */
+    private static final String[][] TEMPLATE_KEYWORDS = {
+            {"joinMessage", "", "color", "channel", "player"},
+            {"quitMessage", "", "color", "channel", "player"},
+            {"breakupMessage", "", "color", "channel"},
+            {"banMessage", "", "color", "channel", "player"},
+            {"kickMessage", "", "color", "channel", "player"},
+            {"muteMessage", "", "color", "channel", "player"},
+            {"banNGWordMessage", "", "color", "channel", "player"},
+            {"kickNGWordMessage", "", "color", "channel", "player"},
+            {"muteNGWordMessage", "", "color", "channel", "player"},
+            {"banWithExpireMessage", "", "color", "channel", "player", "minutes"},
+            {"muteWithExpireMessage", "", "color", "channel", "player", "minutes"},
+            {"pardonMessage", "", "color", "channel", "player"},
+            {"unmuteMessage", "", "color", "channel", "player"},
+            {"expiredBanMessage", "", "color", "channel", "player"},
+            {"expiredMuteMessage", "", "color", "channel", "player"},
+            {"addModeratorMessage", "", "color", "channel", "player"},
+            {"removeModeratorMessage", "", "color", "channel", "player"},
+            {"noRecipientMessage", "", "color", "channel"},
+            {"listFirstLine", ""},
+            {"listFirstLinePaging", "", "page", "max"},
+            {"listEndLine", ""},
+            {"listFormat", "", "channel", "online", "total", "topic"},
+            {"listPlainPrefix", ""},
+            {"channelInfoFirstLine", ""},
+            {"channelInfoPrefix", ""},
+            {"channelInfoAlias", ""},
+            {"channelInfoGlobal", ""},
+            {"channelInfoBroadcast", ""},
+            {"channelInfoSecret", ""},
+            {"channelInfoPassword", ""},
+            {"channelInfoWorldChat", ""},
+            {"channelInfoRangeChat", "", "block"},
+            {"channelInfoFormat", ""},
+            {"channelInfoBanned", ""},
+            {"channelInfoMuted", ""},
+            {"motdFirstLine", ""},
+            {"hideChannelFirstLine", ""},
+            {"hidePlayerFirstLine", ""},
+            {"logDisplayFirstLine", "", "channel"},
+            {"logDisplayEndLine", ""},
+            {"logDisplayFormat", "", "date", "player", "message"},
+            {"infoPrefix", ""},
+            {"errorPrefix", ""},
+            {"cmdmsgJoin", "infoPrefix", "channel"},
+            {"cmdmsgSet", "infoPrefix", "channel"},
+            {"cmdmsgSetTopic", "infoPrefix", "topic"},
+            {"cmdmsgSetHide", "infoPrefix"},
+            {"cmdmsgLeave", "infoPrefix", "channel"},
+            {"cmdmsgInvite", "infoPrefix", "player", "channel"},
+            {"cmdmsgInvited1", "infoPrefix", "player", "channel"},
+            {"cmdmsgInvited2", "infoPrefix"},
+            {"cmdmsgDeny", "infoPrefix"},
+            {"cmdmsgDenyed", "infoPrefix"},
+            {"cmdmsgKick", "infoPrefix", "player", "channel"},
+            {"cmdmsgKicked", "infoPrefix", "channel"},
+            {"cmdmsgBan", "infoPrefix", "player", "channel"},
+            {"cmdmsgBanWithExpire", "infoPrefix", "player", "channel", "minutes"},
+            {"cmdmsgBanned", "infoPrefix", "channel"},
+            {"cmdmsgPardon", "infoPrefix", "player", "channel"},
+            {"cmdmsgPardoned", "infoPrefix", "channel"},
+            {"cmdmsgMute", "infoPrefix", "player", "channel"},
+            {"cmdmsgMuteWithExpire", "infoPrefix", "player", "channel", "minutes"},
+            {"cmdmsgMuted", "infoPrefix", "channel"},
+            {"cmdmsgUnmute", "infoPrefix", "player", "channel"},
+            {"cmdmsgUnmuted", "infoPrefix", "channel"},
+            {"cmdmsgHided", "infoPrefix", "channel"},
+            {"cmdmsgHidedPlayer", "infoPrefix", "player"},
+            {"cmdmsgUnhided", "infoPrefix", "channel"},
+            {"cmdmsgUnhidedPlayer", "infoPrefix", "channel"},
+            {"cmdmsgReload", "infoPrefix"},
+            {"cmdmsgStats", "infoPrefix"},
+            {"cmdmsgCreate", "infoPrefix", "channel"},
+            {"cmdmsgRemove", "infoPrefix", "channel"},
+            {"cmdmsgFormat", "infoPrefix", "format"},
+            {"cmdmsgModerator", "infoPrefix", "player", "channel"},
+            {"cmdmsgModeratorMinus", "infoPrefix", "player", "channel"},
+            {"cmdmsgDictionaryAdd", "infoPrefix", "key", "value"},
+            {"cmdmsgDictionaryRemove", "infoPrefix", "key"},
+            {"cmdmsgOption", "infoPrefix", "key", "value"},
+            {"cmdmsgTemplate", "infoPrefix", "index", "value"},
+            {"cmdmsgTemplateRemove", "infoPrefix", "index"},
+            {"cmdmsgSetDefault", "infoPrefix", "player", "channel"},
+            {"cmdmsgPlayerJapanize", "infoPrefix", "value"},
+            {"cmdmsgPlayerJapanizeOther", "infoPrefix", "player", "value"},
+            {"cmdmsgReplyInviter", "infoPrefix", "inviter", "invited"},
+            {"cmdmsgReplyInviterNone", "infoPrefix", "inviter"},
+            {"errmsgIngame", "errorPrefix"},
+            {"errmsgCommand", "errorPrefix"},
+            {"errmsgNotExist", "errorPrefix"},
+            {"errmsgNotExistChannelAndPlayer", "errorPrefix"},
+            {"errmsgNotExistOrNotSpecified", "errorPrefix"},
+            {"errmsgExist", "errorPrefix"},
+            {"errmsgNomember", "errorPrefix"},
+            {"errmsgNomemberOther", "errorPrefix"},
+            {"errmsgNotfoundPlayer", "errorPrefix", "player"},
+            {"errmsgNotInvited", "errorPrefix"},
+            {"errmsgNotfoundChannel", "errorPrefix"},
+            {"errmsgInvitedAlreadyExist", "errorPrefix", "player"},
+            {"errmsgInvitedAlreadyJoin", "errorPrefix"},
+            {"errmsgNoJoin", "errorPrefix"},
+            {"errmsgBanned", "errorPrefix"},
+            {"errmsgMuted", "errorPrefix"},
+            {"errmsgChatBusy", "errorPrefix"},
+            {"errmsgAlreadyBanned", "errorPrefix"},
+            {"errmsgAlreadyMuted", "errorPrefix"},
+            {"errmsgAlreadyHided", "errorPrefix"},
+            {"errmsgAlreadyHidedPlayer", "errorPrefix"},
+            {"errmsgAlreadyUnhided", "errorPrefix"},
+            {"errmsgAlreadyUnhidedPlayer", "errorPrefix"},
+            {"errmsgCannotJoinPersonal", "errorPrefix"},
+            {"errmsgNotModerator", "errorPrefix"},
+            {"errmsgNotBanned", "errorPrefix"},
+            {"errmsgNotMuted", "errorPrefix"},
+            {"errmsgInvalidOptions", "errorPrefix"},
+            {"errmsgPassword1", "errorPrefix"},
+            {"errmsgPassword2", "errorPrefix"},
+            {"errmsgPassword3", "errorPrefix"},
+            {"errmsgPasswordNotmatch", "errorPrefix"},
+            {"errmsgPermission", "errorPrefix", "permission"},
+            {"errmsgCannotLeaveGlobal", "errorPrefix", "channel"},
+            {"errmsgCannotKickGlobal", "errorPrefix", "channel"},
+            {"errmsgCannotBANGlobal", "errorPrefix", "channel"},
+            {"errmsgCannotRemoveGlobal", "errorPrefix", "channel"},
+            {"errmsgCannotModeratorGlobal", "errorPrefix", "channel"},
+            {"errmsgCannotLeaveForceJoin", "errorPrefix", "channel"},
+            {"errmsgNotfoundPM", "errorPrefix"},
+            {"errmsgCannotSendPMSelf", "errorPrefix"},
+            {"errmsgCannotUseForChannel", "errorPrefix", "channel"},
+            {"errmsgCannotUseForChannelTooShort", "errorPrefix", "channel", "min"},
+            {"errmsgCannotUseForChannelTooLong", "errorPrefix", "channel", "max"},
+            {"errmsgCannotUseForGlobal", "errorPrefix", "word"},
+            {"errmsgInvalidColorCode", "errorPrefix", "value"},
+            {"errmsgInvalidTemplateNumber", "errorPrefix"},
+            {"errmsgToolongDescription", "errorPrefix", "max"},
+            {"errmsgToolongAlias", "errorPrefix", "max"},
+            {"errmsgToolongPassword", "errorPrefix", "max"},
+            {"errmsgInvalidBooleanOption", "errorPrefix", "key"},
+            {"errmsgInvalidRangeOption", "errorPrefix"},
+            {"errmsgInvalidJapanizeOption", "errorPrefix", "key", "value"},
+            {"errmsgCannotOffGlobalBroadcast", "errorPrefix"},
+            {"errmsgFormatConstraint", "errorPrefix", "key"},
+            {"errmsgInvalidBanExpireParameter", "errorPrefix"},
+            {"errmsgInvalidMuteExpireParameter", "errorPrefix"},
+            {"errmsgCannotHideSelf", "errorPrefix"},
+            {"errmsgDuplicatedAlias", "errorPrefix", "aliase", "channel"},
+            {"errmsgNotPermission", "errorPrefix", "permission"},
+            {"errmsgChannelChatDisabled", "errorPrefix"},
+            {"usageJoin", "", "label"},
+            {"usageLeave", "", "label"},
+            {"usageList", "", "label"},
+            {"usageInvite", "", "label"},
+            {"usageAccept", "", "label"},
+            {"usageDeny", "", "label"},
+            {"usageKick", "", "label"},
+            {"usageBan", "", "label"},
+            {"usageBan2", "", "label"},
+            {"usagePardon", "", "label"},
+            {"usageMute", "", "label"},
+            {"usageMute2", "", "label"},
+            {"usageUnmute", "", "label"},
+            {"usageHide", "", "label"},
+            {"usageHidePlayer", "", "label"},
+            {"usageUnhide", "", "label"},
+            {"usageUnhidePlayer", "", "label"},
+            {"usageInfo", "", "label"},
+            {"usageLog", "", "label"},
+            {"usageCreate", "", "label"},
+            {"usageRemove", "", "label"},
+            {"usageFormat", "", "label"},
+            {"usageModerator", "", "label"},
+            {"usageMod", "", "label"},
+            {"usageDictionary", "", "label"},
+            {"usageDic", "", "label"},
+            {"usageOption", "", "label"},
+            {"usageTemplate", "", "label"},
+            {"usageCheck1", "", "label"},
+            {"usageCheck2", "", "label"},
+            {"usageReload", "", "label"},
+            {"usageStats", "", "label"},
+            {"usageHelp", "", "label"},
+            {"usageSet1", "", "label"},
+            {"usageMessage", "", "label"},
+            {"usageReply", "", "label"},
+            {"usageJapanize", "", "label"},
+            {"usageJapanizeOther", "", "label"},
+            {"usageTop", "", "type", "num", "max"},
+            {"usageFoot", ""},
+            {"usageNoticeNextPage", "", "label", "type", "next"},
+            {"hoverChannelName", "", "channel"},
+            {"hoverPlayerName", "", "player"},
+    };
 
     /**
      * &f[%color%%channel%&f]&7%player% さんがチャンネルに参加しました。
      */
     public static BaseComponent[] joinMessage(Object color, Object channel, Object player) {
-        String msg = resources.getString("joinMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%player%", player.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("joinMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString()), player));
     }
 
     /**
      * &f[%color%%channel%&f]&7%player% さんがチャンネルから退出しました。
      */
     public static BaseComponent[] quitMessage(Object color, Object channel, Object player) {
-        String msg = resources.getString("quitMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%player%", player.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("quitMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString()), player));
     }
 
     /**
      * &f[%color%%channel%&f]&7チャンネルが削除されました。
      */
     public static String breakupMessage(Object color, Object channel) {
-        String msg = resources.getString("breakupMessage");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%color%", color.toString());
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("breakupMessage").format(color, channel);
     }
 
     /**
      * &f[%color%%channel%&f]&7%player% さんをチャンネルからBANしました。
      */
     public static BaseComponent[] banMessage(Object color, Object channel, Object player) {
-        String msg = resources.getString("banMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%player%", player.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("banMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString()), player));
     }
 
     /**
      * &f[%color%%channel%&f]&7%player% さんをチャンネルからキックしました。
      */
     public static BaseComponent[] kickMessage(Object color, Object channel, Object player) {
-        String msg = resources.getString("kickMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%player%", player.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("kickMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString()), player));
     }
 
     /**
      * &f[%color%%channel%&f]&7%player% さんをチャンネルからMuteしました。
      */
     public static BaseComponent[] muteMessage(Object color, Object channel, Object player) {
-        String msg = resources.getString("muteMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%player%", player.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("muteMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString()), player));
     }
 
     /**
      * &f[%color%%channel%&f]&7NGワード発言により、%player% さんをチャンネルから自動BANしました。
      */
     public static BaseComponent[] banNGWordMessage(Object color, Object channel, Object player) {
-        String msg = resources.getString("banNGWordMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%player%", player.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("banNGWordMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString()), player));
     }
 
     /**
      * &f[%color%%channel%&f]&7NGワード発言により、%player% さんをチャンネルから自動キックしました。
      */
     public static BaseComponent[] kickNGWordMessage(Object color, Object channel, Object player) {
-        String msg = resources.getString("kickNGWordMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%player%", player.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("kickNGWordMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString()), player));
     }
 
     /**
      * &f[%color%%channel%&f]&7NGワード発言により、%player% さんをチャンネルから自動Muteしました。
      */
     public static BaseComponent[] muteNGWordMessage(Object color, Object channel, Object player) {
-        String msg = resources.getString("muteNGWordMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%player%", player.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("muteNGWordMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString()), player));
     }
 
     /**
      * &f[%color%%channel%&f]&7%player% さんを期限 %minutes% 分でチャンネルからBANしました。
      */
     public static BaseComponent[] banWithExpireMessage(Object color, Object channel, Object player, Object minutes) {
-        String msg = resources.getString("banWithExpireMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%player%", player.toString());
-        cf.replace("%minutes%", minutes.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("banWithExpireMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString()), player, minutes));
     }
 
     /**
      * &f[%color%%channel%&f]&7%player% さんを期限 %minutes% 分でチャンネルからMuteしました。
      */
     public static BaseComponent[] muteWithExpireMessage(Object color, Object channel, Object player, Object minutes) {
-        String msg = resources.getString("muteWithExpireMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%player%", player.toString());
-        cf.replace("%minutes%", minutes.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("muteWithExpireMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString()), player, minutes));
     }
 
     /**
      * &f[%color%%channel%&f]&7%player% さんのBANが解除されました。
      */
     public static BaseComponent[] pardonMessage(Object color, Object channel, Object player) {
-        String msg = resources.getString("pardonMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%player%", player.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("pardonMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString()), player));
     }
 
     /**
      * &f[%color%%channel%&f]&7%player% さんのMuteが解除されました。
      */
     public static BaseComponent[] unmuteMessage(Object color, Object channel, Object player) {
-        String msg = resources.getString("unmuteMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%player%", player.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("unmuteMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString()), player));
     }
 
     /**
      * &f[%color%%channel%&f]&7%player% さんの期限付きBANが解除されました。
      */
     public static BaseComponent[] expiredBanMessage(Object color, Object channel, Object player) {
-        String msg = resources.getString("expiredBanMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%player%", player.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("expiredBanMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString()), player));
     }
 
     /**
      * &f[%color%%channel%&f]&7%player% さんの期限付きMuteが解除されました。
      */
     public static BaseComponent[] expiredMuteMessage(Object color, Object channel, Object player) {
-        String msg = resources.getString("expiredMuteMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%player%", player.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("expiredMuteMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString()), player));
     }
 
     /**
      * &f[%color%%channel%&f]&7%player% さんがチャンネルのモデレーターになりました。
      */
     public static BaseComponent[] addModeratorMessage(Object color, Object channel, Object player) {
-        String msg = resources.getString("addModeratorMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%player%", player.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("addModeratorMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString()), player));
     }
 
     /**
      * &f[%color%%channel%&f]&7%player% さんがチャンネルのモデレーターから外れました。
      */
     public static BaseComponent[] removeModeratorMessage(Object color, Object channel, Object player) {
-        String msg = resources.getString("removeModeratorMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%player%", player.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("removeModeratorMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString()), player));
     }
 
     /**
      * &f[%color%%channel%&f]&7あなたの発言は、誰にも届きませんでした。
      */
     public static BaseComponent[] noRecipientMessage(Object color, Object channel) {
-        String msg = resources.getString("noRecipientMessage");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%color%", color.toString());
-        cf.replace("%channel%", channel.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("noRecipientMessage");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                color, ClickableFormat.makeChannelPlaceholder(channel.toString())));
     }
 
     /**
      * &7---------- &bチャンネルリスト &7----------
      */
     public static String listFirstLine() {
-        String msg = resources.getString("listFirstLine");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("listFirstLine").format();
     }
 
     /**
      * &7---------- &bチャンネルリスト&7(&c%page%&7/&c%max%&7) ----------
      */
     public static String listFirstLinePaging(Object page, Object max) {
-        String msg = resources.getString("listFirstLinePaging");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%page%", page.toString());
-        kr.replace("%max%", max.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("listFirstLinePaging").format(page, max);
     }
 
     /**
      * &7----------------------------------
      */
     public static String listEndLine() {
-        String msg = resources.getString("listEndLine");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("listEndLine").format();
     }
 
     /**
      * &7| &f%channel%&7(&c%online%&7/&c%total%&7) &a%topic%
      */
     public static BaseComponent[] listFormat(Object channel, Object online, Object total, Object topic) {
-        String msg = resources.getString("listFormat");
-        if (msg == null) return new BaseComponent[0];
-        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());
-        cf.replace("%channel%", channel.toString());
-        cf.replace("%online%", online.toString());
-        cf.replace("%total%", total.toString());
-        cf.replace("%topic%", topic.toString());
-        return cf.makeTextComponent();
+        MessageTemplate template = getTemplate("listFormat");
+        if (template.isEmpty()) return new BaseComponent[0];
+        return ClickableFormat.makeClickableMessage(template.format(
+                ClickableFormat.makeChannelPlaceholder(channel.toString()), online, total, topic));
     }
 
     /**
      * &7|
      */
     public static String listPlainPrefix() {
-        String msg = resources.getString("listPlainPrefix");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("listPlainPrefix").format();
     }
 
     /**
      * &7---------- &bチャンネル情報 &7----------
      */
     public static String channelInfoFirstLine() {
-        String msg = resources.getString("channelInfoFirstLine");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("channelInfoFirstLine").format();
     }
 
     /**
      * &7|
      */
     public static String channelInfoPrefix() {
-        String msg = resources.getString("channelInfoPrefix");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("channelInfoPrefix").format();
     }
 
     /**
      * &7| &cチャンネル別名：&f
      */
     public static String channelInfoAlias() {
-        String msg = resources.getString("channelInfoAlias");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("channelInfoAlias").format();
     }
 
     /**
      * &7| &cグローバルチャンネル
      */
     public static String channelInfoGlobal() {
-        String msg = resources.getString("channelInfoGlobal");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("channelInfoGlobal").format();
     }
 
     /**
      * &7| &cブロードキャストチャンネル
      */
     public static String channelInfoBroadcast() {
-        String msg = resources.getString("channelInfoBroadcast");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("channelInfoBroadcast").format();
     }
 
     /**
      * &7| &cシークレットチャンネル
      */
     public static String channelInfoSecret() {
-        String msg = resources.getString("channelInfoSecret");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("channelInfoSecret").format();
     }
 
     /**
      * &7| &cパスワード設定あり
      */
     public static String channelInfoPassword() {
-        String msg = resources.getString("channelInfoPassword");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("channelInfoPassword").format();
     }
 
     /**
      * &7| &cワールドチャット
      */
     public static String channelInfoWorldChat() {
-        String msg = resources.getString("channelInfoWorldChat");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("channelInfoWorldChat").format();
     }
 
     /**
      * &7| &c範囲チャット：%block% ブロック
      */
     public static String channelInfoRangeChat(Object block) {
-        String msg = resources.getString("channelInfoRangeChat");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%block%", block.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("channelInfoRangeChat").format(block);
     }
 
     /**
      * &7| &cフォーマット設定：
      */
     public static String channelInfoFormat() {
-        String msg = resources.getString("channelInfoFormat");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("channelInfoFormat").format();
     }
 
     /**
      * &7| &cBANリスト：
      */
     public static String channelInfoBanned() {
-        String msg = resources.getString("channelInfoBanned");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("channelInfoBanned").format();
     }
 
     /**
      * &7| &cMuteリスト：
      */
     public static String channelInfoMuted() {
-        String msg = resources.getString("channelInfoMuted");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("channelInfoMuted").format();
     }
 
     /**
      * &7----- &b参加中のチャット &7-----
      */
     public static String motdFirstLine() {
-        String msg = resources.getString("motdFirstLine");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("motdFirstLine").format();
     }
 
     /**
      * &7----- &b非表示にしているチャット &7-----
      */
     public static String hideChannelFirstLine() {
-        String msg = resources.getString("hideChannelFirstLine");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("hideChannelFirstLine").format();
     }
 
     /**
      * &7----- &b非表示にしているプレイヤー &7-----
      */
     public static String hidePlayerFirstLine() {
-        String msg = resources.getString("hidePlayerFirstLine");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("hidePlayerFirstLine").format();
     }
 
     /**
      * &7----- &b%channel%の発言ログ &7-----
      */
     public static String logDisplayFirstLine(Object channel) {
-        String msg = resources.getString("logDisplayFirstLine");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("logDisplayFirstLine").format(channel);
     }
 
     /**
      * &7----------------------------------
      */
     public static String logDisplayEndLine() {
-        String msg = resources.getString("logDisplayEndLine");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("logDisplayEndLine").format();
     }
 
     /**
      * &7| &c%date%&7, &f%player%&7: &f%message%
      */
     public static String logDisplayFormat(Object date, Object player, Object message) {
-        String msg = resources.getString("logDisplayFormat");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%date%", date.toString());
-        kr.replace("%player%", player.toString());
-        kr.replace("%message%", message.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("logDisplayFormat").format(date, player, message);
     }
 
     /**
      * &f[&aLC&f]
      */
     public static String infoPrefix() {
-        String msg = resources.getString("infoPrefix");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("infoPrefix").format();
     }
 
     /**
      * &f[&cLC&f]
      */
     public static String errorPrefix() {
-        String msg = resources.getString("errorPrefix");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("errorPrefix").format();
     }
 
     /**
      * チャンネル %channel% に参加しました。
      */
     public static String cmdmsgJoin(Object channel) {
-        String msg = resources.getString("cmdmsgJoin");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgJoin").format(channel);
     }
 
     /**
      * デフォルトの発言先を %channel% に設定しました。
      */
     public static String cmdmsgSet(Object channel) {
-        String msg = resources.getString("cmdmsgSet");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgSet").format(channel);
     }
 
     /**
      * トピック: &a%topic%
      */
     public static String cmdmsgSetTopic(Object topic) {
-        String msg = resources.getString("cmdmsgSetTopic");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%topic%", topic.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgSetTopic").format(topic);
     }
 
     /**
      * <注意> 現在このチャンネルを非表示に設定しています。
      */
     public static String cmdmsgSetHide() {
-        String msg = resources.getString("cmdmsgSetHide");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgSetHide").format();
     }
 
     /**
      * チャンネル %channel% から退出しました。
      */
     public static String cmdmsgLeave(Object channel) {
-        String msg = resources.getString("cmdmsgLeave");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgLeave").format(channel);
     }
 
     /**
      * %player% さんを、チャンネル %channel% に招待しました。
      */
     public static String cmdmsgInvite(Object player, Object channel) {
-        String msg = resources.getString("cmdmsgInvite");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgInvite").format(player, channel);
     }
 
     /**
      * %player% さんから、チャンネル %channel% に招待されました。
      */
     public static String cmdmsgInvited1(Object player, Object channel) {
-        String msg = resources.getString("cmdmsgInvited1");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgInvited1").format(player, channel);
     }
 
     /**
      * 入室するには /ch accept、拒否するには /ch deny を実行してください。
      */
     public static String cmdmsgInvited2() {
-        String msg = resources.getString("cmdmsgInvited2");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgInvited2").format();
     }
 
     /**
      * 招待を拒否しました。
      */
     public static String cmdmsgDeny() {
-        String msg = resources.getString("cmdmsgDeny");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgDeny").format();
     }
 
     /**
      * 招待が拒否されました。
      */
     public static String cmdmsgDenyed() {
-        String msg = resources.getString("cmdmsgDenyed");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgDenyed").format();
     }
 
     /**
      * %player% さんを、チャンネル %channel% からキックしました。
      */
     public static String cmdmsgKick(Object player, Object channel) {
-        String msg = resources.getString("cmdmsgKick");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgKick").format(player, channel);
     }
 
     /**
      * チャンネル %channel% からキックされました。
      */
     public static String cmdmsgKicked(Object channel) {
-        String msg = resources.getString("cmdmsgKicked");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgKicked").format(channel);
     }
 
     /**
      * %player% さんを、チャンネル %channel% からBANしました。
      */
     public static String cmdmsgBan(Object player, Object channel) {
-        String msg = resources.getString("cmdmsgBan");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgBan").format(player, channel);
     }
 
     /**
      * %player% さんを、チャンネル %channel% から期限 %minutes% 分でBANしました。
      */
     public static String cmdmsgBanWithExpire(Object player, Object channel, Object minutes) {
-        String msg = resources.getString("cmdmsgBanWithExpire");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        kr.replace("%channel%", channel.toString());
-        kr.replace("%minutes%", minutes.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgBanWithExpire").format(player, channel, minutes);
     }
 
     /**
      * チャンネル %channel% からBANされました。
      */
     public static String cmdmsgBanned(Object channel) {
-        String msg = resources.getString("cmdmsgBanned");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgBanned").format(channel);
     }
 
     /**
      * %player% さんの、チャンネル %channel% のBANを解除しました。
      */
     public static String cmdmsgPardon(Object player, Object channel) {
-        String msg = resources.getString("cmdmsgPardon");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgPardon").format(player, channel);
     }
 
     /**
      * チャンネル %channel% のBANが解除されました。
      */
     public static String cmdmsgPardoned(Object channel) {
-        String msg = resources.getString("cmdmsgPardoned");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgPardoned").format(channel);
     }
 
     /**
      * %player% さんを、チャンネル %channel% でMuteしました。
      */
     public static String cmdmsgMute(Object player, Object channel) {
-        String msg = resources.getString("cmdmsgMute");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgMute").format(player, channel);
     }
 
     /**
      * %player% さんを、チャンネル %channel% から期限 %minutes% 分でMuteしました。
      */
     public static String cmdmsgMuteWithExpire(Object player, Object channel, Object minutes) {
-        String msg = resources.getString("cmdmsgMuteWithExpire");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        kr.replace("%channel%", channel.toString());
-        kr.replace("%minutes%", minutes.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgMuteWithExpire").format(player, channel, minutes);
     }
 
     /**
      * チャンネル %channel% からMuteされました。
      */
     public static String cmdmsgMuted(Object channel) {
-        String msg = resources.getString("cmdmsgMuted");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgMuted").format(channel);
     }
 
     /**
      * %player% さんの、チャンネル %channel% のMuteを解除しました。
      */
     public static String cmdmsgUnmute(Object player, Object channel) {
-        String msg = resources.getString("cmdmsgUnmute");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgUnmute").format(player, channel);
     }
 
     /**
      * チャンネル %channel% のMuteが解除されました。
      */
     public static String cmdmsgUnmuted(Object channel) {
-        String msg = resources.getString("cmdmsgUnmuted");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgUnmuted").format(channel);
     }
 
     /**
      * チャンネル %channel% を非表示に設定しました。
      */
     public static String cmdmsgHided(Object channel) {
-        String msg = resources.getString("cmdmsgHided");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgHided").format(channel);
     }
 
     /**
      * プレイヤー %player% を非表示に設定しました。
      */
     public static String cmdmsgHidedPlayer(Object player) {
-        String msg = resources.getString("cmdmsgHidedPlayer");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgHidedPlayer").format(player);
     }
 
     /**
      * チャンネル %channel% を表示に設定しました。
      */
     public static String cmdmsgUnhided(Object channel) {
-        String msg = resources.getString("cmdmsgUnhided");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgUnhided").format(channel);
     }
 
     /**
      * プレイヤー %channel% を表示に設定しました。
      */
     public static String cmdmsgUnhidedPlayer(Object channel) {
-        String msg = resources.getString("cmdmsgUnhidedPlayer");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgUnhidedPlayer").format(channel);
     }
 
     /**
      * LunaChatの設定を再読み込みしました。
      */
     public static String cmdmsgReload() {
-        String msg = resources.getString("cmdmsgReload");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgReload").format();
+    }
+
+    /**
+     * LunaChatの処理の統計情報です。
+     */
+    public static String cmdmsgStats() {
+        return getTemplate("cmdmsgStats").format();
     }
 
     /**
      * チャンネル %channel% を新規作成しました。
      */
     public static String cmdmsgCreate(Object channel) {
-        String msg = resources.getString("cmdmsgCreate");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgCreate").format(channel);
     }
 
     /**
      * チャンネル %channel% を削除しました。
      */
     public static String cmdmsgRemove(Object channel) {
-        String msg = resources.getString("cmdmsgRemove");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgRemove").format(channel);
     }
 
     /**
      * メッセージフォーマットを %format% に設定しました。
      */
     public static String cmdmsgFormat(Object format) {
-        String msg = resources.getString("cmdmsgFormat");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%format%", format.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgFormat").format(format);
     }
 
     /**
      * %player% さんをチャンネル %channel% のモデレーターに設定しました。
      */
     public static String cmdmsgModerator(Object player, Object channel) {
-        String msg = resources.getString("cmdmsgModerator");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgModerator").format(player, channel);
     }
 
     /**
      * %player% さんをチャンネル %channel% のモデレーターから外しました。
      */
     public static String cmdmsgModeratorMinus(Object player, Object channel) {
-        String msg = resources.getString("cmdmsgModeratorMinus");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgModeratorMinus").format(player, channel);
     }
 
     /**
      * %key% を %value% と覚えました。
      */
     public static String cmdmsgDictionaryAdd(Object key, Object value) {
-        String msg = resources.getString("cmdmsgDictionaryAdd");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%key%", key.toString());
-        kr.replace("%value%", value.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgDictionaryAdd").format(key, value);
     }
 
     /**
      * %key% を忘れました。
      */
     public static String cmdmsgDictionaryRemove(Object key) {
-        String msg = resources.getString("cmdmsgDictionaryRemove");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%key%", key.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgDictionaryRemove").format(key);
     }
 
     /**
      * %key% を %value% に設定しました。
      */
     public static String cmdmsgOption(Object key, Object value) {
-        String msg = resources.getString("cmdmsgOption");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%key%", key.toString());
-        kr.replace("%value%", value.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgOption").format(key, value);
     }
 
     /**
      * テンプレート %index% を、%value% に設定しました。
      */
     public static String cmdmsgTemplate(Object index, Object value) {
-        String msg = resources.getString("cmdmsgTemplate");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%index%", index.toString());
-        kr.replace("%value%", value.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgTemplate").format(index, value);
     }
 
     /**
      * テンプレート %index% を削除しました。
      */
     public static String cmdmsgTemplateRemove(Object index) {
-        String msg = resources.getString("cmdmsgTemplateRemove");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%index%", index.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgTemplateRemove").format(index);
     }
 
     /**
      * %player% さんの発言先を %channel% に設定しました。
      */
     public static String cmdmsgSetDefault(Object player, Object channel) {
-        String msg = resources.getString("cmdmsgSetDefault");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgSetDefault").format(player, channel);
     }
 
     /**
      * Your chat's Japanize conversion was turned %value%.
      */
     public static String cmdmsgPlayerJapanize(Object value) {
-        String msg = resources.getString("cmdmsgPlayerJapanize");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%value%", value.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgPlayerJapanize").format(value);
     }
 
     /**
      * %player% さんのJapanize変換を %value% にしました。
      */
     public static String cmdmsgPlayerJapanizeOther(Object player, Object value) {
-        String msg = resources.getString("cmdmsgPlayerJapanizeOther");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        kr.replace("%value%", value.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgPlayerJapanizeOther").format(player, value);
     }
 
     /**
      * %inviter%の現在の会話相手 : %invited%
      */
     public static String cmdmsgReplyInviter(Object inviter, Object invited) {
-        String msg = resources.getString("cmdmsgReplyInviter");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%inviter%", inviter.toString());
-        kr.replace("%invited%", invited.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgReplyInviter").format(inviter, invited);
     }
 
     /**
      * %inviter%の現在の会話相手 : 相手がいません。
      */
     public static String cmdmsgReplyInviterNone(Object inviter) {
-        String msg = resources.getString("cmdmsgReplyInviterNone");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%inviter%", inviter.toString());
-        return Utility.replaceColorCode(resources.getString("infoPrefix", "") + kr);
+        return getTemplate("cmdmsgReplyInviterNone").format(inviter);
     }
 
     /**
      * このコマンドはゲーム内からしか実行できません。
      */
     public static String errmsgIngame() {
-        String msg = resources.getString("errmsgIngame");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgIngame").format();
     }
 
     /**
      * コマンドの指定が正しくありません。
      */
     public static String errmsgCommand() {
-        String msg = resources.getString("errmsgCommand");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgCommand").format();
     }
 
     /**
      * 指定されたチャンネルが存在しません。
      */
     public static String errmsgNotExist() {
-        String msg = resources.getString("errmsgNotExist");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgNotExist").format();
     }
 
     /**
      * 指定されたチャンネルもプレイヤーも存在しません。
      */
     public static String errmsgNotExistChannelAndPlayer() {
-        String msg = resources.getString("errmsgNotExistChannelAndPlayer");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgNotExistChannelAndPlayer").format();
     }
 
     /**
      * 指定されたチャンネルが存在しないか、チャンネルが指定されませんでした。
      */
     public static String errmsgNotExistOrNotSpecified() {
-        String msg = resources.getString("errmsgNotExistOrNotSpecified");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgNotExistOrNotSpecified").format();
     }
 
     /**
      * 指定されたチャンネル名が既に存在します。
      */
     public static String errmsgExist() {
-        String msg = resources.getString("errmsgExist");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgExist").format();
     }
 
     /**
      * 指定されたチャンネルに参加していません。
      */
     public static String errmsgNomember() {
-        String msg = resources.getString("errmsgNomember");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgNomember").format();
     }
 
     /**
      * 指定されたプレイヤーはチャンネルに参加していません。
      */
     public static String errmsgNomemberOther() {
-        String msg = resources.getString("errmsgNomemberOther");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgNomemberOther").format();
     }
 
     /**
      * 指定されたプレイヤー %player% が見つかりません。
      */
     public static String errmsgNotfoundPlayer(Object player) {
-        String msg = resources.getString("errmsgNotfoundPlayer");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgNotfoundPlayer").format(player);
     }
 
     /**
      * 招待を受けたプレイヤーではありません。
      */
     public static String errmsgNotInvited() {
-        String msg = resources.getString("errmsgNotInvited");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgNotInvited").format();
     }
 
     /**
      * チャンネルが無くなってしまったため、参加できませんでした。
      */
     public static String errmsgNotfoundChannel() {
-        String msg = resources.getString("errmsgNotfoundChannel");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgNotfoundChannel").format();
     }
 
     /**
      * 招待された %player% さんは、既にチャンネルに参加しています。
      */
     public static String errmsgInvitedAlreadyExist(Object player) {
-        String msg = resources.getString("errmsgInvitedAlreadyExist");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgInvitedAlreadyExist").format(player);
     }
 
     /**
      * 既にチャンネルに参加しています。
      */
     public static String errmsgInvitedAlreadyJoin() {
-        String msg = resources.getString("errmsgInvitedAlreadyJoin");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgInvitedAlreadyJoin").format();
     }
 
     /**
      * 現在チャンネルに参加していません。
      */
     public static String errmsgNoJoin() {
-        String msg = resources.getString("errmsgNoJoin");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgNoJoin").format();
     }
 
     /**
      * あなたはこのチャンネルからBANされています。
      */
     public static String errmsgBanned() {
-        String msg = resources.getString("errmsgBanned");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgBanned").format();
     }
 
     /**
      * あなたはこのチャンネルからMuteされているため、発言できません。
      */
     public static String errmsgMuted() {
-        String msg = resources.getString("errmsgMuted");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgMuted").format();
+    }
+
+    /**
+     * サーバーが混み合っているため、発言できませんでした。しばらくしてから、もう一度発言してください。
+     */
+    public static String errmsgChatBusy() {
+        return getTemplate("errmsgChatBusy").format();
     }
 
     /**
      * 指定されたプレイヤーは既にBANリストに含まれています。
      */
     public static String errmsgAlreadyBanned() {
-        String msg = resources.getString("errmsgAlreadyBanned");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgAlreadyBanned").format();
     }
 
     /**
      * 指定されたプレイヤーは既にMuteリストに含まれています。
      */
     public static String errmsgAlreadyMuted() {
-        String msg = resources.getString("errmsgAlreadyMuted");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgAlreadyMuted").format();
     }
 
     /**
      * このチャンネルは既に非表示になっています。
      */
     public static String errmsgAlreadyHided() {
-        String msg = resources.getString("errmsgAlreadyHided");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgAlreadyHided").format();
     }
 
     /**
      * このプレイヤーは既に非表示になっています。
      */
     public static String errmsgAlreadyHidedPlayer() {
-        String msg = resources.getString("errmsgAlreadyHidedPlayer");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgAlreadyHidedPlayer").format();
     }
 
     /**
      * このチャンネルは非表示になっていません。
      */
     public static String errmsgAlreadyUnhided() {
-        String msg = resources.getString("errmsgAlreadyUnhided");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgAlreadyUnhided").format();
     }
 
     /**
      * このプレイヤーは非表示になっていません。
      */
     public static String errmsgAlreadyUnhidedPlayer() {
-        String msg = resources.getString("errmsgAlreadyUnhidedPlayer");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgAlreadyUnhidedPlayer").format();
     }
 
     /**
      * 個人チャットチャンネルには参加できません。
      */
     public static String errmsgCannotJoinPersonal() {
-        String msg = resources.getString("errmsgCannotJoinPersonal");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgCannotJoinPersonal").format();
     }
 
     /**
      * あなたはモデレーターではないため、そのコマンドを実行できません。
      */
     public static String errmsgNotModerator() {
-        String msg = resources.getString("errmsgNotModerator");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgNotModerator").format();
     }
 
     /**
      * 指定されたプレイヤーはBANリストに含まれていません。
      */
     public static String errmsgNotBanned() {
-        String msg = resources.getString("errmsgNotBanned");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgNotBanned").format();
     }
 
     /**
      * 指定されたプレイヤーはMuteリストに含まれていません。
      */
     public static String errmsgNotMuted() {
-        String msg = resources.getString("errmsgNotMuted");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgNotMuted").format();
     }
 
     /**
      * 有効なオプション指定が1つもありませんでした。
      */
     public static String errmsgInvalidOptions() {
-        String msg = resources.getString("errmsgInvalidOptions");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgInvalidOptions").format();
     }
 
     /**
      * このチャンネルはパスワードが設定されているため入れません。
      */
     public static String errmsgPassword1() {
-        String msg = resources.getString("errmsgPassword1");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgPassword1").format();
     }
 
     /**
      * パスワードを指定して、チャンネルに入ってください。
      */
     public static String errmsgPassword2() {
-        String msg = resources.getString("errmsgPassword2");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgPassword2").format();
     }
 
     /**
      * /ch (channel) (password)
      */
     public static String errmsgPassword3() {
-        String msg = resources.getString("errmsgPassword3");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgPassword3").format();
     }
 
     /**
      * パスワードが正しくないため、チャンネルに入れません。
      */
     public static String errmsgPasswordNotmatch() {
-        String msg = resources.getString("errmsgPasswordNotmatch");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgPasswordNotmatch").format();
     }
 
     /**
      * 権限 "%permission%" が無いため、実行できません。
      */
     public static String errmsgPermission(Object permission) {
-        String msg = resources.getString("errmsgPermission");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%permission%", permission.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgPermission").format(permission);
     }
 
     /**
      * チャンネル %channel% はグローバルチャンネルなので、退出できません。
      */
     public static String errmsgCannotLeaveGlobal(Object channel) {
-        String msg = resources.getString("errmsgCannotLeaveGlobal");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgCannotLeaveGlobal").format(channel);
     }
 
     /**
      * チャンネル %channel% はグローバルチャンネルなので、キックできません。
      */
     public static String errmsgCannotKickGlobal(Object channel) {
-        String msg = resources.getString("errmsgCannotKickGlobal");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgCannotKickGlobal").format(channel);
     }
 
     /**
      * チャンネル %channel% はグローバルチャンネルなので、BANできません。
      */
     public static String errmsgCannotBANGlobal(Object channel) {
-        String msg = resources.getString("errmsgCannotBANGlobal");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgCannotBANGlobal").format(channel);
     }
 
     /**
      * チャンネル %channel% はグローバルチャンネルなので、削除できません。
      */
     public static String errmsgCannotRemoveGlobal(Object channel) {
-        String msg = resources.getString("errmsgCannotRemoveGlobal");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgCannotRemoveGlobal").format(channel);
     }
 
     /**
      * チャンネル %channel% はグローバルチャンネルなので、モデレーターを設定できません。
      */
     public static String errmsgCannotModeratorGlobal(Object channel) {
-        String msg = resources.getString("errmsgCannotModeratorGlobal");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgCannotModeratorGlobal").format(channel);
     }
 
     /**
      * チャンネル %channel% は強制参加チャンネルなので、退出できません。
      */
     public static String errmsgCannotLeaveForceJoin(Object channel) {
-        String msg = resources.getString("errmsgCannotLeaveForceJoin");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgCannotLeaveForceJoin").format(channel);
     }
 
     /**
      * あなたが受信したプライベートメッセージがありません。
      */
     public static String errmsgNotfoundPM() {
-        String msg = resources.getString("errmsgNotfoundPM");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgNotfoundPM").format();
     }
 
     /**
      * 自分自身にプライベートメッセージを送ることはできません。
      */
     public static String errmsgCannotSendPMSelf() {
-        String msg = resources.getString("errmsgCannotSendPMSelf");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgCannotSendPMSelf").format();
     }
 
     /**
      * %channel% はチャンネル名に使用できない文字を含んでいます。
      */
     public static String errmsgCannotUseForChannel(Object channel) {
-        String msg = resources.getString("errmsgCannotUseForChannel");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgCannotUseForChannel").format(channel);
     }
 
     /**
      * %channel% は短すぎてチャンネル名に使用できません。%min% 文字以上にしてください。
      */
     public static String errmsgCannotUseForChannelTooShort(Object channel, Object min) {
-        String msg = resources.getString("errmsgCannotUseForChannelTooShort");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        kr.replace("%min%", min.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgCannotUseForChannelTooShort").format(channel, min);
     }
 
     /**
      * %channel% は長すぎてチャンネル名に使用できません。%max% 文字以下にしてください。
      */
     public static String errmsgCannotUseForChannelTooLong(Object channel, Object max) {
-        String msg = resources.getString("errmsgCannotUseForChannelTooLong");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        kr.replace("%max%", max.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgCannotUseForChannelTooLong").format(channel, max);
     }
 
     /**
      * %word% はグローバルチャンネル名に使用できない文字を含んでいます。
      */
     public static String errmsgCannotUseForGlobal(Object word) {
-        String msg = resources.getString("errmsgCannotUseForGlobal");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%word%", word.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgCannotUseForGlobal").format(word);
     }
 
     /**
      * %value% はカラーコードとして正しくありません。
      */
     public static String errmsgInvalidColorCode(Object value) {
-        String msg = resources.getString("errmsgInvalidColorCode");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%value%", value.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgInvalidColorCode").format(value);
     }
 
     /**
      * テンプレート番号は、0から9までの数字を指定してください。
      */
     public static String errmsgInvalidTemplateNumber() {
-        String msg = resources.getString("errmsgInvalidTemplateNumber");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgInvalidTemplateNumber").format();
     }
 
     /**
      * 説明文は %max% 文字以下にしてください。
      */
     public static String errmsgToolongDescription(Object max) {
-        String msg = resources.getString("errmsgToolongDescription");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%max%", max.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgToolongDescription").format(max);
     }
 
     /**
      * チャンネル別名は %max% 文字以下にしてください。
      */
     public static String errmsgToolongAlias(Object max) {
-        String msg = resources.getString("errmsgToolongAlias");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%max%", max.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgToolongAlias").format(max);
     }
 
     /**
      * パスワードは %max% 文字以下にしてください。
      */
     public static String errmsgToolongPassword(Object max) {
-        String msg = resources.getString("errmsgToolongPassword");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%max%", max.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgToolongPassword").format(max);
     }
 
     /**
      * %key% は true/false で指定してください。
      */
     public static String errmsgInvalidBooleanOption(Object key) {
-        String msg = resources.getString("errmsgInvalidBooleanOption");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%key%", key.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgInvalidBooleanOption").format(key);
     }
 
     /**
      * range に正しくない値が指定されました。
      */
     public static String errmsgInvalidRangeOption() {
-        String msg = resources.getString("errmsgInvalidRangeOption");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgInvalidRangeOption").format();
     }
 
     /**
      * %key% に指定された %value% は、Japanize変換タイプとして正しくありません。
      */
     public static String errmsgInvalidJapanizeOption(Object key, Object value) {
-        String msg = resources.getString("errmsgInvalidJapanizeOption");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%key%", key.toString());
-        kr.replace("%value%", value.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgInvalidJapanizeOption").format(key, value);
     }
 
     /**
      * このチャンネルはグローバルチャンネルのため、ブロードキャストをオフにできません。
      */
     public static String errmsgCannotOffGlobalBroadcast() {
-        String msg = resources.getString("errmsgCannotOffGlobalBroadcast");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgCannotOffGlobalBroadcast").format();
     }
 
     /**
      * 必須キーワード %key% が指定されていません。
      */
     public static String errmsgFormatConstraint(Object key) {
-        String msg = resources.getString("errmsgFormatConstraint");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%key%", key.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgFormatConstraint").format(key);
     }
 
     /**
      * BAN期限(分)の指定が正しくありません。1 から 43200 の間の数値を指定してください。
      */
     public static String errmsgInvalidBanExpireParameter() {
-        String msg = resources.getString("errmsgInvalidBanExpireParameter");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgInvalidBanExpireParameter").format();
     }
 
     /**
      * Mute期限(分)の指定が正しくありません。1 から 43200 の間の数値を指定してください。
      */
     public static String errmsgInvalidMuteExpireParameter() {
-        String msg = resources.getString("errmsgInvalidMuteExpireParameter");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgInvalidMuteExpireParameter").format();
     }
 
     /**
      * 自分の発言を非表示にすることはできません。
      */
     public static String errmsgCannotHideSelf() {
-        String msg = resources.getString("errmsgCannotHideSelf");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgCannotHideSelf").format();
     }
 
     /**
      * 指定されたチャンネル別名 %aliase% は、チャンネル %channel% と重複するので設定できません。
      */
     public static String errmsgDuplicatedAlias(Object aliase, Object channel) {
-        String msg = resources.getString("errmsgDuplicatedAlias");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%aliase%", aliase.toString());
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgDuplicatedAlias").format(aliase, channel);
     }
 
     /**
      * 権限がありません&7(%permission%)
      */
     public static String errmsgNotPermission(Object permission) {
-        String msg = resources.getString("errmsgNotPermission");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%permission%", permission.toString());
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgNotPermission").format(permission);
     }
 
     /**
      * このサーバーでは、チャンネルチャットは動作しません。
      */
     public static String errmsgChannelChatDisabled() {
-        String msg = resources.getString("errmsgChannelChatDisabled");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(resources.getString("errorPrefix", "") + kr);
+        return getTemplate("errmsgChannelChatDisabled").format();
     }
 
     /**
      * &6/%label% join (channel) &7- チャンネルに参加します。
      */
     public static String usageJoin(Object label) {
-        String msg = resources.getString("usageJoin");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageJoin").format(label);
     }
 
     /**
      * &6/%label% leave &7- 参加しているチャンネルから退出します。
      */
     public static String usageLeave(Object label) {
-        String msg = resources.getString("usageLeave");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageLeave").format(label);
     }
 
     /**
      * &6/%label% list &7- チャンネルのリストを表示します。
      */
     public static String usageList(Object label) {
-        String msg = resources.getString("usageList");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageList").format(label);
     }
 
     /**
      * &6/%label% invite (name) &7- 指定したプレイヤーをチャンネルチャットに招待します。
      */
     public static String usageInvite(Object label) {
-        String msg = resources.getString("usageInvite");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageInvite").format(label);
     }
 
     /**
      * &6/%label% accept &7- 招待を受けてチャンネルチャットに入室します。
      */
     public static String usageAccept(Object label) {
-        String msg = resources.getString("usageAccept");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageAccept").format(label);
     }
 
     /**
      * &6/%label% deny &7- 招待を拒否します。
      */
     public static String usageDeny(Object label) {
-        String msg = resources.getString("usageDeny");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageDeny").format(label);
     }
 
     /**
      * &6/%label% kick (name) &7- 指定したプレイヤーをチャンネルチャットからキックします。
      */
     public static String usageKick(Object label) {
-        String msg = resources.getString("usageKick");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageKick").format(label);
     }
 
     /**
      * &6/%label% ban (name) &7- 指定したプレイヤーをチャンネルチャットからBANします。
      */
     public static String usageBan(Object label) {
-        String msg = resources.getString("usageBan");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageBan").format(label);
     }
 
     /**
      * &6/%label% ban (name) [minutes] &7- 指定したプレイヤーを指定した分の間、BANします。
      */
     public static String usageBan2(Object label) {
-        String msg = resources.getString("usageBan2");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageBan2").format(label);
     }
 
     /**
      * &6/%label% pardon (name) &7- 指定したプレイヤーのBANを解除します。
      */
     public static String usagePardon(Object label) {
-        String msg = resources.getString("usagePardon");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usagePardon").format(label);
     }
 
     /**
      * &6/%label% mute (name) &7- 指定したプレイヤーのチャンネルでの発言権を剥奪します。
      */
     public static String usageMute(Object label) {
-        String msg = resources.getString("usageMute");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageMute").format(label);
     }
 
     /**
      * &6/%label% mute (name) [minutes] &7- 指定したプレイヤーを指定した分の間、発言権剥奪します。
      */
     public static String usageMute2(Object label) {
-        String msg = resources.getString("usageMute2");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageMute2").format(label);
     }
 
     /**
      * &6/%label% unmute (name) &7- 指定したプレイヤーのチャンネルでの発言権剥奪を解除します。
      */
     public static String usageUnmute(Object label) {
-        String msg = resources.getString("usageUnmute");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageUnmute").format(label);
     }
 
     /**
      * &6/%label% hide [channel] &7- 指定したチャンネルの発言内容を非表示にします。
      */
     public static String usageHide(Object label) {
-        String msg = resources.getString("usageHide");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageHide").format(label);
     }
 
     /**
      * &6/%label% hide (player) &7- 指定したプレイヤーの発言内容を非表示にします。
      */
     public static String usageHidePlayer(Object label) {
-        String msg = resources.getString("usageHidePlayer");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageHidePlayer").format(label);
     }
 
     /**
      * &6/%label% unhide [channel] &7- 指定したチャンネルの発言内容を非表示から表示に戻します。
      */
     public static String usageUnhide(Object label) {
-        String msg = resources.getString("usageUnhide");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageUnhide").format(label);
     }
 
     /**
      * &6/%label% unhide (player) &7- 指定したプレイヤーの発言内容を非表示から表示に戻します。
      */
     public static String usageUnhidePlayer(Object label) {
-        String msg = resources.getString("usageUnhidePlayer");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageUnhidePlayer").format(label);
     }
 
     /**
      * &6/%label% info [channel] &7- チャンネルの情報を表示します。
      */
     public static String usageInfo(Object label) {
-        String msg = resources.getString("usageInfo");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageInfo").format(label);
     }
 
     /**
      * &6/%label% log [channel] [p=player] [f=filter] [d=date] [r] &7- チャンネルの発言ログを表示します。
      */
     public static String usageLog(Object label) {
-        String msg = resources.getString("usageLog");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageLog").format(label);
     }
 
     /**
      * &6/%label% create (channel) [description] &7- チャンネルを作成します。
      */
     public static String usageCreate(Object label) {
-        String msg = resources.getString("usageCreate");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageCreate").format(label);
     }
 
     /**
      * &6/%label% remove [channel] &7- チャンネルを削除します。
      */
     public static String usageRemove(Object label) {
-        String msg = resources.getString("usageRemove");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageRemove").format(label);
     }
 
     /**
      * &6/%label% format [channel] (format...) &7- チャンネルのメッセージフォーマットを設定します。
      */
     public static String usageFormat(Object label) {
-        String msg = resources.getString("usageFormat");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageFormat").format(label);
     }
 
     /**
      * &6/%label% moderator [channel] (player) &7- チャンネルのモデレーターを指定したプレイヤーに設定します。
      */
     public static String usageModerator(Object label) {
-        String msg = resources.getString("usageModerator");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageModerator").format(label);
     }
 
     /**
      * &6/%label% mod [channel] (player) &7- チャンネルのモデレーターを指定したプレイヤーに設定します。
      */
     public static String usageMod(Object label) {
-        String msg = resources.getString("usageMod");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageMod").format(label);
     }
 
     /**
      * &6/%label% dictionary (add (word) (value)|remove (word)) &7- Japanize変換辞書に新しいワードを登録したり、指定したワードを削除したりします。
      */
     public static String usageDictionary(Object label) {
-        String msg = resources.getString("usageDictionary");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageDictionary").format(label);
     }
 
     /**
      * &6/%label% dic (add (word) (value)|remove (word)) &7- Japanize変換辞書に新しいワードを登録したり、指定したワードを削除したりします。
      */
     public static String usageDic(Object label) {
-        String msg = resources.getString("usageDic");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageDic").format(label);
     }
 
     /**
      * &6/%label% option [channel] (key=value...) &7- チャンネルのオプションを設定します。
      */
     public static String usageOption(Object label) {
-        String msg = resources.getString("usageOption");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageOption").format(label);
     }
 
     /**
      * &6/%label% template (number) (template...) &7- メッセージフォーマットのテンプレートを登録します。
      */
     public static String usageTemplate(Object label) {
-        String msg = resources.getString("usageTemplate");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageTemplate").format(label);
     }
 
     /**
      * &6/%label% check &7- モデレーターがいないチャンネルを一覧します。
      */
     public static String usageCheck1(Object label) {
-        String msg = resources.getString("usageCheck1");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageCheck1").format(label);
     }
 
     /**
      * &6/%label% check remove &7- /ch check で一覧されたチャンネルを全て削除します。
      */
     public static String usageCheck2(Object label) {
-        String msg = resources.getString("usageCheck2");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageCheck2").format(label);
     }
 
     /**
      * &6/%label% reload &7- config.ymlの再読み込みをします。
      */
     public static String usageReload(Object label) {
-        String msg = resources.getString("usageReload");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageReload").format(label);
+    }
+
+    /**
+     * &6/%label% stats &7- チャット処理の統計情報を表示します。
+     */
+    public static String usageStats(Object label) {
+        return getTemplate("usageStats").format(label);
     }
 
     /**
      * &6/%label% help [user|mod|admin] [page] &7- ヘルプを表示します。
      */
     public static String usageHelp(Object label) {
-        String msg = resources.getString("usageHelp");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageHelp").format(label);
     }
 
     /**
      * &6/%label% set default (player) [channel] &7- 指定したプレイヤーの発言先チャンネルを、指定したチャンネルに設定します。
      */
     public static String usageSet1(Object label) {
-        String msg = resources.getString("usageSet1");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageSet1").format(label);
     }
 
     /**
      * &6/%label% (name) [message] &7- 指定したプレイヤーとの個人チャットを開始します。
      */
     public static String usageMessage(Object label) {
-        String msg = resources.getString("usageMessage");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageMessage").format(label);
     }
 
     /**
      * &6/%label% [message] &7- 受信した個人チャットに返信します。
      */
     public static String usageReply(Object label) {
-        String msg = resources.getString("usageReply");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageReply").format(label);
     }
 
     /**
      * &6/%label% on|off &7- Turn on/off the Japanize conversion of your chat.
      */
     public static String usageJapanize(Object label) {
-        String msg = resources.getString("usageJapanize");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageJapanize").format(label);
     }
 
     /**
      * &6/%label% (player) on|off &7- Turn on/off the Japanize conversion of other player's chat.
      */
     public static String usageJapanizeOther(Object label) {
-        String msg = resources.getString("usageJapanizeOther");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageJapanizeOther").format(label);
     }
 
     /**
      * &e----- &6LunaChat %type% command (&c%num%&6/&c%max%&6) &e-----
      */
     public static String usageTop(Object type, Object num, Object max) {
-        String msg = resources.getString("usageTop");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%type%", type.toString());
-        kr.replace("%num%", num.toString());
-        kr.replace("%max%", max.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageTop").format(type, num, max);
     }
 
     /**
      * &e-----------------------------------------
      */
     public static String usageFoot() {
-        String msg = resources.getString("usageFoot");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageFoot").format();
     }
 
     /**
      * &6次のページを見るには、&c/%label% help %type% %next%&6 と実行してください。
      */
     public static String usageNoticeNextPage(Object label, Object type, Object next) {
-        String msg = resources.getString("usageNoticeNextPage");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%label%", label.toString());
-        kr.replace("%type%", type.toString());
-        kr.replace("%next%", next.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("usageNoticeNextPage").format(label, type, next);
     }
 
     /**
      * 発言先を%channel%にする
      */
     public static String hoverChannelName(Object channel) {
-        String msg = resources.getString("hoverChannelName");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%channel%", channel.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("hoverChannelName").format(channel);
     }
 
     /**
      * %player%にプライベートメッセージを送る
      */
     public static String hoverPlayerName(Object player) {
-        String msg = resources.getString("hoverPlayerName");
-        if (msg == null) return "";
-        KeywordReplacer kr = new KeywordReplacer(msg);
-        kr.replace("%player%", player.toString());
-        return Utility.replaceColorCode(kr.toString());
+        return getTemplate("hoverPlayerName").format(player);
     }
     // === Auto-generated methods area end. ===
 }
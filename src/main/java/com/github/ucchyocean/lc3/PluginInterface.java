@@ -6,6 +6,7 @@
 package com.github.ucchyocean.lc3;
 
 import java.io.File;
+import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
 
@@ -79,4 +80,11 @@ public interface PluginInterface {
      * @param task タスク
      */
     void runAsyncTask(Runnable task);
+
+    /**
+     * チャット処理の統計情報を取得する。statsコマンドで表示される。
+     *
+     * @return 統計情報の行のリスト
+     */
+    List<String> getStatistics();
 }
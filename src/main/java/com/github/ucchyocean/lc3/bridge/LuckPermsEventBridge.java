@@ -0,0 +1,37 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.bridge;
+
+import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * LuckPermsのイベント連携クラス。<br>
+ * LuckPermsBridge はBungeeCordのクラスを参照しているため、Bukkitからも利用するイベントの購読はこちらで行う。
+ *
+ * @author ucchy
+ */
+public class LuckPermsEventBridge {
+
+    // コンストラクタは外から利用不可
+    private LuckPermsEventBridge() {
+    }
+
+    /**
+     * ユーザーの権限やグループが変更され、LuckPermsが権限データを再計算したときに、
+     * 指定した処理が呼び出されるように登録する。登録はプラグインの無効化時に自動で解除される。
+     *
+     * @param plugin  登録するプラグインのインスタンス
+     * @param handler 再計算されたユーザーのUUIDを受け取る処理
+     */
+    public static void subscribeRecalculate(Object plugin, Consumer<UUID> handler) {
+        LuckPermsProvider.get().getEventBus().subscribe(plugin, UserDataRecalculateEvent.class,
+                event -> handler.accept(event.getUser().getUniqueId()));
+    }
+}
@@ -7,12 +7,11 @@ package com.github.ucchyocean.lc3.bridge;
 
 import com.github.ucchyocean.lc3.LunaChat;
 import com.github.ucchyocean.lc3.LunaChatAPI;
-import com.github.ucchyocean.lc3.LunaChatBukkit;
 import com.github.ucchyocean.lc3.LunaChatConfig;
 import com.github.ucchyocean.lc3.bukkit.BukkitRecipientChatJapanizeTask;
-import com.github.ucchyocean.lc3.japanize.JapanizeType;
 import com.github.ucchyocean.lc3.member.ChannelMember;
-import com.github.ucchyocean.lc3.util.Utility;
+import com.github.ucchyocean.lc3.pipeline.ChatContext;
+import com.github.ucchyocean.lc3.pipeline.ChatPipeline;
 import com.gmail.nossr50.api.PartyAPI;
 import com.gmail.nossr50.datatypes.chat.ChatChannel;
 import com.gmail.nossr50.events.chat.McMMOPartyChatEvent;
@@ -20,10 +19,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 
-import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * mcMMO連携クラス
@@ -43,71 +39,42 @@ public class McMMOBridge implements Listener {
         // mcMMOから、パーティのメンバーを取得する
         List<Player> recipients = PartyAPI.getOnlineMembers(event.getParty());
 
-        String message = event.getMessage();
         ChannelMember player = ChannelMember.getChannelMember(event.getDisplayName(ChatChannel.PARTY));
         LunaChatConfig config = LunaChat.getConfig();
         LunaChatAPI api = LunaChat.getAPI();
 
-        // NGワード発言をマスク
-        for (Pattern pattern : config.getNgwordCompiled()) {
-            Matcher matcher = pattern.matcher(message);
-            if (matcher.find()) {
-                message = matcher.replaceAll(
-                        Utility.getAstariskString(matcher.group(0).length()));
-            }
-        }
-
-        // カラーコード置き換え
-        // 置き換え設定になっていて、発言者がパーミッションを持っているなら、置き換えする
-        if (config.isEnableNormalChatColorCode() &&
-                player.hasPermission("lunachat.allowcc")) {
-            message = Utility.replaceColorCode(message);
-        }
-
-        // 一時的にJapanizeスキップ設定かどうかを確認する
-        boolean skipJapanize = false;
-        String marker = config.getNoneJapanizeMarker();
-        if (!marker.equals("") && message.startsWith(marker)) {
-            skipJapanize = true;
-            message = message.substring(marker.length());
-        }
+        // マーカー確認、NGワード発言をマスク、カラーコード置き換え
+        // カラーコードは、置き換え設定になっていて、発言者がパーミッションを持っているなら、置き換えする
+        ChatContext context = new ChatContext(player, event.getMessage());
+        context.setAllowColorCode(config.isEnableNormalChatColorCode() &&
+                player.hasPermission("lunachat.allowcc"));
+        ChatPipeline.getNormalInput().run(context);
 
         // 2byteコードを含むなら、Japanize変換は行わない
-        String kanaTemp = Utility.stripColorCode(message);
-        if (!skipJapanize &&
-                (kanaTemp.getBytes(StandardCharsets.UTF_8).length > kanaTemp.length() ||
-                        kanaTemp.matches("[ \\uFF61-\\uFF9F]+"))) {
-            skipJapanize = true;
-        }
+        context.setJapanizeType(config.getJapanizeType());
+        ChatPipeline.getJapanize().run(context);
+        String message = context.getMessage();
 
         // Japanize変換と、発言処理
-        if (!skipJapanize &&
-                LunaChat.getAPI().isPlayerJapanize(player.getName()) &&
-                config.getJapanizeType() != JapanizeType.NONE) {
-
-            int lineType = config.getJapanizeDisplayLine();
+        if (context.isJapanize()) {
 
-            if (lineType == 1) {
-
-                String taskFormat = Utility.replaceColorCode(config.getJapanizeLine1Format());
+            if (context.getJapanizeDisplayLine() == 1) {
 
                 String japanized = api.japanize(
-                        kanaTemp, config.getJapanizeType());
+                        context.getPlainMessage(), context.getJapanizeType());
                 if (japanized != null) {
-                    String temp = taskFormat.replace("%msg", message);
+                    String temp = context.getJapanizeFormat().replace("%msg", message);
                     message = temp.replace("%japanize", japanized);
                 }
 
             } else {
 
-                String taskFormat = Utility.replaceColorCode(config.getJapanizeLine2Format());
-
                 BukkitRecipientChatJapanizeTask task = new BukkitRecipientChatJapanizeTask(
-                        message, config.getJapanizeType(), player, taskFormat, recipients);
+                        message, context.getJapanizeType(), player, context.getJapanizeFormat(), recipients);
 
                 // 発言処理を必ず先に実施させるため、遅延を入れてタスクを実行する。
                 int wait = config.getJapanizeWait();
-                task.runTaskLater(LunaChatBukkit.getInstance(), wait);
+                task.start(wait);
             }
         }
 
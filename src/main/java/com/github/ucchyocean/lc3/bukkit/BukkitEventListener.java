@@ -8,15 +8,18 @@ package com.github.ucchyocean.lc3.bukkit;
 import com.github.ucchyocean.lc3.*;
 import com.github.ucchyocean.lc3.channel.Channel;
 import com.github.ucchyocean.lc3.event.EventResult;
-import com.github.ucchyocean.lc3.japanize.JapanizeType;
+import com.github.ucchyocean.lc3.japanize.JapanizeClassifier;
 import com.github.ucchyocean.lc3.member.ChannelMember;
-import com.github.ucchyocean.lc3.member.ChannelMemberBukkit;
 import com.github.ucchyocean.lc3.member.ChannelMemberOther;
 import com.github.ucchyocean.lc3.member.ChannelMemberPlayer;
+import com.github.ucchyocean.lc3.member.GlobalListeners;
+import com.github.ucchyocean.lc3.member.MemberDecorationCache;
+import com.github.ucchyocean.lc3.member.PermissionSnapshot;
 import com.github.ucchyocean.lc3.messaging.BukkitChatMessage;
+import com.github.ucchyocean.lc3.pipeline.ChatContext;
+import com.github.ucchyocean.lc3.pipeline.ChatPipeline;
 import com.github.ucchyocean.lc3.util.ClickableFormat;
 import com.github.ucchyocean.lc3.util.Utility;
-import me.clip.placeholderapi.PlaceholderAPI;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import net.md_5.bungee.api.chat.BaseComponent;
@@ -30,14 +33,13 @@ import org.bukkit.event.player.AsyncPlayerChatEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 import java.util.logging.Level;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Bukkit関連のイベントを監視するリスナ
@@ -108,6 +110,18 @@ public class BukkitEventListener implements Listener {
         }
     }
 
+    /**
+     * プレイヤーのサーバー参加ごとに、ほかの処理より先に呼び出されるメソッド
+     *
+     * @param event プレイヤー参加イベント
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoinLowest(PlayerJoinEvent event) {
+
+        // 以降の処理で、プレイヤーをサーバーから探さずに使えるよう、結び付けておく
+        ChannelMemberPlayer.bind(event.getPlayer());
+    }
+
     /**
      * プレイヤーのサーバー参加ごとに呼び出されるメソッド
      *
@@ -123,6 +137,13 @@ public class BukkitEventListener implements Listener {
         LunaChat.getUUIDCacheData().put(player.getUniqueId().toString(), player.getName());
         LunaChat.getUUIDCacheData().save();
 
+        // 前回のログイン時の装飾や権限の確認結果が残っていれば破棄する
+        MemberDecorationCache.getInstance().invalidate(player.getUniqueId());
+        PermissionSnapshot.getInstance().invalidate(player.getUniqueId());
+
+        // 全チャンネルの発言を受信するパーミッションを確認する
+        GlobalListeners.getInstance().update(ChannelMember.getChannelMember(player));
+
         // 強制参加チャンネル設定を確認し、参加させる
         forceJoinToForceJoinChannels(player);
 
@@ -150,6 +171,11 @@ public class BukkitEventListener implements Listener {
         Player player = event.getPlayer();
         String pname = player.getName();
 
+        // 装飾のキャッシュを破棄する
+        MemberDecorationCache.getInstance().invalidate(player.getUniqueId());
+        PermissionSnapshot.getInstance().invalidate(player.getUniqueId());
+        GlobalListeners.getInstance().remove(player.getUniqueId());
+
         // お互いがオフラインになるPMチャンネルがある場合は
         // チャンネルをクリアする
         ArrayList<Channel> deleteList = new ArrayList<Channel>();
@@ -175,6 +201,18 @@ public class BukkitEventListener implements Listener {
         }
     }
 
+    /**
+     * プレイヤーのサーバー退出ごとに、ほかの処理が全て終わってから呼び出されるメソッド
+     *
+     * @param event プレイヤー退出イベント
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuitMonitor(PlayerQuitEvent event) {
+
+        // プレイヤーの結び付けを解除する
+        ChannelMemberPlayer.unbind(event.getPlayer().getUniqueId());
+    }
+
     /**
      * プレイヤーのチャットごとに呼び出されるメソッド
      *
@@ -314,81 +352,51 @@ public class BukkitEventListener implements Listener {
         } else {
             // グローバルチャンネル設定が無い場合
 
-            String message = event.getMessage();
-            // NGワード発言をマスク
-            for (Pattern pattern : config.getNgwordCompiled()) {
-                Matcher matcher = pattern.matcher(message);
-                if (matcher.find()) {
-                    message = matcher.replaceAll(
-                            Utility.getAstariskString(matcher.group(0).length()));
-                }
-            }
-
-            // カラーコード置き換え
-            // 置き換え設定になっていて、発言者がパーミッションを持っているなら、置き換えする
-            if (config.isEnableNormalChatColorCode() &&
-                    event.getPlayer().hasPermission("lunachat.allowcc")) {
-                message = Utility.replaceColorCode(message);
-            }
+            // マーカー確認、NGワード発言をマスク、カラーコード置き換え
+            // カラーコードは、置き換え設定になっていて、発言者がパーミッションを持っているなら、置き換えする
+            ChatContext context = new ChatContext(player, event.getMessage());
+            context.setAllowColorCode(config.isEnableNormalChatColorCode() &&
+                    event.getPlayer().hasPermission("lunachat.allowcc"));
+            ChatPipeline.getNormalInput().run(context);
 
             // hideされているプレイヤーを、recipientから抜く
-            for (ChannelMember cp : api.getHidelist(player)) {
-                Player p = ((ChannelMemberBukkit) cp).getPlayer();
-                if (p != null) {
-                    event.getRecipients().remove(p);
-                }
+            Set<UUID> hiders = api.getHidelistUUIDs(player);
+            if (!hiders.isEmpty()) {
+                event.getRecipients().removeIf(p -> hiders.contains(p.getUniqueId()));
             }
 
-            // 一時的にJapanizeスキップ設定かどうかを確認する
-            boolean skipJapanize = false;
-            String marker = config.getNoneJapanizeMarker();
-            if (!marker.equals("") && message.startsWith(marker)) {
-                skipJapanize = true;
-                message = message.substring(marker.length());
+            // 拡張プレースホルダーを含むなら、Japanize変換は行わない
+            // 候補となる文字列が無ければ、PlaceholderAPIには問い合わせない
+            if (JapanizeClassifier.has(context.getClassification(), JapanizeClassifier.PLACEHOLDER) &&
+                    LunaChatBukkit.getInstance().getPlaceholders().containsPlaceholders(context.getMessage())) {
+                context.setSkipJapanize(true);
             }
 
             // 2byteコードを含む、または、半角カタカナのみなら、Japanize変換は行わない
-            String kanaTemp = Utility.stripColorCode(message);
-            if (!skipJapanize &&
-                    (kanaTemp.getBytes(StandardCharsets.UTF_8).length > kanaTemp.length() ||
-                            kanaTemp.matches("[ \\uFF61-\\uFF9F]+"))) {
-                skipJapanize = true;
-            }
-
-            // 拡張プレースホルダーを含むなら、Japanize変換は行わない
-            if (LunaChatBukkit.getInstance().enablePlaceholderAPI() &&
-                    PlaceholderAPI.containsPlaceholders(message)) {
-                skipJapanize = true;
-            }
+            context.setJapanizeType(config.getJapanizeType());
+            ChatPipeline.getJapanize().run(context);
+            String message = context.getMessage();
 
             // Japanize変換と、発言処理
-            if (!skipJapanize &&
-                    LunaChat.getAPI().isPlayerJapanize(player.getName()) &&
-                    config.getJapanizeType() != JapanizeType.NONE) {
-
-                int lineType = config.getJapanizeDisplayLine();
+            if (context.isJapanize()) {
 
-                if (lineType == 1) {
-
-                    String taskFormat = Utility.replaceColorCode(config.getJapanizeLine1Format());
+                if (context.getJapanizeDisplayLine() == 1) {
 
                     String japanized = api.japanize(
-                            kanaTemp, config.getJapanizeType());
+                            context.getPlainMessage(), context.getJapanizeType());
                     if (japanized != null) {
-                        String temp = taskFormat.replace("%msg", message);
+                        String temp = context.getJapanizeFormat().replace("%msg", message);
                         message = temp.replace("%japanize", japanized);
                     }
 
                 } else {
 
-                    String taskFormat = Utility.replaceColorCode(config.getJapanizeLine2Format());
-
                     BukkitNormalChatJapanizeTask task = new BukkitNormalChatJapanizeTask(
-                            message, config.getJapanizeType(), player, taskFormat, event);
+                            message, context.getJapanizeType(), player, context.getJapanizeFormat(), event);
 
                     // 発言処理を必ず先に実施させるため、遅延を入れてタスクを実行する。
                     int wait = config.getJapanizeWait();
-                    task.runTaskLater(LunaChatBukkit.getInstance(), wait);
+                    task.start(wait);
                 }
             }
 
@@ -408,10 +416,7 @@ public class BukkitEventListener implements Listener {
                 }
 
                 // 拡張プレースホルダーの置き換え
-                if (LunaChatBukkit.getInstance().enablePlaceholderAPI()) {
-                    message = PlaceholderAPI.setPlaceholders(event.getPlayer(), message);
-                    message = LunaChatBukkit.stripUnresolvedPlaceholders(message);
-                }
+                message = LunaChatBukkit.getInstance().getPlaceholders().expand(event.getPlayer(), message);
 
                 // 発言内容の送信
                 format.replace("%msg", message);
@@ -444,10 +449,7 @@ public class BukkitEventListener implements Listener {
                 }
 
                 // 拡張プレースホルダーの置き換え
-                if (LunaChatBukkit.getInstance().enablePlaceholderAPI()) {
-                    message = PlaceholderAPI.setPlaceholders(event.getPlayer(), message);
-                    message = LunaChatBukkit.stripUnresolvedPlaceholders(message);
-                }
+                message = LunaChatBukkit.getInstance().getPlaceholders().expand(event.getPlayer(), message);
 
                 // 発言内容の設定
                 event.setMessage(message);
@@ -599,8 +601,7 @@ public class BukkitEventListener implements Listener {
 
         // 拡張プレースホルダーを含むなら、Japanizeスキップマーカーを追加する
         // TODO: 2022/11/15 Bungee共通コードにPlaceholderAPIの処理を置きたくないため暫定的な措置
-        if (LunaChatBukkit.getInstance().enablePlaceholderAPI() &&
-                PlaceholderAPI.containsPlaceholders(message)) {
+        if (LunaChatBukkit.getInstance().getPlaceholders().containsPlaceholders(message)) {
             message = LunaChat.getConfig().getNoneJapanizeMarker() + message;
         }
 
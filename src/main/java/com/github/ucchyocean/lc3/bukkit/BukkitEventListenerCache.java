@@ -0,0 +1,203 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.bukkit;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.RegisteredListener;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * イベントの種類ごとに、受信するリスナーが登録されているかどうかを記録しておくクラス。<br>
+ * LunaChatのイベントは、新旧それぞれ基底クラスの HandlerList を共有しているため、
+ * 登録されているリスナーの EventHandler メソッドの引数から、受信するイベントの種類を判定する。
+ * そのように判定できない登録があるイベントは、受信するリスナーがあるものとして扱う。<br>
+ * 判定結果は、HandlerList の登録内容が変わるか、プラグインの有効化・無効化で破棄される。
+ *
+ * @author ucchy
+ */
+class BukkitEventListenerCache {
+
+    private final Map<Class<? extends Event>, Entry> entries;
+
+    /**
+     * コンストラクタ
+     */
+    BukkitEventListenerCache() {
+        entries = new ConcurrentHashMap<Class<? extends Event>, Entry>();
+    }
+
+    /**
+     * 指定した種類のイベントを受信するリスナーがあるかどうかを返す
+     *
+     * @param type     イベントの種類
+     * @param handlers イベントの HandlerList
+     * @return リスナーがあるかどうか
+     */
+    boolean hasListeners(Class<? extends Event> type, HandlerList handlers) {
+
+        // 登録内容が変わると、HandlerList は新しい配列を作り直すので、配列の同一性で変更を検出する
+        RegisteredListener[] listeners = handlers.getRegisteredListeners();
+        Entry entry = entries.get(type);
+        if (entry == null || entry.listeners != listeners) {
+            entry = new Entry(listeners, isListening(type, handlers, listeners));
+            entries.put(type, entry);
+        }
+        return entry.listening;
+    }
+
+    /**
+     * 判定結果を全て破棄する
+     */
+    void refresh() {
+        entries.clear();
+    }
+
+    /**
+     * 登録されているリスナーの中に、指定した種類のイベントを受信するものがあるかどうかを調べる
+     *
+     * @param type      イベントの種類
+     * @param handlers  イベントの HandlerList
+     * @param listeners 登録されているリスナー
+     * @return 受信するリスナーがあるかどうか
+     */
+    private static boolean isListening(Class<? extends Event> type, HandlerList handlers,
+                                       RegisteredListener[] listeners) {
+
+        // 同じリスナーの登録をまとめる
+        Map<Listener, List<RegisteredListener>> registrations =
+                new IdentityHashMap<Listener, List<RegisteredListener>>();
+        for (RegisteredListener listener : listeners) {
+            registrations.computeIfAbsent(listener.getListener(), k -> new ArrayList<RegisteredListener>())
+                    .add(listener);
+        }
+
+        for (Map.Entry<Listener, List<RegisteredListener>> entry : registrations.entrySet()) {
+            if (isListening(type, handlers, entry.getKey().getClass(), entry.getValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * リスナーが、指定した種類のイベントを受信するかどうかを調べる。<br>
+     * 全ての登録が、この HandlerList のイベントを引数に取る EventHandler メソッド
+     * （registerEvents で登録されたもの）に、優先度と ignoreCancelled を含めて1対1で対応付けられ、
+     * かつ、それらのメソッドの引数がどれも指定した種類のイベントを受け取らない場合に限り、受信しないものとして扱う。
+     * registerEvent と独自の EventExecutor で登録されたものなど、対応付けられない登録がある場合は、受信するものとして扱う。
+     *
+     * @param type          イベントの種類
+     * @param handlers      イベントの HandlerList
+     * @param listenerClass リスナーのクラス
+     * @param registrations リスナーの登録
+     * @return 受信するかどうか
+     */
+    private static boolean isListening(Class<? extends Event> type, HandlerList handlers,
+                                       Class<?> listenerClass, List<RegisteredListener> registrations) {
+
+        List<Method> candidates = new ArrayList<Method>();
+        for (Method method : getHandlerMethods(listenerClass)) {
+            Class<?> param = method.getParameterTypes()[0];
+            if (getHandlerList(param) != handlers) {
+                continue;
+            }
+            if (param.isAssignableFrom(type)) {
+                return true;
+            }
+            candidates.add(method);
+        }
+
+        for (RegisteredListener registration : registrations) {
+            Method matched = null;
+            for (Method method : candidates) {
+                EventHandler handler = method.getAnnotation(EventHandler.class);
+                if (handler.priority() == registration.getPriority()
+                        && handler.ignoreCancelled() == registration.isIgnoringCancelled()) {
+                    matched = method;
+                    break;
+                }
+            }
+            if (matched == null) {
+                return true;
+            }
+            candidates.remove(matched);
+        }
+        return false;
+    }
+
+    /**
+     * registerEvents で登録の対象になる、EventHandler の付いたメソッドを取得する
+     *
+     * @param listenerClass リスナーのクラス
+     * @return EventHandler の付いたメソッド
+     */
+    private static Set<Method> getHandlerMethods(Class<?> listenerClass) {
+        Set<Method> methods = new HashSet<Method>();
+        try {
+            methods.addAll(Arrays.asList(listenerClass.getMethods()));
+            methods.addAll(Arrays.asList(listenerClass.getDeclaredMethods()));
+        } catch (LinkageError e) {
+            return Collections.emptySet();
+        }
+        methods.removeIf(method -> method.isBridge() || method.isSynthetic()
+                || method.getAnnotation(EventHandler.class) == null
+                || method.getParameterCount() != 1
+                || !Event.class.isAssignableFrom(method.getParameterTypes()[0]));
+        return methods;
+    }
+
+    /**
+     * イベントのクラスから、登録先の HandlerList を取得する
+     *
+     * @param eventClass イベントのクラス
+     * @return HandlerList、取得できない場合はnull
+     */
+    private static HandlerList getHandlerList(Class<?> eventClass) {
+        for (Class<?> clazz = eventClass; clazz != null && clazz != Event.class; clazz = clazz.getSuperclass()) {
+            try {
+                Method method = clazz.getDeclaredMethod("getHandlerList");
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    return null;
+                }
+                method.setAccessible(true);
+                return (HandlerList) method.invoke(null);
+            } catch (NoSuchMethodException e) {
+                // 親クラスを確認する
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 判定結果
+     */
+    private static class Entry {
+
+        private final RegisteredListener[] listeners;
+        private final boolean listening;
+
+        private Entry(RegisteredListener[] listeners, boolean listening) {
+            this.listeners = listeners;
+            this.listening = listening;
+        }
+    }
+}
@@ -13,6 +13,10 @@ import com.github.ucchyocean.lc3.event.EventSenderInterface;
 import com.github.ucchyocean.lc3.member.*;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.server.PluginEnableEvent;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -20,12 +24,35 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * Bukkitのイベント実行クラス
+ * Bukkitのイベント実行クラス。<br>
+ * イベントは新旧2種類が実行されるが、受信するリスナーが無い種類のイベントは、作成も実行もしない。
  *
  * @author ucchy
  */
 @SuppressWarnings("deprecation")
-public class BukkitEventSender implements EventSenderInterface {
+public class BukkitEventSender implements EventSenderInterface, Listener {
+
+    private final BukkitEventListenerCache listeners = new BukkitEventListenerCache();
+
+    /**
+     * プラグインが有効化されたときに、リスナーの登録状況を確認し直す
+     *
+     * @param event
+     */
+    @EventHandler
+    public void onPluginEnable(PluginEnableEvent event) {
+        listeners.refresh();
+    }
+
+    /**
+     * プラグインが無効化されたときに、リスナーの登録状況を確認し直す
+     *
+     * @param event
+     */
+    @EventHandler
+    public void onPluginDisable(PluginDisableEvent event) {
+        listeners.refresh();
+    }
 
     /**
      * チャンネルチャットのチャットイベント
@@ -42,21 +69,31 @@ public class BukkitEventSender implements EventSenderInterface {
     public EventResult sendLunaChatChannelChatEvent(String channelName, ChannelMember member, String originalMessage,
                                                     String ngMaskedMessage, String messageFormat) {
 
-        LunaChatBukkitChannelChatEvent event =
-                new LunaChatBukkitChannelChatEvent(
-                        channelName, member, originalMessage, ngMaskedMessage, messageFormat);
-        Bukkit.getPluginManager().callEvent(event);
+        EventResult result = new EventResult();
+        result.setNgMaskedMessage(ngMaskedMessage);
+        result.setMessageFormat(messageFormat);
+
+        if (isListening(LunaChatBukkitChannelChatEvent.class)) {
+            LunaChatBukkitChannelChatEvent event =
+                    new LunaChatBukkitChannelChatEvent(
+                            channelName, member, originalMessage, ngMaskedMessage, messageFormat);
+            Bukkit.getPluginManager().callEvent(event);
+            result.setCancelled(event.isCancelled());
+            result.setNgMaskedMessage(event.getNgMaskedMessage());
+            result.setMessageFormat(event.getMessageFormat());
+        }
 
-        LunaChatChannelChatEvent legacy = new LunaChatChannelChatEvent(
-                channelName, convertChannelMemberToChannelPlayer(member),
-                originalMessage, event.getNgMaskedMessage(), event.getMessageFormat());
-        legacy.setCancelled(event.isCancelled());
-        Bukkit.getPluginManager().callEvent(legacy);
+        if (isListeningLegacy(LunaChatChannelChatEvent.class)) {
+            LunaChatChannelChatEvent legacy = new LunaChatChannelChatEvent(
+                    channelName, convertChannelMemberToChannelPlayer(member),
+                    originalMessage, result.getNgMaskedMessage(), result.getMessageFormat());
+            legacy.setCancelled(result.isCancelled());
+            Bukkit.getPluginManager().callEvent(legacy);
+            result.setCancelled(legacy.isCancelled());
+            result.setNgMaskedMessage(legacy.getNgMaskedMessage());
+            result.setMessageFormat(legacy.getMessageFormat());
+        }
 
-        EventResult result = new EventResult();
-        result.setCancelled(legacy.isCancelled());
-        result.setNgMaskedMessage(legacy.getNgMaskedMessage());
-        result.setMessageFormat(legacy.getMessageFormat());
         return result;
     }
 
@@ -71,18 +108,26 @@ public class BukkitEventSender implements EventSenderInterface {
     @Override
     public EventResult sendLunaChatChannelCreateEvent(String channelName, ChannelMember member) {
 
-        LunaChatBukkitChannelCreateEvent event =
-                new LunaChatBukkitChannelCreateEvent(channelName, member);
-        Bukkit.getPluginManager().callEvent(event);
+        EventResult result = new EventResult();
+        result.setChannelName(channelName);
+
+        if (isListening(LunaChatBukkitChannelCreateEvent.class)) {
+            LunaChatBukkitChannelCreateEvent event =
+                    new LunaChatBukkitChannelCreateEvent(channelName, member);
+            Bukkit.getPluginManager().callEvent(event);
+            result.setCancelled(event.isCancelled());
+            result.setChannelName(event.getChannelName());
+        }
 
-        LunaChatChannelCreateEvent legacy = new LunaChatChannelCreateEvent(
-                event.getChannelName(), convertChannelMemberToCommandSender(member));
-        legacy.setCancelled(event.isCancelled());
-        Bukkit.getPluginManager().callEvent(legacy);
+        if (isListeningLegacy(LunaChatChannelCreateEvent.class)) {
+            LunaChatChannelCreateEvent legacy = new LunaChatChannelCreateEvent(
+                    result.getChannelName(), convertChannelMemberToCommandSender(member));
+            legacy.setCancelled(result.isCancelled());
+            Bukkit.getPluginManager().callEvent(legacy);
+            result.setCancelled(legacy.isCancelled());
+            result.setChannelName(legacy.getChannelName());
+        }
 
-        EventResult result = new EventResult();
-        result.setCancelled(legacy.isCancelled());
-        result.setChannelName(legacy.getChannelName());
         return result;
     }
 
@@ -99,18 +144,23 @@ public class BukkitEventSender implements EventSenderInterface {
     public EventResult sendLunaChatChannelMemberChangedEvent(String channelName, List<ChannelMember> before,
                                                              List<ChannelMember> after) {
 
-        LunaChatBukkitChannelMemberChangedEvent event =
-                new LunaChatBukkitChannelMemberChangedEvent(channelName, before, after);
-        Bukkit.getPluginManager().callEvent(event);
+        EventResult result = new EventResult();
 
-        LunaChatChannelMemberChangedEvent legacy =
-                new LunaChatChannelMemberChangedEvent(channelName,
-                        convertMemberListToPlayerList(before), convertMemberListToPlayerList(after));
-        legacy.setCancelled(event.isCancelled());
-        Bukkit.getPluginManager().callEvent(legacy);
+        if (isListening(LunaChatBukkitChannelMemberChangedEvent.class)) {
+            LunaChatBukkitChannelMemberChangedEvent event =
+                    new LunaChatBukkitChannelMemberChangedEvent(channelName, before, after);
+            Bukkit.getPluginManager().callEvent(event);
+            result.setCancelled(event.isCancelled());
+        }
+
+        if (isListeningLegacy(LunaChatChannelMemberChangedEvent.class)) {
+            LunaChatChannelMemberChangedEvent legacy =
+                    new LunaChatChannelMemberChangedEvent(channelName,
+                            convertMemberListToPlayerList(before), convertMemberListToPlayerList(after));
+            legacy.setCancelled(result.isCancelled());
+            Bukkit.getPluginManager().callEvent(legacy);
+        }
 
-        EventResult result = new EventResult();
-        result.setCancelled(event.isCancelled());
         return result;
     }
 
@@ -130,22 +180,35 @@ public class BukkitEventSender implements EventSenderInterface {
     public EventResult sendLunaChatChannelMessageEvent(String channelName, ChannelMember member, String message,
                                                        List<ChannelMember> recipients, String displayName, String originalMessage) {
 
-        LunaChatBukkitChannelMessageEvent event =
-                new LunaChatBukkitChannelMessageEvent(
-                        channelName, member, message, recipients, displayName, originalMessage);
-        Bukkit.getPluginManager().callEvent(event);
+        EventResult result = new EventResult();
+        result.setMessage(message);
+        result.setRecipients(recipients);
+
+        if (isListening(LunaChatBukkitChannelMessageEvent.class)) {
+            LunaChatBukkitChannelMessageEvent event =
+                    new LunaChatBukkitChannelMessageEvent(
+                            channelName, member, message, recipients, displayName, originalMessage);
+            Bukkit.getPluginManager().callEvent(event);
+            result.setMessage(event.getMessage());
+            result.setRecipients(event.getRecipients());
+        }
 
-        ArrayList<ChannelPlayer> recipientsTemp =
-                new ArrayList<ChannelPlayer>(convertMemberListToPlayerList(event.getRecipients()));
-        LunaChatChannelMessageEvent legacy =
-                new LunaChatChannelMessageEvent(
-                        channelName, convertChannelMemberToChannelPlayer(member),
-                        event.getMessage(), recipientsTemp, displayName, originalMessage);
-        Bukkit.getPluginManager().callEvent(legacy);
+        // 受信者リストの変換は、旧イベントのリスナーが受信者リストを参照したときにだけ行い、
+        // 変更されたときにだけ書き戻す
+        if (isListeningLegacy(LunaChatChannelMessageEvent.class)) {
+            final List<ChannelMember> current = result.getRecipients();
+            LunaChatChannelMessageEvent legacy =
+                    new LunaChatChannelMessageEvent(
+                            channelName, convertChannelMemberToChannelPlayer(member), result.getMessage(),
+                            () -> new ArrayList<ChannelPlayer>(convertMemberListToPlayerList(current)),
+                            displayName, originalMessage);
+            Bukkit.getPluginManager().callEvent(legacy);
+            result.setMessage(legacy.getMessage());
+            if (legacy.isRecipientsChanged()) {
+                result.setRecipients(convertPlayerListToMemberList(legacy.getRecipients()));
+            }
+        }
 
-        EventResult result = new EventResult();
-        result.setMessage(legacy.getMessage());
-        result.setRecipients(convertPlayerListToMemberList(legacy.getRecipients()));
         return result;
     }
 
@@ -162,20 +225,27 @@ public class BukkitEventSender implements EventSenderInterface {
     public EventResult sendLunaChatChannelOptionChangedEvent(String channelName, ChannelMember member,
                                                              Map<String, String> options) {
 
-        LunaChatBukkitChannelOptionChangedEvent event =
-                new LunaChatBukkitChannelOptionChangedEvent(channelName, member, options);
-        Bukkit.getPluginManager().callEvent(event);
+        EventResult result = new EventResult();
+        result.setOptions(options);
 
-        LunaChatChannelOptionChangedEvent legacy =
-                new LunaChatChannelOptionChangedEvent(
-                        channelName, convertChannelMemberToCommandSender(member),
-                        new HashMap<String, String>(options));
-        legacy.setCancelled(event.isCancelled());
-        Bukkit.getPluginManager().callEvent(legacy);
+        if (isListening(LunaChatBukkitChannelOptionChangedEvent.class)) {
+            LunaChatBukkitChannelOptionChangedEvent event =
+                    new LunaChatBukkitChannelOptionChangedEvent(channelName, member, options);
+            Bukkit.getPluginManager().callEvent(event);
+            result.setCancelled(event.isCancelled());
+        }
+
+        if (isListeningLegacy(LunaChatChannelOptionChangedEvent.class)) {
+            LunaChatChannelOptionChangedEvent legacy =
+                    new LunaChatChannelOptionChangedEvent(
+                            channelName, convertChannelMemberToCommandSender(member),
+                            new HashMap<String, String>(options));
+            legacy.setCancelled(result.isCancelled());
+            Bukkit.getPluginManager().callEvent(legacy);
+            result.setCancelled(legacy.isCancelled());
+            result.setOptions(legacy.getOptions());
+        }
 
-        EventResult result = new EventResult();
-        result.setCancelled(legacy.isCancelled());
-        result.setOptions(legacy.getOptions());
         return result;
     }
 
@@ -190,18 +260,26 @@ public class BukkitEventSender implements EventSenderInterface {
     @Override
     public EventResult sendLunaChatChannelRemoveEvent(String channelName, ChannelMember member) {
 
-        LunaChatBukkitChannelRemoveEvent event = new LunaChatBukkitChannelRemoveEvent(channelName, member);
-        Bukkit.getPluginManager().callEvent(event);
+        EventResult result = new EventResult();
+        result.setChannelName(channelName);
 
-        LunaChatChannelRemoveEvent legacy =
-                new LunaChatChannelRemoveEvent(
-                        event.getChannelName(), convertChannelMemberToCommandSender(member));
-        legacy.setCancelled(event.isCancelled());
-        Bukkit.getPluginManager().callEvent(legacy);
+        if (isListening(LunaChatBukkitChannelRemoveEvent.class)) {
+            LunaChatBukkitChannelRemoveEvent event = new LunaChatBukkitChannelRemoveEvent(channelName, member);
+            Bukkit.getPluginManager().callEvent(event);
+            result.setCancelled(event.isCancelled());
+            result.setChannelName(event.getChannelName());
+        }
+
+        if (isListeningLegacy(LunaChatChannelRemoveEvent.class)) {
+            LunaChatChannelRemoveEvent legacy =
+                    new LunaChatChannelRemoveEvent(
+                            result.getChannelName(), convertChannelMemberToCommandSender(member));
+            legacy.setCancelled(result.isCancelled());
+            Bukkit.getPluginManager().callEvent(legacy);
+            result.setCancelled(legacy.isCancelled());
+            result.setChannelName(legacy.getChannelName());
+        }
 
-        EventResult result = new EventResult();
-        result.setCancelled(legacy.isCancelled());
-        result.setChannelName(legacy.getChannelName());
         return result;
     }
 
@@ -219,19 +297,27 @@ public class BukkitEventSender implements EventSenderInterface {
     public EventResult sendLunaChatPostJapanizeEvent(String channelName, ChannelMember member, String original,
                                                      String japanized) {
 
-        LunaChatBukkitPostJapanizeEvent event =
-                new LunaChatBukkitPostJapanizeEvent(channelName, member, original, japanized);
-        Bukkit.getPluginManager().callEvent(event);
+        EventResult result = new EventResult();
+        result.setJapanized(japanized);
+
+        if (isListening(LunaChatBukkitPostJapanizeEvent.class)) {
+            LunaChatBukkitPostJapanizeEvent event =
+                    new LunaChatBukkitPostJapanizeEvent(channelName, member, original, japanized);
+            Bukkit.getPluginManager().callEvent(event);
+            result.setCancelled(event.isCancelled());
+            result.setJapanized(event.getJapanized());
+        }
 
-        LunaChatPostJapanizeEvent legacy =
-                new LunaChatPostJapanizeEvent(
-                        channelName, convertChannelMemberToChannelPlayer(member), original, event.getJapanized());
-        legacy.setCancelled(event.isCancelled());
-        Bukkit.getPluginManager().callEvent(legacy);
+        if (isListeningLegacy(LunaChatPostJapanizeEvent.class)) {
+            LunaChatPostJapanizeEvent legacy =
+                    new LunaChatPostJapanizeEvent(
+                            channelName, convertChannelMemberToChannelPlayer(member), original, result.getJapanized());
+            legacy.setCancelled(result.isCancelled());
+            Bukkit.getPluginManager().callEvent(legacy);
+            result.setCancelled(legacy.isCancelled());
+            result.setJapanized(legacy.getJapanized());
+        }
 
-        EventResult result = new EventResult();
-        result.setCancelled(legacy.isCancelled());
-        result.setJapanized(legacy.getJapanized());
         return result;
     }
 
@@ -247,22 +333,49 @@ public class BukkitEventSender implements EventSenderInterface {
     @Override
     public EventResult sendLunaChatPreChatEvent(String channelName, ChannelMember member, String message) {
 
-        LunaChatBukkitPreChatEvent event =
-                new LunaChatBukkitPreChatEvent(channelName, member, message);
-        Bukkit.getPluginManager().callEvent(event);
-
+        EventResult result = new EventResult();
+        result.setMessage(message);
+
+        if (isListening(LunaChatBukkitPreChatEvent.class)) {
+            LunaChatBukkitPreChatEvent event =
+                    new LunaChatBukkitPreChatEvent(channelName, member, message);
+            Bukkit.getPluginManager().callEvent(event);
+            result.setCancelled(event.isCancelled());
+            result.setMessage(event.getMessage());
+        }
 
-        LunaChatPreChatEvent legacy =
-                new LunaChatPreChatEvent(channelName, convertChannelMemberToChannelPlayer(member), event.getMessage());
-        legacy.setCancelled(event.isCancelled());
-        Bukkit.getPluginManager().callEvent(legacy);
+        if (isListeningLegacy(LunaChatPreChatEvent.class)) {
+            LunaChatPreChatEvent legacy =
+                    new LunaChatPreChatEvent(channelName, convertChannelMemberToChannelPlayer(member), result.getMessage());
+            legacy.setCancelled(result.isCancelled());
+            Bukkit.getPluginManager().callEvent(legacy);
+            result.setCancelled(legacy.isCancelled());
+            result.setMessage(legacy.getMessage());
+        }
 
-        EventResult result = new EventResult();
-        result.setCancelled(legacy.isCancelled());
-        result.setMessage(legacy.getMessage());
         return result;
     }
 
+    /**
+     * イベントを受信するリスナーがあるかどうかを返す
+     *
+     * @param type イベントの種類
+     * @return リスナーがあるかどうか
+     */
+    private boolean isListening(Class<? extends LunaChatBukkitBaseEvent> type) {
+        return listeners.hasListeners(type, LunaChatBukkitBaseEvent.getHandlerList());
+    }
+
+    /**
+     * 旧イベントを受信するリスナーがあるかどうかを返す
+     *
+     * @param type イベントの種類
+     * @return リスナーがあるかどうか
+     */
+    private boolean isListeningLegacy(Class<? extends LunaChatBaseEvent> type) {
+        return listeners.hasListeners(type, LunaChatBaseEvent.getHandlerList());
+    }
+
     /**
      * ChannelMemberをChannelPlayerに変換する
      *
@@ -8,20 +8,21 @@ package com.github.ucchyocean.lc3.bukkit;
 import com.github.ucchyocean.lc3.LunaChat;
 import com.github.ucchyocean.lc3.LunaChatBukkit;
 import com.github.ucchyocean.lc3.channel.JapanizeConvertTask;
+import com.github.ucchyocean.lc3.channel.JapanizeExecutor;
 import com.github.ucchyocean.lc3.japanize.JapanizeType;
 import com.github.ucchyocean.lc3.member.ChannelMember;
 import com.github.ucchyocean.lc3.member.ChannelMemberPlayer;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
-import org.bukkit.scheduler.BukkitRunnable;
 
 /**
- * Japanize2行表示のときに、変換結果を遅延して通常チャットに表示するためのタスク
+ * Japanize2行表示のときに、変換結果を遅延して通常チャットに表示するためのタスク。
+ * 変換は JapanizeExecutor で行い、変換結果の表示だけをサーバーのメインスレッドで行う。
  *
  * @author ucchy
  */
-public class BukkitNormalChatJapanizeTask extends BukkitRunnable {
+public class BukkitNormalChatJapanizeTask {
 
     private final ChannelMember player;
     private final AsyncPlayerChatEvent event;
@@ -46,30 +47,36 @@ public class BukkitNormalChatJapanizeTask extends BukkitRunnable {
     }
 
     /**
-     * @see java.lang.Runnable#run()
+     * 変換を開始する
+     *
+     * @param wait 変換を開始するまでの待ち時間（tick）
      */
-    @Override
-    public void run() {
-
-        if (task.runSync()) {
+    public void start(int wait) {
+        JapanizeExecutor.getInstance().submit(task, wait * 50L, this::deliver,
+                r -> Bukkit.getScheduler().runTask(LunaChatBukkit.getInstance(), r));
+    }
 
-            String result = task.getResult();
+    /**
+     * 変換結果を表示する。サーバーのメインスレッドで実行される。
+     *
+     * @param result 変換結果
+     */
+    private void deliver(String result) {
 
-            // 送信
-            for (Player p : event.getRecipients()) {
-                p.sendMessage(result);
-            }
-            Bukkit.getConsoleSender().sendMessage(result);
+        // 送信
+        for (Player p : event.getRecipients()) {
+            p.sendMessage(result);
+        }
+        Bukkit.getConsoleSender().sendMessage(result);
 
-            // 設定に応じてdynmapへ送信する
-            if (LunaChat.getConfig().isSendBroadcastChannelChatToDynmap() &&
-                    LunaChatBukkit.getInstance().getDynmap() != null) {
-                if (player != null && player instanceof ChannelMemberPlayer
-                        && ((ChannelMemberPlayer) player).getPlayer() != null)
-                    LunaChatBukkit.getInstance().getDynmap().chat(((ChannelMemberPlayer) player).getPlayer(), result);
-                else
-                    LunaChatBukkit.getInstance().getDynmap().broadcast(result);
-            }
+        // 設定に応じてdynmapへ送信する
+        if (LunaChat.getConfig().isSendBroadcastChannelChatToDynmap() &&
+                LunaChatBukkit.getInstance().getDynmap() != null) {
+            if (player != null && player instanceof ChannelMemberPlayer
+                    && ((ChannelMemberPlayer) player).getPlayer() != null)
+                LunaChatBukkit.getInstance().getDynmap().chat(((ChannelMemberPlayer) player).getPlayer(), result);
+            else
+                LunaChatBukkit.getInstance().getDynmap().broadcast(result);
         }
     }
 }
@@ -0,0 +1,130 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.bukkit;
+
+import com.github.ucchyocean.lc3.LunaChat;
+import com.github.ucchyocean.lc3.messaging.Envelope;
+import com.github.ucchyocean.lc3.messaging.MessageBus;
+import com.github.ucchyocean.lc3.messaging.PluginMessageBatcher;
+import com.github.ucchyocean.lc3.messaging.TopicHandlers;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * プラグインメッセージを使って、BungeeCordとデータを送受信するMessageBus。<br>
+ * lunachat:message のトピックは、まとめて送信する設定が有効な場合、{@link PluginMessageBatcher} で
+ * まとめてから、いずれか1人のプレイヤーの接続で送信する。
+ * 無効な場合は、以前のバージョンと同様に、全てのプレイヤーの接続で送信する。
+ *
+ * @author ucchy
+ */
+public class BukkitPluginMessageBus implements MessageBus, PluginMessageListener {
+
+    private final Plugin plugin;
+    private final IntSupplier batchTicks;
+    private final PluginMessageBatcher batcher;
+    private final TopicHandlers handlers;
+
+    /**
+     * コンストラクタ
+     *
+     * @param plugin     プラグイン
+     * @param batchTicks まとめて送信するときに待つ最大のtick数、0ならまとめない
+     */
+    public BukkitPluginMessageBus(Plugin plugin, IntSupplier batchTicks) {
+        this.plugin = plugin;
+        this.batchTicks = batchTicks;
+        this.batcher = new PluginMessageBatcher(this::sendViaAnyPlayer);
+        this.handlers = new TopicHandlers();
+    }
+
+    /**
+     * プラグインメッセージチャンネルを登録し、まとめて送信するタスクを起動する
+     */
+    public void register() {
+        Bukkit.getMessenger().registerOutgoingPluginChannel(plugin, LunaChat.PMC_MESSAGE);
+        Bukkit.getScheduler().runTaskTimer(plugin, batcher::tick, 1, 1);
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.messaging.MessageBus#publish(java.lang.String, byte[])
+     */
+    @Override
+    public CompletableFuture<Integer> publish(String topic, byte[] payload) {
+
+        int ticks = batchTicks.getAsInt();
+        if (ticks > 0 && LunaChat.PMC_MESSAGE.equals(topic)) {
+            CompletableFuture<Integer> result = new CompletableFuture<Integer>();
+            batcher.add(payload, ticks, () -> result.complete(1));
+            return result;
+        }
+
+        // 設定の再読み込みでまとめる設定が無効になった場合に、送信待ちを残さない
+        batcher.flush();
+
+        int count = Bukkit.getOnlinePlayers().size();
+        plugin.getServer().sendPluginMessage(plugin, topic, payload);
+        return CompletableFuture.completedFuture(count);
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.messaging.MessageBus#subscribe(java.lang.String, java.util.function.Consumer)
+     */
+    @Override
+    public Subscription subscribe(String topic, Consumer<Envelope> handler) {
+        if (!Bukkit.getMessenger().isIncomingChannelRegistered(plugin, topic)) {
+            Bukkit.getMessenger().registerIncomingPluginChannel(plugin, topic, this);
+        }
+        return handlers.add(topic, handler);
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.messaging.MessageBus#flush()
+     */
+    @Override
+    public void flush() {
+        batcher.flush();
+    }
+
+    /**
+     * まとめて送信した結果の集計を返す
+     *
+     * @return まとめて送信するクラス
+     */
+    public PluginMessageBatcher getBatcher() {
+        return batcher;
+    }
+
+    /**
+     * プラグインメッセージを受信したときに呼び出されるメソッド
+     *
+     * @see org.bukkit.plugin.messaging.PluginMessageListener#onPluginMessageReceived(java.lang.String, org.bukkit.entity.Player, byte[])
+     */
+    @Override
+    public void onPluginMessageReceived(String channel, Player player, byte[] message) {
+        handlers.dispatch(new Envelope(channel, null, player.getName(), message));
+    }
+
+    /**
+     * まとめたプラグインメッセージを、いずれか1人のプレイヤーの接続から送信する。
+     * BungeeCord側では、送信元のサーバーに接続しているプレイヤーの発言だけを受け付ける。
+     *
+     * @param bytes 送信内容
+     */
+    private void sendViaAnyPlayer(byte[] bytes) {
+        Iterator<? extends Player> players = Bukkit.getOnlinePlayers().iterator();
+        if (players.hasNext()) {
+            players.next().sendPluginMessage(plugin, LunaChat.PMC_MESSAGE, bytes);
+        }
+    }
+}
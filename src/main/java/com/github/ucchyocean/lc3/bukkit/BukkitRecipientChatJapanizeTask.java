@@ -5,22 +5,24 @@
  */
 package com.github.ucchyocean.lc3.bukkit;
 
+import com.github.ucchyocean.lc3.LunaChatBukkit;
 import com.github.ucchyocean.lc3.channel.JapanizeConvertTask;
+import com.github.ucchyocean.lc3.channel.JapanizeExecutor;
 import com.github.ucchyocean.lc3.japanize.JapanizeType;
 import com.github.ucchyocean.lc3.member.ChannelMember;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 
 import java.util.List;
 
 /**
  * Japanize2行表示のときに、変換結果を遅延して指定した受信者に表示するためのタスク。
  * 他プラグインのチャンネル（mcMMOのパーティチャットや、TownyChatなど）に、Japanize変換結果を表示するために使用する。
+ * 変換は JapanizeExecutor で行い、変換結果の表示だけをサーバーのメインスレッドで行う。
  *
  * @author ucchy
  */
-public class BukkitRecipientChatJapanizeTask extends BukkitRunnable {
+public class BukkitRecipientChatJapanizeTask {
 
     private final List<Player> recipients;
 
@@ -42,20 +44,26 @@ public class BukkitRecipientChatJapanizeTask extends BukkitRunnable {
     }
 
     /**
-     * @see java.lang.Runnable#run()
+     * 変換を開始する
+     *
+     * @param wait 変換を開始するまでの待ち時間（tick）
      */
-    @Override
-    public void run() {
-
-        if (task.runSync()) {
+    public void start(int wait) {
+        JapanizeExecutor.getInstance().submit(task, wait * 50L, this::deliver,
+                r -> Bukkit.getScheduler().runTask(LunaChatBukkit.getInstance(), r));
+    }
 
-            String result = task.getResult();
+    /**
+     * 変換結果を表示する。サーバーのメインスレッドで実行される。
+     *
+     * @param result 変換結果
+     */
+    private void deliver(String result) {
 
-            // 送信
-            for (Player p : recipients) {
-                p.sendMessage(result);
-            }
-            Bukkit.getConsoleSender().sendMessage(result);
+        // 送信
+        for (Player p : recipients) {
+            p.sendMessage(result);
         }
+        Bukkit.getConsoleSender().sendMessage(result);
     }
 }
@@ -0,0 +1,120 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.bukkit;
+
+import com.github.ucchyocean.lc3.messaging.Envelope;
+import com.github.ucchyocean.lc3.messaging.MessageBus;
+import com.github.ucchyocean.lc3.messaging.TopicHandlers;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+
+import java.io.*;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * BungeeCordの転送機能（BungeeCordチャンネルの Forward）を使って、ほかのサーバーとデータを送受信するMessageBus。
+ * BungeeCord側にLunaChatを導入する必要はない。<br>
+ * データは、トピックをサブチャンネル名として、ほかの全てのサーバーへ転送される。
+ * 転送先のサーバーにプレイヤーがいない場合は、BungeeCordがプレイヤーの接続を待ってから届ける。
+ *
+ * @author ucchy
+ */
+public class BungeeForwardMessageBus implements MessageBus, PluginMessageListener {
+
+    /** BungeeCordのプラグインメッセージチャンネル */
+    public static final String BUNGEE_CHANNEL = "BungeeCord";
+
+    private final Plugin plugin;
+    private final TopicHandlers handlers;
+
+    /**
+     * コンストラクタ
+     *
+     * @param plugin プラグイン
+     */
+    public BungeeForwardMessageBus(Plugin plugin) {
+        this.plugin = plugin;
+        this.handlers = new TopicHandlers();
+    }
+
+    /**
+     * プラグインメッセージチャンネルを登録する
+     */
+    public void register() {
+        Bukkit.getMessenger().registerOutgoingPluginChannel(plugin, BUNGEE_CHANNEL);
+        Bukkit.getMessenger().registerIncomingPluginChannel(plugin, BUNGEE_CHANNEL, this);
+    }
+
+    /**
+     * いずれか1人のプレイヤーの接続から、ほかの全てのサーバーへデータを転送する。
+     * プレイヤーが1人もいない場合は送信できない。
+     *
+     * @see com.github.ucchyocean.lc3.messaging.MessageBus#publish(java.lang.String, byte[])
+     */
+    @Override
+    public CompletableFuture<Integer> publish(String topic, byte[] payload) {
+
+        if (payload.length > Short.MAX_VALUE) {
+            return CompletableFuture.completedFuture(0);
+        }
+        Iterator<? extends Player> players = Bukkit.getOnlinePlayers().iterator();
+        if (!players.hasNext()) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
+             DataOutputStream out = new DataOutputStream(baos)) {
+            out.writeUTF("Forward");
+            out.writeUTF("ALL");
+            out.writeUTF(topic);
+            out.writeShort(payload.length);
+            out.write(payload);
+            out.flush();
+            players.next().sendPluginMessage(plugin, BUNGEE_CHANNEL, baos.toByteArray());
+            return CompletableFuture.completedFuture(1);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return CompletableFuture.completedFuture(0);
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.messaging.MessageBus#subscribe(java.lang.String, java.util.function.Consumer)
+     */
+    @Override
+    public Subscription subscribe(String topic, Consumer<Envelope> handler) {
+        return handlers.add(topic, handler);
+    }
+
+    /**
+     * プラグインメッセージを受信したときに呼び出されるメソッド
+     *
+     * @see org.bukkit.plugin.messaging.PluginMessageListener#onPluginMessageReceived(java.lang.String, org.bukkit.entity.Player, byte[])
+     */
+    @Override
+    public void onPluginMessageReceived(String channel, Player player, byte[] message) {
+
+        if (!BUNGEE_CHANNEL.equals(channel)) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(message))) {
+            String topic = in.readUTF();
+            if (!handlers.contains(topic)) {
+                return;
+            }
+            byte[] payload = new byte[in.readUnsignedShort()];
+            in.readFully(payload);
+            handlers.dispatch(new Envelope(topic, null, player.getName(), payload));
+        } catch (IOException e) {
+            // 不正なデータは無視する
+        }
+    }
+}
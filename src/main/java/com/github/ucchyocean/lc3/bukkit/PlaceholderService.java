@@ -0,0 +1,186 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.bukkit;
+
+import com.github.ucchyocean.lc3.util.PlaceholderScanner;
+import me.clip.placeholderapi.PlaceholderAPI;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.server.PluginEnableEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PlaceholderAPIによる拡張プレースホルダーの置き換えを、まとめて行うクラス。<br>
+ * PlaceholderAPIが導入されているかどうかは、プラグインの有効化・無効化のイベントを受けて更新し、
+ * 置き換えのたびにプラグインマネージャーへ問い合わせないようにする。
+ * プレースホルダーの候補が含まれていない文字列は、PlaceholderAPIに渡さずにそのまま返す。<br>
+ * 置き換えの回数と所要時間は、プラグインの無効化時に出力される。
+ *
+ * @author ucchy
+ */
+public class PlaceholderService implements Listener {
+
+    private static final String PLUGIN_NAME = "PlaceholderAPI";
+
+    private volatile boolean enabled;
+
+    private final AtomicLong expanded;
+    private final AtomicLong skipped;
+    private final AtomicLong nanos;
+
+    /**
+     * コンストラクタ
+     */
+    public PlaceholderService() {
+        this.enabled = Bukkit.getPluginManager().getPlugin(PLUGIN_NAME) != null;
+        this.expanded = new AtomicLong();
+        this.skipped = new AtomicLong();
+        this.nanos = new AtomicLong();
+    }
+
+    /**
+     * PlaceholderAPIが利用可能かどうかを返す
+     *
+     * @return 利用可能かどうか
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 拡張プレースホルダーを置き換え、置き換えられなかったプレースホルダーを空文字に置き換える。
+     * PlaceholderAPIが利用できない場合は、元の文字列をそのまま返す。
+     *
+     * @param player プレイヤー、プレイヤー以外の場合はnull（未解決のプレースホルダーの除去だけを行う）
+     * @param text   置き換える文字列
+     * @return 置き換え後の文字列
+     */
+    public String expand(@Nullable Player player, String text) {
+        return expand(player, text, false);
+    }
+
+    /**
+     * 発言者の拡張プレースホルダーを置き換え、置き換えられなかったプレースホルダーを空文字に置き換える。
+     * コンソールやコマンドブロックのようにプレイヤーがnullの場合も、PlaceholderAPIに渡して、
+     * サーバー単位のプレースホルダーを置き換える。
+     * PlaceholderAPIが利用できない場合は、元の文字列をそのまま返す。
+     *
+     * @param player プレイヤー、コンソールやコマンドブロックの場合はnull
+     * @param text   置き換える文字列
+     * @return 置き換え後の文字列
+     */
+    public String expandForSender(@Nullable Player player, String text) {
+        return expand(player, text, true);
+    }
+
+    /**
+     * 拡張プレースホルダーを置き換え、置き換えられなかったプレースホルダーを空文字に置き換える
+     *
+     * @param player         プレイヤー、またはnull
+     * @param text           置き換える文字列
+     * @param withNullPlayer プレイヤーがnullの場合も、PlaceholderAPIに渡すかどうか
+     * @return 置き換え後の文字列
+     */
+    private String expand(@Nullable Player player, String text, boolean withNullPlayer) {
+        if (!enabled || text == null) {
+            return text;
+        }
+        if (!PlaceholderScanner.hasCandidate(text)) {
+            skipped.incrementAndGet();
+            return text;
+        }
+        long start = System.nanoTime();
+        if (player != null || withNullPlayer) {
+            text = PlaceholderAPI.setPlaceholders(player, text);
+        }
+        text = PlaceholderScanner.strip(text);
+        record(start);
+        return text;
+    }
+
+    /**
+     * 拡張プレースホルダーを置き換える。置き換えられなかったプレースホルダーは、そのまま残る。
+     * PlaceholderAPIが利用できない場合は、元の文字列をそのまま返す。
+     *
+     * @param player プレイヤー
+     * @param text   置き換える文字列
+     * @return 置き換え後の文字列
+     */
+    public String setPlaceholders(Player player, String text) {
+        if (!enabled || text == null) {
+            return text;
+        }
+        if (!PlaceholderScanner.hasCandidate(text)) {
+            skipped.incrementAndGet();
+            return text;
+        }
+        long start = System.nanoTime();
+        text = PlaceholderAPI.setPlaceholders(player, text);
+        record(start);
+        return text;
+    }
+
+    /**
+     * PlaceholderAPIが利用可能で、文字列に拡張プレースホルダーが含まれているかどうかを返す
+     *
+     * @param text 文字列
+     * @return 拡張プレースホルダーが含まれているかどうか
+     */
+    public boolean containsPlaceholders(String text) {
+        return enabled && PlaceholderScanner.hasCandidate(text) && PlaceholderAPI.containsPlaceholders(text);
+    }
+
+    /**
+     * プラグインが有効化されたときに呼び出されるメソッド
+     *
+     * @param event プラグイン有効化イベント
+     */
+    @EventHandler
+    public void onPluginEnable(PluginEnableEvent event) {
+        if (PLUGIN_NAME.equals(event.getPlugin().getName())) {
+            enabled = true;
+        }
+    }
+
+    /**
+     * プラグインが無効化されたときに呼び出されるメソッド
+     *
+     * @param event プラグイン無効化イベント
+     */
+    @EventHandler
+    public void onPluginDisable(PluginDisableEvent event) {
+        if (PLUGIN_NAME.equals(event.getPlugin().getName())) {
+            enabled = false;
+        }
+    }
+
+    /**
+     * 置き換えの所要時間を記録する
+     *
+     * @param start 開始時刻（System.nanoTime()）
+     */
+    private void record(long start) {
+        nanos.addAndGet(System.nanoTime() - start);
+        expanded.incrementAndGet();
+    }
+
+    /**
+     * 集計結果を文字列で返す
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        long count = expanded.get();
+        return String.format("PlaceholderService: expanded=%d, avg=%.1fus, skipped=%d",
+                count, (count == 0) ? 0.0 : nanos.get() / 1000.0 / count, skipped.get());
+    }
+}
@@ -11,29 +11,33 @@ import com.github.ucchyocean.lc3.event.EventResult;
 import com.github.ucchyocean.lc3.japanize.Japanizer;
 import com.github.ucchyocean.lc3.member.ChannelMember;
 import com.github.ucchyocean.lc3.member.ChannelMemberOther;
+import com.github.ucchyocean.lc3.member.GlobalListeners;
+import com.github.ucchyocean.lc3.member.PermissionSnapshot;
 import com.github.ucchyocean.lc3.messaging.BukkitChatMessage;
+import com.github.ucchyocean.lc3.messaging.Envelope;
+import com.github.ucchyocean.lc3.messaging.PluginMessageBatcher;
+import com.github.ucchyocean.lc3.pipeline.ChatContext;
+import com.github.ucchyocean.lc3.pipeline.ChatPipeline;
 import com.github.ucchyocean.lc3.util.ChatColor;
 import com.github.ucchyocean.lc3.util.ClickableFormat;
 import com.github.ucchyocean.lc3.util.Utility;
-import net.md_5.bungee.api.CommandSender;
 import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.TextComponent;
-import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.api.event.ChatEvent;
 import net.md_5.bungee.api.event.PlayerDisconnectEvent;
-import net.md_5.bungee.api.event.PluginMessageEvent;
 import net.md_5.bungee.api.event.PostLoginEvent;
 import net.md_5.bungee.api.plugin.Listener;
 import net.md_5.bungee.event.EventHandler;
 import net.md_5.bungee.event.EventPriority;
 
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -59,6 +63,7 @@ public class BungeeEventListener implements Listener {
         this.parent = parent;
         config = parent.getConfig();
         api = parent.getLunaChatAPI();
+        parent.getMessageBus().subscribe(LunaChat.PMC_MESSAGE, this::onChatMessageReceived);
     }
 
     /**
@@ -141,6 +146,12 @@ public class BungeeEventListener implements Listener {
         LunaChat.getUUIDCacheData().put(player.getUniqueId().toString(), player.getName());
         LunaChat.getUUIDCacheData().save();
 
+        // 前回のログイン時の権限の確認結果が残っていれば破棄する
+        PermissionSnapshot.getInstance().invalidate(player.getUniqueId());
+
+        // 全チャンネルの発言を受信するパーミッションを確認する
+        GlobalListeners.getInstance().update(ChannelMember.getChannelMember(player));
+
         // 強制参加チャンネル設定を確認し、参加させる
         forceJoinToForceJoinChannels(player);
 
@@ -168,6 +179,9 @@ public class BungeeEventListener implements Listener {
         ProxiedPlayer player = event.getPlayer();
         String pname = player.getName();
 
+        PermissionSnapshot.getInstance().invalidate(player.getUniqueId());
+        GlobalListeners.getInstance().remove(player.getUniqueId());
+
         // お互いがオフラインになるPMチャンネルがある場合は
         // チャンネルをクリアする
         ArrayList<Channel> deleteList = new ArrayList<Channel>();
@@ -194,29 +208,24 @@ public class BungeeEventListener implements Listener {
     }
 
     /**
-     * プラグインメッセージを受信したときに呼び出される
+     * Bukkitサーバーからチャットのプラグインメッセージを受信したときに呼び出される
      *
-     * @param event
+     * @param envelope 受信したデータ
      */
-    @EventHandler
-    public void onPluginMessageReceived(PluginMessageEvent event) {
+    private void onChatMessageReceived(Envelope envelope) {
 
-        // 自分のチャンネルメッセージでない場合は無視する
-        if (!event.getTag().equals(LunaChat.PMC_MESSAGE)) {
+        // まとめて送信されたメッセージの場合は、まとめて処理する
+        if (PluginMessageBatcher.isBatch(envelope.getPayload())) {
+            processBatch(envelope);
             return;
         }
 
         // データをメッセージに復元する
-        BukkitChatMessage msg = BukkitChatMessage.fromByteArray(event.getData());
+        BukkitChatMessage msg = BukkitChatMessage.fromByteArray(envelope.getPayload());
         if (msg == null) return;
 
         // 受信者と発言者が一致しない場合は無視する
-        if (event.getReceiver() instanceof ProxiedPlayer) {
-            ProxiedPlayer receiver = (ProxiedPlayer) event.getReceiver();
-            if (!receiver.getName().equals(msg.getMember().getName())) {
-                return;
-            }
-        } else {
+        if (envelope.getVia() == null || !envelope.getVia().equals(msg.getMember().getName())) {
             return;
         }
 
@@ -231,6 +240,39 @@ public class BungeeEventListener implements Listener {
         processChat(member, msg.getMessage());
     }
 
+    /**
+     * まとめて送信されたプラグインメッセージを処理する。
+     * まとめたメッセージは、いずれか1人のプレイヤーの接続から送られてくるため、
+     * 送信元のサーバーに接続しているプレイヤーの発言だけを受け付ける。
+     *
+     * @param envelope 受信したデータ
+     */
+    private void processBatch(Envelope envelope) {
+
+        // サーバーから送られてきたものでない場合は無視する
+        String from = envelope.getSource();
+        if (from == null || envelope.getVia() == null) {
+            return;
+        }
+
+        List<byte[]> frames = PluginMessageBatcher.decode(envelope.getPayload());
+        if (frames == null) return;
+
+        for (byte[] frame : frames) {
+            BukkitChatMessage msg = BukkitChatMessage.fromByteArray(frame);
+            if (msg == null) continue;
+
+            ChannelMemberOther member = msg.getMember();
+            ProxiedPlayer player = ProxyServer.getInstance().getPlayer(member.getName());
+            if (player == null || player.getServer() == null || !from.equals(player.getServer().getInfo().getName())) {
+                continue;
+            }
+            member.setServerName(from);
+
+            processChat(member, msg.getMessage());
+        }
+    }
+
     /**
      * プレイヤーのチャットごとに呼び出されるメソッド
      *
@@ -254,11 +296,15 @@ public class BungeeEventListener implements Listener {
         }
 
         // 発言内容を非同期で処理する
-        ProxyServer.getInstance().getScheduler().runAsync(LunaChatBungee.getInstance(), new Runnable() {
-            public void run() {
-                processChat(ChannelMember.getChannelMember(event.getSender()), event.getMessage());
-            }
-        });
+        // 同じプレイヤーの発言は、発言した順番に処理される
+        ProxiedPlayer player = (ProxiedPlayer) event.getSender();
+        String message = event.getMessage();
+        Runnable task = () -> processChat(ChannelMember.getChannelMember(player), message);
+        if (!parent.getChatExecutor().execute(player.getUniqueId(), task)) {
+            // 待ち行列があふれている場合は、発言を破棄して、発言者に知らせる
+            // （破棄した数は、エグゼキュータの rejected として集計される）
+            ChannelMember.getChannelMember(player).sendMessage(Messages.errmsgChatBusy());
+        }
 
         // イベントをキャンセル
         event.setCancelled(true);
@@ -350,32 +396,19 @@ public class BungeeEventListener implements Listener {
         } else {
             // グローバルチャンネル設定が無い場合
 
-            // NGワードのマスク
-            message = maskNGWord(message, config.getNgwordCompiled());
-
-            // Japanizeをスキップするかどうかフラグ
-            boolean skipJapanize = !LunaChat.getAPI().isPlayerJapanize(member.getName());
-
-            // 一時的なJapanizeスキップが指定されているか確認する
-            String marker = config.getNoneJapanizeMarker();
-            if (!marker.equals("") && message.startsWith(marker)) {
-                message = message.substring(marker.length());
-                skipJapanize = true;
-            }
+            // マーカー確認、NGワードのマスク
+            ChatContext context = new ChatContext(member, message);
+            ChatPipeline.getNormalInput().run(context);
 
             // 2byteコードを含む、または、半角カタカナのみなら、Japanize変換は行わない
-            String kanaTemp = Utility.stripColorCode(message);
-
-            if (!skipJapanize &&
-                    (kanaTemp.getBytes(StandardCharsets.UTF_8).length > kanaTemp.length() ||
-                            kanaTemp.matches("[ \\uFF61-\\uFF9F]+"))) {
-                skipJapanize = true;
-            }
+            context.setJapanizeType(config.getJapanizeType());
+            ChatPipeline.getJapanize().run(context);
+            message = context.getMessage();
 
             // Japanizeの付加
-            if (!skipJapanize) {
+            if (context.isJapanize()) {
 
-                String japanize = Japanizer.japanize(Utility.stripColorCode(message), config.getJapanizeType(),
+                String japanize = Japanizer.japanize(context.getPlainMessage(), context.getJapanizeType(),
                         LunaChat.getAPI().getAllDictionary());
                 if (japanize.length() > 0) {
 
@@ -383,9 +416,9 @@ public class BungeeEventListener implements Listener {
                     japanize = maskNGWord(japanize, config.getNgwordCompiled());
 
                     // フォーマット化してメッセージを上書きする
-                    String japanizeFormat = config.getJapanizeDisplayLine() == 1 ?
-                            config.getJapanizeLine1Format() :
-                            "%msg\n" + config.getJapanizeLine2Format();
+                    String japanizeFormat = context.getJapanizeDisplayLine() == 1 ?
+                            context.getJapanizeFormat() :
+                            "%msg\n" + context.getJapanizeFormat();
                     String preMessage = message;
                     message = japanizeFormat.replace("%msg", preMessage).replace("%japanize", japanize);
                 }
@@ -400,15 +433,7 @@ public class BungeeEventListener implements Listener {
             // hideされているプレイヤーを除くすべてのプレイヤーに、
             // 発言内容を送信する。
             BaseComponent[] msg = format.makeTextComponent();
-            List<ChannelMember> hidelist = api.getHidelist(member);
-
-            for (ServerInfo info : parent.getProxy().getServers().values()) {
-                for (ProxiedPlayer player : info.getPlayers()) {
-                    if (!containsHideList(player, hidelist)) {
-                        sendMessage(player, msg);
-                    }
-                }
-            }
+            broadcastExceptHidden(member, msg);
 
             result = format.toLegacyText();
 
@@ -595,20 +620,6 @@ public class BungeeEventListener implements Listener {
         return items;
     }
 
-    /**
-     * 指定した対象にメッセージを送信する
-     *
-     * @param reciever 送信先
-     * @param message  メッセージ
-     */
-    private void sendMessage(CommandSender reciever, BaseComponent[] message) {
-        if (message == null) return;
-        ChannelMember cm = ChannelMember.getChannelMember(reciever);
-        if (cm != null) {
-            cm.sendMessage(message);
-        }
-    }
-
     /**
      * 指定されたEventPriorityが、LunaChatConfigで指定されているEventPriorityと一致するかどうかを調べる
      *
@@ -626,16 +637,23 @@ public class BungeeEventListener implements Listener {
     }
 
     /**
-     * 指定されたプレイヤーが指定されたHideListに含まれるかどうかを判定する
+     * hideしているプレイヤーを除く、全てのプレイヤーにメッセージを送信する。
+     * hideしているプレイヤーは、hidelistの索引が保持しているUUIDのセットで除き、ChannelMemberの作成は行わない。
      *
-     * @param p    プレイヤー
-     * @param list リスト
-     * @return 含まれるかどうか
+     * @param member  発言者
+     * @param message 送信するメッセージ
      */
-    private boolean containsHideList(ProxiedPlayer p, List<ChannelMember> list) {
-        for (ChannelMember m : list) {
-            if (m.getName().equals(p.getName())) return true;
+    private void broadcastExceptHidden(ChannelMember member, BaseComponent[] message) {
+
+        if (message == null || message.length == 0) return;
+
+        Set<UUID> hiders = api.getHidelistUUIDs(member);
+
+        for (ProxiedPlayer player : parent.getProxy().getPlayers()) {
+            // まだサーバーに接続していないプレイヤーは除く
+            if (player.getServer() == null) continue;
+            if (hiders.contains(player.getUniqueId())) continue;
+            player.sendMessage(message);
         }
-        return false;
     }
 }
@@ -0,0 +1,89 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.bungee;
+
+import com.github.ucchyocean.lc3.messaging.Envelope;
+import com.github.ucchyocean.lc3.messaging.MessageBus;
+import com.github.ucchyocean.lc3.messaging.TopicHandlers;
+import net.md_5.bungee.api.ProxyServer;
+import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.connection.Server;
+import net.md_5.bungee.api.event.PluginMessageEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.event.EventHandler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * プラグインメッセージを使って、Bukkitサーバーとデータを送受信するMessageBus。<br>
+ * 受信したデータの送信元にはサーバー名が、データを運んだプレイヤーには受信したプレイヤーの接続が設定される。
+ * サーバーから送られてきたものでない場合は、送信元はnullになる。
+ *
+ * @author ucchy
+ */
+public class BungeeMessageBus implements MessageBus, Listener {
+
+    private final ProxyServer proxy;
+    private final TopicHandlers handlers;
+
+    /**
+     * コンストラクタ
+     *
+     * @param proxy プロキシサーバー
+     */
+    public BungeeMessageBus(ProxyServer proxy) {
+        this.proxy = proxy;
+        this.handlers = new TopicHandlers();
+    }
+
+    /**
+     * 全てのサーバーへデータを送信する。プレイヤーがいないサーバーへは送信されない。
+     *
+     * @see com.github.ucchyocean.lc3.messaging.MessageBus#publish(java.lang.String, byte[])
+     */
+    @Override
+    public CompletableFuture<Integer> publish(String topic, byte[] payload) {
+        int count = 0;
+        for (ServerInfo server : proxy.getServers().values()) {
+            if (server.sendData(topic, payload, false)) {
+                count++;
+            }
+        }
+        return CompletableFuture.completedFuture(count);
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.messaging.MessageBus#subscribe(java.lang.String, java.util.function.Consumer)
+     */
+    @Override
+    public Subscription subscribe(String topic, Consumer<Envelope> handler) {
+        if (!proxy.getChannels().contains(topic)) {
+            proxy.registerChannel(topic);
+        }
+        return handlers.add(topic, handler);
+    }
+
+    /**
+     * プラグインメッセージを受信したときに呼び出される
+     *
+     * @param event
+     */
+    @EventHandler
+    public void onPluginMessageReceived(PluginMessageEvent event) {
+
+        if (!handlers.contains(event.getTag())) {
+            return;
+        }
+
+        String source = (event.getSender() instanceof Server)
+                ? ((Server) event.getSender()).getInfo().getName() : null;
+        String via = (event.getReceiver() instanceof ProxiedPlayer)
+                ? ((ProxiedPlayer) event.getReceiver()).getName() : null;
+        handlers.dispatch(new Envelope(event.getTag(), source, via, event.getData()));
+    }
+}
@@ -8,11 +8,15 @@ package com.github.ucchyocean.lc3.channel;
 import com.github.ucchyocean.lc3.*;
 import com.github.ucchyocean.lc3.bridge.DynmapBridge;
 import com.github.ucchyocean.lc3.event.EventResult;
+import com.github.ucchyocean.lc3.bukkit.PlaceholderService;
 import com.github.ucchyocean.lc3.member.ChannelMember;
+import com.github.ucchyocean.lc3.member.GlobalListeners;
 import com.github.ucchyocean.lc3.member.ChannelMemberBukkit;
+import com.github.ucchyocean.lc3.member.ChannelMemberOther;
+import com.github.ucchyocean.lc3.member.ChannelMemberPlayer;
+import com.github.ucchyocean.lc3.messaging.ChannelFederation;
 import com.github.ucchyocean.lc3.util.ClickableFormat;
 import com.github.ucchyocean.lc3.util.UtilityBukkit;
-import me.clip.placeholderapi.PlaceholderAPI;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -22,6 +26,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * チャンネルの実装クラス
@@ -51,23 +56,54 @@ public class BukkitChannel extends Channel {
     protected void sendMessage(
             ChannelMember player, String message,
             @Nullable ClickableFormat format, boolean sendDynmap) {
+        sendMessage(player, message, format, sendDynmap, false);
+    }
+
+    /**
+     * ほかのサーバーから受信した、連携チャンネルの発言を表示します。
+     * 発言内容は送信元のサーバーで処理済みのため、拡張プレースホルダーの置き換えは行いません。
+     *
+     * @param member       発言者
+     * @param message      発言内容
+     * @param preformatted 発言内容が、フォーマット適用済みの1行かどうか
+     */
+    public void chatFromFederation(ChannelMemberOther member, String message, boolean preformatted) {
+        ClickableFormat format = preformatted ? null : ClickableFormat.makeFormat(getFormat(), member, this, false);
+        sendMessage(member, message, format, false, true);
+    }
+
+    /**
+     * メッセージを表示します。指定したプレイヤーの発言として処理されます。
+     *
+     * @param player     プレイヤー（ワールドチャット、範囲チャットの場合は必須です）
+     * @param message    メッセージ
+     * @param format     フォーマット
+     * @param sendDynmap dynmapへ送信するかどうか
+     * @param federated  ほかのサーバーから受信した、連携チャンネルの発言かどうか
+     */
+    private void sendMessage(
+            ChannelMember player, String message,
+            @Nullable ClickableFormat format, boolean sendDynmap, boolean federated) {
 
         LunaChatConfig config = LunaChat.getConfig();
 
         String originalMessage = message;
 
         // 拡張プレースホルダーの置き換え
-        if (LunaChatBukkit.getInstance().enablePlaceholderAPI()) {
+        // Bukkitの発言者の場合はPlaceholderAPIで展開し、取得できなかったプレースホルダーを空文字に置換
+        // コンソールやコマンドブロックはプレイヤーがnullのまま渡して、サーバー単位のプレースホルダーを展開する
+        if (!federated) {
+            PlaceholderService placeholders = LunaChatBukkit.getInstance().getPlaceholders();
             if (player instanceof ChannelMemberBukkit) {
-                // プレイヤーの場合：PlaceholderAPI で展開
-                Player bukkitPlayer = ((ChannelMemberBukkit) player).getPlayer();
-                message = PlaceholderAPI.setPlaceholders(bukkitPlayer, message);
+                message = placeholders.expandForSender(((ChannelMemberBukkit) player).getPlayer(), message);
+            } else {
+                message = placeholders.expand(null, message);
             }
-            // 取得できなかったプレースホルダーを空文字に置換
-            message = LunaChatBukkit.stripUnresolvedPlaceholders(message);
         }
 
         // 受信者を設定する
+        // 発言中に参加者情報が変更されても一貫するように、スナップショットを1回だけ取得する
+        ChannelMembership snapshot = getMembership();
         List<ChannelMember> recipients = new ArrayList<ChannelMember>();
         boolean sendNoRecipientMessage = false;
 
@@ -76,15 +112,15 @@ public class BukkitChannel extends Channel {
 
             for (Player p : Bukkit.getOnlinePlayers()) {
                 ChannelMember cp = ChannelMember.getChannelMember(p);
-                if (!getHided().contains(cp)) {
+                if (!snapshot.getHided().contains(cp)) {
                     recipients.add(cp);
                 }
             }
         } else {
             // 通常チャンネル
 
-            for (ChannelMember mem : getMembers()) {
-                if (mem != null && mem.isOnline() && !getHided().contains(mem)) {
+            for (ChannelMember mem : snapshot.getMembers()) {
+                if (mem != null && mem.isOnline() && !snapshot.getHided().contains(mem)) {
                     recipients.add(mem);
                 }
             }
@@ -123,7 +159,7 @@ public class BukkitChannel extends Channel {
             recipients = recipientsNew;
 
             // 受信者が自分以外いない場合は、メッセージを表示する
-            if (Messages.noRecipientMessage("", "").length > 0 && (
+            if (Messages.hasMessage("noRecipientMessage") && (
                     recipients.size() == 0 ||
                             (recipients.size() == 1 &&
                                     recipients.get(0).getName().equals(player.getName())))) {
@@ -135,19 +171,14 @@ public class BukkitChannel extends Channel {
         // パーミッション lunachat-admin.listen-all-channels を持つプレイヤーを
         // 受信者に加える。
         if (config.isOpListenAllChannel()) {
-            for (Player p : Bukkit.getOnlinePlayers()) {
-                ChannelMember cp = ChannelMember.getChannelMember(p);
-                if (cp.hasPermission("lunachat-admin.listen-all-channels")
-                        && !recipients.contains(cp)) {
-                    recipients.add(cp);
-                }
-            }
+            GlobalListeners.getInstance().addTo(recipients);
         }
 
         // hideされている場合は、受信対象者から抜く。
         LunaChatAPI api = LunaChat.getAPI();
-        for (ChannelMember cp : api.getHidelist(player)) {
-            recipients.remove(cp);
+        Set<String> hiders = api.getHidelistIds(player);
+        if (!hiders.isEmpty()) {
+            recipients.removeIf(cp -> hiders.contains(cp.toString()));
         }
 
         // LunaChatChannelMessageEvent イベントコール
@@ -174,6 +205,15 @@ public class BukkitChannel extends Channel {
             }
         }
 
+        // 連携チャンネルなら、このサーバーのプレイヤーの発言を、ほかのサーバーへ送信する
+        if (!federated && isFederated() && !isWorldRange() && player instanceof ChannelMemberPlayer) {
+            ChannelFederation federation = LunaChatBukkit.getInstance().getFederation();
+            if (federation != null) {
+                federation.publish(getName(), ((ChannelMemberPlayer) player).toChannelMemberOther(),
+                        message, format == null);
+            }
+        }
+
         // 送信する
         if (format != null) {
             format.replace("%msg", message);
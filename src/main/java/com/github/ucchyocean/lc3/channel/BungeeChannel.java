@@ -11,6 +11,7 @@ import com.github.ucchyocean.lc3.LunaChatBungee;
 import com.github.ucchyocean.lc3.LunaChatConfig;
 import com.github.ucchyocean.lc3.event.EventResult;
 import com.github.ucchyocean.lc3.member.ChannelMember;
+import com.github.ucchyocean.lc3.member.GlobalListeners;
 import com.github.ucchyocean.lc3.util.ClickableFormat;
 import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.chat.BaseComponent;
@@ -19,6 +20,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * チャンネルのBungee実装クラス
@@ -53,6 +55,8 @@ public class BungeeChannel extends Channel {
         String originalMessage = message;
 
         // 受信者を設定する
+        // 発言中に参加者情報が変更されても一貫するように、スナップショットを1回だけ取得する
+        ChannelMembership snapshot = getMembership();
         List<ChannelMember> recipients = new ArrayList<ChannelMember>();
 
         if (isBroadcastChannel()) {
@@ -63,7 +67,7 @@ public class BungeeChannel extends Channel {
             // 通常ブロードキャスト（全員へ送信）
             for (ProxiedPlayer p : ProxyServer.getInstance().getPlayers()) {
                 ChannelMember cp = ChannelMember.getChannelMember(p);
-                if (!getHided().contains(cp)) {
+                if (!snapshot.getHided().contains(cp)) {
                     recipients.add(cp);
                 }
             }
@@ -71,8 +75,8 @@ public class BungeeChannel extends Channel {
         } else {
             // 通常チャンネル
 
-            for (ChannelMember mem : getMembers()) {
-                if (mem != null && mem.isOnline() && !getHided().contains(mem)) {
+            for (ChannelMember mem : snapshot.getMembers()) {
+                if (mem != null && mem.isOnline() && !snapshot.getHided().contains(mem)) {
                     recipients.add(mem);
                 }
             }
@@ -82,19 +86,14 @@ public class BungeeChannel extends Channel {
         // パーミッション lunachat-admin.listen-all-channels を持つプレイヤーを
         // 受信者に加える。
         if (config.isOpListenAllChannel()) {
-            for (ProxiedPlayer p : ProxyServer.getInstance().getPlayers()) {
-                ChannelMember cp = ChannelMember.getChannelMember(p);
-                if (cp.hasPermission("lunachat-admin.listen-all-channels")
-                        && !recipients.contains(cp)) {
-                    recipients.add(cp);
-                }
-            }
+            GlobalListeners.getInstance().addTo(recipients);
         }
 
         // hideされている場合は、受信対象者から抜く。
         LunaChatAPI api = LunaChat.getAPI();
-        for (ChannelMember cp : api.getHidelist(player)) {
-            recipients.remove(cp);
+        Set<String> hiders = api.getHidelistIds(player);
+        if (!hiders.isEmpty()) {
+            recipients.removeIf(cp -> hiders.contains(cp.toString()));
         }
 
         // フォーマットがある場合は置き換える
@@ -7,29 +7,30 @@ package com.github.ucchyocean.lc3.channel;
 
 import com.github.ucchyocean.lc3.*;
 import com.github.ucchyocean.lc3.bridge.DynmapBridge;
+import com.github.ucchyocean.lc3.channel.ChannelMembership.ListType;
 import com.github.ucchyocean.lc3.event.EventResult;
 import com.github.ucchyocean.lc3.japanize.JapanizeType;
 import com.github.ucchyocean.lc3.member.ChannelMember;
+import com.github.ucchyocean.lc3.member.GlobalListeners;
 import com.github.ucchyocean.lc3.member.ChannelMemberOther;
+import com.github.ucchyocean.lc3.pipeline.ChatContext;
+import com.github.ucchyocean.lc3.pipeline.ChatPipeline;
+import com.github.ucchyocean.lc3.storage.Storage;
 import com.github.ucchyocean.lc3.util.ChatColor;
 import com.github.ucchyocean.lc3.util.ClickableFormat;
-import com.github.ucchyocean.lc3.util.Utility;
-import com.github.ucchyocean.lc3.util.YamlConfig;
 import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.TextComponent;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.File;
-import java.io.FilenameFilter;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * チャンネル
@@ -39,8 +40,8 @@ import java.util.regex.Pattern;
 public abstract class Channel {
 
     private static final String PERMISSION_SPEAK_PREFIX = "lunachat.speak";
-
-    private static final String FOLDER_NAME_CHANNELS = "channels";
+    private static final String PERMISSION_ALLOWCC = "lunachat.allowcc";
+    private static final String PERMISSION_MOD_ALL_CHANNELS = "lunachat-admin.mod-all-channels";
 
     private static final String KEY_NAME = "name";
     private static final String KEY_ALIAS = "alias";
@@ -61,37 +62,54 @@ public abstract class Channel {
     private static final String KEY_MUTE_EXPIRES = "mute_expires";
     private static final String KEY_ALLOWCC = "allowcc";
     private static final String KEY_JAPANIZE = "japanize";
+    private static final String KEY_FEDERATED = "federated";
+
+    /**
+     * 参加者、モデレータ、BAN、Mute、Hideの状態（不変スナップショット）
+     */
+    private final AtomicReference<ChannelMembership> membership;
+
+    /**
+     * 読み込み時に、まだChannelMemberに変換していない参加者情報。
+     * 初めて参加者情報が参照されたときに変換される。
+     */
+    private volatile Map<ListType, List<String>> unresolvedMembership;
 
     /**
      * 参加者
      */
-    private List<ChannelMember> members;
+    private final List<ChannelMember> members;
 
     /**
      * チャンネルモデレータ
      */
-    private List<ChannelMember> moderator;
+    private final List<ChannelMember> moderator;
 
     /**
      * BANされたプレイヤー
      */
-    private List<ChannelMember> banned;
+    private final List<ChannelMember> banned;
 
     /**
      * Muteされたプレイヤー
      */
-    private List<ChannelMember> muted;
+    private final List<ChannelMember> muted;
 
     /**
      * Hideしているプレイヤー
      */
-    private List<ChannelMember> hided;
+    private final List<ChannelMember> hided;
 
     /**
      * チャンネルの名称
      */
     private final String name;
 
+    /**
+     * このチャンネルの発言権限のパーミッションノード（発言のたびに作成しないよう、作成時に求めておく）
+     */
+    private final String speakPermission;
+
     /**
      * チャンネルの別名
      */
@@ -147,12 +165,12 @@ public abstract class Channel {
     /**
      * 期限付きBANの期限（key=プレイヤー名、value=期日（ミリ秒））
      */
-    private Map<ChannelMember, Long> banExpires;
+    private final ExpireScheduler.ExpireMap banExpires;
 
     /**
      * 期限付きMuteの期限（key=プレイヤー名、value=期日（ミリ秒））
      */
-    private Map<ChannelMember, Long> muteExpires;
+    private final ExpireScheduler.ExpireMap muteExpires;
 
     /**
      * 1:1チャットの相手
@@ -169,6 +187,15 @@ public abstract class Channel {
      */
     private JapanizeType japanizeType;
 
+    /**
+     * ほかのサーバーと発言を共有する連携チャンネルかどうか（Bukkitモードのみ）
+     */
+    private boolean federated;
+
+    /**
+     * Japanize変換の結果を、発言順に配信するための順番待ち
+     */
+    private final JapanizeSequencer japanizeSequencer;
 
     protected LunaChatLogger logger;
 
@@ -180,21 +207,23 @@ public abstract class Channel {
     protected Channel(String name) {
 
         this.name = name;
+        this.speakPermission = PERMISSION_SPEAK_PREFIX + "." + name;
         this.alias = "";
         this.description = "";
-        this.members = new ArrayList<ChannelMember>();
-        this.banned = new ArrayList<ChannelMember>();
-        this.muted = new ArrayList<ChannelMember>();
-        this.hided = new ArrayList<ChannelMember>();
-        this.moderator = new ArrayList<ChannelMember>();
+        this.membership = new AtomicReference<ChannelMembership>(ChannelMembership.EMPTY);
+        this.members = new ChannelMembershipList(membership, ListType.MEMBERS, this::resolveMembership);
+        this.banned = new ChannelMembershipList(membership, ListType.BANNED, this::resolveMembership);
+        this.muted = new ChannelMembershipList(membership, ListType.MUTED, this::resolveMembership);
+        this.hided = new ChannelMembershipList(membership, ListType.HIDED, this::resolveMembership);
+        this.moderator = new ChannelMembershipList(membership, ListType.MODERATOR, this::resolveMembership);
         this.password = "";
         this.visible = true;
         this.colorCode = "";
         this.broadcastChannel = false;
         this.isWorldRange = false;
         this.chatRange = 0;
-        this.banExpires = new HashMap<ChannelMember, Long>();
-        this.muteExpires = new HashMap<ChannelMember, Long>();
+        this.banExpires = ExpireScheduler.getInstance().createMap(name, ExpireScheduler.Type.BAN);
+        this.muteExpires = ExpireScheduler.getInstance().createMap(name, ExpireScheduler.Type.MUTE);
         this.privateMessageTo = null;
         this.allowcc = true;
 
@@ -205,6 +234,7 @@ public abstract class Channel {
             this.format = config.getDefaultFormat();
         }
         this.japanizeType = config.getJapanizeType();
+        this.japanizeSequencer = new JapanizeSequencer();
 
         logger = new LunaChatLogger(name.replace(">", "-").replace("*", "_"));
     }
@@ -255,7 +285,8 @@ public abstract class Channel {
      */
     public boolean hasModeratorPermission(ChannelMember player) {
         if (player == null) return false;
-        return player.hasPermission("lunachat-admin.mod-all-channels") || moderator.contains(player);
+        return player.hasCachedPermission(PERMISSION_MOD_ALL_CHANNELS)
+                || getMembership().getModerator().contains(player);
     }
 
     /**
@@ -267,52 +298,31 @@ public abstract class Channel {
     public void chat(ChannelMember player, String message) {
 
         // 発言権限を確認する
-        String node = PERMISSION_SPEAK_PREFIX + "." + getName();
-        if (player.isPermissionSet(node) && !player.hasPermission(node)) {
-            player.sendMessage(Messages.errmsgPermission(node));
+        if (player.isCachedPermissionSet(speakPermission) && !player.hasCachedPermission(speakPermission)) {
+            player.sendMessage(Messages.errmsgPermission(speakPermission));
             return;
         }
 
         LunaChatConfig config = LunaChat.getConfig();
-        LunaChatAPI api = LunaChat.getAPI();
 
         // Muteされているかどうかを確認する
-        if (getMuted().contains(player)) {
+        if (getMembership().getMuted().contains(player)) {
             player.sendMessage(Messages.errmsgMuted());
             return;
         }
 
-        String maskedMessage = message;
-
-        // 一時的にJapanizeスキップ設定かどうかを確認する
-        boolean skipJapanize = false;
-        String marker = config.getNoneJapanizeMarker();
-        if (!marker.equals("") && maskedMessage.startsWith(marker)) {
-            skipJapanize = true;
-            maskedMessage = maskedMessage.substring(marker.length());
-        }
-
-        // NGワード発言をしたかどうかのチェックとマスク
-        boolean isNG = false;
-        for (Pattern pattern : config.getNgwordCompiled()) {
-            Matcher matcher = pattern.matcher(maskedMessage);
-            if (matcher.find()) {
-                maskedMessage = matcher.replaceAll(
-                        Utility.getAstariskString(matcher.group(0).length()));
-                isNG = true;
-            }
-        }
+        // マーカー確認、NGワードのマスク、カラーコードの置き換え
+        // カラーコードは、チャンネルで許可されていて、発言者がパーミッションを持っている場合に置き換える
+        ChatContext context = new ChatContext(player, message);
+        context.setAllowColorCode(isAllowCC() && player.hasCachedPermission(PERMISSION_ALLOWCC));
+        ChatPipeline.getChannelInput().run(context);
+        String maskedMessage = context.getMessage();
+        boolean isNG = context.isNgword();
 
         // キーワード置き換え
+        long formatStart = System.nanoTime();
         ClickableFormat cf = ClickableFormat.makeFormat(getFormat(), player, this, true);
-
-        // カラーコード置き換え
-        // チャンネルで許可されていて、発言者がパーミッションを持っている場合に置き換える
-        if (isAllowCC() && player.hasPermission("lunachat.allowcc")) {
-            maskedMessage = Utility.replaceColorCode(maskedMessage);
-        } else {
-            maskedMessage = Utility.stripColorCode(maskedMessage);
-        }
+        ChatPipeline.getMetrics().record("format", System.nanoTime() - formatStart);
 
         // LunaChatChannelChatEvent イベントコール
         EventResult result = LunaChat.getEventSender().sendLunaChatChannelChatEvent(
@@ -322,40 +332,28 @@ public abstract class Channel {
         }
 //        msgFormat = result.getMessageFormat();
         maskedMessage = result.getNgMaskedMessage();
+        context.setMessage(maskedMessage);
 
         // 2byteコードを含むか、半角カタカナのみなら、Japanize変換は行わない
-        String kanaTemp = Utility.stripColorCode(maskedMessage);
-
-        if (!skipJapanize &&
-                (kanaTemp.getBytes(StandardCharsets.UTF_8).length > kanaTemp.length() ||
-                        kanaTemp.matches("[ \\uFF61-\\uFF9F]+"))) {
-            skipJapanize = true;
-        }
+        context.setJapanizeType((getJapanizeType() == null)
+                ? config.getJapanizeType() : getJapanizeType());
+        ChatPipeline.getJapanize().run(context);
 
         // Japanize変換タスクを作成する
         boolean isIncludeSyncChat = true;
         ChannelChatJapanizeTask delayedTask = null;
-        JapanizeType japanizeType = (getJapanizeType() == null)
-                ? config.getJapanizeType() : getJapanizeType();
 
-        if (!skipJapanize &&
-                api.isPlayerJapanize(player.getName()) &&
-                japanizeType != JapanizeType.NONE) {
+        if (context.isJapanize()) {
 
-            int lineType = config.getJapanizeDisplayLine();
-            String jpFormat;
             ClickableFormat messageFormat = null;
-            if (lineType == 1) {
-                jpFormat = Utility.replaceColorCode(config.getJapanizeLine1Format());
+            if (context.getJapanizeDisplayLine() == 1) {
                 messageFormat = cf;
                 isIncludeSyncChat = false;
-            } else {
-                jpFormat = Utility.replaceColorCode(config.getJapanizeLine2Format());
             }
 
             // タスクを作成しておく
             delayedTask = new ChannelChatJapanizeTask(maskedMessage,
-                    japanizeType, this, player, jpFormat, messageFormat);
+                    context.getJapanizeType(), this, player, context.getJapanizeFormat(), messageFormat);
         }
 
         if (isIncludeSyncChat) {
@@ -365,7 +363,7 @@ public abstract class Channel {
 
         // 非同期実行タスクがある場合、追加で実行する
         if (delayedTask != null) {
-            LunaChat.runAsyncTask(delayedTask);
+            delayedTask.start();
         }
 
         // NGワード発言者に、NGワードアクションを実行する
@@ -376,7 +374,7 @@ public abstract class Channel {
                 if (!isGlobalChannel()) {
                     getBanned().add(player);
                     removeMember(player);
-                    if (Messages.banNGWordMessage("", "", "").length > 0) {
+                    if (Messages.hasMessage("banNGWordMessage")) {
                         BaseComponent[] m = Messages.banNGWordMessage(getColorCode(), getName(), player.getName());
                         player.sendMessage(m);
                         sendSystemMessage(m, true, "system");
@@ -388,7 +386,7 @@ public abstract class Channel {
 
                 if (!isGlobalChannel()) {
                     removeMember(player);
-                    if (Messages.kickNGWordMessage("", "", "").length > 0) {
+                    if (Messages.hasMessage("kickNGWordMessage")) {
                         BaseComponent[] m = Messages.kickNGWordMessage(getColorCode(), getName(), player.getName());
                         player.sendMessage(m);
                         sendSystemMessage(m, true, "system");
@@ -400,7 +398,7 @@ public abstract class Channel {
 
                 getMuted().add(player);
                 save();
-                if (Messages.muteNGWordMessage("", "", "").length > 0) {
+                if (Messages.hasMessage("muteNGWordMessage")) {
                     BaseComponent[] m = Messages.muteNGWordMessage(getColorCode(), getName(), player.getName());
                     player.sendMessage(m);
                     sendSystemMessage(m, true, "system");
@@ -418,8 +416,6 @@ public abstract class Channel {
      */
     public void chatFromOtherSource(String player, @Nullable String source, String message) {
 
-        LunaChatConfig config = LunaChat.getConfig();
-
         // 表示名
         String name;
         if (source != null && !source.isEmpty()) {
@@ -428,24 +424,15 @@ public abstract class Channel {
             name = player;
         }
 
-        // NGワード発言のマスク
-        String maskedMessage = message;
-        for (Pattern pattern : config.getNgwordCompiled()) {
-            Matcher matcher = pattern.matcher(maskedMessage);
-            if (matcher.find()) {
-                maskedMessage = matcher.replaceAll(
-                        Utility.getAstariskString(matcher.group(0).length()));
-            }
-        }
+        // NGワード発言のマスク、カラーコード置き換え
+        // カラーコードは、チャンネルで許可されている場合に置き換える。
+        ChatContext context = new ChatContext(null, message);
+        context.setAllowColorCode(isAllowCC());
+        String maskedMessage = ChatPipeline.getOtherSourceInput().run(context).getMessage();
 
         // キーワード置き換え
         ClickableFormat msgFormat = ClickableFormat.makeFormat(getFormat(), new ChannelMemberOther(name), this, false);
 
-        // カラーコード置き換え チャンネルで許可されている場合に置き換える。
-        if (isAllowCC()) {
-            maskedMessage = Utility.replaceColorCode(maskedMessage);
-        }
-
         // メッセージの送信
         boolean sendDynmap = source == null || !source.equals("web");
         sendMessage(new ChannelMemberOther(name), maskedMessage, msgFormat, sendDynmap);
@@ -474,8 +461,9 @@ public abstract class Channel {
         LunaChatConfig config = LunaChat.getConfig();
 
         // 受信者（＝メンバー全員からhideしているプレイヤーを除く）
-        List<ChannelMember> recipients = new ArrayList<>(getMembers());
-        for (ChannelMember cp : getHided()) {
+        ChannelMembership snapshot = getMembership();
+        List<ChannelMember> recipients = new ArrayList<>(snapshot.getMembers());
+        for (ChannelMember cp : snapshot.getHided()) {
             recipients.remove(cp);
         }
 
@@ -483,14 +471,7 @@ public abstract class Channel {
         // パーミッション lunachat-admin.listen-all-channels を持つプレイヤーを
         // 受信者に加える。
         if (config.isOpListenAllChannel()) {
-            for (String playerName : LunaChat.getPlugin().getOnlinePlayerNames()) {
-                ChannelMember cp = ChannelMember.getChannelMember(playerName);
-                if (cp != null
-                        && cp.hasPermission("lunachat-admin.listen-all-channels")
-                        && !recipients.contains(cp)) {
-                    recipients.add(cp);
-                }
-            }
+            GlobalListeners.getInstance().addTo(recipients);
         }
 
         // 通常ブロードキャストなら、設定に応じてdynmapへ送信する
@@ -526,25 +507,31 @@ public abstract class Channel {
     public void addMember(ChannelMember player) {
 
         // 既に参加しているなら、何もしない
-        if (members.contains(player)) {
+        ChannelMembership before = getMembership();
+        if (before.getMembers().contains(player)) {
             return;
         }
 
         // 変更後のメンバーリストを作成
-        ArrayList<ChannelMember> after = new ArrayList<ChannelMember>(members);
+        ArrayList<ChannelMember> after = new ArrayList<ChannelMember>(before.getMembers());
         after.add(player);
 
         // LunaChatChannelMemberChangedEvent イベントコール
-        EventResult result = LunaChat.getEventSender().sendLunaChatChannelMemberChangedEvent(name, members, after);
+        EventResult result = LunaChat.getEventSender().sendLunaChatChannelMemberChangedEvent(
+                name, before.getMembers(), after);
         if (result.isCancelled()) {
             return;
         }
 
         // メンバー更新
-        if (members.size() == 0 && moderator.size() == 0) {
-            moderator.add(player);
-        }
-        members = after;
+        // 最初の参加者であれば、モデレータにする
+        updateMembership(current -> {
+            ChannelMembership next = current.withAdded(ListType.MEMBERS, player);
+            if (current.getMembers().isEmpty() && current.getModerator().isEmpty()) {
+                next = next.withAdded(ListType.MODERATOR, player);
+            }
+            return next;
+        });
 
         if (!isPersonalChat()) {
             player.sendMessage(Messages.joinMessage(getColorCode(), getName(), player.getName()));
@@ -561,16 +548,18 @@ public abstract class Channel {
     public void removeMember(ChannelMember player) {
 
         // 既に削除しているなら、何もしない
-        if (!members.contains(player)) {
+        ChannelMembership before = getMembership();
+        if (!before.getMembers().contains(player)) {
             return;
         }
 
         // 変更後のメンバーリストを作成
-        ArrayList<ChannelMember> after = new ArrayList<ChannelMember>(members);
+        ArrayList<ChannelMember> after = new ArrayList<ChannelMember>(before.getMembers());
         after.remove(player);
 
         // LunaChatChannelMemberChangedEvent イベントコール
-        EventResult result = LunaChat.getEventSender().sendLunaChatChannelMemberChangedEvent(name, members, after);
+        EventResult result = LunaChat.getEventSender().sendLunaChatChannelMemberChangedEvent(
+                name, before.getMembers(), after);
         if (result.isCancelled()) {
             return;
         }
@@ -584,7 +573,11 @@ public abstract class Channel {
         }
 
         // 実際にメンバーから削除する
-        members.remove(player);
+        // 非表示設定プレイヤーやモデレーターだった場合は、それらのリストからも同時に削除する
+        ChannelMembership removed = updateMembership(current -> current
+                .withRemoved(ListType.MEMBERS, player)
+                .withRemoved(ListType.HIDED, player)
+                .withRemoved(ListType.MODERATOR, player));
 
         if (!isPersonalChat()) {
             player.sendMessage(Messages.quitMessage(getColorCode(), getName(), player.getName()));
@@ -592,17 +585,11 @@ public abstract class Channel {
 
         // 0人で削除する設定がオンで、0人になったなら、チャンネルを削除する
         LunaChatConfig config = LunaChat.getConfig();
-        if (config.isZeroMemberRemove() && members.size() <= 0) {
+        if (config.isZeroMemberRemove() && removed.getMembers().size() <= 0) {
             api.removeChannel(this.name);
             return;
         }
 
-        // 非表示設定プレイヤーだったら、リストから削除する
-        hided.remove(player);
-
-        // モデレーターだった場合は、モデレーターから除去する
-        moderator.remove(player);
-
         save();
     }
 
@@ -614,12 +601,12 @@ public abstract class Channel {
     public void addModerator(ChannelMember player) {
 
         // 既にモデレータなら何もしない
-        if (moderator.contains(player)) {
+        if (getMembership().getModerator().contains(player)) {
             return;
         }
 
         // モデレータへ追加
-        moderator.add(player);
+        updateMembership(current -> current.withAdded(ListType.MODERATOR, player));
 
         // メッセージ
         if (!isPersonalChat()) {
@@ -637,12 +624,12 @@ public abstract class Channel {
     public void removeModerator(ChannelMember player) {
 
         // 既にモデレータでないなら何もしない
-        if (!moderator.contains(player)) {
+        if (!getMembership().getModerator().contains(player)) {
             return;
         }
 
         // モデレータから削除
-        moderator.remove(player);
+        updateMembership(current -> current.withRemoved(ListType.MODERATOR, player));
 
         // メッセージ
         if (!isPersonalChat()) {
@@ -709,10 +696,11 @@ public abstract class Channel {
             info.add(Messages.channelInfoBroadcast());
         } else {
             // メンバーを、5人ごとに表示する
+            ChannelMembership snapshot = getMembership();
             StringBuffer buf = new StringBuffer();
             buf.append(Messages.channelInfoPrefix());
 
-            for (int i = 0; i < getMembers().size(); i++) {
+            for (int i = 0; i < snapshot.getMembers().size(); i++) {
 
                 if (i % 5 == 0 && i != 0) {
                     info.add(buf.toString());
@@ -720,14 +708,14 @@ public abstract class Channel {
                     buf.append(Messages.channelInfoPrefix());
                 }
 
-                ChannelMember cp = getMembers().get(i);
+                ChannelMember cp = snapshot.getMembers().get(i);
                 String name = cp.getName();
                 String disp;
-                if (getModerator().contains(cp)) {
+                if (snapshot.getModerator().contains(cp)) {
                     name = "@" + name;
                 }
                 if (cp.isOnline()) {
-                    if (getHided().contains(cp))
+                    if (snapshot.getHided().contains(cp))
                         disp = ChatColor.DARK_AQUA + name;
                     else
                         disp = ChatColor.WHITE + name;
@@ -763,41 +751,43 @@ public abstract class Channel {
 
         if (forModerator) {
 
+            ChannelMembership snapshot = getMembership();
+
             // フォーマット情報
             info.add(Messages.channelInfoFormat());
             info.add(Messages.channelInfoPrefix() + " " + ChatColor.WHITE + getFormat());
 
             // Muteリスト情報、5人ごとに表示する
-            if (getMuted().size() > 0) {
+            if (snapshot.getMuted().size() > 0) {
                 info.add(Messages.channelInfoMuted());
 
                 StringBuffer buf = new StringBuffer();
                 buf.append(Messages.channelInfoPrefix() + ChatColor.WHITE);
-                for (int i = 0; i < getMuted().size(); i++) {
+                for (int i = 0; i < snapshot.getMuted().size(); i++) {
                     if (i % 5 == 0 && i != 0) {
                         info.add(buf.toString());
                         buf = new StringBuffer();
                         buf.append(Messages.channelInfoPrefix() + ChatColor.WHITE);
                     }
-                    buf.append(getMuted().get(i).getName() + ",");
+                    buf.append(snapshot.getMuted().get(i).getName() + ",");
                 }
 
                 info.add(buf.toString());
             }
 
             // BANリスト情報、5人ごとに表示する
-            if (getBanned().size() > 0) {
+            if (snapshot.getBanned().size() > 0) {
                 info.add(Messages.channelInfoBanned());
 
                 StringBuffer buf = new StringBuffer();
                 buf.append(Messages.channelInfoPrefix() + ChatColor.WHITE);
-                for (int i = 0; i < getBanned().size(); i++) {
+                for (int i = 0; i < snapshot.getBanned().size(); i++) {
                     if (i % 5 == 0 && i != 0) {
                         info.add(buf.toString());
                         buf = new StringBuffer();
                         buf.append(Messages.channelInfoPrefix() + ChatColor.WHITE);
                     }
-                    buf.append(getBanned().get(i).getName() + ",");
+                    buf.append(snapshot.getBanned().get(i).getName() + ",");
                 }
 
                 info.add(buf.toString());
@@ -815,52 +805,77 @@ public abstract class Channel {
     public void checkExpires() {
 
         long now = System.currentTimeMillis();
+        List<ExpireScheduler.Entry> due = new ArrayList<ExpireScheduler.Entry>();
 
-        // 期限付きBANのチェック
-        for (ChannelMember cp : getBanExpires().keySet()) {
-            if (getBanExpires().get(cp) <= now) {
+        for (Map.Entry<ChannelMember, Long> entry : getBanExpires().entrySet()) {
+            if (entry.getValue() <= now) {
+                due.add(new ExpireScheduler.Entry(
+                        getName(), entry.getKey(), ExpireScheduler.Type.BAN, entry.getValue()));
+            }
+        }
+        for (Map.Entry<ChannelMember, Long> entry : getMuteExpires().entrySet()) {
+            if (entry.getValue() <= now) {
+                due.add(new ExpireScheduler.Entry(
+                        getName(), entry.getKey(), ExpireScheduler.Type.MUTE, entry.getValue()));
+            }
+        }
 
-                // 期限マップから削除し、BANを解除
-                getBanExpires().remove(cp);
-                if (getBanned().contains(cp)) {
-                    getBanned().remove(cp);
-                    save();
+        if (!due.isEmpty()) {
+            applyExpires(due);
+        }
+    }
 
-                    // メッセージ通知を流す
-                    BaseComponent[] msg = Messages.expiredBanMessage(getColorCode(), getName(), cp.getName());
-                    if (msg.length > 0) {
-                        sendSystemMessage(msg, true, "system");
-                    }
+    /**
+     * 期日になった期限付きBanや期限付きMuteを解除する。
+     * 期限マップの期日とエントリの期日が一致しない場合（解除済みや期限変更済みの場合）は、何もしない。
+     * 保存は、解除があった場合に最後に1回だけ行う。
+     *
+     * @param entries 期日になったエントリ
+     */
+    void applyExpires(List<ExpireScheduler.Entry> entries) {
 
-                    String pardonedMsg = Messages.cmdmsgPardoned(getName());
-                    if (cp.isOnline() && !pardonedMsg.isEmpty()) {
-                        cp.sendMessage(pardonedMsg);
-                    }
-                }
-            }
-        }
+        long now = System.currentTimeMillis();
+        List<BaseComponent[]> systemMessages = new ArrayList<BaseComponent[]>();
+        Map<ChannelMember, String> memberMessages = new HashMap<ChannelMember, String>();
+        boolean changed = false;
 
-        // 期限付きMuteのチェック
-        for (ChannelMember cp : getMuteExpires().keySet()) {
-            if (getMuteExpires().get(cp) <= now) {
+        for (ExpireScheduler.Entry entry : entries) {
 
-                // 期限マップから削除し、Muteを解除
-                getMuteExpires().remove(cp);
-                if (getMuted().contains(cp)) {
-                    getMuted().remove(cp);
-                    save();
+            ChannelMember cp = entry.getMember();
+            boolean isBan = entry.getType() == ExpireScheduler.Type.BAN;
+            Map<ChannelMember, Long> expires = isBan ? getBanExpires() : getMuteExpires();
 
-                    // メッセージ通知を流す
-                    BaseComponent[] msg = Messages.expiredMuteMessage(getColorCode(), getName(), cp.getName());
-                    if (msg.length > 0) {
-                        sendSystemMessage(msg, true, "system");
-                    }
+            // 期限マップから削除する（期日が変わっていたら何もしない）
+            if (!entry.removeFrom(expires, now)) {
+                continue;
+            }
 
-                    String unmutedMsg = Messages.cmdmsgUnmuted(getName());
-                    if (cp.isOnline() && !unmutedMsg.isEmpty()) {
-                        cp.sendMessage(unmutedMsg);
-                    }
-                }
+            // BANまたはMuteを解除し、メッセージ通知を準備する
+            if (isBan && getBanned().remove(cp)) {
+                changed = true;
+                systemMessages.add(Messages.expiredBanMessage(getColorCode(), getName(), cp.getName()));
+                memberMessages.put(cp, Messages.cmdmsgPardoned(getName()));
+            } else if (!isBan && getMuted().remove(cp)) {
+                changed = true;
+                systemMessages.add(Messages.expiredMuteMessage(getColorCode(), getName(), cp.getName()));
+                memberMessages.put(cp, Messages.cmdmsgUnmuted(getName()));
+            }
+        }
+
+        if (!changed) {
+            return;
+        }
+        save();
+
+        // メッセージ通知を流す
+        for (BaseComponent[] msg : systemMessages) {
+            if (msg.length > 0) {
+                sendSystemMessage(msg, true, "system");
+            }
+        }
+        for (Map.Entry<ChannelMember, String> entry : memberMessages.entrySet()) {
+            if (entry.getKey().isOnline() && !entry.getValue().isEmpty()) {
+                entry.getKey().sendMessage(entry.getValue());
             }
         }
     }
@@ -914,16 +929,17 @@ public abstract class Channel {
      */
     public Map<String, Object> serialize() {
 
+        ChannelMembership snapshot = getMembership();
         Map<String, Object> map = new HashMap<String, Object>();
         map.put(KEY_NAME, name);
         map.put(KEY_ALIAS, alias);
         map.put(KEY_DESC, description);
         map.put(KEY_FORMAT, format);
-        map.put(KEY_MEMBERS, getStringList(members));
-        map.put(KEY_BANNED, getStringList(banned));
-        map.put(KEY_MUTED, getStringList(muted));
-        map.put(KEY_HIDED, getStringList(hided));
-        map.put(KEY_MODERATOR, getStringList(moderator));
+        map.put(KEY_MEMBERS, getStringList(snapshot.getMembers()));
+        map.put(KEY_BANNED, getStringList(snapshot.getBanned()));
+        map.put(KEY_MUTED, getStringList(snapshot.getMuted()));
+        map.put(KEY_HIDED, getStringList(snapshot.getHided()));
+        map.put(KEY_MODERATOR, getStringList(snapshot.getModerator()));
         map.put(KEY_PASSWORD, password);
         map.put(KEY_VISIBLE, visible);
         map.put(KEY_COLOR, colorCode);
@@ -934,6 +950,7 @@ public abstract class Channel {
         map.put(KEY_MUTE_EXPIRES, getStringLongMap(muteExpires));
         map.put(KEY_ALLOWCC, allowcc);
         map.put(KEY_JAPANIZE, japanizeType == null ? null : japanizeType.toString());
+        map.put(KEY_FEDERATED, federated);
         return map;
     }
 
@@ -963,21 +980,26 @@ public abstract class Channel {
         channel.alias = castWithDefault(data.get(KEY_ALIAS), "");
         channel.description = castWithDefault(data.get(KEY_DESC), "");
         channel.format = castWithDefault(data.get(KEY_FORMAT), channel.format);
-        channel.members = castToChannelMemberList(data.get(KEY_MEMBERS));
-        channel.banned = castToChannelMemberList(data.get(KEY_BANNED));
-        channel.muted = castToChannelMemberList(data.get(KEY_MUTED));
-        channel.hided = castToChannelMemberList(data.get(KEY_HIDED));
-        channel.moderator = castToChannelMemberList(data.get(KEY_MODERATOR));
+        // 参加者のChannelMemberへの変換（OfflinePlayerの検索を伴う場合がある）は、
+        // 初めて参照されるときまで遅延する
+        Map<ListType, List<String>> unresolved = new EnumMap<ListType, List<String>>(ListType.class);
+        unresolved.put(ListType.MEMBERS, castToStringList(data.get(KEY_MEMBERS)));
+        unresolved.put(ListType.MODERATOR, castToStringList(data.get(KEY_MODERATOR)));
+        unresolved.put(ListType.BANNED, castToStringList(data.get(KEY_BANNED)));
+        unresolved.put(ListType.MUTED, castToStringList(data.get(KEY_MUTED)));
+        unresolved.put(ListType.HIDED, castToStringList(data.get(KEY_HIDED)));
+        channel.unresolvedMembership = unresolved;
         channel.password = castWithDefault(data.get(KEY_PASSWORD), "");
         channel.visible = castWithDefault(data.get(KEY_VISIBLE), true);
         channel.colorCode = castWithDefault(data.get(KEY_COLOR), "");
         channel.broadcastChannel = castWithDefault(data.get(KEY_BROADCAST), false);
         channel.isWorldRange = castWithDefault(data.get(KEY_WORLD), false);
         channel.chatRange = castWithDefault(data.get(KEY_RANGE), 0);
-        channel.banExpires = castToChannelMemberLongMap(data.get(KEY_BAN_EXPIRES));
-        channel.muteExpires = castToChannelMemberLongMap(data.get(KEY_MUTE_EXPIRES));
+        channel.banExpires.restore(castToChannelMemberLongMap(data.get(KEY_BAN_EXPIRES)));
+        channel.muteExpires.restore(castToChannelMemberLongMap(data.get(KEY_MUTE_EXPIRES)));
         channel.allowcc = castWithDefault(data.get(KEY_ALLOWCC), true);
         channel.japanizeType = JapanizeType.fromID(data.get(KEY_JAPANIZE) + "", null);
+        channel.federated = castWithDefault(data.get(KEY_FEDERATED), false);
         return channel;
     }
 
@@ -1072,7 +1094,55 @@ public abstract class Channel {
     }
 
     /**
-     * チャンネルのメンバーを返す
+     * チャンネルの参加者情報の、現在のスナップショットを返す。<br>
+     * 返されるスナップショットは変更されないため、発言処理などで一貫した状態を参照したい場合に使用する。
+     *
+     * @return 参加者情報のスナップショット
+     */
+    public ChannelMembership getMembership() {
+        resolveMembership();
+        return membership.get();
+    }
+
+    /**
+     * チャンネルの参加者情報を、CASで更新する。
+     * 競合した場合は、最新のスナップショットに対して更新処理を再実行する。
+     *
+     * @param operator 更新処理（副作用を持たないこと）
+     * @return 更新後のスナップショット
+     */
+    protected ChannelMembership updateMembership(UnaryOperator<ChannelMembership> operator) {
+        resolveMembership();
+        return membership.updateAndGet(operator);
+    }
+
+    /**
+     * 読み込み時に変換を遅延していた参加者情報があれば、ChannelMemberに変換して反映する
+     */
+    private void resolveMembership() {
+
+        if (unresolvedMembership == null) {
+            return;
+        }
+
+        synchronized (membership) {
+            Map<ListType, List<String>> unresolved = unresolvedMembership;
+            if (unresolved == null) {
+                return;
+            }
+            membership.set(ChannelMembership.of(
+                    castToChannelMemberList(unresolved.get(ListType.MEMBERS)),
+                    castToChannelMemberList(unresolved.get(ListType.MODERATOR)),
+                    castToChannelMemberList(unresolved.get(ListType.BANNED)),
+                    castToChannelMemberList(unresolved.get(ListType.MUTED)),
+                    castToChannelMemberList(unresolved.get(ListType.HIDED))));
+            unresolvedMembership = null;
+        }
+    }
+
+    /**
+     * チャンネルのメンバーを返す。<br>
+     * 返されるリストへの変更は、参加者情報のスナップショットを差し替えることで反映される。
      *
      * @return チャンネルのメンバー
      */
@@ -1108,7 +1178,8 @@ public abstract class Channel {
     }
 
     /**
-     * 期限付きBANの期限マップを返す（key=プレイヤー名、value=期日（ミリ秒））
+     * 期限付きBANの期限マップを返す（key=プレイヤー名、value=期日（ミリ秒））。
+     * このマップに設定した期限は、期限スケジューラに登録される。
      *
      * @return banExpires
      */
@@ -1117,7 +1188,8 @@ public abstract class Channel {
     }
 
     /**
-     * 期限付きMuteの期限マップを返す（key=プレイヤー名、value=期日（ミリ秒））
+     * 期限付きMuteの期限マップを返す（key=プレイヤー名、value=期日（ミリ秒））。
+     * このマップに設定した期限は、期限スケジューラに登録される。
      *
      * @return muteExpires
      */
@@ -1125,6 +1197,26 @@ public abstract class Channel {
         return muteExpires;
     }
 
+    /**
+     * 期限付きBANの期限を設定し、期限スケジューラに登録する
+     *
+     * @param member 対象メンバー
+     * @param expire 期日（ミリ秒）
+     */
+    public void setBanExpire(ChannelMember member, long expire) {
+        banExpires.put(member, expire);
+    }
+
+    /**
+     * 期限付きMuteの期限を設定し、期限スケジューラに登録する
+     *
+     * @param member 対象メンバー
+     * @param expire 期日（ミリ秒）
+     */
+    public void setMuteExpire(ChannelMember member, long expire) {
+        muteExpires.put(member, expire);
+    }
+
     /**
      * 非表示プレイヤーの一覧を返す
      *
@@ -1242,6 +1334,25 @@ public abstract class Channel {
         this.allowcc = allowcc;
     }
 
+    /**
+     * ほかのサーバーと発言を共有する連携チャンネルかどうか。
+     * ワールドチャットや範囲チャットは、連携チャンネルに設定されていても共有しない。
+     *
+     * @return federatedを返す
+     */
+    public boolean isFederated() {
+        return federated;
+    }
+
+    /**
+     * ほかのサーバーと発言を共有する連携チャンネルかどうかを設定する
+     *
+     * @param federated 連携チャンネルかどうか
+     */
+    public void setFederated(boolean federated) {
+        this.federated = federated;
+    }
+
     /**
      * Japanize変換設定を取得する
      *
@@ -1251,6 +1362,15 @@ public abstract class Channel {
         return japanizeType;
     }
 
+    /**
+     * Japanize変換の結果を、発言順に配信するための順番待ちを取得する
+     *
+     * @return japanizeSequencer
+     */
+    public JapanizeSequencer getJapanizeSequencer() {
+        return japanizeSequencer;
+    }
+
     /**
      * Japanize変換設定を再設定する
      *
@@ -1261,92 +1381,39 @@ public abstract class Channel {
     }
 
     /**
-     * チャンネルの情報をファイルに保存する。
+     * チャンネルの情報をストレージに保存する。
      *
      * @return 保存をしたかどうか。
      */
     public boolean save() {
 
-        // フォルダーの取得と、必要に応じて作成
-        File folder = new File(
-                LunaChat.getDataFolder(), FOLDER_NAME_CHANNELS);
-        if (!folder.exists()) {
-            folder.mkdirs();
-        }
-
         // 1:1チャットチャンネルの場合は、何もしない。
         if (isPersonalChat()) {
             return false;
         }
 
-        File file = new File(folder, name + ".yml");
-
-        // ファイルへ保存する
-        YamlConfig conf = new YamlConfig();
-        Map<String, Object> data = this.serialize();
-        for (String key : data.keySet()) {
-            conf.set(key, data.get(key));
-        }
-        try {
-            conf.save(file);
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
+        return getStorage().saveChannel(name, this.serialize());
     }
 
     /**
-     * チャンネルの情報を保存したファイルを、削除する。
+     * チャンネルの情報を、ストレージから削除する。
      *
      * @return 削除したかどうか。
      */
     protected boolean remove() {
-
-        // フォルダーの取得
-        File folder = new File(
-                LunaChat.getDataFolder(), FOLDER_NAME_CHANNELS);
-        if (!folder.exists()) {
-            return false;
-        }
-        File file = new File(folder, name + ".yml");
-        if (!file.exists()) {
-            return false;
-        }
-
-        // ファイルを削除
-        return file.delete();
+        return getStorage().removeChannel(name);
     }
 
     /**
-     * チャンネルの情報を保存したファイルから全てのチャンネルを復元して返す。
+     * ストレージから全てのチャンネルを復元して返す。
      *
+     * @param storage ストレージ
      * @return 全てのチャンネル
      */
-    protected static HashMap<String, Channel> loadAllChannels() {
-
-        // フォルダーの取得
-        File folder = new File(
-                LunaChat.getDataFolder(), FOLDER_NAME_CHANNELS);
-        if (!folder.exists()) {
-            return new HashMap<String, Channel>();
-        }
-
-        File[] files = folder.listFiles(new FilenameFilter() {
-            @Override
-            public boolean accept(File dir, String name) {
-                return name.endsWith(".yml");
-            }
-        });
-        if (files == null) files = new File[0];
+    protected static HashMap<String, Channel> loadAllChannels(Storage storage) {
 
         HashMap<String, Channel> result = new HashMap<String, Channel>();
-        for (File file : files) {
-            YamlConfig config = YamlConfig.load(file);
-            Map<String, Object> data = new HashMap<String, Object>();
-            for (String key : config.getKeys(false)) {
-                data.put(key, config.get(key));
-            }
+        for (Map<String, Object> data : storage.loadChannels().values()) {
             Channel channel = deserialize(data);
             result.put(channel.name.toLowerCase(), channel);
         }
@@ -1354,6 +1421,15 @@ public abstract class Channel {
         return result;
     }
 
+    /**
+     * チャンネルマネージャーが使用しているストレージを返す
+     *
+     * @return ストレージ
+     */
+    private static Storage getStorage() {
+        return ((ChannelManager) LunaChat.getAPI()).getStorage();
+    }
+
     /**
      * List&lt;ChannelMember&gt;を、List&lt;String&gt;に変換する。
      *
@@ -1378,8 +1454,8 @@ public abstract class Channel {
     private static Map<String, Long> getStringLongMap(Map<ChannelMember, Long> org) {
 
         HashMap<String, Long> result = new HashMap<String, Long>();
-        for (ChannelMember cp : org.keySet()) {
-            if (cp != null) result.put(cp.toString(), org.get(cp));
+        for (Map.Entry<ChannelMember, Long> entry : org.entrySet()) {
+            if (entry.getKey() != null) result.put(entry.getKey().toString(), entry.getValue());
         }
         return result;
     }
@@ -1445,11 +1521,14 @@ public abstract class Channel {
     private static Map<ChannelMember, Long> castToChannelMemberLongMap(Object obj) {
 
         Map<String, Long> entries = castToStringLongMap(obj);
-        HashMap<ChannelMember, Long> map = new HashMap<ChannelMember, Long>();
+        Map<ChannelMember, Long> map = new ConcurrentHashMap<ChannelMember, Long>();
 
         for (String key : entries.keySet()) {
             ChannelMember cp = ChannelMember.getChannelMember(key);
-            map.put(cp, entries.get(key));
+            Long value = entries.get(key);
+            if (cp != null && value != null) {
+                map.put(cp, value);
+            }
         }
 
         return map;
@@ -10,17 +10,20 @@ import com.github.ucchyocean.lc3.member.ChannelMember;
 import com.github.ucchyocean.lc3.util.ClickableFormat;
 
 /**
- * Japanize2行表示のときに、変換結果を遅延してチャンネルに表示するためのタスク
+ * Japanize2行表示のときに、変換結果を遅延してチャンネルに表示するためのタスク。
+ * 変換と変換結果の送信は、JapanizeExecutor のスレッドで行う。
+ * 変換結果は、チャンネルの JapanizeSequencer によって、発言の順番に送信される。
  *
  * @author ucchy
  */
-public class ChannelChatJapanizeTask implements Runnable {
+public class ChannelChatJapanizeTask {
 
     private final Channel channel;
     private final ChannelMember player;
     private final ClickableFormat lineFormat;
 
     private final JapanizeConvertTask task;
+    private final JapanizeSequencer.Ticket ticket;
 
     /**
      * コンストラクタ
@@ -39,16 +42,16 @@ public class ChannelChatJapanizeTask implements Runnable {
         this.channel = channel;
         this.player = player;
         this.lineFormat = lineFormat;
+
+        // 発言の順番を確保しておく
+        this.ticket = channel.getJapanizeSequencer().reserve();
     }
 
     /**
-     * @see java.lang.Runnable#run()
+     * 変換を開始する
      */
-    @Override
-    public void run() {
-        if (task.runSync()) {
-            // チャンネルへ送信
-            channel.sendMessage(player, task.getResult(), lineFormat, true);
-        }
+    public void start() {
+        JapanizeExecutor.getInstance().submit(task, 0,
+                result -> channel.sendMessage(player, result, lineFormat, true), Runnable::run, ticket);
     }
 }
@@ -12,14 +12,25 @@ import com.github.ucchyocean.lc3.Messages;
 import com.github.ucchyocean.lc3.event.EventResult;
 import com.github.ucchyocean.lc3.japanize.JapanizeType;
 import com.github.ucchyocean.lc3.member.ChannelMember;
+import com.github.ucchyocean.lc3.storage.KeyValueStore;
+import com.github.ucchyocean.lc3.storage.MVStoreStorage;
+import com.github.ucchyocean.lc3.storage.Storage;
+import com.github.ucchyocean.lc3.storage.StorageType;
+import com.github.ucchyocean.lc3.storage.YamlStorage;
 import com.github.ucchyocean.lc3.util.YamlConfig;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
 
 /**
  * チャンネルマネージャー
@@ -28,23 +39,26 @@ import java.util.List;
  */
 public class ChannelManager implements LunaChatAPI {
 
-    private static final String FILE_NAME_DCHANNELS = "defaults.yml";
+    private static final String STORE_NAME_DCHANNELS = "defaults";
     private static final String FILE_NAME_TEMPLATES = "templates.yml";
-    private static final String FILE_NAME_JAPANIZE = "japanize.yml";
+    private static final String STORE_NAME_JAPANIZE = "japanize";
     private static final String FILE_NAME_DICTIONARY = "dictionary.yml";
-    private static final String FILE_NAME_HIDELIST = "hidelist.yml";
+    private static final String STORE_NAME_HIDELIST = "hidelist";
+    private static final String[] STORE_NAMES =
+            {STORE_NAME_DCHANNELS, STORE_NAME_JAPANIZE, STORE_NAME_HIDELIST};
 
-    private File fileDefaults;
+    private Storage storage;
+    private KeyValueStore storeDefaults;
     private File fileTemplates;
-    private File fileJapanize;
+    private KeyValueStore storeJapanize;
     private File fileDictionary;
-    private File fileHidelist;
+    private KeyValueStore storeHidelist;
     private HashMap<String, Channel> channels;
-    private HashMap<String, String> defaultChannels;
+    private Map<String, String> defaultChannels;
     private HashMap<String, String> templates;
-    private HashMap<String, Boolean> japanize;
+    private Map<String, Boolean> japanize;
     private HashMap<String, String> dictionary;
-    private HashMap<String, List<ChannelMember>> hidelist;
+    private final HideIndex hidelist = new HideIndex();
 
     /**
      * コンストラクタ
@@ -59,20 +73,29 @@ public class ChannelManager implements LunaChatAPI {
     @Override
     public void reloadAllData() {
 
-        // デフォルトチャンネル設定のロード
-        fileDefaults = new File(LunaChat.getDataFolder(), FILE_NAME_DCHANNELS);
-
-        if (!fileDefaults.exists()) {
-            makeEmptyFile(fileDefaults);
+        // ストレージを準備する。
+        // 再読み込みの場合は、書き込み待ちの変更を先に書き込んでおく。
+        StorageType type = LunaChat.getConfig().getStorageType();
+        if (storage != null && storage.getType() != type) {
+            storage.close();
+            storage = null;
         }
+        if (storage == null) {
+            storage = openStorage(type);
+        } else {
+            storeDefaults.flush();
+            storeJapanize.flush();
+            storeHidelist.flush();
+        }
+        storeDefaults = storage.getKeyValueStore(STORE_NAME_DCHANNELS);
+        storeJapanize = storage.getKeyValueStore(STORE_NAME_JAPANIZE);
+        storeHidelist = storage.getKeyValueStore(STORE_NAME_HIDELIST);
 
-        YamlConfig config = YamlConfig.load(fileDefaults);
-
-        defaultChannels = new HashMap<String, String>();
-        for (String key : config.getKeys(false)) {
-            String value = config.getString(key);
-            if (value != null) {
-                defaultChannels.put(key, value.toLowerCase());
+        // デフォルトチャンネル設定のロード
+        defaultChannels = new ConcurrentHashMap<String, String>();
+        for (Map.Entry<String, Object> entry : storeDefaults.load().entrySet()) {
+            if (entry.getValue() instanceof String) {
+                defaultChannels.put(entry.getKey(), ((String) entry.getValue()).toLowerCase());
             }
         }
 
@@ -91,17 +114,11 @@ public class ChannelManager implements LunaChatAPI {
         }
 
         // Japanize設定のロード
-        fileJapanize = new File(LunaChat.getDataFolder(), FILE_NAME_JAPANIZE);
-
-        if (!fileJapanize.exists()) {
-            makeEmptyFile(fileJapanize);
-        }
-
-        YamlConfig configJapanize = YamlConfig.load(fileJapanize);
-
-        japanize = new HashMap<String, Boolean>();
-        for (String key : configJapanize.getKeys(false)) {
-            japanize.put(key, configJapanize.getBoolean(key));
+        japanize = new ConcurrentHashMap<String, Boolean>();
+        for (Map.Entry<String, Object> entry : storeJapanize.load().entrySet()) {
+            if (entry.getValue() instanceof Boolean) {
+                japanize.put(entry.getKey(), (Boolean) entry.getValue());
+            }
         }
 
         // dictionaryのロード
@@ -119,24 +136,30 @@ public class ChannelManager implements LunaChatAPI {
         }
 
         // hideリストのロード
-        fileHidelist = new File(LunaChat.getDataFolder(), FILE_NAME_HIDELIST);
-
-        if (!fileHidelist.exists()) {
-            makeEmptyFile(fileHidelist);
-        }
-
-        YamlConfig configHidelist = YamlConfig.load(fileHidelist);
-
-        hidelist = new HashMap<String, List<ChannelMember>>();
-        for (String key : configHidelist.getKeys(false)) {
-            hidelist.put(key, new ArrayList<ChannelMember>());
-            for (String id : configHidelist.getStringList(key)) {
-                hidelist.get(key).add(ChannelMember.getChannelMember(id));
+        // 保存形式は、hideされる側のIDをキーとした、hideする側のIDのリスト
+        hidelist.clear();
+        for (Map.Entry<String, Object> entry : storeHidelist.load().entrySet()) {
+            if (!(entry.getValue() instanceof List<?>)) {
+                continue;
+            }
+            for (Object id : (List<?>) entry.getValue()) {
+                ChannelMember member = ChannelMember.getChannelMember(id.toString());
+                hidelist.add(member != null ? member.toString() : id.toString(), entry.getKey());
             }
         }
 
         // チャンネル設定のロード
-        channels = Channel.loadAllChannels();
+        long start = System.currentTimeMillis();
+        channels = Channel.loadAllChannels(storage);
+        LunaChat.getPlugin().log(Level.INFO, "Loaded " + channels.size() + " channels in "
+                + (System.currentTimeMillis() - start) + " ms.");
+
+        // 期限付きBAN、期限付きMuteを、期限スケジューラに登録する
+        ExpireScheduler scheduler = ExpireScheduler.getInstance();
+        scheduler.clear();
+        for (Channel channel : channels.values()) {
+            scheduler.scheduleAll(channel);
+        }
     }
 
     /**
@@ -144,66 +167,94 @@ public class ChannelManager implements LunaChatAPI {
      */
     protected void saveAllChannels() {
 
-        saveDefaults();
+        storeDefaults.flush();
 
+        Map<String, Map<String, Object>> data = new HashMap<String, Map<String, Object>>();
         for (Channel channel : channels.values()) {
-            channel.save();
+            if (!channel.isPersonalChat()) {
+                data.put(channel.getName(), channel.serialize());
+            }
         }
+        storage.saveChannels(data);
     }
 
     /**
-     * デフォルトチャンネル設定を保存する
+     * ストレージを返す
      *
-     * @return 保存したかどうか
+     * @return ストレージ
      */
-    private boolean saveDefaults() {
+    public Storage getStorage() {
+        return storage;
+    }
 
-        try {
-            YamlConfig config = new YamlConfig();
-            for (String key : defaultChannels.keySet()) {
-                config.set(key, defaultChannels.get(key));
-            }
-            config.save(fileDefaults);
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
+    /**
+     * ストレージを閉じる。書き込み待ちの変更は全て保存される。
+     * プラグインの無効化時に呼び出すこと。
+     */
+    public void closeStorage() {
+        if (storage != null) {
+            storage.close();
         }
     }
 
     /**
-     * テンプレート設定を保存する
+     * ストレージを開く。<br>
+     * 組み込みデータベースを開くときは、まだ取り込んでいないか、Yamlファイルの方が新しければ、
+     * Yamlファイルのデータを取り込む。取り込み元のYamlファイルは変更しない。
+     * 取り込みに失敗した場合は、Yamlストレージを使用する。<br>
+     * Yamlストレージを開くときは、組み込みデータベースが前回使用されていれば、その内容をYamlファイルへ書き出す。
+     * 書き出しに失敗した場合は、組み込みデータベースを使用する。
      *
-     * @return 保存したかどうか
+     * @param type ストレージの種類
+     * @return ストレージ
      */
-    private boolean saveTemplates() {
+    private Storage openStorage(StorageType type) {
 
-        try {
-            YamlConfig config = new YamlConfig();
-            for (String key : templates.keySet()) {
-                config.set(key, templates.get(key));
+        File folder = LunaChat.getDataFolder();
+
+        if (type == StorageType.MVSTORE) {
+            YamlStorage yaml = new YamlStorage(folder, true);
+            MVStoreStorage result = MVStoreStorage.open(folder, yaml, STORE_NAMES);
+            yaml.close();
+            if (result != null) {
+                if (result.getImportedCount() >= 0) {
+                    LunaChat.getPlugin().log(Level.INFO, "Imported " + result.getImportedCount()
+                            + " channels from yaml files into " + type + " storage.");
+                }
+                return result;
             }
-            config.save(fileTemplates);
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
+            LunaChat.getPlugin().log(Level.SEVERE, "Failed to import yaml files into " + type
+                    + " storage. Using " + StorageType.YAML + " storage instead.");
+            return new YamlStorage(folder);
+        }
+
+        YamlStorage result = new YamlStorage(folder);
+        int count = MVStoreStorage.exportIfActive(folder, result, STORE_NAMES);
+        if (count > 0) {
+            LunaChat.getPlugin().log(Level.INFO, "Exported " + count + " channels from "
+                    + StorageType.MVSTORE + " storage into yaml files.");
+        } else if (count < 0) {
+            LunaChat.getPlugin().log(Level.SEVERE, "Failed to export " + StorageType.MVSTORE
+                    + " storage into yaml files. Using " + StorageType.MVSTORE + " storage instead.");
+            result.close();
+            return new MVStoreStorage(folder);
         }
+        return result;
     }
 
     /**
-     * Japanize設定を保存する
+     * テンプレート設定を保存する
      *
      * @return 保存したかどうか
      */
-    private boolean saveJapanize() {
+    private boolean saveTemplates() {
 
         try {
             YamlConfig config = new YamlConfig();
-            for (String key : japanize.keySet()) {
-                config.set(key, japanize.get(key));
+            for (String key : templates.keySet()) {
+                config.set(key, templates.get(key));
             }
-            config.save(fileJapanize);
+            config.save(fileTemplates);
             return true;
         } catch (IOException e) {
             e.printStackTrace();
@@ -231,32 +282,12 @@ public class ChannelManager implements LunaChatAPI {
         }
     }
 
-    /**
-     * Hidelist設定を保存する
-     *
-     * @return 保存したかどうか
-     */
-    private boolean saveHidelist() {
-
-        try {
-            YamlConfig config = new YamlConfig();
-            for (String key : hidelist.keySet()) {
-                config.set(key, getIdList(hidelist.get(key)));
-            }
-            config.save(fileHidelist);
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
-    }
-
     /**
      * デフォルトチャンネル設定を全て削除する
      */
     public void removeAllDefaultChannels() {
         defaultChannels.clear();
-        saveDefaults();
+        storeDefaults.clear();
     }
 
     /**
@@ -353,8 +384,9 @@ public class ChannelManager implements LunaChatAPI {
             removeDefaultChannel(playerName);
             return;
         }
-        defaultChannels.put(playerName, channelName.toLowerCase());
-        saveDefaults();
+        String value = channelName.toLowerCase();
+        defaultChannels.put(playerName, value);
+        storeDefaults.put(playerName, value);
     }
 
     /**
@@ -366,7 +398,7 @@ public class ChannelManager implements LunaChatAPI {
     @Override
     public void removeDefaultChannel(String playerName) {
         defaultChannels.remove(playerName);
-        saveDefaults();
+        storeDefaults.remove(playerName);
     }
 
     /**
@@ -563,10 +595,53 @@ public class ChannelManager implements LunaChatAPI {
         if (key == null) {
             return new ArrayList<ChannelMember>();
         }
-        if (hidelist.containsKey(key.toString())) {
-            return hidelist.get(key.toString());
+        return toMembers(hidelist.getHiders(key.toString()));
+    }
+
+    /**
+     * 該当のプレイヤーをhideしているプレイヤーのIDを取得する。
+     *
+     * @param key プレイヤー
+     * @return 指定されたプレイヤーをhideしているプレイヤーのIDのセット(変更不可、非null)
+     * @see com.github.ucchyocean.lc3.LunaChatAPI#getHidelistIds(com.github.ucchyocean.lc3.member.ChannelMember)
+     */
+    @Override
+    public Set<String> getHidelistIds(ChannelMember key) {
+        if (key == null) {
+            return Collections.emptySet();
+        }
+        return hidelist.getHiders(key.toString());
+    }
+
+    /**
+     * 該当のプレイヤーをhideしているプレイヤーのUUIDを取得する。
+     *
+     * @param key プレイヤー
+     * @return 指定されたプレイヤーをhideしているプレイヤーのUUIDのセット(変更不可、非null)
+     * @see com.github.ucchyocean.lc3.LunaChatAPI#getHidelistUUIDs(com.github.ucchyocean.lc3.member.ChannelMember)
+     */
+    @Override
+    public Set<UUID> getHidelistUUIDs(ChannelMember key) {
+        if (key == null) {
+            return Collections.emptySet();
+        }
+        return hidelist.getHiderUUIDs(key.toString());
+    }
+
+    /**
+     * 指定されたプレイヤーが、指定されたプレイヤーをhideしているかどうかを返す。
+     *
+     * @param player hideする側のプレイヤー
+     * @param hided  hideされる側のプレイヤー
+     * @return hideしているかどうか
+     * @see com.github.ucchyocean.lc3.LunaChatAPI#containsHidelist(com.github.ucchyocean.lc3.member.ChannelMember, com.github.ucchyocean.lc3.member.ChannelMember)
+     */
+    @Override
+    public boolean containsHidelist(ChannelMember player, ChannelMember hided) {
+        if (player == null || hided == null) {
+            return false;
         }
-        return new ArrayList<ChannelMember>();
+        return hidelist.contains(player.toString(), hided.toString());
     }
 
     /**
@@ -579,49 +654,35 @@ public class ChannelManager implements LunaChatAPI {
         if (player == null) {
             return new ArrayList<ChannelMember>();
         }
-        ArrayList<ChannelMember> info = new ArrayList<ChannelMember>();
-        for (String key : hidelist.keySet()) {
-            if (hidelist.get(key).contains(player)) {
-                info.add(ChannelMember.getChannelMember(key));
-            }
-        }
-        return info;
+        return toMembers(hidelist.getHidden(player.toString()));
     }
 
     /**
      * 指定されたプレイヤーが、指定されたプレイヤーをhideするように設定する。
+     * 保存は、hideされる側のプレイヤーの分だけを書き込む。
      *
      * @param player hideする側のプレイヤー
      * @param hided  hideされる側のプレイヤー
      */
     public void addHidelist(ChannelMember player, ChannelMember hided) {
         String hidedId = hided.toString();
-        if (!hidelist.containsKey(hidedId)) {
-            hidelist.put(hidedId, new ArrayList<ChannelMember>());
-        }
-        if (!hidelist.get(hidedId).contains(player)) {
-            hidelist.get(hidedId).add(player);
-            saveHidelist();
+        if (hidelist.add(player.toString(), hidedId)) {
+            storeHidelist.put(hidedId, hidelist.toStoreValue(hidedId));
         }
     }
 
     /**
      * 指定されたプレイヤーが、指定されたプレイヤーのhideを解除するように設定する。
+     * 保存は、hideされていた側のプレイヤーの分だけを書き込む。
      *
      * @param player hideしていた側のプレイヤー
      * @param hided  hideされていた側のプレイヤー
      */
     public void removeHidelist(ChannelMember player, ChannelMember hided) {
         String hidedId = hided.toString();
-        if (!hidelist.containsKey(hidedId)) {
-            return;
-        }
-        if (hidelist.get(hidedId).contains(player)) {
-            hidelist.get(hidedId).remove(player);
-            if (hidelist.get(hidedId).size() <= 0) {
-                hidelist.remove(hidedId);
-            }
-            saveHidelist();
+        if (hidelist.remove(player.toString(), hidedId)) {
+            // hideしているプレイヤーがいなくなった場合は、nullで削除される
+            storeHidelist.put(hidedId, hidelist.toStoreValue(hidedId));
         }
     }
 
@@ -656,19 +717,22 @@ public class ChannelManager implements LunaChatAPI {
     @Override
     public void setPlayersJapanize(String playerName, boolean doJapanize) {
         japanize.put(playerName, doJapanize);
-        saveJapanize();
+        storeJapanize.put(playerName, doJapanize);
     }
 
     /**
-     * ChannelMemberのリストを、IDのStringリストに変換して返す
+     * IDのセットを、ChannelMemberのリストに変換して返す
      *
-     * @param players
-     * @return
-     */
-    private List<String> getIdList(List<ChannelMember> players) {
-        List<String> results = new ArrayList<String>();
-        for (ChannelMember cp : players) {
-            results.add(cp.toString());
+     * @param ids IDのセット
+     * @return ChannelMemberのリスト
+     */
+    private ArrayList<ChannelMember> toMembers(Set<String> ids) {
+        ArrayList<ChannelMember> results = new ArrayList<ChannelMember>();
+        for (String id : ids) {
+            ChannelMember member = ChannelMember.getChannelMember(id);
+            if (member != null) {
+                results.add(member);
+            }
         }
         return results;
     }
@@ -0,0 +1,206 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.channel;
+
+import com.github.ucchyocean.lc3.member.ChannelMember;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * チャンネルの参加者情報（メンバー、モデレータ、BAN、Mute、Hide）の不変スナップショット。<br>
+ * 変更は常に新しいインスタンスを作成して、チャンネル側で参照を差し替えることで行う。
+ * そのため、発言処理などの読み込み側はロックを取らずに、一貫した状態を参照できる。
+ *
+ * @author ucchy
+ */
+public final class ChannelMembership {
+
+    /**
+     * スナップショットに含まれるリストの種類
+     */
+    public enum ListType {
+        MEMBERS, MODERATOR, BANNED, MUTED, HIDED
+    }
+
+    /**
+     * 空のスナップショット
+     */
+    public static final ChannelMembership EMPTY = new ChannelMembership(
+            Collections.emptyList(), Collections.emptyList(), Collections.emptyList(),
+            Collections.emptyList(), Collections.emptyList());
+
+    private final List<ChannelMember> members;
+    private final List<ChannelMember> moderator;
+    private final List<ChannelMember> banned;
+    private final List<ChannelMember> muted;
+    private final List<ChannelMember> hided;
+
+    private ChannelMembership(List<ChannelMember> members, List<ChannelMember> moderator,
+                              List<ChannelMember> banned, List<ChannelMember> muted, List<ChannelMember> hided) {
+        this.members = members;
+        this.moderator = moderator;
+        this.banned = banned;
+        this.muted = muted;
+        this.hided = hided;
+    }
+
+    /**
+     * 指定したリストから、スナップショットを作成する。引数のリストはコピーされる。
+     *
+     * @param members   メンバー
+     * @param moderator モデレータ
+     * @param banned    BANされたプレイヤー
+     * @param muted     Muteされたプレイヤー
+     * @param hided     Hideしているプレイヤー
+     * @return スナップショット
+     */
+    public static ChannelMembership of(List<ChannelMember> members, List<ChannelMember> moderator,
+                                       List<ChannelMember> banned, List<ChannelMember> muted, List<ChannelMember> hided) {
+        return new ChannelMembership(freeze(members), freeze(moderator),
+                freeze(banned), freeze(muted), freeze(hided));
+    }
+
+    /**
+     * チャンネルのメンバーを返す
+     *
+     * @return メンバー（変更不可）
+     */
+    public List<ChannelMember> getMembers() {
+        return members;
+    }
+
+    /**
+     * チャンネルのモデレーターを返す
+     *
+     * @return モデレーター（変更不可）
+     */
+    public List<ChannelMember> getModerator() {
+        return moderator;
+    }
+
+    /**
+     * チャンネルのBANリストを返す
+     *
+     * @return BANリスト（変更不可）
+     */
+    public List<ChannelMember> getBanned() {
+        return banned;
+    }
+
+    /**
+     * チャンネルのMuteリストを返す
+     *
+     * @return Muteリスト（変更不可）
+     */
+    public List<ChannelMember> getMuted() {
+        return muted;
+    }
+
+    /**
+     * 非表示プレイヤーの一覧を返す
+     *
+     * @return 非表示プレイヤーの一覧（変更不可）
+     */
+    public List<ChannelMember> getHided() {
+        return hided;
+    }
+
+    /**
+     * 指定した種類のリストを返す
+     *
+     * @param type リストの種類
+     * @return リスト（変更不可）
+     */
+    public List<ChannelMember> get(ListType type) {
+        switch (type) {
+            case MEMBERS:
+                return members;
+            case MODERATOR:
+                return moderator;
+            case BANNED:
+                return banned;
+            case MUTED:
+                return muted;
+            default:
+                return hided;
+        }
+    }
+
+    /**
+     * 指定した種類のリストを差し替えた、新しいスナップショットを返す
+     *
+     * @param type リストの種類
+     * @param list 差し替えるリスト（コピーされる）
+     * @return 新しいスナップショット
+     */
+    public ChannelMembership with(ListType type, List<ChannelMember> list) {
+        List<ChannelMember> frozen = freeze(list);
+        switch (type) {
+            case MEMBERS:
+                return new ChannelMembership(frozen, moderator, banned, muted, hided);
+            case MODERATOR:
+                return new ChannelMembership(members, frozen, banned, muted, hided);
+            case BANNED:
+                return new ChannelMembership(members, moderator, frozen, muted, hided);
+            case MUTED:
+                return new ChannelMembership(members, moderator, banned, frozen, hided);
+            default:
+                return new ChannelMembership(members, moderator, banned, muted, frozen);
+        }
+    }
+
+    /**
+     * 指定した種類のリストにプレイヤーを追加した、新しいスナップショットを返す。
+     * 既に含まれている場合は、このインスタンスをそのまま返す。
+     *
+     * @param type   リストの種類
+     * @param member 追加するプレイヤー
+     * @return 新しいスナップショット
+     */
+    public ChannelMembership withAdded(ListType type, ChannelMember member) {
+        List<ChannelMember> org = get(type);
+        if (org.contains(member)) {
+            return this;
+        }
+        List<ChannelMember> after = new ArrayList<ChannelMember>(org.size() + 1);
+        after.addAll(org);
+        after.add(member);
+        return with(type, after);
+    }
+
+    /**
+     * 指定した種類のリストからプレイヤーを削除した、新しいスナップショットを返す。
+     * 含まれていない場合は、このインスタンスをそのまま返す。
+     *
+     * @param type   リストの種類
+     * @param member 削除するプレイヤー
+     * @return 新しいスナップショット
+     */
+    public ChannelMembership withRemoved(ListType type, ChannelMember member) {
+        List<ChannelMember> org = get(type);
+        if (!org.contains(member)) {
+            return this;
+        }
+        List<ChannelMember> after = new ArrayList<ChannelMember>(org);
+        after.remove(member);
+        return with(type, after);
+    }
+
+    /**
+     * リストをコピーして、変更不可にする
+     *
+     * @param list 元のリスト
+     * @return 変更不可のコピー
+     */
+    private static List<ChannelMember> freeze(List<ChannelMember> list) {
+        if (list == null || list.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(new ArrayList<ChannelMember>(list));
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.channel;
+
+import com.github.ucchyocean.lc3.channel.ChannelMembership.ListType;
+import com.github.ucchyocean.lc3.member.ChannelMember;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * ChannelMembership の特定のリストを、変更可能なListとして見せるためのビュー。<br>
+ * 読み込みは呼び出し時点のスナップショットに対して行われ、
+ * 変更はスナップショットをコピーしてCASで差し替えることで行われる。
+ * イテレータは作成時点のスナップショットを走査するため、走査中に変更があっても例外は発生しない。
+ *
+ * @author ucchy
+ */
+class ChannelMembershipList extends AbstractList<ChannelMember> {
+
+    private final AtomicReference<ChannelMembership> state;
+    private final ListType type;
+    private final Runnable resolver;
+
+    /**
+     * コンストラクタ
+     *
+     * @param state 参照先のスナップショット
+     * @param type  リストの種類
+     */
+    ChannelMembershipList(AtomicReference<ChannelMembership> state, ListType type) {
+        this(state, type, () -> {});
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param state    参照先のスナップショット
+     * @param type     リストの種類
+     * @param resolver スナップショットを参照する前に実行する処理（遅延読み込みの解決など）
+     */
+    ChannelMembershipList(AtomicReference<ChannelMembership> state, ListType type, Runnable resolver) {
+        this.state = state;
+        this.type = type;
+        this.resolver = resolver;
+    }
+
+    /**
+     * 現在のスナップショットのリストを返す
+     *
+     * @return 現在のリスト（変更不可）
+     */
+    private List<ChannelMember> current() {
+        resolver.run();
+        return state.get().get(type);
+    }
+
+    /**
+     * リストの変更処理をCASで適用する
+     *
+     * @param operator 変更処理、変更前のリストのコピーを受け取り、変更があったかどうかを返す
+     * @return 変更があったかどうか
+     */
+    private boolean mutate(Predicate<List<ChannelMember>> operator) {
+        resolver.run();
+        while (true) {
+            ChannelMembership before = state.get();
+            List<ChannelMember> list = new ArrayList<ChannelMember>(before.get(type));
+            if (!operator.test(list)) {
+                return false;
+            }
+            if (state.compareAndSet(before, before.with(type, list))) {
+                modCount++;
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public ChannelMember get(int index) {
+        return current().get(index);
+    }
+
+    @Override
+    public int size() {
+        return current().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return current().isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return current().contains(o);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return current().indexOf(o);
+    }
+
+    @Override
+    public Iterator<ChannelMember> iterator() {
+        return current().iterator();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return current().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return current().toArray(a);
+    }
+
+    @Override
+    public boolean add(ChannelMember member) {
+        return mutate(list -> list.add(member));
+    }
+
+    @Override
+    public void add(int index, ChannelMember member) {
+        mutate(list -> {
+            list.add(Math.min(index, list.size()), member);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends ChannelMember> c) {
+        return mutate(list -> list.addAll(c));
+    }
+
+    @Override
+    public ChannelMember set(int index, ChannelMember member) {
+        ChannelMember[] old = new ChannelMember[1];
+        mutate(list -> {
+            old[0] = list.set(index, member);
+            return true;
+        });
+        return old[0];
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return mutate(list -> list.remove(o));
+    }
+
+    @Override
+    public ChannelMember remove(int index) {
+        ChannelMember[] old = new ChannelMember[1];
+        mutate(list -> {
+            old[0] = list.remove(index);
+            return true;
+        });
+        return old[0];
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        return mutate(list -> list.removeAll(c));
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        return mutate(list -> list.retainAll(c));
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super ChannelMember> filter) {
+        return mutate(list -> list.removeIf(filter));
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<ChannelMember> operator) {
+        mutate(list -> {
+            list.replaceAll(operator);
+            return true;
+        });
+    }
+
+    @Override
+    public void clear() {
+        mutate(list -> {
+            if (list.isEmpty()) return false;
+            list.clear();
+            return true;
+        });
+    }
+}
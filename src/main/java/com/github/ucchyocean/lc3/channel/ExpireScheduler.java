@@ -0,0 +1,407 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.channel;
+
+import com.github.ucchyocean.lc3.LunaChat;
+import com.github.ucchyocean.lc3.LunaChatAPI;
+import com.github.ucchyocean.lc3.member.ChannelMember;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+/**
+ * 期限付きBANや期限付きMuteの期限を管理し、期日になったら解除を行うスケジューラ。<br>
+ * 全チャンネルの期限を1つの優先度付きキューで保持し、先頭の期日まで専用スレッドを待機させる。
+ * 期日になったエントリはチャンネルごとにまとめて処理され、保存もチャンネルごとに1回だけ行われる。<br>
+ * チャンネルの期限マップは ExpireMap で、期限が設定されると、どの方法で設定されてもこのスケジューラに登録される。
+ *
+ * @author ucchy
+ */
+public class ExpireScheduler {
+
+    private static final String THREAD_NAME = "LunaChat-ExpireScheduler";
+
+    private static ExpireScheduler instance;
+
+    private final DelayQueue<Entry> queue;
+    private final Consumer<List<Entry>> handler;
+    private Thread thread;
+
+    /**
+     * 期限の種類
+     */
+    public enum Type {
+        BAN, MUTE
+    }
+
+    /**
+     * コンストラクタ
+     */
+    private ExpireScheduler() {
+        queue = new DelayQueue<Entry>();
+        handler = this::fire;
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param handler 期日になったエントリの処理
+     */
+    ExpireScheduler(Consumer<List<Entry>> handler) {
+        this.queue = new DelayQueue<Entry>();
+        this.handler = handler;
+    }
+
+    /**
+     * スケジューラのインスタンスを返す
+     *
+     * @return スケジューラ
+     */
+    public static synchronized ExpireScheduler getInstance() {
+        if (instance == null) {
+            instance = new ExpireScheduler();
+        }
+        return instance;
+    }
+
+    /**
+     * 期限を登録する。同じメンバーの期限が後から変更された場合は、
+     * 期日になった時点でチャンネルの期限マップと照合し、古いエントリは無視される。
+     *
+     * @param channel  チャンネル
+     * @param member   対象メンバー
+     * @param type     期限の種類
+     * @param deadline 期日（ミリ秒）
+     */
+    public void schedule(Channel channel, ChannelMember member, Type type, long deadline) {
+        if (channel == null) {
+            return;
+        }
+        schedule(channel.getName(), member, type, deadline);
+    }
+
+    /**
+     * 期限を登録する
+     *
+     * @param channelName チャンネル名
+     * @param member      対象メンバー
+     * @param type        期限の種類
+     * @param deadline    期日（ミリ秒）
+     */
+    void schedule(String channelName, ChannelMember member, Type type, long deadline) {
+        if (channelName == null || member == null) {
+            return;
+        }
+        queue.put(new Entry(channelName, member, type, deadline));
+    }
+
+    /**
+     * 期限が設定されると、このスケジューラに登録する期限マップを作成する
+     *
+     * @param channelName チャンネル名
+     * @param type        期限の種類
+     * @return 期限マップ
+     */
+    ExpireMap createMap(String channelName, Type type) {
+        return new ExpireMap(this, channelName, type);
+    }
+
+    /**
+     * チャンネルの期限マップに登録されている期限を、全て登録する
+     *
+     * @param channel チャンネル
+     */
+    public void scheduleAll(Channel channel) {
+        for (Map.Entry<ChannelMember, Long> entry : channel.getBanExpires().entrySet()) {
+            schedule(channel, entry.getKey(), Type.BAN, entry.getValue());
+        }
+        for (Map.Entry<ChannelMember, Long> entry : channel.getMuteExpires().entrySet()) {
+            schedule(channel, entry.getKey(), Type.MUTE, entry.getValue());
+        }
+    }
+
+    /**
+     * 登録されている期限を全て削除する
+     */
+    public void clear() {
+        queue.clear();
+    }
+
+    /**
+     * 登録されている期限の件数を返す
+     *
+     * @return 件数
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * 期限監視スレッドを開始する
+     */
+    public synchronized void start() {
+        if (thread != null && thread.isAlive()) {
+            return;
+        }
+        thread = new Thread(this::run, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 期限監視スレッドを停止する
+     */
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    /**
+     * 期限監視スレッドの処理。
+     * 先頭の期日まで待機し、期日になったエントリをまとめて取り出して処理する。
+     */
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Entry> due = new ArrayList<Entry>();
+            try {
+                due.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(due);
+
+            try {
+                handler.accept(due);
+            } catch (Exception e) {
+                LunaChat.getPlugin().log(Level.WARNING, "Failed to process expired ban/mute: " + e);
+            }
+        }
+    }
+
+    /**
+     * 期日になったエントリを、チャンネルごとにまとめて処理する
+     *
+     * @param due 期日になったエントリ
+     */
+    private void fire(List<Entry> due) {
+
+        LunaChatAPI api = LunaChat.getAPI();
+        if (api == null) {
+            return;
+        }
+
+        Map<String, List<Entry>> byChannel = new LinkedHashMap<String, List<Entry>>();
+        for (Entry entry : due) {
+            byChannel.computeIfAbsent(entry.channelName, k -> new ArrayList<Entry>()).add(entry);
+        }
+
+        for (Map.Entry<String, List<Entry>> group : byChannel.entrySet()) {
+            Channel channel = api.getChannel(group.getKey());
+            if (channel != null) {
+                channel.applyExpires(group.getValue());
+            }
+        }
+    }
+
+    /**
+     * 期限エントリ
+     */
+    static class Entry implements Delayed {
+
+        private final String channelName;
+        private final ChannelMember member;
+        private final Type type;
+        private final long deadline;
+
+        /**
+         * コンストラクタ
+         *
+         * @param channelName チャンネル名
+         * @param member      対象メンバー
+         * @param type        期限の種類
+         * @param deadline    期日（ミリ秒）
+         */
+        Entry(String channelName, ChannelMember member, Type type, long deadline) {
+            this.channelName = channelName;
+            this.member = member;
+            this.type = type;
+            this.deadline = deadline;
+        }
+
+        ChannelMember getMember() {
+            return member;
+        }
+
+        Type getType() {
+            return type;
+        }
+
+        long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * 期限マップから、このエントリの期限を削除する。
+         * 期日になっていない場合や、期限マップの期日とエントリの期日が一致しない場合
+         * （解除済みや期限変更済みの古いエントリの場合）は、何もしない。
+         *
+         * @param expires 期限マップ
+         * @param now     現在時刻（ミリ秒）
+         * @return 削除したかどうか
+         */
+        boolean removeFrom(Map<ChannelMember, Long> expires, long now) {
+            Long current = expires.get(member);
+            return current != null && current == deadline && deadline <= now
+                    && expires.remove(member, current);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other instanceof Entry) {
+                return Long.compare(deadline, ((Entry) other).deadline);
+            }
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * 期限マップ。put や putAll、compute、Entry#setValue など、どの方法で期限を設定しても、
+     * 設定された期限をスケジューラに登録する。削除は、期日になった時点で古いエントリとして無視される。
+     */
+    static class ExpireMap extends ConcurrentHashMap<ChannelMember, Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient ExpireScheduler scheduler;
+        private final String channelName;
+        private final Type type;
+
+        /**
+         * コンストラクタ
+         *
+         * @param scheduler   登録先のスケジューラ
+         * @param channelName チャンネル名
+         * @param type        期限の種類
+         */
+        private ExpireMap(ExpireScheduler scheduler, String channelName, Type type) {
+            this.scheduler = scheduler;
+            this.channelName = channelName;
+            this.type = type;
+        }
+
+        /**
+         * 保存されていた期限を、スケジューラに登録せずに読み込む。
+         * 読み込んだ期限は、ChannelManager がまとめて登録する。
+         *
+         * @param expires 期限
+         */
+        void restore(Map<ChannelMember, Long> expires) {
+            super.putAll(expires);
+        }
+
+        @Override
+        public Long put(ChannelMember key, Long value) {
+            Long old = super.put(key, value);
+            schedule(key, value);
+            return old;
+        }
+
+        @Override
+        public Long putIfAbsent(ChannelMember key, Long value) {
+            Long old = super.putIfAbsent(key, value);
+            if (old == null) {
+                schedule(key, value);
+            }
+            return old;
+        }
+
+        @Override
+        public void putAll(Map<? extends ChannelMember, ? extends Long> m) {
+            for (Map.Entry<? extends ChannelMember, ? extends Long> entry : m.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        @Override
+        public Long replace(ChannelMember key, Long value) {
+            Long old = super.replace(key, value);
+            if (old != null) {
+                schedule(key, value);
+            }
+            return old;
+        }
+
+        @Override
+        public boolean replace(ChannelMember key, Long oldValue, Long newValue) {
+            if (super.replace(key, oldValue, newValue)) {
+                schedule(key, newValue);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void replaceAll(BiFunction<? super ChannelMember, ? super Long, ? extends Long> function) {
+            super.replaceAll(function);
+            forEach(this::schedule);
+        }
+
+        @Override
+        public Long computeIfAbsent(ChannelMember key,
+                Function<? super ChannelMember, ? extends Long> mappingFunction) {
+            return schedule(key, super.computeIfAbsent(key, mappingFunction));
+        }
+
+        @Override
+        public Long computeIfPresent(ChannelMember key,
+                BiFunction<? super ChannelMember, ? super Long, ? extends Long> remappingFunction) {
+            return schedule(key, super.computeIfPresent(key, remappingFunction));
+        }
+
+        @Override
+        public Long compute(ChannelMember key,
+                BiFunction<? super ChannelMember, ? super Long, ? extends Long> remappingFunction) {
+            return schedule(key, super.compute(key, remappingFunction));
+        }
+
+        @Override
+        public Long merge(ChannelMember key, Long value,
+                BiFunction<? super Long, ? super Long, ? extends Long> remappingFunction) {
+            return schedule(key, super.merge(key, value, remappingFunction));
+        }
+
+        /**
+         * 期限をスケジューラに登録する
+         *
+         * @param key      対象メンバー
+         * @param deadline 期日（ミリ秒）、nullなら何もしない
+         * @return 期日
+         */
+        private Long schedule(ChannelMember key, Long deadline) {
+            if (deadline != null) {
+                scheduler.schedule(channelName, key, type, deadline);
+            }
+            return deadline;
+        }
+    }
+}
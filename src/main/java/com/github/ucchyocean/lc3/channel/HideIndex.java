@@ -0,0 +1,205 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.channel;
+
+import com.github.ucchyocean.lc3.util.Utility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * hidelistの索引。hideする側からhideされる側、hideされる側からhideする側の、
+ * 2方向のセットで保持することで、どちらの向きの確認も定数時間で行えるようにする。
+ * hideする側がプレイヤーの場合は、チャットの受信者の除外に使えるよう、UUIDのセットも合わせて保持する。<br>
+ * キーは ChannelMember#toString() の文字列で、同じ文字列は1つのインスタンスを共有する。
+ * 読み込みはロック無しで、どのスレッドからでも行える。変更は同期して、2方向のセットを揃えて行う。
+ *
+ * @author ucchy
+ */
+class HideIndex {
+
+    private final Map<String, String> keys;
+    private final Map<String, Set<String>> hiders;
+    private final Map<String, Set<String>> hiding;
+    private final Map<String, Set<UUID>> hiderUUIDs;
+
+    /**
+     * コンストラクタ
+     */
+    HideIndex() {
+        this.keys = new ConcurrentHashMap<String, String>();
+        this.hiders = new ConcurrentHashMap<String, Set<String>>();
+        this.hiding = new ConcurrentHashMap<String, Set<String>>();
+        this.hiderUUIDs = new ConcurrentHashMap<String, Set<UUID>>();
+    }
+
+    /**
+     * hideを追加する
+     *
+     * @param hider  hideする側のキー
+     * @param hidden hideされる側のキー
+     * @return 追加したかどうか、既に追加されていた場合はfalse
+     */
+    synchronized boolean add(String hider, String hidden) {
+        String hiderKey = intern(hider);
+        String hiddenKey = intern(hidden);
+        if (!hiders.computeIfAbsent(hiddenKey, k -> ConcurrentHashMap.newKeySet()).add(hiderKey)) {
+            return false;
+        }
+        hiding.computeIfAbsent(hiderKey, k -> ConcurrentHashMap.newKeySet()).add(hiddenKey);
+        UUID uuid = Utility.toUUID(hiderKey);
+        if (uuid != null) {
+            hiderUUIDs.computeIfAbsent(hiddenKey, k -> ConcurrentHashMap.newKeySet()).add(uuid);
+        }
+        return true;
+    }
+
+    /**
+     * hideを解除する
+     *
+     * @param hider  hideしていた側のキー
+     * @param hidden hideされていた側のキー
+     * @return 解除したかどうか、hideしていなかった場合はfalse
+     */
+    synchronized boolean remove(String hider, String hidden) {
+        if (!removeFrom(hiders, hidden, hider)) {
+            return false;
+        }
+        removeFrom(hiding, hider, hidden);
+        UUID uuid = Utility.toUUID(hider);
+        if (uuid != null) {
+            removeFrom(hiderUUIDs, hidden, uuid);
+        }
+        release(hider);
+        release(hidden);
+        return true;
+    }
+
+    /**
+     * 全てのhideを削除する
+     */
+    synchronized void clear() {
+        hiders.clear();
+        hiding.clear();
+        hiderUUIDs.clear();
+        keys.clear();
+    }
+
+    /**
+     * 指定した側が、指定した相手をhideしているかどうかを返す
+     *
+     * @param hider  hideする側のキー
+     * @param hidden hideされる側のキー
+     * @return hideしているかどうか
+     */
+    boolean contains(String hider, String hidden) {
+        Set<String> set = hiders.get(hidden);
+        return set != null && set.contains(hider);
+    }
+
+    /**
+     * 指定した相手をhideしている側のキーを返す
+     *
+     * @param hidden hideされる側のキー
+     * @return hideしている側のキーのセット（変更不可、非null）
+     */
+    Set<String> getHiders(String hidden) {
+        Set<String> set = hiders.get(hidden);
+        return (set == null) ? Collections.<String>emptySet() : Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * 指定した相手をhideしているプレイヤーのUUIDを返す
+     *
+     * @param hidden hideされる側のキー
+     * @return hideしているプレイヤーのUUIDのセット（変更不可、非null）
+     */
+    Set<UUID> getHiderUUIDs(String hidden) {
+        Set<UUID> set = hiderUUIDs.get(hidden);
+        return (set == null) ? Collections.<UUID>emptySet() : Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * 指定した側がhideしている相手のキーを返す
+     *
+     * @param hider hideする側のキー
+     * @return hideされている相手のキーのセット（変更不可、非null）
+     */
+    Set<String> getHidden(String hider) {
+        Set<String> set = hiding.get(hider);
+        return (set == null) ? Collections.<String>emptySet() : Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * 保存用に、指定した相手をhideしている側のキーのリストを返す
+     *
+     * @param hidden hideされる側のキー
+     * @return hideしている側のキーのリスト、1人もいない場合はnull
+     */
+    List<String> toStoreValue(String hidden) {
+        Set<String> set = hiders.get(hidden);
+        return (set == null || set.isEmpty()) ? null : new ArrayList<String>(set);
+    }
+
+    /**
+     * hideの組の数を返す
+     *
+     * @return hideの組の数
+     */
+    int size() {
+        int size = 0;
+        for (Set<String> set : hiders.values()) {
+            size += set.size();
+        }
+        return size;
+    }
+
+    /**
+     * キーを共有のインスタンスに置き換える
+     *
+     * @param key キー
+     * @return 共有のインスタンス
+     */
+    private String intern(String key) {
+        String existing = keys.putIfAbsent(key, key);
+        return (existing != null) ? existing : key;
+    }
+
+    /**
+     * どちらの索引からも参照されなくなったキーを、共有のインスタンスから外す
+     *
+     * @param key キー
+     */
+    private void release(String key) {
+        if (!hiders.containsKey(key) && !hiding.containsKey(key)) {
+            keys.remove(key);
+        }
+    }
+
+    /**
+     * 索引のセットから値を削除し、空になったセットは索引から外す
+     *
+     * @param index 索引
+     * @param key   キー
+     * @param value 値
+     * @return 削除したかどうか
+     */
+    private static <T> boolean removeFrom(Map<String, Set<T>> index, String key, T value) {
+        Set<T> set = index.get(key);
+        if (set == null || !set.remove(value)) {
+            return false;
+        }
+        if (set.isEmpty()) {
+            index.remove(key);
+        }
+        return true;
+    }
+}
@@ -8,6 +8,7 @@ package com.github.ucchyocean.lc3.channel;
 import com.github.ucchyocean.lc3.LunaChat;
 import com.github.ucchyocean.lc3.event.EventResult;
 import com.github.ucchyocean.lc3.japanize.IMEConverter;
+import com.github.ucchyocean.lc3.japanize.JapanizeClassifier;
 import com.github.ucchyocean.lc3.japanize.JapanizeType;
 import com.github.ucchyocean.lc3.japanize.YukiKanaConverter;
 import com.github.ucchyocean.lc3.member.ChannelMember;
@@ -59,6 +60,34 @@ public class JapanizeConvertTask {
         runSync();
     }
 
+    /**
+     * 変換タイプだけを変更した、新しいタスクを返す
+     *
+     * @param type 変換タイプ
+     * @return 新しいタスク
+     */
+    public JapanizeConvertTask withType(JapanizeType type) {
+        return new JapanizeConvertTask(org, type, format, channel, player);
+    }
+
+    /**
+     * 変換タイプを返す
+     *
+     * @return 変換タイプ
+     */
+    public JapanizeType getType() {
+        return type;
+    }
+
+    /**
+     * 発言したプレイヤーを返す
+     *
+     * @return 発言したプレイヤー
+     */
+    public ChannelMember getPlayer() {
+        return player;
+    }
+
     /**
      * 同期処理で変換を行います。結果は getResult() で取得してください。
      *
@@ -76,7 +105,9 @@ public class JapanizeConvertTask {
                 LunaChat.getAPI().getAllDictionary();
 
         // カラーコード削除、URL削除
-        String deletedURL = Utility.stripColorCode(org.replaceAll(REGEX_URL, " "));
+        String deletedURL = Utility.stripColorCode(
+                JapanizeClassifier.has(JapanizeClassifier.classify(org), JapanizeClassifier.URL)
+                        ? org.replaceAll(REGEX_URL, " ") : org);
 
         // キーワードをロック
         int index = 0;
@@ -0,0 +1,394 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.channel;
+
+import com.github.ucchyocean.lc3.LunaChat;
+import com.github.ucchyocean.lc3.LunaChatConfig;
+import com.github.ucchyocean.lc3.channel.JapanizeMetrics.Event;
+import com.github.ucchyocean.lc3.channel.JapanizeMetrics.Stage;
+import com.github.ucchyocean.lc3.japanize.JapanizeOverflowAction;
+import com.github.ucchyocean.lc3.japanize.JapanizeType;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Japanize変換を、サーバーのメインスレッドとは別の専用スレッドで実行するためのエグゼキュータ。<br>
+ * GoogleIMEによる変換は通信を伴うため、メインスレッドで実行するとサーバーが停止してしまう。
+ * 変換はこのエグゼキュータで行い、変換結果の配信だけを、呼び出し元が指定したスレッドで行う。<br>
+ * 変換は固定数のワーカースレッドと長さ制限付きの待ち行列で実行され、待ち行列があふれた場合や、
+ * プレイヤーごとの同時変換数の上限を超えた場合は、設定に応じてカナ変換だけを行うか、変換を破棄する。
+ * スレッド数などの設定は、エグゼキュータの作成時に読み込まれ、設定の再読み込み時に反映される。
+ * スレッド数か待ち行列の長さが変わった場合は、ワーカースレッドを作り直し、
+ * 古いワーカースレッドは待ち行列に残っている変換を終えてから停止する。
+ *
+ * @author ucchy
+ */
+public class JapanizeExecutor {
+
+    private static final String THREAD_NAME = "LunaChat-Japanize-";
+
+    private static final int DEFAULT_THREADS = 2;
+    private static final int DEFAULT_QUEUE_SIZE = 64;
+    private static final int DEFAULT_PLAYER_LIMIT = 2;
+
+    private static JapanizeExecutor instance;
+
+    private final ThreadFactory factory;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private volatile ThreadPoolExecutor workers;
+    private final ConcurrentHashMap<String, Integer> inFlight;
+    private volatile int playerLimit;
+    private volatile JapanizeOverflowAction overflowAction;
+    private final JapanizeMetrics metrics;
+
+    /**
+     * コンストラクタ
+     *
+     * @param threads        ワーカースレッドの数
+     * @param queueSize      待ち行列の長さ
+     * @param playerLimit    プレイヤーごとの同時変換数の上限
+     * @param overflowAction 待ち行列があふれたとき、または、上限を超えたときの動作
+     */
+    JapanizeExecutor(int threads, int queueSize, int playerLimit, JapanizeOverflowAction overflowAction) {
+        AtomicInteger count = new AtomicInteger();
+        factory = r -> {
+            Thread thread = new Thread(r, THREAD_NAME + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        // 遅延開始の待ち合わせだけを行うスレッド
+        scheduler = new ScheduledThreadPoolExecutor(1, factory);
+        scheduler.setRemoveOnCancelPolicy(true);
+
+        // 変換を行うワーカースレッド
+        workers = createWorkers(threads, queueSize);
+
+        this.inFlight = new ConcurrentHashMap<String, Integer>();
+        this.playerLimit = playerLimit;
+        this.overflowAction = overflowAction;
+        this.metrics = new JapanizeMetrics();
+    }
+
+    /**
+     * エグゼキュータのインスタンスを返す
+     *
+     * @return エグゼキュータ
+     */
+    public static synchronized JapanizeExecutor getInstance() {
+        if (instance == null) {
+            LunaChatConfig config = LunaChat.getConfig();
+            if (config != null) {
+                instance = new JapanizeExecutor(config.getJapanizeThreads(), config.getJapanizeQueueSize(),
+                        config.getJapanizePlayerLimit(), config.getJapanizeOverflowAction());
+            } else {
+                instance = new JapanizeExecutor(DEFAULT_THREADS, DEFAULT_QUEUE_SIZE,
+                        DEFAULT_PLAYER_LIMIT, JapanizeOverflowAction.KANA);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 設定の再読み込み時に、スレッド数などの設定を反映する。
+     * エグゼキュータがまだ作成されていない場合は、何もしない（作成時に設定が読み込まれる）。
+     *
+     * @param config 設定
+     */
+    public static synchronized void reload(LunaChatConfig config) {
+        if (instance != null && config != null) {
+            instance.reconfigure(config.getJapanizeThreads(), config.getJapanizeQueueSize(),
+                    config.getJapanizePlayerLimit(), config.getJapanizeOverflowAction());
+        }
+    }
+
+    /**
+     * スレッド数などの設定を変更する。
+     * スレッド数か待ち行列の長さが変わった場合は、ワーカースレッドを作り直す。
+     *
+     * @param threads        ワーカースレッドの数
+     * @param queueSize      待ち行列の長さ
+     * @param playerLimit    プレイヤーごとの同時変換数の上限
+     * @param overflowAction 待ち行列があふれたとき、または、上限を超えたときの動作
+     */
+    synchronized void reconfigure(int threads, int queueSize, int playerLimit,
+                                  JapanizeOverflowAction overflowAction) {
+
+        this.playerLimit = playerLimit;
+        this.overflowAction = overflowAction;
+
+        ThreadPoolExecutor current = workers;
+        int currentQueueSize = current.getQueue().size() + current.getQueue().remainingCapacity();
+        if (current.getCorePoolSize() == threads && currentQueueSize == queueSize) {
+            return;
+        }
+        workers = createWorkers(threads, queueSize);
+        current.shutdown();
+    }
+
+    /**
+     * エグゼキュータを停止する。プラグインの無効化時に呼び出すこと。
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.stop();
+            instance = null;
+        }
+    }
+
+    /**
+     * 起動しているエグゼキュータの、処理時間の集計を返す。エグゼキュータの起動は行わない。
+     *
+     * @return 処理時間の集計、起動していない場合はnull
+     */
+    public static synchronized JapanizeMetrics getRunningMetrics() {
+        return (instance != null) ? instance.metrics : null;
+    }
+
+    /**
+     * スレッドを停止する
+     */
+    synchronized void stop() {
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * 処理時間の集計を返す
+     *
+     * @return 処理時間の集計
+     */
+    public JapanizeMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 遅延開始の待ち合わせに使っているスレッドを返す
+     *
+     * @return スケジューラ
+     */
+    ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Japanize変換を実行し、変換結果を配信する
+     *
+     * @param task        変換タスク
+     * @param delayMillis 変換を開始するまでの待ち時間（ミリ秒）、元の発言を先に表示させたい場合に指定する
+     * @param delivery    変換結果の配信処理
+     * @param deliverOn   配信処理を実行するスレッド、変換スレッドでそのまま配信してよい場合は Runnable::run を指定する
+     */
+    public void submit(JapanizeConvertTask task, long delayMillis,
+                       Consumer<String> delivery, Executor deliverOn) {
+        submit(task, delayMillis, delivery, deliverOn, null);
+    }
+
+    /**
+     * Japanize変換を実行し、変換結果を、チケットの順番が来たときに配信する
+     *
+     * @param task        変換タスク
+     * @param delayMillis 変換を開始するまでの待ち時間（ミリ秒）、元の発言を先に表示させたい場合に指定する
+     * @param delivery    変換結果の配信処理
+     * @param deliverOn   配信処理を実行するスレッド、変換スレッドでそのまま配信してよい場合は Runnable::run を指定する
+     * @param ticket      配信の順番を揃えるためのチケット、順番を揃えない場合はnull
+     */
+    public void submit(JapanizeConvertTask task, long delayMillis,
+                       Consumer<String> delivery, Executor deliverOn, JapanizeSequencer.Ticket ticket) {
+
+        final long scheduled = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        Job job = new Job(task, scheduled, delivery, deliverOn, ticket);
+
+        if (delayMillis <= 0) {
+            dispatch(job);
+            return;
+        }
+
+        try {
+            scheduler.schedule(() -> dispatch(job), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 停止済み
+            drop(job);
+        }
+    }
+
+    /**
+     * プレイヤーごとの上限を確認してから、ワーカースレッドに変換を渡す
+     *
+     * @param job 変換の依頼
+     */
+    private void dispatch(Job job) {
+
+        String key = (job.task.getPlayer() == null) ? "" : job.task.getPlayer().toString();
+
+        if (!acquire(key)) {
+            metrics.record(Event.PLAYER_LIMIT);
+            overflow(job);
+            return;
+        }
+
+        ThreadPoolExecutor pool = workers;
+        try {
+            pool.execute(() -> {
+                try {
+                    convert(job.task, job);
+                } finally {
+                    release(key);
+                }
+            });
+            metrics.recordQueueDepth(pool.getQueue().size());
+        } catch (RejectedExecutionException e) {
+            release(key);
+            if (pool != workers) {
+                // 設定の再読み込みで作り直されたので、新しいワーカースレッドに渡し直す
+                dispatch(job);
+                return;
+            }
+            metrics.record(Event.QUEUE_FULL);
+            overflow(job);
+        }
+    }
+
+    /**
+     * ワーカースレッドを作成する
+     *
+     * @param threads   ワーカースレッドの数
+     * @param queueSize 待ち行列の長さ
+     * @return ワーカースレッド
+     */
+    private ThreadPoolExecutor createWorkers(int threads, int queueSize) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize), factory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 待ち行列があふれた場合や、上限を超えた場合の処理を行う
+     *
+     * @param job 変換の依頼
+     */
+    private void overflow(Job job) {
+
+        if (overflowAction == JapanizeOverflowAction.KANA && !workers.isShutdown()) {
+            // 通信を伴わないカナ変換だけを、呼び出し元のスレッドで行う
+            metrics.record(Event.KANA_FALLBACK);
+            convert(job.task.withType(JapanizeType.KANA), job);
+        } else {
+            drop(job);
+        }
+    }
+
+    /**
+     * 変換を破棄する
+     *
+     * @param job 変換の依頼
+     */
+    private void drop(Job job) {
+        metrics.record(Event.DROPPED);
+        if (job.ticket != null) {
+            job.ticket.skip();
+        }
+    }
+
+    /**
+     * 変換を行い、変換結果を配信スレッドに渡す
+     *
+     * @param task 変換タスク
+     * @param job  変換の依頼
+     */
+    private void convert(JapanizeConvertTask task, Job job) {
+
+        long start = System.nanoTime();
+        metrics.record(Stage.QUEUE, start - job.scheduled);
+
+        boolean converted;
+        try {
+            converted = task.runSync();
+        } catch (Exception e) {
+            LunaChat.getPlugin().log(Level.WARNING, "Failed to japanize: " + e);
+            converted = false;
+        }
+
+        long end = System.nanoTime();
+        metrics.record(Stage.CONVERT, end - start);
+        if (!converted) {
+            if (job.ticket != null) {
+                job.ticket.skip();
+            }
+            return;
+        }
+
+        String result = task.getResult();
+        Runnable handOff = () -> job.deliverOn.execute(() -> {
+            job.delivery.accept(result);
+            metrics.record(Stage.DELIVER, System.nanoTime() - end);
+        });
+        if (job.ticket != null) {
+            job.ticket.complete(handOff);
+        } else {
+            handOff.run();
+        }
+    }
+
+    /**
+     * プレイヤーの同時変換数を1つ増やす
+     *
+     * @param key プレイヤー
+     * @return 上限を超えずに増やせたかどうか
+     */
+    private boolean acquire(String key) {
+        boolean[] acquired = new boolean[1];
+        inFlight.compute(key, (k, v) -> {
+            int current = (v == null) ? 0 : v;
+            if (current >= playerLimit) {
+                return v;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    /**
+     * プレイヤーの同時変換数を1つ減らす
+     *
+     * @param key プレイヤー
+     */
+    private void release(String key) {
+        inFlight.computeIfPresent(key, (k, v) -> (v <= 1) ? null : v - 1);
+    }
+
+    /**
+     * 変換の依頼
+     */
+    private static class Job {
+
+        private final JapanizeConvertTask task;
+        private final long scheduled;
+        private final Consumer<String> delivery;
+        private final Executor deliverOn;
+        private final JapanizeSequencer.Ticket ticket;
+
+        private Job(JapanizeConvertTask task, long scheduled, Consumer<String> delivery,
+                    Executor deliverOn, JapanizeSequencer.Ticket ticket) {
+            this.task = task;
+            this.scheduled = scheduled;
+            this.delivery = delivery;
+            this.deliverOn = deliverOn;
+            this.ticket = ticket;
+        }
+    }
+}
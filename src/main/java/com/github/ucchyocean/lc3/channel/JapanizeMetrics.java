@@ -0,0 +1,206 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.channel;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Japanize変換の処理時間を段階ごとに集計し、待ち行列の状態を記録するクラス
+ *
+ * @author ucchy
+ */
+public class JapanizeMetrics {
+
+    /**
+     * 処理の段階
+     */
+    public enum Stage {
+
+        /**
+         * 変換の開始予定時刻から、実際に開始されるまでの待ち時間
+         */
+        QUEUE,
+
+        /**
+         * 変換処理（カナ変換、IME変換、イベント呼び出し）の時間
+         */
+        CONVERT,
+
+        /**
+         * 変換後、配信スレッドへの受け渡しを含めて、配信が終わるまでの時間
+         */
+        DELIVER
+    }
+
+    /**
+     * 待ち行列に関する出来事
+     */
+    public enum Event {
+
+        /**
+         * 待ち行列があふれた
+         */
+        QUEUE_FULL,
+
+        /**
+         * プレイヤーごとの同時変換数の上限を超えた
+         */
+        PLAYER_LIMIT,
+
+        /**
+         * カナ変換だけを行った
+         */
+        KANA_FALLBACK,
+
+        /**
+         * 変換を破棄した
+         */
+        DROPPED
+    }
+
+    private final LongAdder[] counts;
+    private final LongAdder[] totals;
+    private final AtomicLong[] maxes;
+    private final LongAdder[] events;
+    private final AtomicLong queueDepth;
+    private final AtomicLong maxQueueDepth;
+
+    /**
+     * コンストラクタ
+     */
+    public JapanizeMetrics() {
+        int size = Stage.values().length;
+        counts = new LongAdder[size];
+        totals = new LongAdder[size];
+        maxes = new AtomicLong[size];
+        for (int i = 0; i < size; i++) {
+            counts[i] = new LongAdder();
+            totals[i] = new LongAdder();
+            maxes[i] = new AtomicLong();
+        }
+        events = new LongAdder[Event.values().length];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new LongAdder();
+        }
+        queueDepth = new AtomicLong();
+        maxQueueDepth = new AtomicLong();
+    }
+
+    /**
+     * 処理時間を記録する
+     *
+     * @param stage 処理の段階
+     * @param nanos 処理時間（ナノ秒）
+     */
+    public void record(Stage stage, long nanos) {
+        int i = stage.ordinal();
+        long value = Math.max(0, nanos);
+        counts[i].increment();
+        totals[i].add(value);
+        maxes[i].accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * 待ち行列に関する出来事を記録する
+     *
+     * @param event 出来事
+     */
+    public void record(Event event) {
+        events[event.ordinal()].increment();
+    }
+
+    /**
+     * 現在の待ち行列の長さを記録する
+     *
+     * @param depth 待ち行列の長さ
+     */
+    public void recordQueueDepth(int depth) {
+        queueDepth.set(depth);
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    /**
+     * 記録された出来事の件数を返す
+     *
+     * @param event 出来事
+     * @return 件数
+     */
+    public long getCount(Event event) {
+        return events[event.ordinal()].sum();
+    }
+
+    /**
+     * 最後に記録された待ち行列の長さを返す
+     *
+     * @return 待ち行列の長さ
+     */
+    public long getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * 記録された待ち行列の長さの最大値を返す
+     *
+     * @return 待ち行列の長さの最大値
+     */
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * 記録された件数を返す
+     *
+     * @param stage 処理の段階
+     * @return 件数
+     */
+    public long getCount(Stage stage) {
+        return counts[stage.ordinal()].sum();
+    }
+
+    /**
+     * 平均の処理時間を返す
+     *
+     * @param stage 処理の段階
+     * @return 平均の処理時間（ミリ秒）
+     */
+    public double getAverageMillis(Stage stage) {
+        long count = getCount(stage);
+        if (count == 0) return 0;
+        return totals[stage.ordinal()].sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * 最大の処理時間を返す
+     *
+     * @param stage 処理の段階
+     * @return 最大の処理時間（ミリ秒）
+     */
+    public double getMaxMillis(Stage stage) {
+        return maxes[stage.ordinal()].get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * 集計結果の文字列表現を返す
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Japanize stages:");
+        for (Stage stage : Stage.values()) {
+            builder.append(String.format(" %s[n=%d avg=%.2fms max=%.2fms]",
+                    stage.name().toLowerCase(), getCount(stage),
+                    getAverageMillis(stage), getMaxMillis(stage)));
+        }
+        builder.append(String.format(" pending[depth=%d max=%d]", getQueueDepth(), getMaxQueueDepth()));
+        for (Event event : Event.values()) {
+            builder.append(' ').append(event.name().toLowerCase()).append('=').append(getCount(event));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.channel;
+
+import com.github.ucchyocean.lc3.LunaChat;
+import com.github.ucchyocean.lc3.LunaChatConfig;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * チャンネルごとに、Japanize変換の結果を発言順に配信するためのクラス。<br>
+ * 発言ごとに連番の付いたチケットを発行し、変換が終わった結果は、先の発言の結果が揃うまで保留する。
+ * 変換そのものは並列に行われ、配信の順番だけがここで揃えられる。<br>
+ * 先の発言の変換がタイムアウトまでに終わらない場合は、その発言を待たずに後の結果を配信する。
+ * タイムアウト後に終わった変換の結果は、受け取った時点ですぐに配信する。<br>
+ * 配信処理はロックを解放してから実行する。配信中に揃った結果は配信待ちの列に加えられ、
+ * 配信中のスレッドが順番に続けて配信する。
+ *
+ * @author ucchy
+ */
+public class JapanizeSequencer {
+
+    private static final int DEFAULT_TIMEOUT = 2000;
+
+    /** 変換結果が無いことを表す、配信処理の代わり */
+    private static final Runnable SKIPPED = () -> {};
+
+    private final long timeoutMillis;
+    private final Supplier<ScheduledExecutorService> timer;
+
+    private final Map<Long, Runnable> pending;
+    private final ArrayDeque<Runnable> ready;
+    private boolean delivering;
+    private long nextSequence;
+    private long nextRelease;
+    private long timeoutCount;
+    private long lateCount;
+
+    /**
+     * コンストラクタ。タイムアウトは設定から読み込み、タイムアウトの監視には JapanizeExecutor のスレッドを使う。
+     */
+    public JapanizeSequencer() {
+        this(getTimeoutFromConfig(), () -> JapanizeExecutor.getInstance().getScheduler());
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param timeoutMillis 先の発言の変換結果を待つ最大の時間（ミリ秒）、0以下ならタイムアウトしない
+     * @param timer         タイムアウトの監視に使うスレッド
+     */
+    JapanizeSequencer(long timeoutMillis, Supplier<ScheduledExecutorService> timer) {
+        this.timeoutMillis = timeoutMillis;
+        this.timer = timer;
+        this.pending = new HashMap<Long, Runnable>();
+        this.ready = new ArrayDeque<Runnable>();
+    }
+
+    /**
+     * 発言に対応するチケットを発行する。発言の順番に呼び出すこと。
+     *
+     * @return チケット
+     */
+    public Ticket reserve() {
+        Ticket ticket;
+        synchronized (this) {
+            ticket = new Ticket(nextSequence++);
+        }
+        if (timeoutMillis > 0) {
+            try {
+                ticket.timeout = timer.get().schedule(
+                        () -> expire(ticket.sequence), timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // 停止済みのため、タイムアウトを監視しない
+            }
+        }
+        return ticket;
+    }
+
+    /**
+     * タイムアウトにより、先の発言を待たずに配信した回数を返す
+     *
+     * @return タイムアウトした回数
+     */
+    public synchronized long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    /**
+     * タイムアウト後に変換が終わり、順番に関係なく配信した回数を返す
+     *
+     * @return 遅れて配信した回数
+     */
+    public synchronized long getLateCount() {
+        return lateCount;
+    }
+
+    /**
+     * 保留中の変換結果の数を返す
+     *
+     * @return 保留中の数
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * チケットの変換結果を受け取り、配信できる順番になった結果を配信する
+     *
+     * @param sequence 連番
+     * @param delivery 配信処理
+     */
+    private void release(long sequence, Runnable delivery) {
+
+        synchronized (this) {
+            if (sequence < nextRelease) {
+                // タイムアウトで既に飛ばされているので、すぐに配信する
+                if (delivery != SKIPPED) {
+                    lateCount++;
+                    ready.add(delivery);
+                }
+            } else {
+                pending.put(sequence, delivery);
+                drain();
+            }
+        }
+        deliver();
+    }
+
+    /**
+     * チケットのタイムアウトを処理する。そのチケットまでの結果を待たずに、揃っている結果を配信する。
+     *
+     * @param sequence 連番
+     */
+    private void expire(long sequence) {
+
+        synchronized (this) {
+            if (sequence < nextRelease) {
+                // 配信済み
+                return;
+            }
+
+            while (nextRelease <= sequence) {
+                Runnable delivery = pending.remove(nextRelease);
+                if (delivery == null) {
+                    timeoutCount++;
+                } else if (delivery != SKIPPED) {
+                    ready.add(delivery);
+                }
+                nextRelease++;
+            }
+            drain();
+        }
+        deliver();
+    }
+
+    /**
+     * 次の順番の結果が揃っている限り、配信待ちの列に移す。ロックを取ってから呼び出すこと。
+     */
+    private void drain() {
+        Runnable delivery;
+        while ((delivery = pending.remove(nextRelease)) != null) {
+            nextRelease++;
+            if (delivery != SKIPPED) {
+                ready.add(delivery);
+            }
+        }
+    }
+
+    /**
+     * 配信待ちの列の配信処理を、ロックを解放した状態で順番に実行する。
+     * 他のスレッドが配信中の場合は、そのスレッドに任せる。
+     */
+    private void deliver() {
+
+        synchronized (this) {
+            if (delivering) {
+                return;
+            }
+            delivering = true;
+        }
+
+        while (true) {
+            Runnable delivery;
+            synchronized (this) {
+                delivery = ready.poll();
+                if (delivery == null) {
+                    delivering = false;
+                    return;
+                }
+            }
+            try {
+                delivery.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 設定からタイムアウトを取得する
+     *
+     * @return タイムアウト（ミリ秒）
+     */
+    private static long getTimeoutFromConfig() {
+        LunaChatConfig config = LunaChat.getConfig();
+        return (config == null) ? DEFAULT_TIMEOUT : config.getJapanizeReorderTimeout();
+    }
+
+    /**
+     * 発言ごとに発行されるチケット。complete か skip のどちらかを1回だけ呼び出すこと。
+     */
+    public class Ticket {
+
+        private final long sequence;
+        private volatile ScheduledFuture<?> timeout;
+
+        private Ticket(long sequence) {
+            this.sequence = sequence;
+        }
+
+        /**
+         * 連番を返す
+         *
+         * @return 連番
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * 変換結果の配信処理を渡す。順番が来たときに、このメソッド、タイムアウト処理、または配信中の他のスレッドで実行される。
+         *
+         * @param delivery 配信処理
+         */
+        public void complete(Runnable delivery) {
+            cancelTimeout();
+            release(sequence, delivery);
+        }
+
+        /**
+         * 変換結果が無いこと（キャンセル、破棄、失敗）を通知し、後の発言の配信を進める
+         */
+        public void skip() {
+            cancelTimeout();
+            release(sequence, SKIPPED);
+        }
+
+        private void cancelTimeout() {
+            ScheduledFuture<?> future = timeout;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+}
@@ -145,7 +145,7 @@ public class BanCommand extends LunaChatSubCommand {
         channel.getBanned().add(kicked);
         if (expireMinutes != -1) {
             long expire = System.currentTimeMillis() + (long) expireMinutes * 60 * 1000;
-            channel.getBanExpires().put(kicked, expire);
+            channel.setBanExpire(kicked, expire);
         }
         channel.removeMember(kicked);
 
@@ -154,7 +154,7 @@ public class HideCommand extends LunaChatSubCommand {
 
             // 既に非表示になっていないかどうかをチェックする
             ChannelMember hided = ChannelMember.getChannelMember(cname);
-            if (api.getHidelist(hided).contains(sender)) {
+            if (api.containsHidelist(sender, hided)) {
                 sender.sendMessage(Messages.errmsgAlreadyHidedPlayer());
                 return true;
             }
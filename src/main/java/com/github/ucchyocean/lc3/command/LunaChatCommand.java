@@ -62,6 +62,7 @@ public class LunaChatCommand {
         commonCommands.add(new DictionaryCommand());
         commonCommands.add(new DicCommand());
         commonCommands.add(new ReloadCommand());
+        commonCommands.add(new StatsCommand());
     }
 
     /**
@@ -139,7 +139,7 @@ public class MuteCommand extends LunaChatSubCommand {
         channel.getMuted().add(kicked);
         if (expireMinutes != -1) {
             long expire = System.currentTimeMillis() + (long) expireMinutes * 60 * 1000;
-            channel.getMuteExpires().put(kicked, expire);
+            channel.setMuteExpire(kicked, expire);
         }
         channel.save();
 
@@ -301,6 +301,30 @@ public class OptionCommand extends LunaChatSubCommand {
             }
         }
 
+        if (options.containsKey("federated")) {
+            // 連携チャンネル設定
+
+            String pnode = PERMISSION_NODE + ".federated";
+            if (!sender.hasPermission(pnode)) {
+                sender.sendMessage(Messages.errmsgNotPermission(pnode));
+            } else {
+
+                String value = options.get("federated");
+
+                if (value.equals("") || value.equalsIgnoreCase("false")) {
+                    channel.setFederated(false);
+                    sender.sendMessage(Messages.cmdmsgOption("federated", "false"));
+                    setOption = true;
+                } else if (value.equalsIgnoreCase("true")) {
+                    channel.setFederated(true);
+                    sender.sendMessage(Messages.cmdmsgOption("federated", "true"));
+                    setOption = true;
+                } else {
+                    sender.sendMessage(Messages.errmsgInvalidBooleanOption("federated"));
+                }
+            }
+        }
+
         if (options.containsKey("japanize")) {
             // Japanize変換設定
 
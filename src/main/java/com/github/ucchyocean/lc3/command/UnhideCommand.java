@@ -138,7 +138,7 @@ public class UnhideCommand extends LunaChatSubCommand {
 
             // 既に表示になっていないかどうかをチェックする
             ChannelMember hided = ChannelMember.getChannelMember(cname);
-            if (!api.getHidelist(hided).contains(sender)) {
+            if (!api.containsHidelist(sender, hided)) {
                 sender.sendMessage(Messages.errmsgAlreadyUnhidedPlayer());
                 return true;
             }
@@ -0,0 +1,135 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.japanize;
+
+/**
+ * 発言内容を1回の走査で分類し、Japanize変換が必要かどうかを判定するためのクラス。<br>
+ * 分類結果は、フラグを組み合わせたint値で返されるため、判定のためにオブジェクトは作成されない。
+ * 以前は、UTF-8のバイト配列への変換と、正規表現によるマッチングで判定していた。
+ *
+ * @author ucchy
+ */
+public final class JapanizeClassifier {
+
+    /** 全ての文字がASCII文字である */
+    public static final int ASCII = 1;
+
+    /** 空白と半角カタカナだけで構成されている（空文字列は含まない） */
+    public static final int HALFWIDTH_KANA = 2;
+
+    /** ASCII以外の文字（UTF-8で2バイト以上になる文字）を含んでいる */
+    public static final int MULTIBYTE = 4;
+
+    /** URL（http:// または https://）を含んでいる */
+    public static final int URL = 8;
+
+    /** 拡張プレースホルダーの候補（%で囲まれた文字列）を含んでいる */
+    public static final int PLACEHOLDER = 16;
+
+    private JapanizeClassifier() {
+    }
+
+    /**
+     * 文字列を分類する
+     *
+     * @param text 分類する文字列、カラーコードは除去しておくこと
+     * @return 分類結果のフラグ
+     */
+    public static int classify(CharSequence text) {
+
+        int length = text.length();
+        boolean multibyte = false;
+        boolean kanaOnly = length > 0;
+        boolean url = false;
+        boolean placeholder = false;
+        int percent = -1;
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+
+            if (c >= 0x80) {
+                multibyte = true;
+                if (c < 0xFF61 || 0xFF9F < c) {
+                    kanaOnly = false;
+                }
+                continue;
+            }
+
+            if (c != ' ') {
+                kanaOnly = false;
+            }
+            if (c == '%') {
+                // 間に1文字以上ある、%の組を探す
+                if (percent >= 0 && i - percent > 1) {
+                    placeholder = true;
+                }
+                percent = i;
+            } else if (c == ':' && !url && isURLScheme(text, i)) {
+                url = true;
+            }
+        }
+
+        int result = 0;
+        if (!multibyte) result |= ASCII;
+        if (kanaOnly) result |= HALFWIDTH_KANA;
+        if (multibyte) result |= MULTIBYTE;
+        if (url) result |= URL;
+        if (placeholder) result |= PLACEHOLDER;
+        return result;
+    }
+
+    /**
+     * 分類結果から、Japanize変換が必要かどうかを返す。
+     * 2byteコードを含む場合や、半角カタカナだけの場合は、変換不要と判定する。
+     *
+     * @param classification 分類結果のフラグ
+     * @return Japanize変換が必要かどうか
+     */
+    public static boolean isNeedToJapanize(int classification) {
+        return (classification & (MULTIBYTE | HALFWIDTH_KANA)) == 0;
+    }
+
+    /**
+     * 文字列について、Japanize変換が必要かどうかを返す
+     *
+     * @param text 判定する文字列、カラーコードは除去しておくこと
+     * @return Japanize変換が必要かどうか
+     */
+    public static boolean isNeedToJapanize(CharSequence text) {
+        return isNeedToJapanize(classify(text));
+    }
+
+    /**
+     * 分類結果に、指定したフラグが含まれているかどうかを返す
+     *
+     * @param classification 分類結果のフラグ
+     * @param flag           フラグ
+     * @return 含まれているかどうか
+     */
+    public static boolean has(int classification, int flag) {
+        return (classification & flag) != 0;
+    }
+
+    /**
+     * 指定位置の : が、http:// または https:// の一部かどうかを返す
+     *
+     * @param text  文字列
+     * @param colon : の位置
+     * @return URLの開始部分かどうか
+     */
+    private static boolean isURLScheme(CharSequence text, int colon) {
+        if (colon + 2 >= text.length() || text.charAt(colon + 1) != '/' || text.charAt(colon + 2) != '/') {
+            return false;
+        }
+        int start = colon - 4;
+        if (colon >= 5 && text.charAt(colon - 1) == 's') {
+            start = colon - 5;
+        }
+        return start >= 0
+                && text.charAt(start) == 'h' && text.charAt(start + 1) == 't'
+                && text.charAt(start + 2) == 't' && text.charAt(start + 3) == 'p';
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.japanize;
+
+/**
+ * Japanize変換の待ち行列があふれたときや、プレイヤーごとの同時変換数の上限を超えたときの動作
+ *
+ * @author ucchy
+ */
+public enum JapanizeOverflowAction {
+
+    /**
+     * 通信を伴わないカナ変換だけを、その場で行う
+     */
+    KANA("kana"),
+
+    /**
+     * 変換を行わずに破棄する
+     */
+    DROP("drop");
+
+    private final String id;
+
+    /**
+     * コンストラクタ
+     *
+     * @param id ID
+     */
+    JapanizeOverflowAction(String id) {
+        this.id = id;
+    }
+
+    /**
+     * 文字列表記を返す
+     *
+     * @see java.lang.Enum#toString()
+     */
+    @Override
+    public String toString() {
+        return id;
+    }
+
+    /**
+     * 文字列表記からJapanizeOverflowActionを作成して返す
+     *
+     * @param id  ID
+     * @param def デフォルト
+     * @return JapanizeOverflowAction
+     */
+    public static JapanizeOverflowAction fromID(String id, JapanizeOverflowAction def) {
+        if (id == null) return def;
+        for (JapanizeOverflowAction action : values()) {
+            if (action.id.equalsIgnoreCase(id)) {
+                return action;
+            }
+        }
+        return def;
+    }
+}
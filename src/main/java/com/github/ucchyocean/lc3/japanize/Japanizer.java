@@ -31,12 +31,14 @@ public class Japanizer {
                                   Map<String, String> dictionary) {
 
         // 変換不要なら空文字列を返す
-        if (type == JapanizeType.NONE || !isNeedToJapanize(org)) {
+        int classification = JapanizeClassifier.classify(org);
+        if (type == JapanizeType.NONE || !JapanizeClassifier.isNeedToJapanize(classification)) {
             return "";
         }
 
         // URL削除
-        String deletedURL = org.replaceAll(REGEX_URL, " ");
+        String deletedURL = JapanizeClassifier.has(classification, JapanizeClassifier.URL)
+                ? org.replaceAll(REGEX_URL, " ") : org;
 
         // キーワードをロック
         HashMap<String, String> keywordMap = new LinkedHashMap<>();
@@ -72,17 +74,6 @@ public class Japanizer {
         return japanized.trim();
     }
 
-    /**
-     * 日本語化が必要かどうかを判定する
-     *
-     * @param org
-     * @return
-     */
-    private static boolean isNeedToJapanize(String org) {
-        return (org.getBytes().length == org.length()
-                && !org.matches("[ \\uFF61-\\uFF9F]+"));
-    }
-
     /**
      * 数値を、全角文字の文字列に変換して返す
      *
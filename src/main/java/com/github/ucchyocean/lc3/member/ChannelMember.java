@@ -118,6 +118,30 @@ public abstract class ChannelMember implements Comparable<ChannelMember> {
      */
     public abstract boolean isPermissionSet(String node);
 
+    /**
+     * 発言の処理で確認するパーミッションノードの権限を持っているかどうかを取得する。
+     * プレイヤーの場合は、権限が再計算されるまで、確認した結果を再利用する。
+     *
+     * @param node パーミッションノード
+     * @return 権限を持っているかどうか
+     * @see PermissionSnapshot
+     */
+    public boolean hasCachedPermission(String node) {
+        return hasPermission(node);
+    }
+
+    /**
+     * 発言の処理で確認するパーミッションノードが定義されているかどうかを取得する。
+     * プレイヤーの場合は、権限が再計算されるまで、確認した結果を再利用する。
+     *
+     * @param node パーミッションノード
+     * @return 定義を持っているかどうか
+     * @see PermissionSnapshot
+     */
+    public boolean isCachedPermissionSet(String node) {
+        return isPermissionSet(node);
+    }
+
     /**
      * 指定されたメッセージの内容を発言する
      *
@@ -139,6 +163,17 @@ public abstract class ChannelMember implements Comparable<ChannelMember> {
         return this.toString().equals(other.toString());
     }
 
+    /**
+     * ハッシュ値を返す。equalsと同じく、文字列表現から算出する。
+     *
+     * @return ハッシュ値
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return this.toString().hashCode();
+    }
+
     /**
      * インスタンス同士の比較を行う。このメソッドを実装しておくことで、
      * Java8でのHashMapのキー挿入における高速化が期待できる（らしい）。
@@ -8,8 +8,9 @@ package com.github.ucchyocean.lc3.member;
 import com.github.ucchyocean.lc3.LunaChat;
 import com.github.ucchyocean.lc3.LunaChatBukkit;
 import com.github.ucchyocean.lc3.bridge.VaultChatBridge;
+import com.github.ucchyocean.lc3.bukkit.PlaceholderService;
+import com.github.ucchyocean.lc3.member.MemberDecorationCache.Decoration;
 import com.github.ucchyocean.lc3.util.BlockLocation;
-import me.clip.placeholderapi.PlaceholderAPI;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.md_5.bungee.api.chat.BaseComponent;
@@ -29,7 +30,13 @@ import java.util.UUID;
  */
 public class ChannelMemberPlayer extends ChannelMemberBukkit {
 
+    private static final PlayerHandles<Player> HANDLES = new PlayerHandles<Player>(Bukkit::getPlayer);
+
     private final UUID id;
+    /** toString()の結果（equalsやhashCodeで使われるので、作成時に求めておく） */
+    private final String key;
+    /** 最後に使用したハンドル（解除されていれば、getPlayer()で取り出し直す） */
+    private PlayerHandles.Handle<Player> handle;
 
     /**
      * コンストラクタ
@@ -37,7 +44,7 @@ public class ChannelMemberPlayer extends ChannelMemberBukkit {
      * @param id プレイヤーID
      */
     public ChannelMemberPlayer(String id) {
-        this.id = UUID.fromString(id);
+        this(UUID.fromString(id));
     }
 
     /**
@@ -47,6 +54,35 @@ public class ChannelMemberPlayer extends ChannelMemberBukkit {
      */
     public ChannelMemberPlayer(UUID id) {
         this.id = id;
+        this.key = "$" + id.toString();
+    }
+
+    /**
+     * ログインしたプレイヤーを結び付け、ログイン前に作成されていたものも含めて、
+     * ChannelMemberPlayerがプレイヤーをサーバーから探さずに使えるようにする
+     *
+     * @param player ログインしたプレイヤー
+     */
+    public static void bind(Player player) {
+        HANDLES.bind(player.getUniqueId(), player);
+    }
+
+    /**
+     * ログアウトしたプレイヤーの結び付けを解除する
+     *
+     * @param id プレイヤーのUUID
+     */
+    public static void unbind(UUID id) {
+        HANDLES.unbind(id);
+    }
+
+    /**
+     * オンラインのプレイヤーの一覧を返す
+     *
+     * @return オンラインのプレイヤーの一覧
+     */
+    public static PlayerHandles<Player> getPlayerHandles() {
+        return HANDLES;
     }
 
     /**
@@ -89,7 +125,7 @@ public class ChannelMemberPlayer extends ChannelMemberBukkit {
      */
     @Override
     public boolean isOnline() {
-        Player player = Bukkit.getPlayer(id);
+        Player player = getPlayer();
         return (player != null);
     }
 
@@ -105,7 +141,7 @@ public class ChannelMemberPlayer extends ChannelMemberBukkit {
         if (cache != null) {
             return cache;
         }
-        Player player = Bukkit.getPlayer(id);
+        Player player = getPlayer();
         if (player != null) {
             return player.getName();
         }
@@ -128,17 +164,24 @@ public class ChannelMemberPlayer extends ChannelMemberBukkit {
     public String getDisplayName() {
         Player player = getPlayer();
         if (player != null) {
-            // Adventure APIのdisplayName()からレガシー形式（カラーコード保持）で取得
-            String displayName = net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer.legacySection().serialize(player.displayName());
-            if (LunaChatBukkit.getInstance().enablePlaceholderAPI()) {
-                displayName = PlaceholderAPI.setPlaceholders(player, displayName);
-                displayName = LunaChatBukkit.stripUnresolvedPlaceholders(displayName);
-            }
-            return displayName;
+            return MemberDecorationCache.getInstance().get(id, Decoration.DISPLAY_NAME,
+                    () -> loadDisplayName(player));
         }
         return getName();
     }
 
+    /**
+     * プレイヤー表示名を取得する
+     *
+     * @param player プレイヤー
+     * @return プレイヤー表示名
+     */
+    private static String loadDisplayName(Player player) {
+        // Adventure APIのdisplayName()からレガシー形式（カラーコード保持）で取得
+        String displayName = net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer.legacySection().serialize(player.displayName());
+        return LunaChatBukkit.getInstance().getPlaceholders().expand(player, displayName);
+    }
+
     /**
      * プレフィックスを返す
      *
@@ -153,12 +196,8 @@ public class ChannelMemberPlayer extends ChannelMemberBukkit {
         }
         Player player = getPlayer();
         if (player != null) {
-            String prefix = vault.getPlayerPrefix(player);
-            if (LunaChatBukkit.getInstance().enablePlaceholderAPI()) {
-                prefix = PlaceholderAPI.setPlaceholders(player, prefix);
-                prefix = LunaChatBukkit.stripUnresolvedPlaceholders(prefix);
-            }
-            return prefix;
+            return MemberDecorationCache.getInstance().get(id, Decoration.PREFIX,
+                    () -> LunaChatBukkit.getInstance().getPlaceholders().expand(player, vault.getPlayerPrefix(player)));
         }
         return "";
     }
@@ -177,12 +216,8 @@ public class ChannelMemberPlayer extends ChannelMemberBukkit {
         }
         Player player = getPlayer();
         if (player != null) {
-            String suffix = vault.getPlayerSuffix(player);
-            if (LunaChatBukkit.getInstance().enablePlaceholderAPI()) {
-                suffix = PlaceholderAPI.setPlaceholders(player, suffix);
-                suffix = LunaChatBukkit.stripUnresolvedPlaceholders(suffix);
-            }
-            return suffix;
+            return MemberDecorationCache.getInstance().get(id, Decoration.SUFFIX,
+                    () -> LunaChatBukkit.getInstance().getPlaceholders().expand(player, vault.getPlayerSuffix(player)));
         }
         return "";
     }
@@ -240,24 +275,36 @@ public class ChannelMemberPlayer extends ChannelMemberBukkit {
     public Component getDisplayNameComponent() {
         Player player = getPlayer();
         if (player != null) {
-            // PlaceholderAPIでNameColorのMiniMessage形式名前を取得
-            if (LunaChatBukkit.getInstance().enablePlaceholderAPI()) {
-                try {
-                    String miniMessageFormat = PlaceholderAPI.setPlaceholders(player, "%namecolor_name_minimessage%");
-                    // プレースホルダーが展開されたかチェック（未展開の場合はそのまま残る）
-                    if (miniMessageFormat != null && !miniMessageFormat.isEmpty()
-                            && !miniMessageFormat.contains("%namecolor_name_minimessage%")) {
-                        // MiniMessageでパースしてComponentを返す
-                        return MiniMessage.miniMessage().deserialize(miniMessageFormat);
-                    }
-                } catch (Exception e) {
-                    // MiniMessageのパースに失敗した場合はフォールバック
+            return MemberDecorationCache.getInstance().get(id, Decoration.DISPLAY_NAME_COMPONENT,
+                    () -> loadDisplayNameComponent(player));
+        }
+        return Component.text(getName());
+    }
+
+    /**
+     * プレイヤー表示名をComponentで取得する
+     *
+     * @param player プレイヤー
+     * @return プレイヤー表示名のComponent
+     */
+    private static Component loadDisplayNameComponent(Player player) {
+        // PlaceholderAPIでNameColorのMiniMessage形式名前を取得
+        PlaceholderService placeholders = LunaChatBukkit.getInstance().getPlaceholders();
+        if (placeholders.isEnabled()) {
+            try {
+                String miniMessageFormat = placeholders.setPlaceholders(player, "%namecolor_name_minimessage%");
+                // プレースホルダーが展開されたかチェック（未展開の場合はそのまま残る）
+                if (miniMessageFormat != null && !miniMessageFormat.isEmpty()
+                        && !miniMessageFormat.contains("%namecolor_name_minimessage%")) {
+                    // MiniMessageでパースしてComponentを返す
+                    return MiniMessage.miniMessage().deserialize(miniMessageFormat);
                 }
+            } catch (Exception e) {
+                // MiniMessageのパースに失敗した場合はフォールバック
             }
-            // フォールバック: player.displayName()を使用
-            return player.displayName();
         }
-        return Component.text(getName());
+        // フォールバック: player.displayName()を使用
+        return player.displayName();
     }
 
     /**
@@ -268,7 +315,9 @@ public class ChannelMemberPlayer extends ChannelMemberBukkit {
      */
     @Override
     public Player getPlayer() {
-        return Bukkit.getPlayer(id);
+        PlayerHandles.Handle<Player> current = HANDLES.current(handle, id);
+        handle = current;
+        return HANDLES.get(current, id);
     }
 
     /**
@@ -349,6 +398,30 @@ public class ChannelMemberPlayer extends ChannelMemberBukkit {
         }
     }
 
+    /**
+     * 発言の処理で確認するパーミッションノードの権限を持っているかどうかを取得する
+     *
+     * @param node パーミッションノード
+     * @return 権限を持っているかどうか
+     * @see com.github.ucchyocean.lc3.member.ChannelMember#hasCachedPermission(java.lang.String)
+     */
+    @Override
+    public boolean hasCachedPermission(String node) {
+        return PermissionSnapshot.getInstance().hasPermission(id, node, this::hasPermission);
+    }
+
+    /**
+     * 発言の処理で確認するパーミッションノードが定義されているかどうかを取得する
+     *
+     * @param node パーミッションノード
+     * @return 定義を持っているかどうか
+     * @see com.github.ucchyocean.lc3.member.ChannelMember#isCachedPermissionSet(java.lang.String)
+     */
+    @Override
+    public boolean isCachedPermissionSet(String node) {
+        return PermissionSnapshot.getInstance().isPermissionSet(id, node, this::isPermissionSet);
+    }
+
     /**
      * 指定されたメッセージの内容を発言する
      *
@@ -370,7 +443,7 @@ public class ChannelMemberPlayer extends ChannelMemberBukkit {
      */
     @Override
     public String toString() {
-        return "$" + id.toString();
+        return key;
     }
 
     public static ChannelMemberPlayer getChannelMember(String nameOrUuid) {
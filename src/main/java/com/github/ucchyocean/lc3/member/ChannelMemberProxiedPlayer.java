@@ -27,6 +27,8 @@ import java.util.UUID;
 public class ChannelMemberProxiedPlayer extends ChannelMemberBungee {
 
     private final UUID id;
+    /** toString()の結果（equalsやhashCodeで使われるので、作成時に求めておく） */
+    private final String key;
 
     /**
      * コンストラクタ
@@ -34,7 +36,7 @@ public class ChannelMemberProxiedPlayer extends ChannelMemberBungee {
      * @param id プレイヤーID
      */
     public ChannelMemberProxiedPlayer(String id) {
-        this.id = UUID.fromString(id);
+        this(UUID.fromString(id));
     }
 
     /**
@@ -44,6 +46,7 @@ public class ChannelMemberProxiedPlayer extends ChannelMemberBungee {
      */
     public ChannelMemberProxiedPlayer(UUID id) {
         this.id = id;
+        this.key = "$" + id.toString();
     }
 
     /**
@@ -236,6 +239,30 @@ public class ChannelMemberProxiedPlayer extends ChannelMemberBungee {
         return false;
     }
 
+    /**
+     * 発言の処理で確認するパーミッションノードの権限を持っているかどうかを取得する
+     *
+     * @param node パーミッションノード
+     * @return 権限を持っているかどうか
+     * @see com.github.ucchyocean.lc3.member.ChannelMember#hasCachedPermission(java.lang.String)
+     */
+    @Override
+    public boolean hasCachedPermission(String node) {
+        return PermissionSnapshot.getInstance().hasPermission(id, node, this::hasPermission);
+    }
+
+    /**
+     * 発言の処理で確認するパーミッションノードが定義されているかどうかを取得する
+     *
+     * @param node パーミッションノード
+     * @return 定義を持っているかどうか
+     * @see com.github.ucchyocean.lc3.member.ChannelMember#isCachedPermissionSet(java.lang.String)
+     */
+    @Override
+    public boolean isCachedPermissionSet(String node) {
+        return PermissionSnapshot.getInstance().isPermissionSet(id, node, this::isPermissionSet);
+    }
+
     /**
      * 指定されたメッセージの内容を発言する
      *
@@ -257,7 +284,7 @@ public class ChannelMemberProxiedPlayer extends ChannelMemberBungee {
      */
     @Override
     public String toString() {
-        return "$" + id.toString();
+        return key;
     }
 
     /**
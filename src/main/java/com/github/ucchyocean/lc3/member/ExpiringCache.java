@@ -0,0 +1,171 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.member;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * プレイヤーのUUIDごとに、有効期限付きのエントリを保持しておくキャッシュ。<br>
+ * MemberDecorationCache と PermissionSnapshot で共通の、有効期限の管理、破棄、集計を行う。
+ * エントリの中身の取得と保持は、それぞれのクラスが行う。
+ * 有効期限の判定には、指定された時計（ナノ秒）を使う。
+ *
+ * @param <E> エントリの型
+ * @author ucchy
+ */
+class ExpiringCache<E> {
+
+    private final Map<UUID, Holder<E>> entries;
+    private final Supplier<E> factory;
+    private final LongSupplier clock;
+    private volatile long ttlNanos;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong invalidations;
+
+    /**
+     * コンストラクタ
+     *
+     * @param ttlMillis 有効期限（ミリ秒）
+     * @param factory   空のエントリを作成する処理
+     * @param clock     現在時刻（ナノ秒）を返す時計
+     */
+    ExpiringCache(long ttlMillis, Supplier<E> factory, LongSupplier clock) {
+        this.entries = new ConcurrentHashMap<UUID, Holder<E>>();
+        this.factory = factory;
+        this.clock = clock;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMillis));
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.invalidations = new AtomicLong();
+    }
+
+    /**
+     * 有効期限を設定する。0を指定すると、キャッシュを使用しない。
+     * 保持しているエントリは全て破棄される。
+     *
+     * @param ttlMillis 有効期限（ミリ秒）
+     */
+    void setTtl(long ttlMillis) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMillis));
+        invalidateAll();
+    }
+
+    /**
+     * 指定したプレイヤーのエントリを返す。無いか、有効期限が切れている場合は、空のエントリを作り直す。
+     *
+     * @param id プレイヤーのUUID
+     * @return エントリ、キャッシュを使用しない場合はnull
+     */
+    E getEntry(UUID id) {
+        long ttl = ttlNanos;
+        if (ttl <= 0 || id == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        Holder<E> holder = entries.get(id);
+        if (holder == null || now - holder.created >= ttl) {
+            holder = new Holder<E>(now, factory.get());
+            entries.put(id, holder);
+        }
+        return holder.value;
+    }
+
+    /**
+     * 指定したプレイヤーのエントリを破棄する
+     *
+     * @param id プレイヤーのUUID
+     */
+    void invalidate(UUID id) {
+        if (entries.remove(id) != null) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * 全てのエントリを破棄する
+     */
+    void invalidateAll() {
+        int size = entries.size();
+        entries.clear();
+        invalidations.addAndGet(size);
+    }
+
+    /**
+     * キャッシュから取得できたことを記録する
+     */
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    /**
+     * キャッシュから取得できず、取得し直したことを記録する
+     */
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    /**
+     * キャッシュから取得できた回数を返す
+     *
+     * @return キャッシュから取得できた回数
+     */
+    long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * キャッシュから取得できず、取得し直した回数を返す
+     *
+     * @return 取得し直した回数
+     */
+    long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * キャッシュから取得できた割合を返す
+     *
+     * @return 割合（0.0 - 1.0）、まだ1回も取得していない場合は0.0
+     */
+    double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return (total == 0) ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * 集計結果を文字列で返す
+     *
+     * @param name 表示する名前
+     * @return 集計結果
+     */
+    String toString(String name) {
+        return String.format("%s: hit=%d, miss=%d, rate=%.1f%%, invalidated=%d, players=%d",
+                name, hits.get(), misses.get(), getHitRate() * 100, invalidations.get(), entries.size());
+    }
+
+    /**
+     * 作成時刻付きのエントリ
+     */
+    private static class Holder<E> {
+
+        private final long created;
+        private final E value;
+
+        private Holder(long created, E value) {
+            this.created = created;
+            this.value = value;
+        }
+    }
+}
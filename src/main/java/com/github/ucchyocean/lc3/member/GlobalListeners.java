@@ -0,0 +1,195 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.member;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * パーミッション lunachat-admin.listen-all-channels を持つ、オンラインのプレイヤーの一覧。<br>
+ * opListenAllChannel 設定が有効な場合に、全てのチャンネルの発言を受信するプレイヤーを、
+ * 発言のたびに全員のパーミッションを確認せずに求めるために使用する。
+ * 一覧は、プレイヤーのログイン・ログアウトと、権限の再計算のイベント、設定の再読み込みを受けて更新する。
+ * 権限の再計算のイベントが無い環境（LuckPerms が無い場合など）に備えて、
+ * 一定時間ごとに、受信者に加える前にオンラインのプレイヤー全員を確認し直す。
+ *
+ * @author ucchy
+ */
+public class GlobalListeners {
+
+    /** 全てのチャンネルの発言を受信するパーミッション */
+    public static final String PERMISSION = "lunachat-admin.listen-all-channels";
+
+    private static final long DEFAULT_REFRESH_INTERVAL_MILLIS = 10000;
+
+    private static final GlobalListeners INSTANCE = new GlobalListeners(System::nanoTime);
+
+    private final Map<String, ChannelMember> listeners;
+    private final LongSupplier clock;
+    private final AtomicLong lastRefresh;
+
+    private volatile Supplier<? extends Collection<? extends ChannelMember>> online;
+    private volatile long refreshIntervalNanos;
+
+    /**
+     * コンストラクタ
+     *
+     * @param clock 現在時刻（ナノ秒）を返す処理
+     */
+    GlobalListeners(LongSupplier clock) {
+        this.listeners = new ConcurrentHashMap<String, ChannelMember>();
+        this.clock = clock;
+        this.lastRefresh = new AtomicLong(clock.getAsLong());
+        this.refreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_REFRESH_INTERVAL_MILLIS);
+    }
+
+    /**
+     * 一覧のインスタンスを返す
+     *
+     * @return 一覧
+     */
+    public static GlobalListeners getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * オンラインのプレイヤーを返す処理を設定する。プラグインの有効化のときに呼び出す。
+     *
+     * @param online オンラインのプレイヤーを返す処理
+     */
+    public void setOnlinePlayers(Supplier<? extends Collection<? extends ChannelMember>> online) {
+        this.online = online;
+    }
+
+    /**
+     * オンラインのプレイヤー全員を確認し直す間隔を設定する。0を指定すると、確認し直さない。
+     *
+     * @param intervalMillis 間隔（ミリ秒）
+     */
+    public void setRefreshInterval(long intervalMillis) {
+        this.refreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, intervalMillis));
+    }
+
+    /**
+     * オンラインのプレイヤー全員のパーミッションを確認し、一覧を作り直す。
+     * オンラインのプレイヤーを返す処理が設定されていない場合は、何もしない。
+     */
+    public void refresh() {
+        Supplier<? extends Collection<? extends ChannelMember>> supplier = online;
+        if (supplier != null) {
+            refreshAll(supplier.get());
+        }
+    }
+
+    /**
+     * プレイヤーのパーミッションを確認し、一覧に追加または削除する。
+     * ログインしたときと、権限が変更されたときに呼び出す。
+     *
+     * @param member プレイヤー
+     */
+    public void update(ChannelMember member) {
+        if (member == null) {
+            return;
+        }
+        if (member.isOnline() && member.hasPermission(PERMISSION)) {
+            listeners.put(member.toString(), member);
+        } else {
+            listeners.remove(member.toString());
+        }
+    }
+
+    /**
+     * プレイヤーを一覧から削除する。ログアウトしたときに呼び出す。
+     *
+     * @param id プレイヤーのUUID
+     */
+    public void remove(UUID id) {
+        listeners.remove("$" + id);
+    }
+
+    /**
+     * オンラインのプレイヤー全員のパーミッションを確認し、一覧を作り直す。
+     * プラグインの有効化や、設定の再読み込みのときに呼び出す。
+     *
+     * @param online オンラインのプレイヤー
+     */
+    public void refreshAll(Collection<? extends ChannelMember> online) {
+        lastRefresh.set(clock.getAsLong());
+        Map<String, ChannelMember> current = new HashMap<String, ChannelMember>();
+        for (ChannelMember member : online) {
+            if (member != null && member.hasPermission(PERMISSION)) {
+                current.put(member.toString(), member);
+            }
+        }
+        listeners.keySet().retainAll(current.keySet());
+        listeners.putAll(current);
+    }
+
+    /**
+     * 一覧を返す
+     *
+     * @return 一覧（変更不可）
+     */
+    public Collection<ChannelMember> getListeners() {
+        return Collections.unmodifiableCollection(listeners.values());
+    }
+
+    /**
+     * 受信者に、一覧のプレイヤーのうちまだ含まれていない人を加える。
+     * 確認し直す間隔が過ぎている場合は、先に一覧を作り直す。
+     * 一覧が空の場合は、受信者を走査しない。
+     * 重複の確認には一覧の写しだけを作り、一覧の全員が見つかった時点で走査を終える。
+     *
+     * @param recipients 受信者
+     */
+    public void addTo(List<ChannelMember> recipients) {
+        refreshIfExpired();
+        if (listeners.isEmpty()) {
+            return;
+        }
+        Map<String, ChannelMember> missing = new HashMap<String, ChannelMember>(listeners);
+        for (ChannelMember member : recipients) {
+            if (member != null && missing.remove(member.toString()) != null && missing.isEmpty()) {
+                return;
+            }
+        }
+        recipients.addAll(missing.values());
+    }
+
+    /**
+     * 確認し直す間隔が過ぎていれば、一覧を作り直す。
+     * 同時に呼び出された場合は、1つのスレッドだけが作り直す。
+     */
+    private void refreshIfExpired() {
+        long interval = refreshIntervalNanos;
+        if (interval <= 0 || online == null) {
+            return;
+        }
+        long last = lastRefresh.get();
+        long now = clock.getAsLong();
+        if (now - last >= interval && lastRefresh.compareAndSet(last, now)) {
+            refresh();
+        }
+    }
+
+    /**
+     * 一覧の人数を返す
+     *
+     * @return 人数
+     */
+    public int size() {
+        return listeners.size();
+    }
+}
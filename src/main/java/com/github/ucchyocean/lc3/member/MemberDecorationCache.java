@@ -0,0 +1,171 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.member;
+
+import java.util.UUID;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * プレイヤーの表示名、プレフィックス、サフィックスなどの装飾を、短い時間だけ保持しておくキャッシュ。<br>
+ * 装飾の取得には、Vault、PlaceholderAPI、MiniMessage の処理が必要になるため、
+ * 同じプレイヤーが続けて発言した場合は、保持しておいた結果を再利用する。
+ * ChannelMemberPlayer は発言ごとに作成されるため、キャッシュはプレイヤーのUUIDごとに共有する。<br>
+ * 保持した結果は、有効期限が切れるか、権限やグループの変更、設定の再読み込み、
+ * プレイヤーのログイン・ログアウトの際に破棄される。
+ *
+ * @author ucchy
+ */
+public class MemberDecorationCache {
+
+    private static final long DEFAULT_TTL_MILLIS = 1000;
+
+    private static final int DECORATIONS = Decoration.values().length;
+
+    private static final MemberDecorationCache INSTANCE = new MemberDecorationCache(DEFAULT_TTL_MILLIS);
+
+    private final ExpiringCache<Object[]> cache;
+
+    /**
+     * 装飾の種類
+     */
+    public enum Decoration {
+
+        /** 表示名 */
+        DISPLAY_NAME,
+
+        /** プレフィックス */
+        PREFIX,
+
+        /** サフィックス */
+        SUFFIX,
+
+        /** 表示名のComponent */
+        DISPLAY_NAME_COMPONENT;
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param ttlMillis 有効期限（ミリ秒）
+     */
+    MemberDecorationCache(long ttlMillis) {
+        this(ttlMillis, System::nanoTime);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param ttlMillis 有効期限（ミリ秒）
+     * @param clock     現在時刻（ナノ秒）を返す時計
+     */
+    MemberDecorationCache(long ttlMillis, LongSupplier clock) {
+        // 同時に取得し直した場合は、どちらかの結果が残るだけなので、同期はしない
+        this.cache = new ExpiringCache<Object[]>(ttlMillis, () -> new Object[DECORATIONS], clock);
+    }
+
+    /**
+     * キャッシュのインスタンスを返す
+     *
+     * @return キャッシュ
+     */
+    public static MemberDecorationCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 有効期限を設定する。0を指定すると、キャッシュを使用しない。
+     * 設定済みの結果は全て破棄される。
+     *
+     * @param ttlMillis 有効期限（ミリ秒）
+     */
+    public void setTtl(long ttlMillis) {
+        cache.setTtl(ttlMillis);
+    }
+
+    /**
+     * 装飾を取得する。保持している結果が無いか、有効期限が切れている場合は、
+     * 指定された処理で取得し直して保持する。
+     *
+     * @param <T>        装飾の型
+     * @param id         プレイヤーのUUID
+     * @param decoration 装飾の種類
+     * @param loader     装飾を取得する処理
+     * @return 装飾
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(UUID id, Decoration decoration, Supplier<T> loader) {
+
+        Object[] values = cache.getEntry(id);
+        if (values == null) {
+            return loader.get();
+        }
+
+        Object value = values[decoration.ordinal()];
+        if (value != null) {
+            cache.recordHit();
+            return (T) value;
+        }
+
+        cache.recordMiss();
+        T loaded = loader.get();
+        values[decoration.ordinal()] = loaded;
+        return loaded;
+    }
+
+    /**
+     * 指定したプレイヤーの結果を破棄する
+     *
+     * @param id プレイヤーのUUID
+     */
+    public void invalidate(UUID id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * 全ての結果を破棄する
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * キャッシュから取得できた回数を返す
+     *
+     * @return キャッシュから取得できた回数
+     */
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    /**
+     * キャッシュから取得できず、取得し直した回数を返す
+     *
+     * @return 取得し直した回数
+     */
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    /**
+     * キャッシュから取得できた割合を返す
+     *
+     * @return 割合（0.0 - 1.0）、まだ1回も取得していない場合は0.0
+     */
+    public double getHitRate() {
+        return cache.getHitRate();
+    }
+
+    /**
+     * 集計結果を文字列で返す
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return cache.toString("MemberDecorationCache");
+    }
+}
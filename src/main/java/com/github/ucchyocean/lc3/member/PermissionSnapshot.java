@@ -0,0 +1,176 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.member;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * 発言の処理で確認する、LunaChatのパーミッションの確認結果を保持しておくスナップショット。<br>
+ * 発言権限、カラーコードの使用権限、モデレータ権限は、発言のたびに確認されるため、
+ * 一度確認した結果を、プレイヤーのUUIDとパーミッションノードごとに保持して再利用する。<br>
+ * 保持した結果は、権限の再計算（LuckPerms の UserDataRecalculateEvent）、設定の再読み込み、
+ * プレイヤーのログイン・ログアウトの際に破棄される。それ以外の方法で権限が変更された場合に備えて、
+ * 有効期限が切れた結果も破棄される。
+ *
+ * @author ucchy
+ */
+public class PermissionSnapshot {
+
+    private static final long DEFAULT_TTL_MILLIS = 5000;
+
+    private static final PermissionSnapshot INSTANCE = new PermissionSnapshot(DEFAULT_TTL_MILLIS);
+
+    private final ExpiringCache<Entry> cache;
+
+    /**
+     * コンストラクタ
+     *
+     * @param ttlMillis 有効期限（ミリ秒）
+     */
+    PermissionSnapshot(long ttlMillis) {
+        this(ttlMillis, System::nanoTime);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param ttlMillis 有効期限（ミリ秒）
+     * @param clock     現在時刻（ナノ秒）を返す時計
+     */
+    PermissionSnapshot(long ttlMillis, LongSupplier clock) {
+        this.cache = new ExpiringCache<Entry>(ttlMillis, Entry::new, clock);
+    }
+
+    /**
+     * スナップショットのインスタンスを返す
+     *
+     * @return スナップショット
+     */
+    public static PermissionSnapshot getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 有効期限を設定する。0を指定すると、スナップショットを使用しない。
+     * 保持している結果は全て破棄される。
+     *
+     * @param ttlMillis 有効期限（ミリ秒）
+     */
+    public void setTtl(long ttlMillis) {
+        cache.setTtl(ttlMillis);
+    }
+
+    /**
+     * パーミッションを持っているかどうかを返す。保持している結果が無いか、
+     * 有効期限が切れている場合は、指定された処理で確認し直して保持する。
+     *
+     * @param id     プレイヤーのUUID
+     * @param node   パーミッションノード
+     * @param loader パーミッションを確認する処理
+     * @return パーミッションを持っているかどうか
+     */
+    public boolean hasPermission(UUID id, String node, Predicate<String> loader) {
+        Entry entry = cache.getEntry(id);
+        return (entry == null) ? loader.test(node) : lookup(entry.has, node, loader);
+    }
+
+    /**
+     * パーミッションが設定されているかどうかを返す。保持している結果が無いか、
+     * 有効期限が切れている場合は、指定された処理で確認し直して保持する。
+     *
+     * @param id     プレイヤーのUUID
+     * @param node   パーミッションノード
+     * @param loader パーミッションの設定を確認する処理
+     * @return パーミッションが設定されているかどうか
+     */
+    public boolean isPermissionSet(UUID id, String node, Predicate<String> loader) {
+        Entry entry = cache.getEntry(id);
+        return (entry == null) ? loader.test(node) : lookup(entry.set, node, loader);
+    }
+
+    /**
+     * 指定したプレイヤーの結果を破棄する
+     *
+     * @param id プレイヤーのUUID
+     */
+    public void invalidate(UUID id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * 全ての結果を破棄する
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * スナップショットから確認できた回数を返す
+     *
+     * @return スナップショットから確認できた回数
+     */
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    /**
+     * スナップショットから確認できず、確認し直した回数を返す
+     *
+     * @return 確認し直した回数
+     */
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    /**
+     * 集計結果を文字列で返す
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return cache.toString("PermissionSnapshot");
+    }
+
+    /**
+     * 保持している結果を返す。無い場合は確認し直して保持する。
+     *
+     * @param values 保持している結果
+     * @param node   パーミッションノード
+     * @param loader 確認する処理
+     * @return 結果
+     */
+    private boolean lookup(Map<String, Boolean> values, String node, Predicate<String> loader) {
+        Boolean value = values.get(node);
+        if (value != null) {
+            cache.recordHit();
+            return value;
+        }
+        cache.recordMiss();
+        boolean loaded = loader.test(node);
+        values.put(node, loaded);
+        return loaded;
+    }
+
+    /**
+     * 1人のプレイヤーについて保持している結果。
+     * 確認するノードは数個なので、ノードの文字列をそのままキーにする。
+     */
+    private static class Entry {
+
+        private final Map<String, Boolean> has;
+        private final Map<String, Boolean> set;
+
+        private Entry() {
+            this.has = new ConcurrentHashMap<String, Boolean>(8);
+            this.set = new ConcurrentHashMap<String, Boolean>(8);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.member;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * オンラインのプレイヤーのオブジェクトを、UUIDごとに保持しておく一覧。<br>
+ * ChannelMemberPlayer はメソッドを呼ぶたびに Bukkit.getPlayer(UUID) でプレイヤーを探していたため、
+ * 1つの発言の処理で、同じプレイヤーを何十回も探すことになっていた。
+ * ログイン時にプレイヤーのオブジェクトを結び付けておき、ChannelMember は取り出したハンドルを保持して使う。
+ * ログアウト時には結び付けを解除する。チャンネルの参加者のように長く保持される ChannelMember は、
+ * ログインより前に作成されたり、再ログインで古いハンドルが解除されたりするため、
+ * ハンドルが無いか解除されている場合は、結び付けを確認し直してから、サーバーから探す。
+ *
+ * @param <P> プレイヤーの型
+ * @author ucchy
+ */
+public class PlayerHandles<P> {
+
+    private final Map<UUID, Handle<P>> handles;
+    private final Function<UUID, P> resolver;
+
+    private final AtomicLong lookups;
+
+    /**
+     * コンストラクタ
+     *
+     * @param resolver 結び付けられていないプレイヤーを、サーバーから探す処理
+     */
+    public PlayerHandles(Function<UUID, P> resolver) {
+        this.handles = new ConcurrentHashMap<UUID, Handle<P>>();
+        this.resolver = resolver;
+        this.lookups = new AtomicLong();
+    }
+
+    /**
+     * ログインしたプレイヤーを結び付ける
+     *
+     * @param id     プレイヤーのUUID
+     * @param player プレイヤー
+     */
+    public void bind(UUID id, P player) {
+        Handle<P> old = handles.put(id, new Handle<P>(player));
+        if (old != null) {
+            old.player = null;
+        }
+    }
+
+    /**
+     * ログアウトしたプレイヤーの結び付けを解除する。
+     * 解除前に取り出されていたハンドルも、以降はサーバーから探すようになる。
+     *
+     * @param id プレイヤーのUUID
+     */
+    public void unbind(UUID id) {
+        Handle<P> old = handles.remove(id);
+        if (old != null) {
+            old.player = null;
+        }
+    }
+
+    /**
+     * 全ての結び付けを解除する
+     */
+    public void clear() {
+        for (UUID id : handles.keySet()) {
+            unbind(id);
+        }
+    }
+
+    /**
+     * 結び付けられているハンドルを返す
+     *
+     * @param id プレイヤーのUUID
+     * @return ハンドル、結び付けられていない場合はnull
+     */
+    public @Nullable Handle<P> getHandle(UUID id) {
+        return handles.get(id);
+    }
+
+    /**
+     * 使用するハンドルを返す。保持しているハンドルが結び付いている間はそれを返し、
+     * 無いか解除されている場合は、現在結び付けられているハンドルを返す。
+     *
+     * @param handle 保持しているハンドル、またはnull
+     * @param id     プレイヤーのUUID
+     * @return ハンドル、結び付けられていない場合はnull
+     */
+    public @Nullable Handle<P> current(@Nullable Handle<P> handle, UUID id) {
+        if (handle != null && handle.player != null) {
+            return handle;
+        }
+        return handles.get(id);
+    }
+
+    /**
+     * プレイヤーを返す。ハンドルが結び付いている間はそのプレイヤーを返し、
+     * そうでない場合は結び付けを確認し直し、それでも無ければサーバーから探す。
+     *
+     * @param handle 保持しているハンドル、またはnull
+     * @param id     プレイヤーのUUID
+     * @return プレイヤー、オフラインの場合はnull
+     */
+    public @Nullable P get(@Nullable Handle<P> handle, UUID id) {
+        Handle<P> current = current(handle, id);
+        if (current != null) {
+            P player = current.player;
+            if (player != null) {
+                return player;
+            }
+        }
+        lookups.incrementAndGet();
+        return resolver.apply(id);
+    }
+
+    /**
+     * サーバーからプレイヤーを探した回数を返す
+     *
+     * @return サーバーからプレイヤーを探した回数
+     */
+    public long getLookupCount() {
+        return lookups.get();
+    }
+
+    /**
+     * 結び付けられているプレイヤーの人数を返す
+     *
+     * @return 人数
+     */
+    public int size() {
+        return handles.size();
+    }
+
+    /**
+     * 集計結果を文字列で返す
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return String.format("PlayerHandles: bound=%d, lookups=%d", handles.size(), lookups.get());
+    }
+
+    /**
+     * 1人のプレイヤーに結び付けられたハンドル。
+     * 結び付けが解除されると、保持しているプレイヤーはnullになる。
+     *
+     * @param <P> プレイヤーの型
+     */
+    public static class Handle<P> {
+
+        private volatile P player;
+
+        private Handle(P player) {
+            this.player = player;
+        }
+    }
+}
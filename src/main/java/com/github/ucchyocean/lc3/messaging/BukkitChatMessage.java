@@ -10,16 +10,50 @@ import com.github.ucchyocean.lc3.util.BlockLocation;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
 
 /**
- * Bukkitで発生したプレイヤーのチャットイベントを、BungeeCordへ転送するためのメッセージクラス
+ * Bukkitで発生したプレイヤーのチャットイベントを、BungeeCordへ転送するためのメッセージクラス<br>
+ * byte配列の形式は次のとおり。文字列は、varintの長さ + UTF-8のバイト列で表す。
+ * <pre>
+ * 0xFF 'L' version(1byte) flags(varint)
+ * name displayName prefix suffix message
+ * [location: world x y z(zigzag varint)] [id: UUID(long 2つ) か 文字列]
+ * [channelName] [messageId(varint)] [worldName]
+ * </pre>
+ * 整形済み（messageがフォーマット適用後の1行である）かどうかは、flagsのビットだけで表す。
+ * []の項目は、flagsの対応するビットが立っている場合だけ存在する。
+ * 項目を追加する場合は、新しいビットを割り当てて末尾に追加すること。
+ * 古いデコーダーは、知らないビットと末尾の余分なデータを無視する。<br>
+ * 先頭の0xFFは、以前の形式（writeUTFの連続）では名前が65280バイト以上でないと現れないため、
+ * 先頭が0xFF 'L'でないデータは、以前の形式としてデコードする。
  *
  * @author ucchy
  */
 public class BukkitChatMessage {
 
+    /** 現在の形式のバージョン */
+    public static final int VERSION = 1;
+
+    private static final int MAGIC_1 = 0xFF;
+    private static final int MAGIC_2 = 'L';
+
+    private static final int FLAG_LOCATION = 1;
+    private static final int FLAG_UUID = 1 << 1;
+    private static final int FLAG_ID = 1 << 2;
+    private static final int FLAG_CHANNEL = 1 << 3;
+    private static final int FLAG_MESSAGE_ID = 1 << 4;
+    private static final int FLAG_WORLD = 1 << 5;
+    private static final int FLAG_PREFORMATTED = 1 << 6;
+
+    private static final String LEGACY_NULL = "<null>";
+
     private final ChannelMemberOther member;
     private final String message;
+    private final String channelName;
+    private final long messageId;
+    private final boolean preformatted;
 
     /**
      * コンストラクタ
@@ -28,8 +62,38 @@ public class BukkitChatMessage {
      * @param message 発言内容
      */
     public BukkitChatMessage(ChannelMemberOther member, String message) {
+        this(member, message, null, 0);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param member      発言者
+     * @param message     発言内容
+     * @param channelName 発言先のチャンネル名、指定しない場合はnull
+     * @param messageId   メッセージID、指定しない場合は0
+     */
+    public BukkitChatMessage(ChannelMemberOther member, String message,
+                             @Nullable String channelName, long messageId) {
+        this(member, message, channelName, messageId, false);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param member       発言者
+     * @param message      発言内容
+     * @param channelName  発言先のチャンネル名、指定しない場合はnull
+     * @param messageId    メッセージID、指定しない場合は0
+     * @param preformatted 発言内容が、フォーマット適用済みの1行かどうか
+     */
+    public BukkitChatMessage(ChannelMemberOther member, String message,
+                             @Nullable String channelName, long messageId, boolean preformatted) {
         this.member = member;
         this.message = message;
+        this.channelName = channelName;
+        this.messageId = messageId;
+        this.preformatted = preformatted;
     }
 
     /**
@@ -50,21 +114,83 @@ public class BukkitChatMessage {
         return message;
     }
 
+    /**
+     * 発言先のチャンネル名を取得する
+     *
+     * @return チャンネル名、指定されていない場合はnull
+     */
+    public @Nullable String getChannelName() {
+        return channelName;
+    }
+
+    /**
+     * メッセージIDを取得する
+     *
+     * @return メッセージID、指定されていない場合は0
+     */
+    public long getMessageId() {
+        return messageId;
+    }
+
+    /**
+     * 発言内容が、フォーマット適用済みの1行かどうかを返す
+     *
+     * @return フォーマット適用済みかどうか
+     */
+    public boolean isPreformatted() {
+        return preformatted;
+    }
+
     /**
      * このメッセージをbyte配列に変換する
      *
      * @return byte配列
      */
     public byte[] toByteArray() {
+
+        BlockLocation location = member.getLocation();
+        String id = member.getId();
+        UUID uuid = parseUUID(id);
+        String worldName = member.getWorldName();
+        boolean hasWorld = worldName != null && !worldName.isEmpty()
+                && (location == null || !worldName.equals(location.getWorldName()));
+
+        int flags = 0;
+        if (location != null) flags |= FLAG_LOCATION;
+        if (uuid != null) flags |= FLAG_UUID;
+        else if (id != null) flags |= FLAG_ID;
+        if (channelName != null) flags |= FLAG_CHANNEL;
+        if (messageId != 0) flags |= FLAG_MESSAGE_ID;
+        if (hasWorld) flags |= FLAG_WORLD;
+        if (preformatted) flags |= FLAG_PREFORMATTED;
+
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
              DataOutputStream out = new DataOutputStream(baos)) {
-            out.writeUTF(member.getName());
-            out.writeUTF(member.getDisplayName());
-            out.writeUTF(member.getPrefix());
-            out.writeUTF(member.getSuffix());
-            out.writeUTF(member.getLocation() == null ? "<null>" : member.getLocation().toString());
-            out.writeUTF(member.getId() == null ? "<null>" : member.getId());
-            out.writeUTF(message);
+            out.writeByte(MAGIC_1);
+            out.writeByte(MAGIC_2);
+            out.writeByte(VERSION);
+            VarInt.write(out, flags);
+            writeString(out, member.getName());
+            writeString(out, member.getDisplayName());
+            writeString(out, member.getPrefix());
+            writeString(out, member.getSuffix());
+            writeString(out, message);
+            if (location != null) {
+                writeString(out, location.getWorldName());
+                VarInt.write(out, zigzag(location.getX()));
+                VarInt.write(out, zigzag(location.getY()));
+                VarInt.write(out, zigzag(location.getZ()));
+            }
+            if (uuid != null) {
+                out.writeLong(uuid.getMostSignificantBits());
+                out.writeLong(uuid.getLeastSignificantBits());
+            } else if (id != null) {
+                writeString(out, id);
+            }
+            if (channelName != null) writeString(out, channelName);
+            if (messageId != 0) VarInt.write(out, messageId);
+            if (hasWorld) writeString(out, worldName);
+            out.flush();
             return baos.toByteArray();
         } catch (IOException e) {
             e.printStackTrace();
@@ -73,29 +199,137 @@ public class BukkitChatMessage {
     }
 
     /**
-     * byte配列からメッセージに変換する
+     * byte配列からメッセージに変換する。以前の形式のbyte配列も変換できる。
      *
      * @param bytes byte配列
-     * @return メッセージ
+     * @return メッセージ、変換できなかった場合はnull
      */
     public static @Nullable BukkitChatMessage fromByteArray(byte[] bytes) {
+        if (bytes == null) return null;
         try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
-            String name = in.readUTF();
-            String displayName = in.readUTF();
-            String prefix = in.readUTF();
-            String suffix = in.readUTF();
-            BlockLocation location = BlockLocation.fromString(in.readUTF());
-            String id = in.readUTF();
-            if (id.equals("<null>")) id = null;
-            ChannelMemberOther member = new ChannelMemberOther(name, displayName, prefix, suffix, location, id);
-            String message = in.readUTF();
-            return new BukkitChatMessage(member, message);
+            if (bytes.length >= 3 && (bytes[0] & 0xFF) == MAGIC_1 && bytes[1] == MAGIC_2) {
+                in.skipBytes(2);
+                return read(in, bytes.length);
+            }
+            return readLegacy(in);
         } catch (IOException e) {
-            e.printStackTrace();
+            // 不正なデータは無視する
         }
         return null;
     }
 
+    /**
+     * 現在の形式のデータを読み込む
+     *
+     * @param in     入力（バージョンの位置から）
+     * @param length データ全体の長さ
+     * @return メッセージ
+     * @throws IOException データが不正な場合
+     */
+    private static BukkitChatMessage read(DataInputStream in, int length) throws IOException {
+
+        int version = in.readUnsignedByte();
+        if (version < 1) {
+            throw new IOException("Unsupported version: " + version);
+        }
+        long flags = VarInt.read(in);
+
+        String name = readString(in, length);
+        String displayName = readString(in, length);
+        String prefix = readString(in, length);
+        String suffix = readString(in, length);
+        String message = readString(in, length);
+
+        BlockLocation location = null;
+        if ((flags & FLAG_LOCATION) != 0) {
+            String world = readString(in, length);
+            int x = unzigzag(VarInt.read(in));
+            int y = unzigzag(VarInt.read(in));
+            int z = unzigzag(VarInt.read(in));
+            location = new BlockLocation(world, x, y, z);
+        }
+        String id = null;
+        if ((flags & FLAG_UUID) != 0) {
+            id = new UUID(in.readLong(), in.readLong()).toString();
+        } else if ((flags & FLAG_ID) != 0) {
+            id = readString(in, length);
+        }
+        String channelName = null;
+        if ((flags & FLAG_CHANNEL) != 0) {
+            channelName = readString(in, length);
+        }
+        long messageId = 0;
+        if ((flags & FLAG_MESSAGE_ID) != 0) {
+            messageId = VarInt.read(in);
+        }
+        String worldName = null;
+        if ((flags & FLAG_WORLD) != 0) {
+            worldName = readString(in, length);
+        }
+
+        ChannelMemberOther member = new ChannelMemberOther(name, displayName, prefix, suffix, location, id);
+        if (worldName != null) {
+            member.setWorldName(worldName);
+        }
+        return new BukkitChatMessage(member, message, channelName, messageId,
+                (flags & FLAG_PREFORMATTED) != 0);
+    }
+
+    /**
+     * 以前の形式（writeUTFの連続）のデータを読み込む
+     *
+     * @param in 入力
+     * @return メッセージ
+     * @throws IOException データが不正な場合
+     */
+    private static BukkitChatMessage readLegacy(DataInputStream in) throws IOException {
+        String name = in.readUTF();
+        String displayName = in.readUTF();
+        String prefix = in.readUTF();
+        String suffix = in.readUTF();
+        BlockLocation location = BlockLocation.fromString(in.readUTF());
+        String id = in.readUTF();
+        if (id.equals(LEGACY_NULL)) id = null;
+        ChannelMemberOther member = new ChannelMemberOther(name, displayName, prefix, suffix, location, id);
+        String message = in.readUTF();
+        return new BukkitChatMessage(member, message);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        VarInt.write(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in, int limit) throws IOException {
+        byte[] bytes = new byte[VarInt.readLength(in, limit)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static int unzigzag(long value) {
+        int n = (int) value;
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    /**
+     * IDがUUIDの文字列表現と一致する場合に、UUIDに変換する。
+     * 表記が異なるもの（大文字を含むなど）は、元の文字列を保つため変換しない。
+     */
+    private static @Nullable UUID parseUUID(@Nullable String id) {
+        if (id == null || id.length() != 36) return null;
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     @Override
     public String toString() {
         return String.format("n=%s, d=%s, p=%s, s=%s, m=%s",
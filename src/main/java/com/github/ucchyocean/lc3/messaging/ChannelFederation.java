@@ -0,0 +1,219 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.messaging;
+
+import com.github.ucchyocean.lc3.LunaChat;
+import com.github.ucchyocean.lc3.member.ChannelMemberOther;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Bukkitモードで、連携チャンネルの発言をほかのサーバーと共有するクラス。<br>
+ * 発言は、チャンネル名とメッセージIDを付けた BukkitChatMessage として、lunachat:message のトピックに送信する。
+ * 経路によっては同じデータが複数回届くことがあるため、受信側ではメッセージIDで重複を取り除く。
+ * 自分が送信したメッセージIDも記録しておき、送り返されてきた場合は無視する。<br>
+ * 送信は、1秒あたりの上限を超えた分は行わない。
+ *
+ * @author ucchy
+ */
+public class ChannelFederation {
+
+    /** 重複の確認のために記録しておく、メッセージIDの数 */
+    private static final int SEEN_CAPACITY = 4096;
+
+    private final MessageBus bus;
+    private final Consumer<BukkitChatMessage> delivery;
+    private final LongSupplier clock;
+    private final Map<Long, Boolean> seen;
+
+    private final int ratePerSecond;
+    private double tokens;
+    private long lastRefill;
+
+    private final LongAdder published;
+    private final LongAdder limited;
+    private final LongAdder received;
+    private final LongAdder duplicated;
+    private final LongAdder invalid;
+
+    /**
+     * コンストラクタ
+     *
+     * @param bus           送受信の経路
+     * @param ratePerSecond 1秒あたりの送信数の上限、0なら無制限
+     * @param delivery      受信した発言を、このサーバーのチャンネルに表示する処理
+     */
+    public ChannelFederation(MessageBus bus, int ratePerSecond,
+                             Consumer<BukkitChatMessage> delivery) {
+        this(bus, ratePerSecond, delivery, System::nanoTime);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param bus           送受信の経路
+     * @param ratePerSecond 1秒あたりの送信数の上限、0なら無制限
+     * @param delivery      受信した発言を、このサーバーのチャンネルに表示する処理
+     * @param clock         現在時刻（ナノ秒）
+     */
+    ChannelFederation(MessageBus bus, int ratePerSecond,
+                      Consumer<BukkitChatMessage> delivery, LongSupplier clock) {
+        this.bus = bus;
+        this.delivery = delivery;
+        this.clock = clock;
+        this.seen = new LinkedHashMap<Long, Boolean>(16, 0.75f, false) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > SEEN_CAPACITY;
+            }
+        };
+        this.ratePerSecond = Math.max(0, ratePerSecond);
+        this.tokens = this.ratePerSecond;
+        this.lastRefill = clock.getAsLong();
+        this.published = new LongAdder();
+        this.limited = new LongAdder();
+        this.received = new LongAdder();
+        this.duplicated = new LongAdder();
+        this.invalid = new LongAdder();
+
+        bus.subscribe(LunaChat.PMC_MESSAGE, envelope -> receive(envelope.getPayload()));
+    }
+
+    /**
+     * 連携チャンネルの発言を、ほかのサーバーへ送信する
+     *
+     * @param channelName  チャンネル名
+     * @param member       発言者
+     * @param message      発言内容
+     * @param preformatted 発言内容が、フォーマット適用済みの1行かどうか
+     * @return 送信したかどうか、送信数の上限を超えた場合はfalse
+     */
+    public boolean publish(String channelName, ChannelMemberOther member, String message, boolean preformatted) {
+
+        if (!tryAcquire()) {
+            limited.increment();
+            return false;
+        }
+
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0 || !markSeen(id));
+
+        bus.publish(LunaChat.PMC_MESSAGE,
+                new BukkitChatMessage(member, message, channelName, id, preformatted).toByteArray());
+        published.increment();
+        return true;
+    }
+
+    /**
+     * ほかのサーバーからデータを受信したときに呼び出されるメソッド
+     *
+     * @param frame 受信したデータ
+     */
+    private void receive(byte[] frame) {
+
+        BukkitChatMessage message = BukkitChatMessage.fromByteArray(frame);
+        if (message == null || message.getChannelName() == null || message.getMessageId() == 0) {
+            invalid.increment();
+            return;
+        }
+        if (!markSeen(message.getMessageId())) {
+            duplicated.increment();
+            return;
+        }
+
+        received.increment();
+        delivery.accept(message);
+    }
+
+    /**
+     * メッセージIDを記録する
+     *
+     * @param id メッセージID
+     * @return 初めて記録したかどうか、既に記録されていた場合はfalse
+     */
+    private boolean markSeen(long id) {
+        synchronized (seen) {
+            return seen.put(id, Boolean.TRUE) == null;
+        }
+    }
+
+    /**
+     * 送信数の上限を確認し、送信できる場合は1回分を消費する
+     *
+     * @return 送信できるかどうか
+     */
+    private synchronized boolean tryAcquire() {
+        if (ratePerSecond == 0) {
+            return true;
+        }
+        long now = clock.getAsLong();
+        double elapsed = (now - lastRefill) / (double) TimeUnit.SECONDS.toNanos(1);
+        tokens = Math.min(ratePerSecond, tokens + elapsed * ratePerSecond);
+        lastRefill = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * 送信した数を返す
+     *
+     * @return 送信した数
+     */
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    /**
+     * 送信数の上限を超えたため、送信しなかった数を返す
+     *
+     * @return 送信しなかった数
+     */
+    public long getLimitedCount() {
+        return limited.sum();
+    }
+
+    /**
+     * 受信して表示した数を返す
+     *
+     * @return 受信して表示した数
+     */
+    public long getReceivedCount() {
+        return received.sum();
+    }
+
+    /**
+     * 重複していたため、表示しなかった数を返す
+     *
+     * @return 重複していた数
+     */
+    public long getDuplicatedCount() {
+        return duplicated.sum();
+    }
+
+    /**
+     * 集計結果の文字列表現を返す
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return String.format("ChannelFederation: published=%d, limited=%d, received=%d, duplicated=%d, invalid=%d",
+                published.sum(), limited.sum(), received.sum(), duplicated.sum(), invalid.sum());
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.messaging;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * MessageBusで受信したデータと、その送信元の情報
+ *
+ * @author ucchy
+ */
+public class Envelope {
+
+    private final String topic;
+    private final String source;
+    private final String via;
+    private final byte[] payload;
+
+    /**
+     * コンストラクタ
+     *
+     * @param topic   トピック
+     * @param source  送信元のノード名（BungeeCordで受信した場合はサーバー名）、わからない場合はnull
+     * @param via     データを運んだプレイヤーの接続のプレイヤー名、プレイヤーの接続を経由しない場合はnull
+     * @param payload データ
+     */
+    public Envelope(String topic, @Nullable String source, @Nullable String via, byte[] payload) {
+        this.topic = topic;
+        this.source = source;
+        this.via = via;
+        this.payload = payload;
+    }
+
+    /**
+     * トピックを返す
+     *
+     * @return トピック
+     */
+    public String getTopic() {
+        return topic;
+    }
+
+    /**
+     * 送信元のノード名を返す
+     *
+     * @return 送信元のノード名、わからない場合はnull
+     */
+    public @Nullable String getSource() {
+        return source;
+    }
+
+    /**
+     * データを運んだプレイヤーの接続の、プレイヤー名を返す
+     *
+     * @return プレイヤー名、プレイヤーの接続を経由しない場合はnull
+     */
+    public @Nullable String getVia() {
+        return via;
+    }
+
+    /**
+     * データを返す
+     *
+     * @return データ
+     */
+    public byte[] getPayload() {
+        return payload;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 同じプロセス内のノードどうしで、データを直接受け渡すMessageBus。<br>
+ * BungeeCordと複数のBukkitサーバーを1つのJVM内で模擬して、サーバー間の処理を確認したり、
+ * 処理時間を計測したりするために使用する。<br>
+ * 同じ {@link Network} から作成したノードどうしが接続され、送信したデータは送信元以外の全てのノードに届く。
+ * 非同期のネットワークでは、ノードごとに1つの受信スレッドを持ち、受信した順番に処理する。
+ *
+ * @author ucchy
+ */
+public class InMemoryMessageBus implements MessageBus {
+
+    private final Network network;
+    private final String name;
+    private final TopicHandlers handlers;
+    private final ExecutorService receiver;
+
+    private volatile boolean batching;
+    private final List<Pending> pending;
+
+    /**
+     * コンストラクタ
+     *
+     * @param network ネットワーク
+     * @param name    ノード名
+     */
+    private InMemoryMessageBus(Network network, String name) {
+        this.network = network;
+        this.name = name;
+        this.handlers = new TopicHandlers();
+        this.receiver = network.async ? Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "LunaChat-Bus-" + name);
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.pending = new ArrayList<Pending>();
+    }
+
+    /**
+     * ノード名を返す
+     *
+     * @return ノード名
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * まとめて送信するかどうかを設定する。
+     * まとめて送信する場合は、{@link #flush()} が呼び出されるまで送信を待たせる。
+     *
+     * @param batching まとめて送信するかどうか
+     */
+    public void setBatching(boolean batching) {
+        this.batching = batching;
+        if (!batching) {
+            flush();
+        }
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.messaging.MessageBus#publish(java.lang.String, byte[])
+     */
+    @Override
+    public CompletableFuture<Integer> publish(String topic, byte[] payload) {
+        CompletableFuture<Integer> result = new CompletableFuture<Integer>();
+        Pending message = new Pending(topic, payload.clone(), result);
+        synchronized (pending) {
+            if (batching) {
+                pending.add(message);
+                return result;
+            }
+        }
+        send(message);
+        return result;
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.messaging.MessageBus#subscribe(java.lang.String, java.util.function.Consumer)
+     */
+    @Override
+    public Subscription subscribe(String topic, Consumer<Envelope> handler) {
+        return handlers.add(topic, handler);
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.messaging.MessageBus#flush()
+     */
+    @Override
+    public void flush() {
+        List<Pending> messages;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            messages = new ArrayList<Pending>(pending);
+            pending.clear();
+        }
+        for (Pending message : messages) {
+            send(message);
+        }
+    }
+
+    /**
+     * 送信元以外の全てのノードへ、データを渡す
+     *
+     * @param message データ
+     */
+    private void send(Pending message) {
+        int count = 0;
+        for (InMemoryMessageBus node : network.nodes) {
+            if (node != this) {
+                node.receive(new Envelope(message.topic, name, null, message.payload));
+                count++;
+            }
+        }
+        message.result.complete(count);
+    }
+
+    /**
+     * データを受信する
+     *
+     * @param envelope 受信したデータ
+     */
+    private void receive(Envelope envelope) {
+        if (!handlers.contains(envelope.getTopic())) {
+            return;
+        }
+        if (receiver != null) {
+            receiver.execute(() -> handlers.dispatch(envelope));
+        } else {
+            handlers.dispatch(envelope);
+        }
+    }
+
+    /**
+     * 送信待ちのデータ
+     */
+    private static class Pending {
+
+        private final String topic;
+        private final byte[] payload;
+        private final CompletableFuture<Integer> result;
+
+        private Pending(String topic, byte[] payload, CompletableFuture<Integer> result) {
+            this.topic = topic;
+            this.payload = payload;
+            this.result = result;
+        }
+    }
+
+    /**
+     * 互いに接続されたノードの集まり
+     */
+    public static class Network {
+
+        private final boolean async;
+        private final List<InMemoryMessageBus> nodes;
+
+        /**
+         * コンストラクタ
+         *
+         * @param async 受信したデータを、ノードごとの受信スレッドで処理するかどうか。
+         *              falseの場合は、送信したスレッドでそのまま処理する。
+         */
+        public Network(boolean async) {
+            this.async = async;
+            this.nodes = new CopyOnWriteArrayList<InMemoryMessageBus>();
+        }
+
+        /**
+         * ノードを作成して、ネットワークに接続する
+         *
+         * @param name ノード名
+         * @return ノード
+         */
+        public InMemoryMessageBus createNode(String name) {
+            InMemoryMessageBus node = new InMemoryMessageBus(this, name);
+            nodes.add(node);
+            return node;
+        }
+
+        /**
+         * 受信スレッドを停止する。処理待ちのデータは、処理が終わるまで待つ。
+         *
+         * @throws InterruptedException 待っている間に割り込まれた場合
+         */
+        public void close() throws InterruptedException {
+            for (InMemoryMessageBus node : nodes) {
+                if (node.receiver != null) {
+                    node.receiver.shutdown();
+                    node.receiver.awaitTermination(10, TimeUnit.SECONDS);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.messaging;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * サーバー間（BungeeCordとBukkit、Bukkitどうし）でデータを送受信するための経路。<br>
+ * データはトピック（プラグインメッセージチャンネル名など）ごとに送信され、
+ * 同じトピックを購読しているほかのノードに届く。<br>
+ * 送信したデータは、実装によってはまとめて送信するために待たされることがある。
+ * {@link #publish(String, byte[])} が返す結果は、データが経路に渡された時点で完了する。
+ *
+ * @author ucchy
+ */
+public interface MessageBus {
+
+    /**
+     * ほかのノードへデータを送信する
+     *
+     * @param topic   トピック
+     * @param payload データ
+     * @return データが経路に渡されたときに完了する結果。
+     * 値は渡した先の数で、実装によっては正確な数がわからないため、1以上なら送信されたものとみなすこと。
+     * 渡せる先が無かった場合は0
+     */
+    CompletableFuture<Integer> publish(String topic, byte[] payload);
+
+    /**
+     * トピックを購読する
+     *
+     * @param topic   トピック
+     * @param handler データを受信したときの処理
+     * @return 購読の解除に使用するオブジェクト
+     */
+    Subscription subscribe(String topic, Consumer<Envelope> handler);
+
+    /**
+     * まとめて送信するために待たせているデータを、すぐに送信する。
+     * まとめて送信しない実装では、何もしない。
+     */
+    default void flush() {
+    }
+
+    /**
+     * トピックの購読
+     */
+    interface Subscription {
+
+        /**
+         * 購読を解除する
+         */
+        void unsubscribe();
+    }
+}
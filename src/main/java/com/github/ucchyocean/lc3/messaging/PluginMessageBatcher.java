@@ -0,0 +1,277 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.messaging;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bungeeパススルーモードで、複数のチャットのプラグインメッセージを1つにまとめて送信するクラス。<br>
+ * 追加されたメッセージは、指定したtick数が経過するか、まとめたサイズが上限を超えた時点の次のtickで、
+ * まとめて送信される。まとめたメッセージの形式は次のとおり。
+ * <pre>
+ * 0xFF 'B' version(1byte) count(varint) [length(varint) frame]...
+ * </pre>
+ * 先頭の0xFF 'B'は、BukkitChatMessageの形式（0xFF 'L'、または以前の形式）と重ならない。<br>
+ * 1回の送信でまとめたメッセージの数と、追加されてから送信されるまでの時間を集計する。
+ *
+ * @author ucchy
+ */
+public class PluginMessageBatcher {
+
+    /** まとめたメッセージの形式のバージョン */
+    public static final int VERSION = 1;
+
+    /** 1つにまとめるサイズの上限（バイト） */
+    public static final int MAX_BATCH_BYTES = 32 * 1024;
+
+    private static final int MAGIC_1 = 0xFF;
+    private static final int MAGIC_2 = 'B';
+
+    private final Consumer<byte[]> sender;
+
+    private final List<byte[]> pending;
+    private final List<Runnable> callbacks;
+    private int pendingBytes;
+    private long firstAddedNanos;
+    private long deadlineTick;
+    private long currentTick;
+
+    private long batchCount;
+    private long frameCount;
+    private long maxFrames;
+    private long delayNanos;
+
+    /**
+     * コンストラクタ
+     *
+     * @param sender まとめたメッセージを送信する処理
+     */
+    public PluginMessageBatcher(Consumer<byte[]> sender) {
+        this.sender = sender;
+        this.pending = new ArrayList<byte[]>();
+        this.callbacks = new ArrayList<Runnable>();
+    }
+
+    /**
+     * メッセージを追加する。非同期スレッドから呼び出してもよい。
+     *
+     * @param frame         メッセージ
+     * @param maxDelayTicks 送信するまでに待つ最大のtick数（1以上）
+     */
+    public void add(byte[] frame, int maxDelayTicks) {
+        add(frame, maxDelayTicks, null);
+    }
+
+    /**
+     * メッセージを追加する。非同期スレッドから呼び出してもよい。
+     *
+     * @param frame         メッセージ
+     * @param maxDelayTicks 送信するまでに待つ最大のtick数（1以上）
+     * @param onSent        メッセージを含むまとめたメッセージを、送信処理に渡した後に呼び出す処理
+     */
+    public synchronized void add(byte[] frame, int maxDelayTicks, @Nullable Runnable onSent) {
+        long deadline = currentTick + Math.max(1, maxDelayTicks);
+        if (pending.isEmpty()) {
+            firstAddedNanos = System.nanoTime();
+            deadlineTick = deadline;
+        } else {
+            deadlineTick = Math.min(deadlineTick, deadline);
+        }
+        pending.add(frame);
+        callbacks.add(onSent);
+        pendingBytes += frame.length;
+        if (pendingBytes >= MAX_BATCH_BYTES) {
+            // 上限を超えた場合は、次のtickで送信する
+            deadlineTick = Math.min(deadlineTick, currentTick + 1);
+        }
+    }
+
+    /**
+     * 1tickごとに呼び出し、送信期限になったメッセージを送信する。
+     * 送信処理はこのメソッドを呼び出したスレッドで行われる。
+     */
+    public void tick() {
+        List<byte[]> frames;
+        List<Runnable> sent;
+        long firstAdded;
+        synchronized (this) {
+            currentTick++;
+            if (pending.isEmpty() || currentTick < deadlineTick) {
+                return;
+            }
+            frames = new ArrayList<byte[]>(pending);
+            sent = takePending();
+            firstAdded = firstAddedNanos;
+        }
+        send(frames, sent, firstAdded);
+    }
+
+    /**
+     * 送信待ちのメッセージを、全て送信する
+     */
+    public void flush() {
+        List<byte[]> frames;
+        List<Runnable> sent;
+        long firstAdded;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            frames = new ArrayList<byte[]>(pending);
+            sent = takePending();
+            firstAdded = firstAddedNanos;
+        }
+        send(frames, sent, firstAdded);
+    }
+
+    /**
+     * 送信待ちのメッセージを破棄し、それぞれの送信後の処理を取り出す
+     *
+     * @return 送信後の処理（無い場合はnullの要素）
+     */
+    private List<Runnable> takePending() {
+        List<Runnable> sent = new ArrayList<Runnable>(callbacks);
+        pending.clear();
+        callbacks.clear();
+        pendingBytes = 0;
+        return sent;
+    }
+
+    /**
+     * メッセージを上限サイズごとにまとめて送信する
+     *
+     * @param frames     メッセージ
+     * @param sent       メッセージごとの送信後の処理
+     * @param firstAdded 最初のメッセージが追加された時刻（System.nanoTime()）
+     */
+    private void send(List<byte[]> frames, List<Runnable> sent, long firstAdded) {
+
+        int start = 0;
+        int size = 0;
+        for (int i = 0; i < frames.size(); i++) {
+            size += frames.get(i).length;
+            if (size >= MAX_BATCH_BYTES || i == frames.size() - 1) {
+                List<byte[]> batch = frames.subList(start, i + 1);
+                sender.accept(encode(batch));
+                record(batch.size(), System.nanoTime() - firstAdded);
+                for (Runnable callback : sent.subList(start, i + 1)) {
+                    if (callback != null) callback.run();
+                }
+                start = i + 1;
+                size = 0;
+            }
+        }
+    }
+
+    /**
+     * 集計する
+     *
+     * @param count 送信したメッセージの数
+     * @param delay 追加されてから送信されるまでの時間（ナノ秒）
+     */
+    private synchronized void record(int count, long delay) {
+        batchCount++;
+        frameCount += count;
+        maxFrames = Math.max(maxFrames, count);
+        delayNanos += delay;
+    }
+
+    /**
+     * 複数のメッセージを1つにまとめる
+     *
+     * @param frames メッセージ
+     * @return まとめたメッセージ
+     */
+    public static byte[] encode(List<byte[]> frames) {
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
+             DataOutputStream out = new DataOutputStream(baos)) {
+            out.writeByte(MAGIC_1);
+            out.writeByte(MAGIC_2);
+            out.writeByte(VERSION);
+            VarInt.write(out, frames.size());
+            for (byte[] frame : frames) {
+                VarInt.write(out, frame.length);
+                out.write(frame);
+            }
+            out.flush();
+            return baos.toByteArray();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return new byte[0];
+    }
+
+    /**
+     * まとめたメッセージかどうかを返す
+     *
+     * @param bytes 受信したデータ
+     * @return まとめたメッセージかどうか
+     */
+    public static boolean isBatch(byte[] bytes) {
+        return bytes != null && bytes.length >= 3 && (bytes[0] & 0xFF) == MAGIC_1 && bytes[1] == MAGIC_2;
+    }
+
+    /**
+     * まとめたメッセージを、個々のメッセージに分解する
+     *
+     * @param bytes まとめたメッセージ
+     * @return 個々のメッセージ、データが不正な場合はnull
+     */
+    public static @Nullable List<byte[]> decode(byte[] bytes) {
+        if (!isBatch(bytes)) return null;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            in.skipBytes(2);
+            int version = in.readUnsignedByte();
+            if (version < 1) return null;
+            int count = VarInt.readLength(in, bytes.length);
+            List<byte[]> frames = new ArrayList<byte[]>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] frame = new byte[VarInt.readLength(in, bytes.length)];
+                in.readFully(frame);
+                frames.add(frame);
+            }
+            return frames;
+        } catch (IOException e) {
+            // 不正なデータは無視する
+        }
+        return null;
+    }
+
+    /**
+     * 送信した回数を返す
+     *
+     * @return 送信した回数
+     */
+    public synchronized long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * 送信したメッセージの数を返す
+     *
+     * @return 送信したメッセージの数
+     */
+    public synchronized long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * 集計結果を文字列で返す
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("PluginMessageBatcher: batches=%d, frames=%d, avgFrames=%.1f, maxFrames=%d, avgDelay=%.1fms",
+                batchCount, frameCount, (batchCount == 0) ? 0.0 : (double) frameCount / batchCount, maxFrames,
+                (batchCount == 0) ? 0.0 : delayNanos / 1000000.0 / batchCount);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.messaging;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * MessageBusの実装で使用する、トピックごとの受信処理の一覧
+ *
+ * @author ucchy
+ */
+public class TopicHandlers {
+
+    private final Map<String, List<Consumer<Envelope>>> handlers;
+
+    /**
+     * コンストラクタ
+     */
+    public TopicHandlers() {
+        this.handlers = new ConcurrentHashMap<String, List<Consumer<Envelope>>>();
+    }
+
+    /**
+     * 受信処理を登録する
+     *
+     * @param topic   トピック
+     * @param handler 受信処理
+     * @return 購読の解除に使用するオブジェクト
+     */
+    public MessageBus.Subscription add(String topic, Consumer<Envelope> handler) {
+        List<Consumer<Envelope>> list =
+                handlers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<Consumer<Envelope>>());
+        list.add(handler);
+        return () -> list.remove(handler);
+    }
+
+    /**
+     * トピックに受信処理が登録されているかどうかを返す
+     *
+     * @param topic トピック
+     * @return 登録されているかどうか
+     */
+    public boolean contains(String topic) {
+        List<Consumer<Envelope>> list = handlers.get(topic);
+        return list != null && !list.isEmpty();
+    }
+
+    /**
+     * 受信したデータを、トピックに登録されている全ての受信処理に渡す
+     *
+     * @param envelope 受信したデータ
+     * @return 受信処理に渡したかどうか、登録されていない場合はfalse
+     */
+    public boolean dispatch(Envelope envelope) {
+        List<Consumer<Envelope>> list = handlers.get(envelope.getTopic());
+        if (list == null || list.isEmpty()) {
+            return false;
+        }
+        for (Consumer<Envelope> handler : list) {
+            handler.accept(envelope);
+        }
+        return true;
+    }
+}
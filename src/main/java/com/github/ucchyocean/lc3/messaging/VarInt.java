@@ -0,0 +1,72 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.messaging;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * プラグインメッセージで使用する、可変長整数（varint）の読み書きを行うクラス。
+ * 下位7ビットずつ、上位ビットを継続フラグとして書き込む。
+ *
+ * @author ucchy
+ */
+final class VarInt {
+
+    private VarInt() {
+    }
+
+    /**
+     * 可変長整数を書き込む
+     *
+     * @param out   出力
+     * @param value 値（負の値は10バイトになるため、符号付きの値はzigzag変換してから渡すこと）
+     * @throws IOException 書き込みに失敗した場合
+     */
+    static void write(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * 可変長整数を読み込む
+     *
+     * @param in 入力
+     * @return 値
+     * @throws IOException データが途中で終わっている場合や、長すぎる場合
+     */
+    static long read(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint too long");
+    }
+
+    /**
+     * 長さを読み込み、残りのデータの長さを超えていないことを確認する
+     *
+     * @param in    入力
+     * @param limit 長さの上限
+     * @return 長さ
+     * @throws IOException 長さが不正な場合
+     */
+    static int readLength(DataInputStream in, int limit) throws IOException {
+        long length = read(in);
+        if (length < 0 || length > limit) {
+            throw new IOException("Invalid length: " + length);
+        }
+        return (int) length;
+    }
+}
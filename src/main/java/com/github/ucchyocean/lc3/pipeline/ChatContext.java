@@ -0,0 +1,243 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.pipeline;
+
+import com.github.ucchyocean.lc3.japanize.JapanizeClassifier;
+import com.github.ucchyocean.lc3.japanize.JapanizeType;
+import com.github.ucchyocean.lc3.member.ChannelMember;
+import com.github.ucchyocean.lc3.util.Utility;
+
+/**
+ * チャット処理パイプラインで、1つの発言について受け渡される状態。<br>
+ * 各ステージは、この状態を読み書きして処理を行う。
+ * フラグが立っている場合、後のステージは処理を省略する。
+ *
+ * @author ucchy
+ */
+public class ChatContext {
+
+    private final ChannelMember player;
+    private final String original;
+
+    private String message;
+    private String plainMessage;
+    private int classification = -1;
+
+    private boolean allowColorCode;
+    private boolean ngword;
+    private boolean skipJapanize;
+    private boolean cancelled;
+
+    private JapanizeType japanizeType;
+    private int japanizeDisplayLine;
+    private String japanizeFormat;
+
+    /**
+     * コンストラクタ
+     *
+     * @param player  発言者、プレイヤー以外からの発言の場合はnull
+     * @param message 発言内容
+     */
+    public ChatContext(ChannelMember player, String message) {
+        this.player = player;
+        this.original = message;
+        this.message = message;
+        this.japanizeType = JapanizeType.NONE;
+    }
+
+    /**
+     * 発言者を返す
+     *
+     * @return 発言者、プレイヤー以外からの発言の場合はnull
+     */
+    public ChannelMember getPlayer() {
+        return player;
+    }
+
+    /**
+     * 処理前の発言内容を返す
+     *
+     * @return 処理前の発言内容
+     */
+    public String getOriginalMessage() {
+        return original;
+    }
+
+    /**
+     * 処理中の発言内容を返す
+     *
+     * @return 発言内容
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * 処理中の発言内容を設定する
+     *
+     * @param message 発言内容
+     */
+    public void setMessage(String message) {
+        if (!message.equals(this.message)) {
+            this.message = message;
+            this.plainMessage = null;
+            this.classification = -1;
+        }
+    }
+
+    /**
+     * カラーコードを除いた発言内容を返す。発言内容が変更されるまで、結果は再利用される。
+     *
+     * @return カラーコードを除いた発言内容
+     */
+    public String getPlainMessage() {
+        if (plainMessage == null) {
+            plainMessage = Utility.stripColorCode(message);
+        }
+        return plainMessage;
+    }
+
+    /**
+     * カラーコードを除いた発言内容の、文字種による分類を返す。発言内容が変更されるまで、結果は再利用される。
+     *
+     * @return 分類結果のフラグ
+     * @see JapanizeClassifier
+     */
+    public int getClassification() {
+        if (classification < 0) {
+            classification = JapanizeClassifier.classify(getPlainMessage());
+        }
+        return classification;
+    }
+
+    /**
+     * カラーコードの使用を許可するかどうかを返す
+     *
+     * @return カラーコードの使用を許可するかどうか
+     */
+    public boolean isAllowColorCode() {
+        return allowColorCode;
+    }
+
+    /**
+     * カラーコードの使用を許可するかどうかを設定する
+     *
+     * @param allowColorCode カラーコードの使用を許可するかどうか
+     */
+    public void setAllowColorCode(boolean allowColorCode) {
+        this.allowColorCode = allowColorCode;
+    }
+
+    /**
+     * NGワードが含まれていたかどうかを返す
+     *
+     * @return NGワードが含まれていたかどうか
+     */
+    public boolean isNgword() {
+        return ngword;
+    }
+
+    /**
+     * NGワードが含まれていたかどうかを設定する
+     *
+     * @param ngword NGワードが含まれていたかどうか
+     */
+    public void setNgword(boolean ngword) {
+        this.ngword = ngword;
+    }
+
+    /**
+     * Japanize変換を行わないかどうかを返す
+     *
+     * @return Japanize変換を行わないかどうか
+     */
+    public boolean isSkipJapanize() {
+        return skipJapanize;
+    }
+
+    /**
+     * Japanize変換を行わないかどうかを設定する
+     *
+     * @param skipJapanize Japanize変換を行わないかどうか
+     */
+    public void setSkipJapanize(boolean skipJapanize) {
+        this.skipJapanize = skipJapanize;
+    }
+
+    /**
+     * 発言がキャンセルされたかどうかを返す。キャンセルされた場合、後のステージは実行されない。
+     *
+     * @return キャンセルされたかどうか
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 発言がキャンセルされたかどうかを設定する
+     *
+     * @param cancelled キャンセルされたかどうか
+     */
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Japanize変換を行うかどうかを返す
+     *
+     * @return Japanize変換を行うかどうか
+     */
+    public boolean isJapanize() {
+        return !skipJapanize && japanizeType != null && japanizeType != JapanizeType.NONE;
+    }
+
+    /**
+     * Japanize変換のタイプを返す
+     *
+     * @return Japanize変換のタイプ
+     */
+    public JapanizeType getJapanizeType() {
+        return japanizeType;
+    }
+
+    /**
+     * Japanize変換のタイプを設定する
+     *
+     * @param japanizeType Japanize変換のタイプ
+     */
+    public void setJapanizeType(JapanizeType japanizeType) {
+        this.japanizeType = japanizeType;
+    }
+
+    /**
+     * Japanize変換の表示行数（1または2）を返す
+     *
+     * @return 表示行数
+     */
+    public int getJapanizeDisplayLine() {
+        return japanizeDisplayLine;
+    }
+
+    /**
+     * Japanize変換の表示行数と、カラーコード置き換え済みの表示フォーマットを設定する
+     *
+     * @param line   表示行数
+     * @param format 表示フォーマット
+     */
+    public void setJapanizeDisplay(int line, String format) {
+        this.japanizeDisplayLine = line;
+        this.japanizeFormat = format;
+    }
+
+    /**
+     * Japanize変換の表示フォーマット（カラーコード置き換え済み）を返す
+     *
+     * @return 表示フォーマット
+     */
+    public String getJapanizeFormat() {
+        return japanizeFormat;
+    }
+}
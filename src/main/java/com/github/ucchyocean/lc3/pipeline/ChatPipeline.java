@@ -0,0 +1,164 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.pipeline;
+
+import com.github.ucchyocean.lc3.LunaChat;
+import com.github.ucchyocean.lc3.LunaChatConfig;
+import com.github.ucchyocean.lc3.util.Utility;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 発言に対して、NGワードのマスクやカラーコードの置き換えなどのステージを順に実行するパイプライン。<br>
+ * チャンネルチャット、通常チャット（Bukkit/BungeeCord）、mcMMOパーティチャット、Dynmapからの発言は、
+ * 全てここで作成されたパイプラインを使って処理される。
+ * パイプラインとステージは設定の再読み込み時に1回だけ作成され、発言ごとには ChatContext だけが作成される。<br>
+ * 各ステージの処理時間は、ステージの名前ごとに集計される。
+ *
+ * @author ucchy
+ */
+public class ChatPipeline {
+
+    private static final ChatPipelineMetrics METRICS = new ChatPipelineMetrics();
+
+    private static volatile Pipelines pipelines;
+
+    private final ChatStage[] stages;
+
+    /**
+     * コンストラクタ
+     *
+     * @param stages ステージ
+     */
+    public ChatPipeline(List<ChatStage> stages) {
+        this.stages = stages.toArray(new ChatStage[0]);
+    }
+
+    /**
+     * パイプラインを実行する。発言がキャンセルされた場合は、その時点で終了する。
+     *
+     * @param context 発言の状態
+     * @return 発言の状態
+     */
+    public ChatContext run(ChatContext context) {
+        for (ChatStage stage : stages) {
+            if (context.isCancelled()) {
+                break;
+            }
+            if (!stage.isRequired(context)) {
+                continue;
+            }
+            long start = System.nanoTime();
+            stage.process(context);
+            METRICS.record(stage.getName(), System.nanoTime() - start);
+        }
+        return context;
+    }
+
+    /**
+     * 設定を元に、全てのパイプラインを作り直す。設定の再読み込み時に呼び出すこと。
+     *
+     * @param config 設定
+     */
+    public static void rebuild(LunaChatConfig config) {
+        pipelines = new Pipelines(config);
+    }
+
+    /**
+     * チャンネルチャットの入力を処理するパイプラインを返す。<br>
+     * マーカー確認、NGワードのマスク、カラーコードの置き換え（許可されていなければ除去）を行う。
+     *
+     * @return パイプライン
+     */
+    public static ChatPipeline getChannelInput() {
+        return get().channelInput;
+    }
+
+    /**
+     * プレイヤー以外（Dynmapなど）からのチャンネルへの発言を処理するパイプラインを返す。<br>
+     * NGワードのマスク、カラーコードの置き換えを行う。
+     *
+     * @return パイプライン
+     */
+    public static ChatPipeline getOtherSourceInput() {
+        return get().otherSourceInput;
+    }
+
+    /**
+     * 通常チャットやmcMMOパーティチャットの入力を処理するパイプラインを返す。<br>
+     * マーカー確認、NGワードのマスク、カラーコードの置き換えを行う。
+     *
+     * @return パイプライン
+     */
+    public static ChatPipeline getNormalInput() {
+        return get().normalInput;
+    }
+
+    /**
+     * Japanize変換を行うかどうかを決めるパイプラインを返す。<br>
+     * 2byteコードを含むかどうかの確認と、発言者の設定の確認を行う。
+     * 変換のタイプは、実行前に ChatContext#setJapanizeType で設定しておくこと。
+     *
+     * @return パイプライン
+     */
+    public static ChatPipeline getJapanize() {
+        return get().japanize;
+    }
+
+    /**
+     * 処理時間の集計を返す
+     *
+     * @return 処理時間の集計
+     */
+    public static ChatPipelineMetrics getMetrics() {
+        return METRICS;
+    }
+
+    /**
+     * 作成済みのパイプラインを返す。まだ作成されていなければ、現在の設定から作成する。
+     *
+     * @return パイプライン
+     */
+    private static Pipelines get() {
+        Pipelines current = pipelines;
+        if (current == null) {
+            current = new Pipelines(LunaChat.getConfig());
+            pipelines = current;
+        }
+        return current;
+    }
+
+    /**
+     * 設定の再読み込みのたびに、まとめて入れ替えられるパイプラインの組
+     */
+    private static class Pipelines {
+
+        private final ChatPipeline channelInput;
+        private final ChatPipeline otherSourceInput;
+        private final ChatPipeline normalInput;
+        private final ChatPipeline japanize;
+
+        private Pipelines(LunaChatConfig config) {
+
+            ChatStage marker = new NoneJapanizeMarkerStage(config.getNoneJapanizeMarker());
+            ChatStage ngword = new NGWordMaskStage(config.getNgwordCompiled());
+
+            channelInput = new ChatPipeline(Arrays.asList(
+                    marker, ngword, new ColorCodeStage(true)));
+            otherSourceInput = new ChatPipeline(Arrays.asList(
+                    ngword, new ColorCodeStage(false)));
+            normalInput = new ChatPipeline(Arrays.asList(
+                    marker, ngword, new ColorCodeStage(false)));
+
+            int line = config.getJapanizeDisplayLine();
+            String format = Utility.replaceColorCode((line == 1)
+                    ? config.getJapanizeLine1Format() : config.getJapanizeLine2Format());
+            japanize = new ChatPipeline(Arrays.asList(
+                    new JapanizeSkipStage(), new JapanizeStage(line, format)));
+        }
+    }
+}
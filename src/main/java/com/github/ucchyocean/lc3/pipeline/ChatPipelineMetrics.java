@@ -0,0 +1,107 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.pipeline;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * チャット処理パイプラインの処理時間を、ステージごとに集計するクラス
+ *
+ * @author ucchy
+ */
+public class ChatPipelineMetrics {
+
+    private final Map<String, Entry> entries;
+
+    /**
+     * コンストラクタ
+     */
+    public ChatPipelineMetrics() {
+        entries = new ConcurrentSkipListMap<String, Entry>();
+    }
+
+    /**
+     * 処理時間を記録する
+     *
+     * @param stage ステージの名前
+     * @param nanos 処理時間（ナノ秒）
+     */
+    public void record(String stage, long nanos) {
+        Entry entry = entries.get(stage);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(stage, k -> new Entry());
+        }
+        long value = Math.max(0, nanos);
+        entry.count.increment();
+        entry.total.add(value);
+        entry.max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * 記録された件数を返す
+     *
+     * @param stage ステージの名前
+     * @return 件数
+     */
+    public long getCount(String stage) {
+        Entry entry = entries.get(stage);
+        return (entry == null) ? 0 : entry.count.sum();
+    }
+
+    /**
+     * 平均の処理時間を返す
+     *
+     * @param stage ステージの名前
+     * @return 平均の処理時間（ミリ秒）
+     */
+    public double getAverageMillis(String stage) {
+        Entry entry = entries.get(stage);
+        if (entry == null) return 0;
+        long count = entry.count.sum();
+        if (count == 0) return 0;
+        return entry.total.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * 最大の処理時間を返す
+     *
+     * @param stage ステージの名前
+     * @return 最大の処理時間（ミリ秒）
+     */
+    public double getMaxMillis(String stage) {
+        Entry entry = entries.get(stage);
+        if (entry == null) return 0;
+        return entry.max.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * 集計結果の文字列表現を返す
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Chat pipeline stages:");
+        for (String stage : entries.keySet()) {
+            builder.append(String.format(" %s[n=%d avg=%.3fms max=%.3fms]",
+                    stage, getCount(stage), getAverageMillis(stage), getMaxMillis(stage)));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * ステージごとの集計値
+     */
+    private static class Entry {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+    }
+}
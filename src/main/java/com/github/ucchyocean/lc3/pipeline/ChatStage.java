@@ -0,0 +1,41 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.pipeline;
+
+/**
+ * チャット処理パイプラインのステージ。<br>
+ * ステージは設定の再読み込み時に作成され、複数のスレッドから同時に実行されるため、
+ * 状態は ChatContext にだけ持たせること。
+ *
+ * @author ucchy
+ */
+public interface ChatStage {
+
+    /**
+     * ステージの名前を返す。処理時間の集計に使用される。
+     *
+     * @return ステージの名前
+     */
+    String getName();
+
+    /**
+     * このステージを実行する必要があるかどうかを返す。
+     * falseを返した場合、ステージは実行されず、処理時間も記録されない。
+     *
+     * @param context 発言の状態
+     * @return 実行する必要があるかどうか
+     */
+    default boolean isRequired(ChatContext context) {
+        return true;
+    }
+
+    /**
+     * ステージの処理を実行する
+     *
+     * @param context 発言の状態
+     */
+    void process(ChatContext context);
+}
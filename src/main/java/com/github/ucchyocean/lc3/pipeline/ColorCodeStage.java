@@ -0,0 +1,47 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.pipeline;
+
+import com.github.ucchyocean.lc3.util.Utility;
+
+/**
+ * カラーコードを置き換えるステージ。
+ * カラーコードの使用が許可されていない場合は、設定に応じてカラーコードを取り除くか、そのままにする。
+ *
+ * @author ucchy
+ */
+class ColorCodeStage implements ChatStage {
+
+    private final boolean stripIfDenied;
+
+    /**
+     * コンストラクタ
+     *
+     * @param stripIfDenied 許可されていない場合に、カラーコードを取り除くかどうか
+     */
+    ColorCodeStage(boolean stripIfDenied) {
+        this.stripIfDenied = stripIfDenied;
+    }
+
+    @Override
+    public String getName() {
+        return "color";
+    }
+
+    @Override
+    public boolean isRequired(ChatContext context) {
+        return context.isAllowColorCode() || stripIfDenied;
+    }
+
+    @Override
+    public void process(ChatContext context) {
+        if (context.isAllowColorCode()) {
+            context.setMessage(Utility.replaceColorCode(context.getMessage()));
+        } else {
+            context.setMessage(Utility.stripColorCode(context.getMessage()));
+        }
+    }
+}
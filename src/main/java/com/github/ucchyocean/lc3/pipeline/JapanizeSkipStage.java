@@ -0,0 +1,33 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.pipeline;
+
+import com.github.ucchyocean.lc3.japanize.JapanizeClassifier;
+
+/**
+ * 2byteコードを含む発言や、半角カタカナだけの発言を、Japanize変換の対象外にするステージ
+ *
+ * @author ucchy
+ */
+class JapanizeSkipStage implements ChatStage {
+
+    @Override
+    public String getName() {
+        return "skipcheck";
+    }
+
+    @Override
+    public boolean isRequired(ChatContext context) {
+        return !context.isSkipJapanize();
+    }
+
+    @Override
+    public void process(ChatContext context) {
+        if (!JapanizeClassifier.isNeedToJapanize(context.getClassification())) {
+            context.setSkipJapanize(true);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.pipeline;
+
+import com.github.ucchyocean.lc3.LunaChat;
+import com.github.ucchyocean.lc3.japanize.JapanizeType;
+
+/**
+ * 発言者の設定と変換タイプから、Japanize変換を行うかどうかを決めるステージ。
+ * 変換を行う場合は、表示行数と表示フォーマットを設定する。
+ * 実際の変換と表示は、表示先ごとに異なるため、パイプラインの呼び出し元で行う。
+ *
+ * @author ucchy
+ */
+class JapanizeStage implements ChatStage {
+
+    private final int displayLine;
+    private final String format;
+
+    /**
+     * コンストラクタ
+     *
+     * @param displayLine 表示行数
+     * @param format      カラーコード置き換え済みの表示フォーマット
+     */
+    JapanizeStage(int displayLine, String format) {
+        this.displayLine = displayLine;
+        this.format = format;
+    }
+
+    @Override
+    public String getName() {
+        return "japanize";
+    }
+
+    @Override
+    public boolean isRequired(ChatContext context) {
+        return context.isJapanize();
+    }
+
+    @Override
+    public void process(ChatContext context) {
+        if (context.getPlayer() == null
+                || !LunaChat.getAPI().isPlayerJapanize(context.getPlayer().getName())) {
+            context.setJapanizeType(JapanizeType.NONE);
+            return;
+        }
+        context.setJapanizeDisplay(displayLine, format);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.pipeline;
+
+import com.github.ucchyocean.lc3.util.Utility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * NGワードをマスクするステージ。マスクした場合は、NGワード発言として記録する。
+ *
+ * @author ucchy
+ */
+class NGWordMaskStage implements ChatStage {
+
+    private final List<Pattern> patterns;
+
+    /**
+     * コンストラクタ
+     *
+     * @param patterns NGワード
+     */
+    NGWordMaskStage(List<Pattern> patterns) {
+        this.patterns = new ArrayList<Pattern>(patterns);
+    }
+
+    @Override
+    public String getName() {
+        return "ngword";
+    }
+
+    @Override
+    public boolean isRequired(ChatContext context) {
+        return !patterns.isEmpty();
+    }
+
+    @Override
+    public void process(ChatContext context) {
+        String message = context.getMessage();
+        boolean found = false;
+        for (Pattern pattern : patterns) {
+            Matcher matcher = pattern.matcher(message);
+            if (matcher.find()) {
+                message = matcher.replaceAll(
+                        Utility.getAstariskString(matcher.group(0).length()));
+                found = true;
+            }
+        }
+        if (found) {
+            context.setMessage(message);
+            context.setNgword(true);
+        }
+    }
+}
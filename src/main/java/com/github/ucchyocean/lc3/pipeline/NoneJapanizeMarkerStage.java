@@ -0,0 +1,45 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.pipeline;
+
+/**
+ * 発言の先頭に、一時的にJapanize変換を行わないためのマーカーがあるかどうかを確認するステージ。
+ * マーカーがある場合は、マーカーを取り除いて、Japanize変換を行わないように設定する。
+ *
+ * @author ucchy
+ */
+class NoneJapanizeMarkerStage implements ChatStage {
+
+    private final String marker;
+
+    /**
+     * コンストラクタ
+     *
+     * @param marker マーカー
+     */
+    NoneJapanizeMarkerStage(String marker) {
+        this.marker = marker;
+    }
+
+    @Override
+    public String getName() {
+        return "marker";
+    }
+
+    @Override
+    public boolean isRequired(ChatContext context) {
+        return !marker.isEmpty();
+    }
+
+    @Override
+    public void process(ChatContext context) {
+        String message = context.getMessage();
+        if (message.startsWith(marker)) {
+            context.setSkipJapanize(true);
+            context.setMessage(message.substring(marker.length()));
+        }
+    }
+}
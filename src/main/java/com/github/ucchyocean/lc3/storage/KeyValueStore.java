@@ -0,0 +1,48 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.storage;
+
+import java.util.Map;
+
+/**
+ * プレイヤーごとの設定など、キーと値の組を保存するストア
+ *
+ * @author ucchy
+ */
+public interface KeyValueStore {
+
+    /**
+     * 保存されている全てのデータを読み込んで返す
+     *
+     * @return 全てのデータ
+     */
+    Map<String, Object> load();
+
+    /**
+     * 値を設定する
+     *
+     * @param key   キー
+     * @param value 値（String、Boolean、List&lt;String&gt; など、Yamlで表現できるもの）
+     */
+    void put(String key, Object value);
+
+    /**
+     * 値を削除する
+     *
+     * @param key キー
+     */
+    void remove(String key);
+
+    /**
+     * 全ての値を削除する
+     */
+    void clear();
+
+    /**
+     * 書き込み待ちの変更があれば、すぐに保存する
+     */
+    void flush();
+}
@@ -0,0 +1,467 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.storage;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 単一ファイルの組み込みデータベース（H2 MVStore）によるストレージ。<br>
+ * チャンネルやプレイヤーごとの設定は、レコード単位で更新される。
+ * チャンネルの保存は、全てのレコードを変換してからロックを取ってコミットするため、
+ * まとめて保存した場合は、全て保存されるか、全く保存されないかのどちらかになる。
+ * プレイヤーごとの設定の変更は、YamlKeyValueStore と同じく一定時間まとめてから、
+ * 共有の書き込み用スレッドで1回だけコミットする。<br>
+ * Yamlストレージとの切り替えに備えて、最後にYamlファイルと同期した日時と、
+ * 同期後にこのストレージが使用されたかどうかを記録しておく。
+ * {@link #open(File, YamlStorage, String...)} は、Yamlファイルの方が新しければ取り込み直し、
+ * {@link #exportIfActive(File, YamlStorage, String...)} は、このストレージが使用されていればYamlファイルへ書き出す。
+ *
+ * @author ucchy
+ */
+public class MVStoreStorage implements Storage {
+
+    private static final String FILE_NAME = "lunachat.mv.db";
+
+    private static final String MAP_NAME_CHANNELS = "channels";
+    private static final String MAP_NAME_META = "meta";
+    private static final String MAP_PREFIX_STORE = "store.";
+
+    private static final String META_KEY_IMPORTED = "imported";
+    private static final String META_KEY_EXPORTED = "exported";
+    private static final String META_KEY_ACTIVE = "active";
+
+    private final MVStore store;
+    private final MVMap<String, String> channels;
+    private final MVMap<String, String> meta;
+    private final Map<String, KeyValueStore> stores;
+    private final AtomicBoolean commitScheduled;
+    private int importedCount = -1;
+
+    /**
+     * コンストラクタ
+     *
+     * @param dataFolder データ格納フォルダ
+     */
+    public MVStoreStorage(File dataFolder) {
+        if (!dataFolder.exists()) {
+            dataFolder.mkdirs();
+        }
+        this.store = new MVStore.Builder()
+                .fileName(new File(dataFolder, FILE_NAME).getPath())
+                .autoCommitDisabled()
+                .compress()
+                .open();
+        this.channels = store.openMap(MAP_NAME_CHANNELS);
+        this.meta = store.openMap(MAP_NAME_META);
+        this.stores = new ConcurrentHashMap<String, KeyValueStore>();
+        this.commitScheduled = new AtomicBoolean();
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.storage.Storage#getType()
+     */
+    @Override
+    public StorageType getType() {
+        return StorageType.MVSTORE;
+    }
+
+    /**
+     * 使用するストレージとして、組み込みデータベースを開く。<br>
+     * まだYamlファイルを取り込んでいない場合や、最後の同期の後にYamlストレージが使用され、
+     * Yamlファイルの方が新しくなっている場合は、Yamlファイルのデータで置き換える。
+     * 取り込みに失敗した場合は、データベースを閉じて null を返す。
+     *
+     * @param dataFolder データ格納フォルダ
+     * @param source     取り込み元
+     * @param storeNames 取り込むキーバリューストアの名前
+     * @return ストレージ、取り込みに失敗した場合はnull
+     */
+    public static MVStoreStorage open(File dataFolder, YamlStorage source, String... storeNames) {
+
+        MVStoreStorage storage = new MVStoreStorage(dataFolder);
+        if (!storage.isImported() ||
+                (!storage.isActive() && source.getLastModified(storeNames) > storage.getSyncedTime())) {
+            storage.importedCount = storage.importFrom(source, storeNames);
+            if (storage.importedCount < 0) {
+                storage.close();
+                return null;
+            }
+        }
+        storage.setActive();
+        return storage;
+    }
+
+    /**
+     * 組み込みデータベースが最後の同期の後に使用されていれば、その内容をYamlストレージへ書き出す。
+     * 書き出しに失敗した場合は、次回また書き出せるよう、使用されている状態のままにする。
+     *
+     * @param dataFolder データ格納フォルダ
+     * @param target     書き出し先
+     * @param storeNames 書き出すキーバリューストアの名前
+     * @return 書き出したチャンネルの数、書き出す必要が無かった場合は0、失敗した場合は-1
+     */
+    public static int exportIfActive(File dataFolder, YamlStorage target, String... storeNames) {
+
+        if (!new File(dataFolder, FILE_NAME).exists()) {
+            return 0;
+        }
+        MVStoreStorage storage = new MVStoreStorage(dataFolder);
+        try {
+            return storage.isActive() ? storage.exportTo(target, storeNames) : 0;
+        } finally {
+            storage.close();
+        }
+    }
+
+    /**
+     * Yamlファイルのデータを取り込み済みかどうかを返す
+     *
+     * @return 取り込み済みかどうか
+     */
+    public boolean isImported() {
+        return meta.containsKey(META_KEY_IMPORTED);
+    }
+
+    /**
+     * 最後の同期の後に、使用するストレージとして開かれたかどうかを返す
+     *
+     * @return 使用されたかどうか
+     */
+    boolean isActive() {
+        return meta.containsKey(META_KEY_ACTIVE);
+    }
+
+    /**
+     * {@link #open(File, YamlStorage, String...)} で取り込んだチャンネルの数を返す
+     *
+     * @return 取り込んだチャンネルの数、取り込まなかった場合は-1
+     */
+    public int getImportedCount() {
+        return importedCount;
+    }
+
+    /**
+     * 別のストレージ（通常はYamlStorage）のデータを、1回のコミットで全て取り込む。
+     * 既存のデータは、取り込んだデータで置き換えられる。
+     * 取り込みに失敗した場合は、何も変更されない。
+     *
+     * @param source     取り込み元
+     * @param storeNames 取り込むキーバリューストアの名前
+     * @return 取り込んだチャンネルの数、失敗した場合は-1
+     */
+    public synchronized int importFrom(Storage source, String... storeNames) {
+
+        try {
+            Map<String, Map<String, Object>> data = source.loadChannels();
+            channels.clear();
+            for (Map.Entry<String, Map<String, Object>> entry : data.entrySet()) {
+                channels.put(entry.getKey(), dump(entry.getValue()));
+            }
+            for (String name : storeNames) {
+                MVMap<String, String> map = openStoreMap(name);
+                map.clear();
+                for (Map.Entry<String, Object> entry : source.getKeyValueStore(name).load().entrySet()) {
+                    map.put(entry.getKey(), dump(entry.getValue()));
+                }
+            }
+            meta.put(META_KEY_IMPORTED, source.getType().toString() + ":" + System.currentTimeMillis());
+            store.commit();
+            return data.size();
+        } catch (RuntimeException e) {
+            store.rollback();
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * 全てのデータを、別のストレージ（通常はYamlStorage）へ書き出す。
+     * 書き出し先にあって、このストレージに無いチャンネルは削除する。
+     *
+     * @param target     書き出し先
+     * @param storeNames 書き出すキーバリューストアの名前
+     * @return 書き出したチャンネルの数、失敗した場合は-1
+     */
+    synchronized int exportTo(Storage target, String... storeNames) {
+
+        try {
+            Map<String, Map<String, Object>> data = loadChannels();
+            for (String name : target.loadChannels().keySet()) {
+                if (!data.containsKey(name)) {
+                    target.removeChannel(name);
+                }
+            }
+            if (!target.saveChannels(data)) {
+                return -1;
+            }
+            for (String name : storeNames) {
+                KeyValueStore source = getKeyValueStore(name);
+                KeyValueStore destination = target.getKeyValueStore(name);
+                destination.load();
+                destination.clear();
+                for (Map.Entry<String, Object> entry : source.load().entrySet()) {
+                    destination.put(entry.getKey(), entry.getValue());
+                }
+                destination.flush();
+            }
+            meta.put(META_KEY_EXPORTED, target.getType().toString() + ":" + System.currentTimeMillis());
+            meta.remove(META_KEY_ACTIVE);
+            store.commit();
+            return data.size();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * 使用するストレージとして開かれたことを記録する
+     */
+    private synchronized void setActive() {
+        if (!isActive()) {
+            meta.put(META_KEY_ACTIVE, Long.toString(System.currentTimeMillis()));
+            store.commit();
+        }
+    }
+
+    /**
+     * 最後にYamlファイルと同期（取り込み、または、書き出し）した日時を返す
+     *
+     * @return 同期した日時、同期したことが無い場合は0
+     */
+    private long getSyncedTime() {
+        return Math.max(parseTime(meta.get(META_KEY_IMPORTED)), parseTime(meta.get(META_KEY_EXPORTED)));
+    }
+
+    /**
+     * "種類:日時" の形式の記録から、日時を取り出す
+     *
+     * @param value 記録
+     * @return 日時、取り出せない場合は0
+     */
+    private static long parseTime(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.substring(value.indexOf(':') + 1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.storage.Storage#loadChannels()
+     */
+    @Override
+    public Map<String, Map<String, Object>> loadChannels() {
+        // レコードの解析は並列に行う
+        return ParallelParser.parse(new HashMap<String, String>(channels), text -> {
+            Object data = load(text);
+            if (data instanceof Map<?, ?>) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> map = (Map<String, Object>) data;
+                return map;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.storage.Storage#saveChannel(java.lang.String, java.util.Map)
+     */
+    @Override
+    public boolean saveChannel(String name, Map<String, Object> data) {
+        Map<String, Map<String, Object>> single = new HashMap<String, Map<String, Object>>();
+        single.put(name, data);
+        return saveChannels(single);
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.storage.Storage#saveChannels(java.util.Map)
+     */
+    @Override
+    public boolean saveChannels(Map<String, Map<String, Object>> data) {
+
+        // 変換に失敗した場合は、何も変更しない。
+        // コミット待ちのプレイヤーごとの設定を巻き戻さないよう、rollback は使わない。
+        Map<String, String> texts = new HashMap<String, String>();
+        try {
+            for (Map.Entry<String, Map<String, Object>> entry : data.entrySet()) {
+                texts.put(entry.getKey(), dump(entry.getValue()));
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return false;
+        }
+
+        synchronized (this) {
+            try {
+                channels.putAll(texts);
+                store.commit();
+                return true;
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.storage.Storage#removeChannel(java.lang.String)
+     */
+    @Override
+    public synchronized boolean removeChannel(String name) {
+        if (channels.remove(name) == null) {
+            return false;
+        }
+        store.commit();
+        return true;
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.storage.Storage#getKeyValueStore(java.lang.String)
+     */
+    @Override
+    public KeyValueStore getKeyValueStore(String name) {
+        return stores.computeIfAbsent(name, k -> new MVStoreKeyValueStore(openStoreMap(k)));
+    }
+
+    /**
+     * コミット待ちの変更をコミットしてから閉じる
+     *
+     * @see com.github.ucchyocean.lc3.storage.Storage#close()
+     */
+    @Override
+    public synchronized void close() {
+        if (!store.isClosed()) {
+            commit();
+            store.close();
+        }
+    }
+
+    /**
+     * コミット待ちの変更があるかどうかを返す
+     *
+     * @return コミット待ちの変更があるかどうか
+     */
+    synchronized boolean hasPendingChanges() {
+        return !store.isClosed() && store.hasUnsavedChanges();
+    }
+
+    /**
+     * コミット待ちの変更を、すぐにコミットする
+     */
+    private synchronized void commit() {
+        commitScheduled.set(false);
+        if (!store.isClosed() && store.hasUnsavedChanges()) {
+            store.commit();
+        }
+    }
+
+    /**
+     * キーバリューストア用のマップを開く
+     *
+     * @param name ストア名
+     * @return マップ
+     */
+    private MVMap<String, String> openStoreMap(String name) {
+        return store.openMap(MAP_PREFIX_STORE + name);
+    }
+
+    /**
+     * 値をYaml文字列に変換する
+     *
+     * @param value 値
+     * @return Yaml文字列
+     */
+    private static String dump(Object value) {
+        return new Yaml().dump(value);
+    }
+
+    /**
+     * Yaml文字列を値に変換する
+     *
+     * @param text Yaml文字列
+     * @return 値
+     */
+    private static Object load(String text) {
+        return new Yaml().load(text);
+    }
+
+    /**
+     * MVStoreのマップによるキーバリューストア。
+     * 変更はマップに即座に反映され、コミットは一定時間まとめてから行う。
+     */
+    private class MVStoreKeyValueStore implements KeyValueStore {
+
+        private final MVMap<String, String> map;
+
+        private MVStoreKeyValueStore(MVMap<String, String> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Map<String, Object> load() {
+            Map<String, Object> result = new HashMap<String, Object>();
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                Object value = MVStoreStorage.load(entry.getValue());
+                if (value != null) {
+                    result.put(entry.getKey(), value);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void put(String key, Object value) {
+            if (value == null) {
+                remove(key);
+                return;
+            }
+            String text = dump(value);
+            if (!text.equals(map.get(key))) {
+                map.put(key, text);
+                scheduleCommit();
+            }
+        }
+
+        @Override
+        public void remove(String key) {
+            if (map.remove(key) != null) {
+                scheduleCommit();
+            }
+        }
+
+        @Override
+        public void clear() {
+            if (!map.isEmpty()) {
+                map.clear();
+                scheduleCommit();
+            }
+        }
+
+        @Override
+        public void flush() {
+            commit();
+        }
+
+        /**
+         * コミットを予約する
+         */
+        private void scheduleCommit() {
+            StoreWriter.schedule(commitScheduled, MVStoreStorage.this::commit);
+        }
+    }
+}
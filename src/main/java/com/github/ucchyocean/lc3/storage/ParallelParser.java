@@ -0,0 +1,110 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.storage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * チャンネルのデータなど、複数のレコードの解析を、上限付きのスレッドプールで並列に行うためのクラス
+ *
+ * @author ucchy
+ */
+final class ParallelParser {
+
+    /**
+     * 解析に使用するスレッド数の上限
+     */
+    private static final int MAX_THREADS = 4;
+
+    private ParallelParser() {
+    }
+
+    /**
+     * レコードを並列に解析して返す。解析に失敗したレコードは、結果に含まれない。
+     *
+     * @param sources キーと、解析前のレコードのマップ
+     * @param parser  解析処理
+     * @param <T>     解析前のレコードの型
+     * @return キーと、解析後のデータのマップ
+     */
+    static <T> Map<String, Map<String, Object>> parse(
+            Map<String, T> sources, Function<T, Map<String, Object>> parser) {
+
+        HashMap<String, Map<String, Object>> result = new HashMap<String, Map<String, Object>>();
+
+        int threads = Math.min(MAX_THREADS,
+                Math.min(Runtime.getRuntime().availableProcessors(), sources.size()));
+        if (threads <= 1) {
+            for (Map.Entry<String, T> entry : sources.entrySet()) {
+                Map<String, Object> data = parseQuietly(parser, entry.getValue());
+                if (data != null) {
+                    result.put(entry.getKey(), data);
+                }
+            }
+            return result;
+        }
+
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "LunaChat-Loader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<String> keys = new ArrayList<String>();
+            List<Callable<Map<String, Object>>> tasks = new ArrayList<Callable<Map<String, Object>>>();
+            for (Map.Entry<String, T> entry : sources.entrySet()) {
+                final T source = entry.getValue();
+                keys.add(entry.getKey());
+                tasks.add(() -> parseQuietly(parser, source));
+            }
+
+            List<Future<Map<String, Object>>> futures = pool.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++) {
+                Map<String, Object> data = futures.get(i).get();
+                if (data != null) {
+                    result.put(keys.get(i), data);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return result;
+    }
+
+    /**
+     * レコードを解析する。例外が発生した場合はnullを返す。
+     *
+     * @param parser 解析処理
+     * @param source 解析前のレコード
+     * @param <T>    解析前のレコードの型
+     * @return 解析後のデータ
+     */
+    private static <T> Map<String, Object> parseQuietly(Function<T, Map<String, Object>> parser, T source) {
+        try {
+            return parser.apply(source);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
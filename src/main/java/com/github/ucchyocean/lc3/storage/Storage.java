@@ -0,0 +1,69 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.storage;
+
+import java.util.Map;
+
+/**
+ * チャンネルのデータや、プレイヤーごとの設定を保存するストレージ
+ *
+ * @author ucchy
+ */
+public interface Storage {
+
+    /**
+     * ストレージの種類を返す
+     *
+     * @return ストレージの種類
+     */
+    StorageType getType();
+
+    /**
+     * 保存されている全てのチャンネルのデータを読み込んで返す
+     *
+     * @return チャンネル名と、チャンネルのデータ（Channel#serialize() の形式）のマップ
+     */
+    Map<String, Map<String, Object>> loadChannels();
+
+    /**
+     * チャンネルのデータを保存する
+     *
+     * @param name チャンネル名
+     * @param data チャンネルのデータ
+     * @return 保存したかどうか
+     */
+    boolean saveChannel(String name, Map<String, Object> data);
+
+    /**
+     * 複数のチャンネルのデータをまとめて保存する。
+     * トランザクションに対応しているストレージでは、全て保存されるか、全く保存されないかのどちらかになる。
+     *
+     * @param channels チャンネル名と、チャンネルのデータのマップ
+     * @return 保存したかどうか
+     */
+    boolean saveChannels(Map<String, Map<String, Object>> channels);
+
+    /**
+     * チャンネルのデータを削除する
+     *
+     * @param name チャンネル名
+     * @return 削除したかどうか
+     */
+    boolean removeChannel(String name);
+
+    /**
+     * 指定した名前のキーバリューストアを返す
+     *
+     * @param name ストア名
+     * @return キーバリューストア
+     */
+    KeyValueStore getKeyValueStore(String name);
+
+    /**
+     * ストレージを閉じる。書き込み待ちの変更は全て保存される。
+     */
+    void close();
+}
@@ -0,0 +1,63 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.storage;
+
+/**
+ * ストレージの種類
+ *
+ * @author ucchy
+ */
+public enum StorageType {
+
+    /**
+     * チャンネルごと、設定ごとのYamlファイル
+     */
+    YAML("yaml"),
+
+    /**
+     * 単一ファイルの組み込みデータベース（H2 MVStore）
+     */
+    MVSTORE("mvstore");
+
+    private final String id;
+
+    /**
+     * コンストラクタ
+     *
+     * @param id ID
+     */
+    StorageType(String id) {
+        this.id = id;
+    }
+
+    /**
+     * 識別文字列を返す
+     *
+     * @see java.lang.Enum#toString()
+     */
+    @Override
+    public String toString() {
+        return id;
+    }
+
+    /**
+     * 識別文字列から、StorageTypeを作成して返す。
+     * 無効な文字列が指定された場合は、デフォルトが返される。
+     *
+     * @param id  識別文字列
+     * @param def デフォルト
+     * @return StorageType
+     */
+    public static StorageType fromID(String id, StorageType def) {
+        if (id == null) return def;
+        for (StorageType type : values()) {
+            if (type.id.equalsIgnoreCase(id)) {
+                return type;
+            }
+        }
+        return def;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.storage;
+
+import com.github.ucchyocean.lc3.LunaChat;
+import com.github.ucchyocean.lc3.PluginInterface;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * 全てのストアで共有する、遅延書き込み用のスレッド。<br>
+ * 変更があってから一定時間まとめてから、1回だけ書き込みを行う。
+ * プラグインの無効化のときに shutdown() を呼び出して、書き込み待ちの処理を実行し、スレッドを停止すること。
+ *
+ * @author ucchy
+ */
+public class StoreWriter {
+
+    /**
+     * 変更があってから、書き込むまでの待ち時間（ミリ秒）
+     */
+    static final long FLUSH_DELAY_MILLIS = 3000;
+
+    /**
+     * 書き込みに失敗したときに、再試行するまでの待ち時間の上限（ミリ秒）
+     */
+    static final long MAX_RETRY_DELAY_MILLIS = 60000;
+
+    /**
+     * 書き込みに失敗したときに、続けて再試行する回数の上限
+     */
+    static final int MAX_RETRIES = 5;
+
+    /**
+     * 停止するときに、実行中の書き込みの終了を待つ時間（秒）
+     */
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private static final Map<AtomicBoolean, Runnable> pending = new ConcurrentHashMap<AtomicBoolean, Runnable>();
+
+    private static ScheduledThreadPoolExecutor executor;
+    private static volatile boolean closing;
+
+    private StoreWriter() {
+    }
+
+    /**
+     * 書き込みを予約する。予約済みの場合は何もしない。
+     * 書き込み処理の最初で、scheduled を false に戻すこと。
+     *
+     * @param scheduled 予約済みかどうかのフラグ
+     * @param task      書き込み処理
+     */
+    static void schedule(AtomicBoolean scheduled, Runnable task) {
+        schedule(scheduled, task, FLUSH_DELAY_MILLIS);
+    }
+
+    /**
+     * 待ち時間を指定して、書き込みを予約する。予約済みの場合は何もしない。
+     * 停止中の場合は予約せず、scheduled を false に戻す。
+     *
+     * @param scheduled   予約済みかどうかのフラグ
+     * @param task        書き込み処理
+     * @param delayMillis 待ち時間（ミリ秒）
+     */
+    static void schedule(AtomicBoolean scheduled, Runnable task, long delayMillis) {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        if (closing) {
+            scheduled.set(false);
+            return;
+        }
+        pending.put(scheduled, task);
+        getExecutor().schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 続けて失敗した回数から、再試行するまでの待ち時間を返す。
+     * 待ち時間は失敗するたびに倍になり、MAX_RETRY_DELAY_MILLIS を超えない。
+     *
+     * @param failures 続けて失敗した回数（1以上）
+     * @return 待ち時間（ミリ秒）
+     */
+    static long retryDelay(int failures) {
+        int shift = Math.min(Math.max(0, failures - 1), 16);
+        return Math.min(FLUSH_DELAY_MILLIS << shift, MAX_RETRY_DELAY_MILLIS);
+    }
+
+    /**
+     * 書き込み用スレッドを停止する。予約されている書き込みは、待ち時間を待たずにこのスレッドで実行する。
+     * プラグインの無効化のときに、ストレージを閉じた後で呼び出す。
+     */
+    public static synchronized void shutdown() {
+
+        closing = true;
+        try {
+            if (executor != null) {
+                // 待機中の書き込みは取り消し、実行中の書き込みは終わるまで待つ
+                executor.shutdown();
+                try {
+                    if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                        log(Level.WARNING, "StoreWriter did not terminate in "
+                                + SHUTDOWN_TIMEOUT_SECONDS + " seconds.");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                executor = null;
+            }
+
+            // まだ実行されていない書き込みを実行する
+            for (Map.Entry<AtomicBoolean, Runnable> entry : pending.entrySet()) {
+                if (entry.getKey().get()) {
+                    entry.getValue().run();
+                }
+            }
+            pending.clear();
+        } finally {
+            closing = false;
+        }
+    }
+
+    /**
+     * プラグインのロガーにログを出力する。プラグインが無い場合（テストなど）は出力しない。
+     *
+     * @param level ログレベル
+     * @param msg   ログメッセージ
+     */
+    static void log(Level level, String msg) {
+        PluginInterface plugin = LunaChat.getPlugin();
+        if (plugin != null) {
+            plugin.log(level, msg);
+        }
+    }
+
+    /**
+     * 書き込み用スレッドを返す
+     *
+     * @return 書き込み用スレッド
+     */
+    private static synchronized ScheduledThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            executor = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r, "LunaChat-StoreWriter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.storage;
+
+import com.github.ucchyocean.lc3.util.YamlConfig;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * プレイヤーごとの設定など、キーと値の組を保存するための、遅延書き込み型のYamlストア。<br>
+ * データはキーのハッシュ値で複数のファイル（シャード）に分割して保存される。
+ * 変更はメモリ上で即座に反映され、ファイルへの書き込みは一定時間まとめてから、
+ * 変更のあったシャードだけを一時ファイル経由で置き換えることで行う。
+ * 読み込み専用で作成した場合は、ファイルの移行も書き込みも行わない。
+ *
+ * @author ucchy
+ */
+public class YamlKeyValueStore implements KeyValueStore {
+
+    /**
+     * デフォルトのシャード数
+     */
+    static final int DEFAULT_SHARDS = 16;
+
+    static final String MIGRATED_SUFFIX = ".migrated";
+
+    private final File legacyFile;
+    private final File migratedFile;
+    private final File folder;
+    private final Shard[] shards;
+    private final boolean readOnly;
+    private final AtomicBoolean flushScheduled;
+    private volatile boolean migrationPending;
+    private int failures;
+
+    /**
+     * シャード
+     */
+    private static class Shard {
+        private final File file;
+        private final Map<String, Object> data = new ConcurrentHashMap<String, Object>();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+
+        private Shard(File file) {
+            this.file = file;
+        }
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param dataFolder データ格納フォルダ
+     * @param name       ストア名（シャードの格納フォルダ名、および、移行元の name.yml のファイル名に使用する）
+     */
+    public YamlKeyValueStore(File dataFolder, String name) {
+        this(dataFolder, name, DEFAULT_SHARDS);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param dataFolder データ格納フォルダ
+     * @param name       ストア名（シャードの格納フォルダ名、および、移行元の name.yml のファイル名に使用する）
+     * @param shardCount シャード数
+     */
+    public YamlKeyValueStore(File dataFolder, String name, int shardCount) {
+        this(dataFolder, name, shardCount, false);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param dataFolder データ格納フォルダ
+     * @param name       ストア名（シャードの格納フォルダ名、および、移行元の name.yml のファイル名に使用する）
+     * @param shardCount シャード数
+     * @param readOnly   読み込み専用にするかどうか
+     */
+    public YamlKeyValueStore(File dataFolder, String name, int shardCount, boolean readOnly) {
+        this.readOnly = readOnly;
+        this.legacyFile = new File(dataFolder, name + ".yml");
+        this.migratedFile = new File(dataFolder, name + ".yml" + MIGRATED_SUFFIX);
+        this.folder = new File(dataFolder, name);
+        this.shards = new Shard[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(new File(folder, String.format("%02x.yml", i)));
+        }
+        this.flushScheduled = new AtomicBoolean();
+    }
+
+    /**
+     * ファイルから全てのデータを読み込んで返す。
+     * 移行元の name.yml があり、まだ移行が完了していない場合は、シャードへ移行する。
+     * 全てのシャードの書き込みに成功するまで name.yml は残し、書き込みを再試行する。
+     * 読み込み専用の場合は、移行せずに name.yml をそのまま読み込む。
+     *
+     * @return 全てのデータ
+     */
+    @Override
+    public synchronized Map<String, Object> load() {
+
+        for (Shard shard : shards) {
+            shard.data.clear();
+            shard.dirty.set(false);
+        }
+
+        migrationPending = false;
+
+        if (legacyFile.exists() && !migratedFile.exists()) {
+            // 1ファイル形式からの移行
+            // 途中まで書き込まれたシャードが残らないよう、全てのシャードを書き込む
+            for (Shard shard : shards) {
+                shard.dirty.set(!readOnly);
+            }
+            YamlConfig config = YamlConfig.load(legacyFile);
+            for (String key : config.getKeys(false)) {
+                Object value = config.get(key);
+                if (value != null) {
+                    shardOf(key).data.put(key, value);
+                }
+            }
+            if (readOnly) {
+                return snapshot();
+            }
+            migrationPending = true;
+            flush();
+        } else {
+            for (Shard shard : shards) {
+                YamlConfig config = YamlConfig.load(shard.file);
+                for (String key : config.getKeys(false)) {
+                    Object value = config.get(key);
+                    if (value != null) {
+                        shard.data.put(key, value);
+                    }
+                }
+            }
+        }
+
+        return snapshot();
+    }
+
+    /**
+     * 値を設定する。ファイルへの書き込みは遅延して行われる。
+     *
+     * @param key   キー
+     * @param value 値（String、Boolean、List&lt;String&gt; など、Yamlで表現できるもの）
+     */
+    @Override
+    public void put(String key, Object value) {
+        checkWritable();
+        if (value == null) {
+            remove(key);
+            return;
+        }
+        Shard shard = shardOf(key);
+        Object old = shard.data.put(key, value);
+        if (!value.equals(old)) {
+            markDirty(shard);
+        }
+    }
+
+    /**
+     * 値を削除する。ファイルへの書き込みは遅延して行われる。
+     *
+     * @param key キー
+     */
+    @Override
+    public void remove(String key) {
+        checkWritable();
+        Shard shard = shardOf(key);
+        if (shard.data.remove(key) != null) {
+            markDirty(shard);
+        }
+    }
+
+    /**
+     * 全ての値を削除する。ファイルへの書き込みは遅延して行われる。
+     */
+    @Override
+    public void clear() {
+        checkWritable();
+        for (Shard shard : shards) {
+            if (!shard.data.isEmpty()) {
+                shard.data.clear();
+                markDirty(shard);
+            }
+        }
+    }
+
+    /**
+     * 変更のあったシャードを、すぐにファイルへ書き込む。
+     * 書き込めなかったシャードは、待ち時間を延ばしながら StoreWriter.MAX_RETRIES 回まで再試行し、
+     * それでも書き込めない場合は、次に変更があったときに書き込む。
+     */
+    @Override
+    public synchronized void flush() {
+
+        flushScheduled.set(false);
+
+        if (!writeDirtyShards()) {
+            failures++;
+            if (failures <= StoreWriter.MAX_RETRIES) {
+                long delay = StoreWriter.retryDelay(failures);
+                StoreWriter.log(Level.WARNING, "Failed to write " + folder.getName()
+                        + ", retrying in " + delay + "ms (" + failures + "/" + StoreWriter.MAX_RETRIES + ").");
+                StoreWriter.schedule(flushScheduled, this::flush, delay);
+            } else {
+                StoreWriter.log(Level.SEVERE, "Failed to write " + folder.getName() + " after "
+                        + StoreWriter.MAX_RETRIES + " retries. It will be written on the next change.");
+                failures = 0;
+            }
+            return;
+        }
+        failures = 0;
+        if (migrationPending) {
+            finishMigration();
+        }
+    }
+
+    /**
+     * 変更のあったシャードをファイルへ書き込む
+     *
+     * @return 全てのシャードの書き込みに成功したかどうか
+     */
+    private boolean writeDirtyShards() {
+
+        boolean success = true;
+        for (Shard shard : shards) {
+            if (!shard.dirty.getAndSet(false)) {
+                continue;
+            }
+            try {
+                writeAtomically(shard);
+            } catch (IOException e) {
+                shard.dirty.set(true);
+                success = false;
+                StoreWriter.log(Level.WARNING, "Failed to write " + shard.file + ": " + e);
+            }
+        }
+        return success;
+    }
+
+    /**
+     * 全てのシャードの書き込みが終わった後に、移行元の name.yml を name.yml.migrated に改名する。
+     * 改名できない場合はコピーを作成する。移行元のファイルは削除しない。
+     */
+    private void finishMigration() {
+
+        if (legacyFile.renameTo(migratedFile)) {
+            migrationPending = false;
+            return;
+        }
+        try {
+            Files.copy(legacyFile.toPath(), migratedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            migrationPending = false;
+        } catch (IOException e) {
+            // 次回の書き込みで再試行する
+            StoreWriter.log(Level.WARNING, "Failed to rename " + legacyFile + " to " + migratedFile + ": " + e);
+        }
+    }
+
+    /**
+     * 全てのシャードのデータをまとめて返す
+     *
+     * @return 全てのデータ
+     */
+    private Map<String, Object> snapshot() {
+        Map<String, Object> result = new HashMap<String, Object>();
+        for (Shard shard : shards) {
+            result.putAll(shard.data);
+        }
+        return result;
+    }
+
+    /**
+     * 読み込み専用の場合は、変更できないことを通知する
+     */
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("This store is read-only.");
+        }
+    }
+
+    /**
+     * キーに対応するシャードを返す
+     *
+     * @param key キー
+     * @return シャード
+     */
+    private Shard shardOf(String key) {
+        return shards[(key.hashCode() & 0x7fffffff) % shards.length];
+    }
+
+    /**
+     * シャードに変更ありの印を付けて、書き込みを予約する
+     *
+     * @param shard シャード
+     */
+    private void markDirty(Shard shard) {
+        shard.dirty.set(true);
+        StoreWriter.schedule(flushScheduled, this::flush);
+    }
+
+    /**
+     * シャードの内容を、一時ファイルに書き込んでから置き換える
+     *
+     * @param shard シャード
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private void writeAtomically(Shard shard) throws IOException {
+
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+
+        String data = new Yaml().dumpAsMap(new TreeMap<String, Object>(shard.data));
+        File temp = new File(folder, shard.file.getName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(data);
+        }
+
+        try {
+            Files.move(temp.toPath(), shard.file.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), shard.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
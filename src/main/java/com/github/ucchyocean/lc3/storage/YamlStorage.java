@@ -0,0 +1,218 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.storage;
+
+import com.github.ucchyocean.lc3.util.YamlConfig;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Yamlファイルによるストレージ。<br>
+ * チャンネルは channels フォルダに、チャンネルごとの Yaml ファイルとして保存される。
+ * 読み込み専用で作成した場合は、他のストレージへの取り込み元として、ファイルを一切変更せずに読み込む。
+ *
+ * @author ucchy
+ */
+public class YamlStorage implements Storage {
+
+    private static final String FOLDER_NAME_CHANNELS = "channels";
+
+    private final File dataFolder;
+    private final boolean readOnly;
+    private final Map<String, YamlKeyValueStore> stores;
+
+    /**
+     * コンストラクタ
+     *
+     * @param dataFolder データ格納フォルダ
+     */
+    public YamlStorage(File dataFolder) {
+        this(dataFolder, false);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param dataFolder データ格納フォルダ
+     * @param readOnly   読み込み専用にするかどうか
+     */
+    public YamlStorage(File dataFolder, boolean readOnly) {
+        this.dataFolder = dataFolder;
+        this.readOnly = readOnly;
+        this.stores = new ConcurrentHashMap<String, YamlKeyValueStore>();
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.storage.Storage#getType()
+     */
+    @Override
+    public StorageType getType() {
+        return StorageType.YAML;
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.storage.Storage#loadChannels()
+     */
+    @Override
+    public Map<String, Map<String, Object>> loadChannels() {
+
+        // フォルダーの取得
+        File folder = new File(dataFolder, FOLDER_NAME_CHANNELS);
+        if (!folder.exists()) {
+            return new HashMap<String, Map<String, Object>>();
+        }
+
+        File[] files = folder.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".yml");
+            }
+        });
+        if (files == null) files = new File[0];
+
+        Map<String, File> sources = new HashMap<String, File>();
+        for (File file : files) {
+            String name = file.getName().substring(0, file.getName().length() - ".yml".length());
+            sources.put(name, file);
+        }
+
+        // ファイルの解析は並列に行う
+        return ParallelParser.parse(sources, file -> {
+            YamlConfig config = YamlConfig.load(file);
+            Map<String, Object> data = new HashMap<String, Object>();
+            for (String key : config.getKeys(false)) {
+                data.put(key, config.get(key));
+            }
+            return data;
+        });
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.storage.Storage#saveChannel(java.lang.String, java.util.Map)
+     */
+    @Override
+    public boolean saveChannel(String name, Map<String, Object> data) {
+
+        if (readOnly) {
+            return false;
+        }
+
+        // フォルダーの取得と、必要に応じて作成
+        File folder = new File(dataFolder, FOLDER_NAME_CHANNELS);
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+
+        File file = new File(folder, name + ".yml");
+
+        // ファイルへ保存する
+        YamlConfig conf = new YamlConfig();
+        for (String key : data.keySet()) {
+            conf.set(key, data.get(key));
+        }
+        try {
+            conf.save(file);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * ファイルごとに保存するため、トランザクションには対応しない。
+     *
+     * @see com.github.ucchyocean.lc3.storage.Storage#saveChannels(java.util.Map)
+     */
+    @Override
+    public boolean saveChannels(Map<String, Map<String, Object>> channels) {
+        boolean result = true;
+        for (Map.Entry<String, Map<String, Object>> entry : channels.entrySet()) {
+            result &= saveChannel(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.storage.Storage#removeChannel(java.lang.String)
+     */
+    @Override
+    public boolean removeChannel(String name) {
+
+        if (readOnly) {
+            return false;
+        }
+
+        // フォルダーの取得
+        File folder = new File(dataFolder, FOLDER_NAME_CHANNELS);
+        if (!folder.exists()) {
+            return false;
+        }
+        File file = new File(folder, name + ".yml");
+        if (!file.exists()) {
+            return false;
+        }
+
+        // ファイルを削除
+        return file.delete();
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.storage.Storage#getKeyValueStore(java.lang.String)
+     */
+    @Override
+    public KeyValueStore getKeyValueStore(String name) {
+        return stores.computeIfAbsent(name, k -> new YamlKeyValueStore(
+                dataFolder, k, YamlKeyValueStore.DEFAULT_SHARDS, readOnly));
+    }
+
+    /**
+     * チャンネルのファイルと、指定したキーバリューストアのファイルのうち、最も新しい更新日時を返す
+     *
+     * @param storeNames キーバリューストアの名前
+     * @return 最も新しい更新日時、ファイルが1つも無い場合は0
+     */
+    public long getLastModified(String... storeNames) {
+        long result = lastModified(new File(dataFolder, FOLDER_NAME_CHANNELS));
+        for (String name : storeNames) {
+            result = Math.max(result, new File(dataFolder, name + ".yml").lastModified());
+            result = Math.max(result, lastModified(new File(dataFolder, name)));
+        }
+        return result;
+    }
+
+    /**
+     * フォルダ自身（ファイルの削除で更新される）と、フォルダ内の yml ファイルのうち、最も新しい更新日時を返す
+     *
+     * @param folder フォルダ
+     * @return 最も新しい更新日時、フォルダが無い場合は0
+     */
+    private static long lastModified(File folder) {
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".yml"));
+        long result = folder.lastModified();
+        if (files != null) {
+            for (File file : files) {
+                result = Math.max(result, file.lastModified());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @see com.github.ucchyocean.lc3.storage.Storage#close()
+     */
+    @Override
+    public void close() {
+        for (YamlKeyValueStore store : stores.values()) {
+            store.flush();
+        }
+    }
+}
@@ -85,7 +85,8 @@ public class MessageParser {
 
     private static List<String> makeAutoGeneratedMethods() {
 
-        List<String> result = new ArrayList<>();
+        List<String> methods = new ArrayList<>();
+        List<String> table = new ArrayList<>();
 
         YamlConfig yaml = YamlConfig.load(new File(INPUT_FILE_PATH));
         for (String key : yaml.getKeys(false)) {
@@ -101,61 +102,66 @@ public class MessageParser {
             }
 
             String arguments = "";
+            String values = "";
+            String clickableValues = "";
             for (String keyword : keywords) {
-                if (arguments.length() > 0) arguments += ", ";
+                if (arguments.length() > 0) {
+                    arguments += ", ";
+                    values += ", ";
+                    clickableValues += ", ";
+                }
                 arguments += "Object " + keyword;
+                values += keyword;
+                clickableValues += keyword.equals("channel")
+                        ? "ClickableFormat.makeChannelPlaceholder(channel.toString())" : keyword;
+            }
+
+            // テンプレートの一覧
+            String prefix = "";
+            if (key.startsWith("errmsg")) {
+                prefix = "errorPrefix";
+            } else if (key.startsWith("cmdmsg")) {
+                prefix = "infoPrefix";
+            }
+            String entry = "\"" + key + "\", \"" + prefix + "\"";
+            for (String keyword : keywords) {
+                entry += ", \"" + keyword + "\"";
             }
+            table.add("            {" + entry + "},");
 
             // 出力
+            methods.add("");
+            methods.add("    /**");
+            methods.add("     * " + value);
+            methods.add("     */");
             if (!CLICKABLE_MESSAGES.contains(key)) {
-                result.add("");
-                result.add("    /**");
-                result.add("     * " + value);
-                result.add("     */");
-                result.add(String.format(
+                methods.add(String.format(
                         "    public static String %s(%s) {", key, arguments));
-                result.add(String.format(
-                        "        String msg = resources.getString(\"%s\");", key));
-                result.add(String.format(
-                        "        if ( msg == null ) return \"\";", key));
-                result.add("        KeywordReplacer kr = new KeywordReplacer(msg);");
-
-                for (String keyword : keywords) {
-                    result.add(String.format(
-                            "        kr.replace(\"%%%s%%\", %s.toString());", keyword, keyword));
-                }
-                if (key.startsWith("errmsg")) {
-                    result.add("        return Utility.replaceColorCode(resources.getString(\"errorPrefix\", \"\") + kr.toString());");
-                } else if (key.startsWith("cmdmsg")) {
-                    result.add("        return Utility.replaceColorCode(resources.getString(\"infoPrefix\", \"\") + kr.toString());");
-                } else {
-                    result.add("        return Utility.replaceColorCode(kr.toString());");
-                }
-                result.add("    }");
+                methods.add(String.format(
+                        "        return getTemplate(\"%s\").format(%s);", key, values));
+                methods.add("    }");
             } else {
-                result.add("");
-                result.add("    /**");
-                result.add("     * " + value);
-                result.add("     */");
-                result.add(String.format(
+                methods.add(String.format(
                         "    public static BaseComponent[] %s(%s) {", key, arguments));
-                result.add(String.format(
-                        "        String msg = resources.getString(\"%s\");", key));
-                result.add(String.format(
-                        "        if ( msg == null ) return new BaseComponent[0];", key));
-                result.add("        ClickableFormat cf = ClickableFormat.makeChannelClickableMessage(msg, channel.toString());");
-
-                for (String keyword : keywords) {
-                    if (keyword.equals("%channel%")) continue;
-                    result.add(String.format(
-                            "        cf.replace(\"%%%s%%\", %s.toString());", keyword, keyword));
-                }
-                result.add("        return cf.makeTextComponent();");
-                result.add("    }");
-
+                methods.add(String.format(
+                        "        MessageTemplate template = getTemplate(\"%s\");", key));
+                methods.add("        if (template.isEmpty()) return new BaseComponent[0];");
+                methods.add("        return ClickableFormat.makeClickableMessage(template.format(");
+                methods.add(String.format(
+                        "                %s));", clickableValues));
+                methods.add("    }");
             }
         }
 
+        List<String> result = new ArrayList<>();
+        result.add("");
+        result.add("    /**");
+        result.add("     * メッセージテンプレートの一覧（キー、前に付けるメッセージのキー、キーワード）");
+        result.add("     */");
+        result.add("    private static final String[][] TEMPLATE_KEYWORDS = {");
+        result.addAll(table);
+        result.add("    };");
+        result.addAll(methods);
         return result;
     }
 
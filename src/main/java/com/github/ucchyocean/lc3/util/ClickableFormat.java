@@ -10,10 +10,10 @@ import com.github.ucchyocean.lc3.LunaChatAPI;
 import com.github.ucchyocean.lc3.LunaChatBukkit;
 import com.github.ucchyocean.lc3.LunaChatMode;
 import com.github.ucchyocean.lc3.Messages;
+import com.github.ucchyocean.lc3.bukkit.PlaceholderService;
 import com.github.ucchyocean.lc3.channel.Channel;
 import com.github.ucchyocean.lc3.member.ChannelMember;
 import com.github.ucchyocean.lc3.member.ChannelMemberBukkit;
-import me.clip.placeholderapi.PlaceholderAPI;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import net.md_5.bungee.api.chat.BaseComponent;
@@ -48,6 +48,7 @@ public class ClickableFormat {
             "＜type=SUGGEST_COMMAND text=\"%s\" hover=\"%s\" command=\"%s\"＞";
     private static final String PLACEHOLDER_PATTERN =
             "＜type=(SUGGEST_COMMAND|RUN_COMMAND) text=\"([^\"]*)\" hover=\"([^\"]*)\" command=\"([^\"]*)\"＞";
+    private static final Pattern PLACEHOLDER_REGEX = Pattern.compile(PLACEHOLDER_PATTERN);
     // Adventure API用のプレースホルダー（displayNameComponentを後から埋め込むため）
     private static final String DISPLAY_NAME_COMPONENT_PLACEHOLDER = "＜DISPLAY_NAME_COMPONENT＞";
     // URLパターン（http:// または https:// で始まるURL）
@@ -170,18 +171,16 @@ public class ClickableFormat {
         // これにより、フォーマット内に直接記述されたPlaceholderAPIのプレースホルダーが正しく展開される
         if (LunaChat.getMode() == LunaChatMode.BUKKIT) {
             try {
-                if (LunaChatBukkit.getInstance().enablePlaceholderAPI()) {
+                PlaceholderService placeholders = LunaChatBukkit.getInstance().getPlaceholders();
+                if (placeholders.isEnabled()) {
+                    // プレイヤーの場合はPlaceholderAPIで展開し、取得できなかったプレースホルダーを空文字に置換
+                    Player bukkitPlayer = (member instanceof ChannelMemberBukkit)
+                            ? ((ChannelMemberBukkit) member).getPlayer() : null;
                     String result = msg.toString();
-                    if (member instanceof ChannelMemberBukkit) {
-                        // プレイヤーの場合：PlaceholderAPI で展開
-                        Player bukkitPlayer = ((ChannelMemberBukkit) member).getPlayer();
-                        if (bukkitPlayer != null) {
-                            result = PlaceholderAPI.setPlaceholders(bukkitPlayer, result);
-                        }
+                    String expanded = placeholders.expand(bukkitPlayer, result);
+                    if (expanded != result) {
+                        msg = new KeywordReplacer(expanded);
                     }
-                    // 取得できなかったプレースホルダーを空文字に置換
-                    result = LunaChatBukkit.stripUnresolvedPlaceholders(result);
-                    msg = new KeywordReplacer(result);
                 }
             } catch (NoClassDefFoundError e) {
                 // PlaceholderAPIが利用できない場合はスキップ
@@ -201,14 +200,34 @@ public class ClickableFormat {
     public static ClickableFormat makeChannelClickableMessage(String format, String channelName) {
 
         KeywordReplacer msg = new KeywordReplacer(format);
+        msg.replace("%channel%", makeChannelPlaceholder(channelName));
+
+        return new ClickableFormat(msg);
+    }
+
+    /**
+     * チャンネル名の箇所に埋め込む、クリック可能なプレースホルダーを作成する
+     *
+     * @param channelName チャンネル名
+     * @return プレースホルダー
+     */
+    public static String makeChannelPlaceholder(String channelName) {
         String stripped = Utility.stripColorCode(channelName);
-        msg.replace("%channel%", String.format(
+        return String.format(
                 PLACEHOLDER_RUN_COMMAND,
                 channelName,
                 Messages.hoverChannelName(stripped),
-                String.format(JOIN_COMMAND_TEMPLATE, stripped)));
+                String.format(JOIN_COMMAND_TEMPLATE, stripped));
+    }
 
-        return new ClickableFormat(msg);
+    /**
+     * カラーコード置き換え済みのメッセージから、クリック可能なメッセージを作成する
+     *
+     * @param message カラーコード置き換え済みのメッセージ
+     * @return クリック可能なメッセージ
+     */
+    public static BaseComponent[] makeClickableMessage(String message) {
+        return makeTextComponent(new KeywordReplacer(message));
     }
 
     /**
@@ -226,11 +245,14 @@ public class ClickableFormat {
     }
 
     public BaseComponent[] makeTextComponent() {
-
         message.translateColorCode();
+        return makeTextComponent(message);
+    }
+
+    private static BaseComponent[] makeTextComponent(KeywordReplacer message) {
 
         List<BaseComponent> components = new ArrayList<>();
-        Matcher matcher = Pattern.compile(PLACEHOLDER_PATTERN).matcher(message.getStringBuilder());
+        Matcher matcher = PLACEHOLDER_REGEX.matcher(message.getStringBuilder());
         int lastIndex = 0;
 
         while (matcher.find()) {
@@ -285,7 +307,7 @@ public class ClickableFormat {
     public String toLegacyText() {
 
         StringBuilder msg = new StringBuilder(message.toString());
-        Matcher matcher = Pattern.compile(PLACEHOLDER_PATTERN).matcher(msg);
+        Matcher matcher = PLACEHOLDER_REGEX.matcher(msg);
 
         while (matcher.find(0)) {
             String text = matcher.group(2);
@@ -315,7 +337,7 @@ public class ClickableFormat {
 
         String text = message.toString();
         net.kyori.adventure.text.TextComponent.Builder builder = Component.text();
-        Matcher matcher = Pattern.compile(PLACEHOLDER_PATTERN).matcher(text);
+        Matcher matcher = PLACEHOLDER_REGEX.matcher(text);
         int lastIndex = 0;
 
         while (matcher.find()) {
@@ -0,0 +1,266 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * メッセージリソースを、固定文字列の部分とキーワードの部分に分解しておいたテンプレート。<br>
+ * メッセージのロード時に1回だけ作成され、メッセージの作成時には引数の埋め込みだけを行う。
+ * 固定文字列の部分のカラーコードは、作成時に置き換え済みにしておく。<br>
+ * 埋め込まれる引数と固定文字列の境界をまたいでカラーコードが構成される可能性がある場合は、
+ * 従来どおり全体を連結してからカラーコードを置き換えるため、結果は以前の方法と変わらない。
+ *
+ * @author ucchy
+ */
+public class MessageTemplate {
+
+    /** メッセージリソースが無い場合のテンプレート */
+    public static final MessageTemplate MISSING =
+            new MessageTemplate(new String[]{""}, new int[0], true, true);
+
+    // カラーコード候補の最大長（&#RRGGBB）から1を引いた長さ
+    private static final int MAX_OPEN_LENGTH = 7;
+
+    private final String[] literals;
+    private final String[] coloredLiterals;
+    private final boolean[] openLiterals;
+    private final int[] slots;
+    private final boolean empty;
+    private final boolean missing;
+
+    /**
+     * コンストラクタ
+     *
+     * @param literals 固定文字列の部分（キーワードの数 + 1 個）
+     * @param slots    各キーワードの位置に埋め込む、引数のインデックス
+     * @param empty    メッセージが空かどうか
+     * @param missing  メッセージリソースが無いかどうか
+     */
+    private MessageTemplate(String[] literals, int[] slots, boolean empty, boolean missing) {
+        this.literals = literals;
+        this.slots = slots;
+        this.empty = empty;
+        this.missing = missing;
+        this.coloredLiterals = new String[literals.length];
+        this.openLiterals = new boolean[literals.length];
+        for (int i = 0; i < literals.length; i++) {
+            coloredLiterals[i] = Utility.replaceColorCode(literals[i]);
+            openLiterals[i] = isOpenEnd(literals[i]);
+        }
+    }
+
+    /**
+     * メッセージリソースを解析して、テンプレートを作成する
+     *
+     * @param prefix   メッセージの前に付ける文字列（キーワードは置き換えされない）、不要ならnullか空文字列
+     * @param message  メッセージリソース、nullの場合は MISSING を返す
+     * @param keywords キーワード（%を除いたもの）、引数はこの順番で指定する
+     * @return テンプレート
+     */
+    public static MessageTemplate compile(String prefix, String message, String... keywords) {
+
+        if (message == null) {
+            return MISSING;
+        }
+
+        List<String> literals = new ArrayList<String>();
+        List<Integer> slots = new ArrayList<Integer>();
+        StringBuilder buffer = new StringBuilder();
+        if (prefix != null) {
+            buffer.append(prefix);
+        }
+
+        int index = 0;
+        while (index < message.length()) {
+            char c = message.charAt(index);
+            if (c == '%') {
+                int keyword = findKeyword(message, index, keywords);
+                if (keyword >= 0) {
+                    literals.add(buffer.toString());
+                    buffer.setLength(0);
+                    slots.add(keyword);
+                    index += keywords[keyword].length() + 2;
+                    continue;
+                }
+            }
+            buffer.append(c);
+            index++;
+        }
+        literals.add(buffer.toString());
+
+        int[] slotArray = new int[slots.size()];
+        for (int i = 0; i < slotArray.length; i++) {
+            slotArray[i] = slots.get(i);
+        }
+        return new MessageTemplate(literals.toArray(new String[0]), slotArray, message.isEmpty(), false);
+    }
+
+    /**
+     * メッセージが空（リソースが無いか、空文字列）かどうかを返す。
+     * 前に付ける文字列は考慮しない。
+     *
+     * @return メッセージが空かどうか
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * 引数を埋め込み、カラーコードを置き換えたメッセージを返す
+     *
+     * @param args キーワードに対応する引数
+     * @return メッセージ、リソースが無い場合は空文字列
+     */
+    public String format(Object... args) {
+
+        if (missing) {
+            return "";
+        }
+
+        StringBuilder result = new StringBuilder();
+        result.append(coloredLiterals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            String value = args[slots[i]].toString();
+            if (openLiterals[i]) {
+                return Utility.replaceColorCode(formatRaw(args));
+            }
+            if (hasColorMark(value)) {
+                if (isOpenEnd(value)) {
+                    return Utility.replaceColorCode(formatRaw(args));
+                }
+                value = translateColorCode(value);
+            }
+            result.append(value).append(coloredLiterals[i + 1]);
+        }
+        return result.toString();
+    }
+
+    /**
+     * 引数を埋め込んだメッセージを、カラーコードを置き換えずに返す
+     *
+     * @param args キーワードに対応する引数
+     * @return メッセージ、リソースが無い場合は空文字列
+     */
+    public String formatRaw(Object... args) {
+
+        if (missing) {
+            return "";
+        }
+
+        StringBuilder result = new StringBuilder();
+        result.append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            result.append(args[slots[i]].toString()).append(literals[i + 1]);
+        }
+        return result.toString();
+    }
+
+    /**
+     * 指定位置から、いずれかのキーワード（%keyword%）が始まっているかどうかを調べる
+     *
+     * @param message  メッセージ
+     * @param index    %の位置
+     * @param keywords キーワード
+     * @return 一致したキーワードのインデックス、一致しなければ-1
+     */
+    private static int findKeyword(String message, int index, String[] keywords) {
+        for (int i = 0; i < keywords.length; i++) {
+            String keyword = keywords[i];
+            int end = index + keyword.length() + 1;
+            if (end < message.length() && message.charAt(end) == '%'
+                    && message.startsWith(keyword, index + 1)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 引数のカラーコードを置き換える。Webカラーコードの候補（#）が無ければ、正規表現を使わずに置き換える。
+     *
+     * @param value 引数
+     * @return 置き換え後の文字列
+     */
+    private static String translateColorCode(String value) {
+
+        if (value.indexOf('#') >= 0) {
+            return Utility.replaceColorCode(value);
+        }
+
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length - 1; i++) {
+            if (chars[i] == '&' && isColorChar(chars[i + 1])) {
+                chars[i] = '\u00A7';
+                i++;
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * カラーコードに使用できる文字（0-9a-fk-or）かどうかを返す
+     */
+    private static boolean isColorChar(char c) {
+        char lower = (char) (c | 0x20);
+        return ('0' <= c && c <= '9') || ('a' <= lower && lower <= 'f') || ('k' <= lower && lower <= 'o')
+                || lower == 'r';
+    }
+
+    /**
+     * カラーコード候補の開始文字（&または#）が含まれているかどうかを返す
+     *
+     * @param text 文字列
+     * @return 含まれているかどうか
+     */
+    private static boolean hasColorMark(String text) {
+        return text.indexOf('&') >= 0 || text.indexOf('#') >= 0;
+    }
+
+    /**
+     * 文字列の末尾が、後ろに文字が続くとカラーコードになりうる途中の状態（&、&#AB、#ABCなど）かどうかを返す
+     *
+     * @param text 文字列
+     * @return 末尾がカラーコードの途中かどうか
+     */
+    static boolean isOpenEnd(String text) {
+        int length = text.length();
+        for (int start = Math.max(0, length - MAX_OPEN_LENGTH); start < length; start++) {
+            char c = text.charAt(start);
+            if (c != '&' && c != '#') {
+                continue;
+            }
+            int hexStart = start + 1;
+            if (c == '&') {
+                if (hexStart == length) {
+                    return true;
+                }
+                if (text.charAt(hexStart) != '#') {
+                    continue;
+                }
+                hexStart++;
+            }
+            if (length - hexStart <= 5 && isHex(text, hexStart, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 指定範囲が全て16進数の文字かどうかを返す
+     */
+    private static boolean isHex(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (!(('0' <= c && c <= '9') || ('a' <= c && c <= 'f') || ('A' <= c && c <= 'F'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
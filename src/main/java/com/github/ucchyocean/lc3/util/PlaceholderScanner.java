@@ -0,0 +1,79 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.util;
+
+/**
+ * 拡張プレースホルダー（%で囲まれた文字列）を、正規表現を使わずに走査するクラス。<br>
+ * 以前は、発言ごとに "%[^%]+%" の正規表現で置き換えを行っていた。
+ * 結果は、その正規表現による置き換えと同じになる。
+ *
+ * @author ucchy
+ */
+public final class PlaceholderScanner {
+
+    private PlaceholderScanner() {
+    }
+
+    /**
+     * 拡張プレースホルダーの候補（間に1文字以上ある%の組）が含まれているかどうかを返す
+     *
+     * @param text 文字列
+     * @return 含まれているかどうか
+     */
+    public static boolean hasCandidate(String text) {
+        if (text == null) return false;
+        int start = text.indexOf('%');
+        while (start >= 0) {
+            int end = text.indexOf('%', start + 1);
+            if (end < 0) {
+                return false;
+            }
+            if (end > start + 1) {
+                return true;
+            }
+            start = end;
+        }
+        return false;
+    }
+
+    /**
+     * 拡張プレースホルダー（%xxx%形式）を、全て空文字に置き換える
+     *
+     * @param text 文字列
+     * @return 置き換え後の文字列、置き換える箇所が無ければ元の文字列
+     */
+    public static String strip(String text) {
+
+        if (text == null) return null;
+
+        StringBuilder result = null;
+        int copied = 0;
+        int start = text.indexOf('%');
+        while (start >= 0) {
+            int end = text.indexOf('%', start + 1);
+            if (end < 0) {
+                break;
+            }
+            if (end == start + 1) {
+                // %% はプレースホルダーではないので、後ろの%から探し直す
+                start = end;
+                continue;
+            }
+            if (result == null) {
+                result = new StringBuilder(text.length());
+            }
+            result.append(text, copied, start);
+            copied = end + 1;
+            start = text.indexOf('%', copied);
+        }
+
+        if (result == null) {
+            return text;
+        }
+        result.append(text, copied, text.length());
+        return result.toString();
+    }
+}
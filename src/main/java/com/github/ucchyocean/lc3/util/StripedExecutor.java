@@ -0,0 +1,267 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * キーごとに実行順序を保ちながら、異なるキーの処理は並列に実行するエグゼキュータ。<br>
+ * キーのハッシュ値で、処理を固定数のレーンのいずれかに振り分ける。各レーンは1つのスレッドと
+ * 長さ制限付きの待ち行列を持つため、同じキーの処理は登録された順番に1つずつ実行される。<br>
+ * 待ち行列があふれた場合は登録を拒否し、呼び出し元に処理を任せる。
+ * 登録から実行完了までの時間は、ヒストグラムに集計される。
+ *
+ * @author ucchy
+ */
+public class StripedExecutor {
+
+    /** ヒストグラムの区切り（ミリ秒）、最後の区切りを超えたものは最後の区間に入る */
+    private static final long[] BUCKET_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000};
+
+    private final String name;
+    private final ThreadPoolExecutor[] lanes;
+
+    private final LongAdder completed;
+    private final LongAdder rejected;
+    private final AtomicLong maxQueueDepth;
+    private final LongAdder intervalRejected;
+    private final AtomicLong intervalMaxQueueDepth;
+    private final AtomicLong maxLatencyNanos;
+    private final LongAdder[] histogram;
+
+    /**
+     * コンストラクタ
+     *
+     * @param name      スレッド名の接頭辞
+     * @param lanes     レーン（スレッド）の数
+     * @param queueSize レーンごとの待ち行列の長さ
+     */
+    public StripedExecutor(String name, int lanes, int queueSize) {
+        this.name = name;
+        this.lanes = new ThreadPoolExecutor[Math.max(1, lanes)];
+        for (int i = 0; i < this.lanes.length; i++) {
+            String threadName = name + "-" + (i + 1);
+            this.lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<Runnable>(Math.max(1, queueSize)),
+                    r -> {
+                        Thread thread = new Thread(r, threadName);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+        this.completed = new LongAdder();
+        this.rejected = new LongAdder();
+        this.maxQueueDepth = new AtomicLong();
+        this.intervalRejected = new LongAdder();
+        this.intervalMaxQueueDepth = new AtomicLong();
+        this.maxLatencyNanos = new AtomicLong();
+        this.histogram = new LongAdder[BUCKET_MILLIS.length + 1];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 処理を登録する。同じキーで登録された処理は、登録された順番に実行される。
+     *
+     * @param key  キー（プレイヤーのUUIDなど）
+     * @param task 処理
+     * @return 登録できたかどうか、待ち行列があふれているか、停止済みの場合はfalse
+     */
+    public boolean execute(Object key, Runnable task) {
+        ThreadPoolExecutor lane = lanes[indexOf(key)];
+        long submitted = System.nanoTime();
+        try {
+            lane.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    record(System.nanoTime() - submitted);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            intervalRejected.increment();
+            return false;
+        }
+        int depth = lane.getQueue().size();
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+        intervalMaxQueueDepth.accumulateAndGet(depth, Math::max);
+        return true;
+    }
+
+    /**
+     * キーに対応するレーンの番号を返す
+     *
+     * @param key キー
+     * @return レーンの番号
+     */
+    int indexOf(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return (h & Integer.MAX_VALUE) % lanes.length;
+    }
+
+    /**
+     * 登録から実行完了までの時間を記録する
+     *
+     * @param nanos 時間（ナノ秒）
+     */
+    private void record(long nanos) {
+        completed.increment();
+        maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < BUCKET_MILLIS.length && millis >= BUCKET_MILLIS[bucket]) {
+            bucket++;
+        }
+        histogram[bucket].increment();
+    }
+
+    /**
+     * エグゼキュータを停止する。待ち行列に残っている処理は破棄される。
+     */
+    public void shutdown() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdownNow();
+        }
+    }
+
+    /**
+     * 実行が完了した処理の数を返す
+     *
+     * @return 実行が完了した処理の数
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * 待ち行列があふれて、登録を拒否した数を返す
+     *
+     * @return 登録を拒否した数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 前回この値を取得してから、待ち行列があふれて登録を拒否した数を返し、数え直す。
+     * bStats のような、一定間隔で送信する集計に使用する。
+     *
+     * @return 前回の取得から、登録を拒否した数
+     */
+    public long takeIntervalRejectedCount() {
+        return intervalRejected.sumThenReset();
+    }
+
+    /**
+     * 現在の待ち行列の長さ（全レーンの合計）を返す
+     *
+     * @return 待ち行列の長さ
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            depth += lane.getQueue().size();
+        }
+        return depth;
+    }
+
+    /**
+     * 記録された、レーンごとの待ち行列の長さの最大値を返す
+     *
+     * @return 待ち行列の長さの最大値
+     */
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * 前回この値を取得してから記録された、レーンごとの待ち行列の長さの最大値を返し、記録し直す。
+     * bStats のような、一定間隔で送信する集計に使用する。
+     *
+     * @return 前回の取得から、待ち行列の長さの最大値
+     */
+    public long takeIntervalMaxQueueDepth() {
+        return intervalMaxQueueDepth.getAndSet(0);
+    }
+
+    /**
+     * 登録から実行完了までの時間のヒストグラムを返す。
+     * i番目の要素は、{@link #getBucketBounds()} の i-1番目以上、i番目未満（ミリ秒）の件数で、
+     * 最後の要素は最後の区切り以上の件数。
+     *
+     * @return ヒストグラム
+     */
+    public long[] getHistogram() {
+        long[] result = new long[histogram.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = histogram[i].sum();
+        }
+        return result;
+    }
+
+    /**
+     * 登録から実行完了までの時間のヒストグラムを、区間の名前（"<5ms"、">=1000ms" など）をキーにして返す
+     *
+     * @return 区間の名前と件数のマップ（区間の順）
+     */
+    public Map<String, Long> getLabeledHistogram() {
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        long[] counts = getHistogram();
+        for (int i = 0; i < counts.length; i++) {
+            result.put(bucketLabel(i), counts[i]);
+        }
+        return result;
+    }
+
+    /**
+     * ヒストグラムの区切り（ミリ秒）を返す
+     *
+     * @return 区切り
+     */
+    public static long[] getBucketBounds() {
+        return BUCKET_MILLIS.clone();
+    }
+
+    /**
+     * 集計結果の文字列表現を返す
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(name);
+        builder.append(String.format(": lanes=%d completed=%d rejected=%d pending[depth=%d max=%d] max=%.2fms latency[",
+                lanes.length, getCompletedCount(), getRejectedCount(), getQueueDepth(), getMaxQueueDepth(),
+                maxLatencyNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1)));
+        long[] counts = getHistogram();
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) builder.append(' ');
+            builder.append(bucketLabel(i)).append('=').append(counts[i]);
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * ヒストグラムの区間の名前を返す
+     *
+     * @param bucket 区間の番号
+     * @return 区間の名前
+     */
+    private static String bucketLabel(int bucket) {
+        return (bucket < BUCKET_MILLIS.length ? "<" + BUCKET_MILLIS[bucket] : ">=" + BUCKET_MILLIS[bucket - 1]) + "ms";
+    }
+}
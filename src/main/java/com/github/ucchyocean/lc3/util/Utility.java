@@ -12,6 +12,7 @@ import com.google.common.io.Files;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.Locale;
+import java.util.UUID;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
@@ -234,6 +235,23 @@ public class Utility {
         return false;
     }
 
+    /**
+     * ChannelMember#toString() の形式のIDから、プレイヤーのUUIDを取り出す
+     *
+     * @param id ID（"$" + UUID、または、名前）
+     * @return UUID、UUIDの形式でない場合はnull
+     */
+    public static UUID toUUID(String id) {
+        if (id == null || !id.startsWith("$")) {
+            return null;
+        }
+        try {
+            return UUID.fromString(id.substring(1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * 動作環境のロケールを取得する。
      *
@@ -0,0 +1,93 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ListIterator;
+import java.util.UUID;
+
+import com.github.ucchyocean.lc.channel.ChannelPlayer;
+
+import junit.framework.TestCase;
+
+/**
+ * LunaChatChannelMessageEventの受信者リストの変更検出のテスト
+ * @author ucchy
+ */
+@SuppressWarnings("deprecation")
+public class LunaChatChannelMessageEventTest extends TestCase {
+
+    public void testNotRead() {
+        LunaChatChannelMessageEvent event = create(3);
+        assertFalse(event.isRecipientsChanged());
+    }
+
+    public void testReadOnly() {
+        LunaChatChannelMessageEvent event = create(3);
+        for (ChannelPlayer player : event.getRecipients()) {
+            assertNotNull(player);
+        }
+        assertEquals(3, event.getRecipients().size());
+        assertFalse(event.isRecipientsChanged());
+    }
+
+    public void testAdd() {
+        LunaChatChannelMessageEvent event = create(3);
+        event.getRecipients().add(player());
+        assertTrue(event.isRecipientsChanged());
+    }
+
+    public void testRemove() {
+        LunaChatChannelMessageEvent event = create(3);
+        event.getRecipients().remove(0);
+        assertTrue(event.isRecipientsChanged());
+    }
+
+    public void testSet() {
+        LunaChatChannelMessageEvent event = create(3);
+        ChannelPlayer replaced = player();
+        event.getRecipients().set(1, replaced);
+        assertTrue(event.isRecipientsChanged());
+        assertSame(replaced, event.getRecipients().get(1));
+    }
+
+    public void testSetByIteratorAndSwap() {
+        LunaChatChannelMessageEvent event = create(3);
+        ListIterator<ChannelPlayer> it = event.getRecipients().listIterator();
+        it.next();
+        it.set(player());
+        assertTrue(event.isRecipientsChanged());
+
+        event = create(3);
+        Collections.swap(event.getRecipients(), 0, 2);
+        assertTrue(event.isRecipientsChanged());
+    }
+
+    public void testReplace() {
+        LunaChatChannelMessageEvent event = create(3);
+        event.setRecipients(new ArrayList<ChannelPlayer>());
+        assertTrue(event.isRecipientsChanged());
+        assertTrue(event.getRecipients().isEmpty());
+    }
+
+    /**
+     * 受信者リストを遅延作成するイベントを作成する
+     */
+    private static LunaChatChannelMessageEvent create(int count) {
+        return new LunaChatChannelMessageEvent("test", null, "hello", () -> {
+            ArrayList<ChannelPlayer> list = new ArrayList<ChannelPlayer>();
+            for (int i = 0; i < count; i++) {
+                list.add(player());
+            }
+            return list;
+        }, "", "hello");
+    }
+
+    private static ChannelPlayer player() {
+        return ChannelPlayer.getChannelPlayer("$" + UUID.randomUUID());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.bukkit;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.RegisteredListener;
+
+import com.github.ucchyocean.lc3.bukkit.event.LunaChatBukkitBaseEvent;
+import com.github.ucchyocean.lc3.bukkit.event.LunaChatBukkitChannelChatEvent;
+import com.github.ucchyocean.lc3.bukkit.event.LunaChatBukkitChannelCreateEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * BukkitEventListenerCacheのテスト
+ * @author ucchy
+ */
+public class BukkitEventListenerCacheTest extends TestCase {
+
+    private static final EventExecutor EXECUTOR = (listener, event) -> { };
+
+    private final HandlerList handlers = LunaChatBukkitBaseEvent.getHandlerList();
+    private final List<Listener> registered = new ArrayList<Listener>();
+
+    @Override
+    protected void tearDown() {
+        for (Listener listener : registered) {
+            handlers.unregister(listener);
+        }
+    }
+
+    /**
+     * registerEvents で登録されたリスナーは、EventHandler メソッドの引数から判定されることを確認する
+     */
+    public void testEventHandler() {
+
+        BukkitEventListenerCache cache = new BukkitEventListenerCache();
+        assertFalse(cache.hasListeners(LunaChatBukkitChannelChatEvent.class, handlers));
+
+        register(new ChatListener(), EventPriority.NORMAL, false);
+        assertTrue(cache.hasListeners(LunaChatBukkitChannelChatEvent.class, handlers));
+        assertFalse(cache.hasListeners(LunaChatBukkitChannelCreateEvent.class, handlers));
+    }
+
+    /**
+     * 無関係なイベントの EventHandler を持つリスナーが、registerEvent で登録された場合は、
+     * 受信するものとして扱われることを確認する
+     */
+    public void testMixedRegistration() {
+
+        BukkitEventListenerCache cache = new BukkitEventListenerCache();
+        register(new JoinListener(), EventPriority.NORMAL, false);
+        assertTrue(cache.hasListeners(LunaChatBukkitChannelChatEvent.class, handlers));
+        assertTrue(cache.hasListeners(LunaChatBukkitChannelCreateEvent.class, handlers));
+    }
+
+    /**
+     * EventHandler メソッドに対応付けられない登録が追加された場合は、
+     * 受信するものとして扱われることを確認する
+     */
+    public void testExtraRegistration() {
+
+        BukkitEventListenerCache cache = new BukkitEventListenerCache();
+        ChatListener listener = new ChatListener();
+        register(listener, EventPriority.NORMAL, false);
+        assertFalse(cache.hasListeners(LunaChatBukkitChannelCreateEvent.class, handlers));
+
+        // 同じリスナーを、registerEvent で別の優先度でも登録する
+        register(listener, EventPriority.HIGH, false);
+        assertTrue(cache.hasListeners(LunaChatBukkitChannelCreateEvent.class, handlers));
+    }
+
+    /**
+     * ignoreCancelled が EventHandler と異なる登録は、対応付けられないことを確認する
+     */
+    public void testIgnoreCancelledMismatch() {
+
+        BukkitEventListenerCache cache = new BukkitEventListenerCache();
+        register(new ChatListener(), EventPriority.NORMAL, true);
+        assertTrue(cache.hasListeners(LunaChatBukkitChannelCreateEvent.class, handlers));
+    }
+
+    private void register(Listener listener, EventPriority priority, boolean ignoreCancelled) {
+        registered.add(listener);
+        handlers.register(new RegisteredListener(listener, EXECUTOR, priority, null, ignoreCancelled));
+    }
+
+    public static class ChatListener implements Listener {
+        @EventHandler
+        public void onChat(LunaChatBukkitChannelChatEvent event) {
+        }
+    }
+
+    public static class JoinListener implements Listener {
+        @EventHandler
+        public void onJoin(PlayerJoinEvent event) {
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.channel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.github.ucchyocean.lc3.channel.ChannelMembership.ListType;
+import com.github.ucchyocean.lc3.member.ChannelMember;
+import com.github.ucchyocean.lc3.member.ChannelMemberOther;
+
+import junit.framework.TestCase;
+
+/**
+ * ChannelMembershipのテスト
+ * @author ucchy
+ */
+public class ChannelMembershipTest extends TestCase {
+
+    private static final int CHURN_THREADS = 4;
+    private static final int CHAT_THREADS = 4;
+    private static final int PLAYERS_PER_THREAD = 50;
+    private static final int ROUNDS = 200;
+
+    public void testCopyOnWrite() {
+
+        AtomicReference<ChannelMembership> state =
+                new AtomicReference<ChannelMembership>(ChannelMembership.EMPTY);
+        List<ChannelMember> banned = new ChannelMembershipList(state, ListType.BANNED);
+
+        ChannelMember a = new ChannelMemberOther("a");
+        ChannelMember b = new ChannelMemberOther("b");
+
+        banned.add(a);
+        ChannelMembership before = state.get();
+        banned.add(b);
+
+        // 変更前のスナップショットは変わらない
+        assertEquals(1, before.getBanned().size());
+        assertEquals(2, banned.size());
+        assertTrue(banned.contains(new ChannelMemberOther("b")));
+
+        // 走査中に変更しても例外にならない
+        for ( ChannelMember cp : banned ) {
+            banned.remove(cp);
+        }
+        assertTrue(banned.isEmpty());
+        assertTrue(state.get().getBanned().isEmpty());
+    }
+
+    public void testConcurrentChatAndChurn() throws InterruptedException {
+
+        final AtomicReference<ChannelMembership> state =
+                new AtomicReference<ChannelMembership>(ChannelMembership.EMPTY);
+        final List<ChannelMember> muted = new ChannelMembershipList(state, ListType.MUTED);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong chatLines = new AtomicLong();
+        final List<Throwable> errors = new ArrayList<Throwable>();
+        final CountDownLatch churnDone = new CountDownLatch(CHURN_THREADS);
+
+        List<Thread> threads = new ArrayList<Thread>();
+
+        // 発言処理：スナップショットを1回だけ取得し、hideしていないメンバーに配信する
+        for ( int t = 0; t < CHAT_THREADS; t++ ) {
+            threads.add(new Thread(() -> {
+                try {
+                    while ( running.get() ) {
+                        ChannelMembership snapshot = state.get();
+                        int recipients = 0;
+                        for ( ChannelMember cp : snapshot.getMembers() ) {
+                            if ( !snapshot.getHided().contains(cp) ) {
+                                recipients++;
+                            }
+                        }
+                        // hideしているプレイヤーは、必ずメンバーに含まれている
+                        for ( ChannelMember cp : snapshot.getHided() ) {
+                            assertTrue(snapshot.getMembers().contains(cp));
+                        }
+                        assertTrue(recipients <= snapshot.getMembers().size());
+                        chatLines.incrementAndGet();
+                    }
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            }));
+        }
+
+        // メンバー変更処理：参加、hide、mute、退出を繰り返す
+        for ( int t = 0; t < CHURN_THREADS; t++ ) {
+            final int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    for ( int round = 0; round < ROUNDS; round++ ) {
+                        for ( int i = 0; i < PLAYERS_PER_THREAD; i++ ) {
+                            final ChannelMember cp = new ChannelMemberOther("p" + thread + "-" + i);
+                            state.updateAndGet(cur -> cur.withAdded(ListType.MEMBERS, cp));
+                            if ( i % 3 == 0 ) {
+                                state.updateAndGet(cur -> cur.getMembers().contains(cp)
+                                        ? cur.withAdded(ListType.HIDED, cp) : cur);
+                            }
+                            if ( i % 5 == 0 ) {
+                                muted.add(cp);
+                            }
+                        }
+                        for ( int i = 0; i < PLAYERS_PER_THREAD; i++ ) {
+                            final ChannelMember cp = new ChannelMemberOther("p" + thread + "-" + i);
+                            muted.remove(cp);
+                            // 最終ラウンドでは、偶数番のプレイヤーを残す
+                            if ( round < ROUNDS - 1 || i % 2 == 1 ) {
+                                state.updateAndGet(cur -> cur
+                                        .withRemoved(ListType.MEMBERS, cp)
+                                        .withRemoved(ListType.HIDED, cp));
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                } finally {
+                    churnDone.countDown();
+                }
+            }));
+        }
+
+        for ( Thread thread : threads ) {
+            thread.start();
+        }
+        churnDone.await();
+        running.set(false);
+        for ( Thread thread : threads ) {
+            thread.join();
+        }
+
+        if ( !errors.isEmpty() ) {
+            throw new AssertionError(errors.get(0));
+        }
+
+        // 更新が失われていないことを確認する
+        ChannelMembership result = state.get();
+        assertEquals(CHURN_THREADS * PLAYERS_PER_THREAD / 2, result.getMembers().size());
+        assertEquals(CHURN_THREADS * ((PLAYERS_PER_THREAD + 5) / 6), result.getHided().size());
+        assertTrue(result.getMuted().isEmpty());
+        assertTrue(chatLines.get() > 0);
+    }
+}
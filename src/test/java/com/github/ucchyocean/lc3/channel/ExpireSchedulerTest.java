@@ -0,0 +1,173 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.channel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.github.ucchyocean.lc3.channel.ExpireScheduler.Entry;
+import com.github.ucchyocean.lc3.channel.ExpireScheduler.ExpireMap;
+import com.github.ucchyocean.lc3.channel.ExpireScheduler.Type;
+import com.github.ucchyocean.lc3.member.ChannelMember;
+import com.github.ucchyocean.lc3.member.ChannelMemberOther;
+
+import junit.framework.TestCase;
+
+/**
+ * ExpireSchedulerのテスト
+ * @author ucchy
+ */
+public class ExpireSchedulerTest extends TestCase {
+
+    private final ChannelMember a = new ChannelMemberOther("a");
+    private final ChannelMember b = new ChannelMemberOther("b");
+    private final ChannelMember c = new ChannelMemberOther("c");
+
+    /**
+     * 登録した期限が、期日の順に取り出されることを確認する
+     */
+    public void testSchedule() throws InterruptedException {
+
+        List<Entry> fired = Collections.synchronizedList(new ArrayList<Entry>());
+        CountDownLatch latch = new CountDownLatch(3);
+        ExpireScheduler scheduler = new ExpireScheduler(due -> {
+            fired.addAll(due);
+            for (int i = 0; i < due.size(); i++) {
+                latch.countDown();
+            }
+        });
+
+        long now = System.currentTimeMillis();
+        scheduler.schedule("test", a, Type.BAN, now + 300);
+        scheduler.schedule("test", b, Type.MUTE, now + 100);
+        scheduler.schedule("test", c, Type.BAN, now + 200);
+        scheduler.schedule("test", null, Type.BAN, now);
+        assertEquals(3, scheduler.size());
+
+        scheduler.start();
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } finally {
+            scheduler.stop();
+        }
+
+        assertEquals(b, fired.get(0).getMember());
+        assertEquals(c, fired.get(1).getMember());
+        assertEquals(a, fired.get(2).getMember());
+        assertEquals(Type.MUTE, fired.get(0).getType());
+        assertEquals(0, scheduler.size());
+    }
+
+    /**
+     * 期限マップへの設定は、どの方法でもスケジューラに登録され、読み込みでは登録されないことを確認する
+     */
+    public void testExpireMapSchedules() {
+
+        ExpireScheduler scheduler = new ExpireScheduler(due -> {});
+        ExpireMap expires = scheduler.createMap("test", Type.BAN);
+
+        expires.put(a, 1000L);
+        assertEquals(1, scheduler.size());
+        expires.putIfAbsent(a, 2000L);
+        assertEquals(1, scheduler.size());
+        expires.putIfAbsent(b, 2000L);
+        assertEquals(2, scheduler.size());
+        expires.replace(a, 3000L);
+        expires.replace(b, 2000L, 4000L);
+        assertEquals(4, scheduler.size());
+        expires.merge(c, 5000L, Math::max);
+        expires.compute(c, (k, v) -> v + 1);
+        assertEquals(6, scheduler.size());
+        expires.entrySet().iterator().next().setValue(6000L);
+        assertEquals(7, scheduler.size());
+
+        Map<ChannelMember, Long> more = new HashMap<ChannelMember, Long>();
+        more.put(new ChannelMemberOther("d"), 1000L);
+        more.put(new ChannelMemberOther("e"), 1000L);
+        expires.putAll(more);
+        assertEquals(9, scheduler.size());
+
+        // 削除では登録しない
+        expires.remove(a);
+        expires.computeIfPresent(b, (k, v) -> null);
+        assertEquals(9, scheduler.size());
+
+        // 保存されていた期限の読み込みでは登録しない
+        scheduler.clear();
+        ExpireMap loaded = scheduler.createMap("test", Type.MUTE);
+        loaded.restore(more);
+        assertEquals(2, loaded.size());
+        assertEquals(0, scheduler.size());
+    }
+
+    /**
+     * 期日になったエントリだけが期限マップから削除され、
+     * 期限が変更された古いエントリや、解除済みのエントリは無視されることを確認する
+     */
+    public void testApplyExpires() {
+
+        long now = System.currentTimeMillis();
+        Map<ChannelMember, Long> expires = new HashMap<ChannelMember, Long>();
+        expires.put(a, now - 10);
+        expires.put(b, now + 60000);
+        expires.put(c, now - 10);
+
+        // 期日になっている
+        assertTrue(new Entry("test", a, Type.BAN, now - 10).removeFrom(expires, now));
+        assertFalse(expires.containsKey(a));
+
+        // 期日になっていない
+        assertFalse(new Entry("test", b, Type.BAN, now + 60000).removeFrom(expires, now));
+        assertTrue(expires.containsKey(b));
+
+        // 期限が延長される前の、古いエントリ
+        assertFalse(new Entry("test", b, Type.BAN, now - 10).removeFrom(expires, now));
+        assertEquals(now + 60000, (long) expires.get(b));
+
+        // 解除済み
+        assertFalse(new Entry("test", a, Type.BAN, now - 10).removeFrom(expires, now));
+
+        // 期限が短縮される前の、古いエントリ
+        assertFalse(new Entry("test", c, Type.BAN, now + 10).removeFrom(expires, now + 20));
+        assertTrue(expires.containsKey(c));
+    }
+
+    /**
+     * 期限を変更した場合、古いエントリが期日になっても、新しい期限は削除されないことを確認する
+     */
+    public void testReschedule() throws InterruptedException {
+
+        List<Entry> fired = Collections.synchronizedList(new ArrayList<Entry>());
+        CountDownLatch latch = new CountDownLatch(1);
+        ExpireScheduler scheduler = new ExpireScheduler(due -> {
+            fired.addAll(due);
+            latch.countDown();
+        });
+        ExpireMap expires = scheduler.createMap("test", Type.MUTE);
+
+        long now = System.currentTimeMillis();
+        expires.put(a, now + 50);
+        expires.put(a, now + 60000);
+        assertEquals(2, scheduler.size());
+
+        scheduler.start();
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } finally {
+            scheduler.stop();
+        }
+
+        assertEquals(1, fired.size());
+        assertFalse(fired.get(0).removeFrom(expires, System.currentTimeMillis()));
+        assertEquals(now + 60000, (long) expires.get(a));
+        assertEquals(1, scheduler.size());
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.channel;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import junit.framework.TestCase;
+
+/**
+ * HideIndexのテスト
+ * @author ucchy
+ */
+public class HideIndexTest extends TestCase {
+
+    public void testAddAndRemove() {
+
+        HideIndex index = new HideIndex();
+        assertTrue(index.add("$a", "$b"));
+        assertFalse(index.add("$a", "$b"));
+        assertTrue(index.add("$c", "$b"));
+        assertTrue(index.add("$a", "$d"));
+
+        assertTrue(index.contains("$a", "$b"));
+        assertFalse(index.contains("$b", "$a"));
+        assertEquals(2, index.getHiders("$b").size());
+        assertEquals(2, index.getHidden("$a").size());
+        assertTrue(index.getHiders("$x").isEmpty());
+        assertEquals(3, index.size());
+
+        // 保存用のリストは、hideされる側ごと
+        List<String> stored = index.toStoreValue("$b");
+        assertEquals(2, stored.size());
+        assertTrue(stored.contains("$a") && stored.contains("$c"));
+
+        // 解除すると、両方向の索引から消える
+        assertTrue(index.remove("$a", "$b"));
+        assertFalse(index.remove("$a", "$b"));
+        assertFalse(index.contains("$a", "$b"));
+        assertFalse(index.getHidden("$a").contains("$b"));
+        assertTrue(index.remove("$c", "$b"));
+        assertNull(index.toStoreValue("$b"));
+        assertTrue(index.getHidden("$c").isEmpty());
+        assertEquals(1, index.size());
+
+        // 返されるセットは変更できない
+        try {
+            index.getHiders("$d").clear();
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // OK
+        }
+    }
+
+    /**
+     * hideしている側がプレイヤーの場合は、UUIDのセットからも引けることを確認する
+     */
+    public void testHiderUUIDs() {
+
+        UUID a = new UUID(0, 1);
+        UUID c = new UUID(0, 2);
+        HideIndex index = new HideIndex();
+        index.add("$" + a, "$b");
+        index.add("$" + c, "$b");
+        index.add("console", "$b");
+
+        Set<UUID> uuids = index.getHiderUUIDs("$b");
+        assertEquals(2, uuids.size());
+        assertTrue(uuids.contains(a) && uuids.contains(c));
+        assertTrue(index.getHiderUUIDs("$x").isEmpty());
+
+        index.remove("$" + a, "$b");
+        assertEquals(1, index.getHiderUUIDs("$b").size());
+        assertTrue(index.getHiderUUIDs("$b").contains(c));
+        index.remove("$" + c, "$b");
+        assertTrue(index.getHiderUUIDs("$b").isEmpty());
+        index.add("$" + a, "$b");
+        index.clear();
+        assertTrue(index.getHiderUUIDs("$b").isEmpty());
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.channel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.github.ucchyocean.lc3.channel.JapanizeMetrics.Event;
+import com.github.ucchyocean.lc3.japanize.JapanizeOverflowAction;
+import com.github.ucchyocean.lc3.japanize.JapanizeType;
+import com.github.ucchyocean.lc3.member.ChannelMember;
+import com.github.ucchyocean.lc3.member.ChannelMemberOther;
+
+import junit.framework.TestCase;
+
+/**
+ * JapanizeExecutorのテスト
+ * @author ucchy
+ */
+public class JapanizeExecutorTest extends TestCase {
+
+    private final ChannelMember alice = new ChannelMemberOther("alice");
+    private final ChannelMember bob = new ChannelMemberOther("bob");
+
+    private JapanizeExecutor executor;
+    private CountDownLatch release;
+    private List<String> delivered;
+    private Semaphore deliveries;
+    private int awaited;
+
+    @Override
+    protected void setUp() {
+        release = new CountDownLatch(1);
+        delivered = Collections.synchronizedList(new ArrayList<String>());
+        deliveries = new Semaphore(0);
+        awaited = 0;
+    }
+
+    @Override
+    protected void tearDown() {
+        release.countDown();
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+
+    /**
+     * プレイヤーごとの同時変換数の上限を超えた変換は、他のプレイヤーの変換を妨げずに破棄されることを確認する
+     */
+    public void testPlayerLimit() throws InterruptedException {
+
+        executor = new JapanizeExecutor(2, 8, 1, JapanizeOverflowAction.DROP);
+        CountDownLatch started = new CountDownLatch(2);
+
+        submit(new TestTask("a1", alice, started, release));
+        submit(new TestTask("a2", alice, null, null));
+        submit(new TestTask("b1", bob, started, release));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        JapanizeMetrics metrics = executor.getMetrics();
+        assertEquals(1, metrics.getCount(Event.PLAYER_LIMIT));
+        assertEquals(1, metrics.getCount(Event.DROPPED));
+        assertTrue(delivered.isEmpty());
+
+        release.countDown();
+        awaitDelivered(2);
+        assertTrue(delivered.contains("a1"));
+        assertTrue(delivered.contains("b1"));
+
+        // 変換が終われば、同じプレイヤーも再び変換できる
+        submit(new TestTask("a3", alice, null, null));
+        awaitDelivered(3);
+        assertEquals(1, metrics.getCount(Event.PLAYER_LIMIT));
+    }
+
+    /**
+     * 待ち行列があふれた場合に、呼び出し元のスレッドでカナ変換だけが行われることを確認する
+     */
+    public void testQueueFullKana() throws InterruptedException {
+
+        executor = new JapanizeExecutor(1, 1, 10, JapanizeOverflowAction.KANA);
+        CountDownLatch started = new CountDownLatch(1);
+
+        submit(new TestTask("running", alice, started, release));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        submit(new TestTask("queued", bob, null, null));
+
+        // 呼び出し元のスレッドで、すぐに配信される
+        submit(new TestTask("overflow", bob, null, null));
+        assertEquals(1, delivered.size());
+        assertEquals("overflow:KANA", delivered.get(0));
+
+        JapanizeMetrics metrics = executor.getMetrics();
+        assertEquals(1, metrics.getCount(Event.QUEUE_FULL));
+        assertEquals(1, metrics.getCount(Event.KANA_FALLBACK));
+        assertEquals(0, metrics.getCount(Event.DROPPED));
+        assertEquals(1, metrics.getMaxQueueDepth());
+
+        release.countDown();
+        awaitDelivered(3);
+    }
+
+    /**
+     * 待ち行列があふれて破棄された変換は、チケットを飛ばして、後の発言の配信を妨げないことを確認する
+     */
+    public void testQueueFullDropSkipsTicket() throws InterruptedException {
+
+        executor = new JapanizeExecutor(1, 1, 10, JapanizeOverflowAction.DROP);
+        JapanizeSequencer sequencer = new JapanizeSequencer(0, executor::getScheduler);
+        CountDownLatch started = new CountDownLatch(1);
+
+        JapanizeSequencer.Ticket first = sequencer.reserve();
+        JapanizeSequencer.Ticket second = sequencer.reserve();
+        JapanizeSequencer.Ticket third = sequencer.reserve();
+        submit(new TestTask("first", alice, started, release), first);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        submit(new TestTask("second", bob, null, null), second);
+        submit(new TestTask("third", bob, null, null), third);
+
+        assertEquals(1, executor.getMetrics().getCount(Event.QUEUE_FULL));
+        assertEquals(1, executor.getMetrics().getCount(Event.DROPPED));
+
+        release.countDown();
+        awaitDelivered(2);
+        assertEquals("first", delivered.get(0));
+        assertEquals("second", delivered.get(1));
+        assertEquals(0, sequencer.getPendingCount());
+    }
+
+    /**
+     * 設定の再読み込みで、上限や待ち行列の長さが変更されることを確認する
+     */
+    public void testReconfigure() throws InterruptedException {
+
+        executor = new JapanizeExecutor(1, 1, 1, JapanizeOverflowAction.DROP);
+        executor.reconfigure(2, 4, 3, JapanizeOverflowAction.KANA);
+        CountDownLatch started = new CountDownLatch(2);
+
+        // 2つが実行され、1つが待ち行列に入る
+        submit(new TestTask("a1", alice, started, release));
+        submit(new TestTask("a2", alice, started, release));
+        submit(new TestTask("a3", alice, null, null));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(0, executor.getMetrics().getCount(Event.PLAYER_LIMIT));
+
+        // 上限を超えた分は、カナ変換になる
+        submit(new TestTask("a4", alice, null, null));
+        assertEquals(1, executor.getMetrics().getCount(Event.PLAYER_LIMIT));
+        assertEquals("a4:KANA", delivered.get(0));
+
+        release.countDown();
+        awaitDelivered(4);
+    }
+
+    private void submit(TestTask task) {
+        submit(task, null);
+    }
+
+    private void submit(TestTask task, JapanizeSequencer.Ticket ticket) {
+        executor.submit(task, 0, result -> {
+            delivered.add(result);
+            deliveries.release();
+        }, Runnable::run, ticket);
+    }
+
+    /**
+     * 配信された数が、指定した数になるまで待つ
+     */
+    private void awaitDelivered(int count) throws InterruptedException {
+        assertTrue(deliveries.tryAcquire(count - awaited, 5, TimeUnit.SECONDS));
+        awaited = count;
+        assertEquals(count, delivered.size());
+    }
+
+    /**
+     * 通信を行わず、指定されたラッチが開くまで待つ変換タスク
+     */
+    private static class TestTask extends JapanizeConvertTask {
+
+        private final String name;
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+        private final JapanizeType type;
+
+        private TestTask(String name, ChannelMember player, CountDownLatch started, CountDownLatch release) {
+            this(name, player, started, release, JapanizeType.GOOGLE_IME);
+        }
+
+        private TestTask(String name, ChannelMember player, CountDownLatch started, CountDownLatch release,
+                         JapanizeType type) {
+            super(name, type, "%japanize", null, player);
+            this.name = name;
+            this.started = started;
+            this.release = release;
+            this.type = type;
+        }
+
+        @Override
+        public JapanizeConvertTask withType(JapanizeType type) {
+            return new TestTask(name, getPlayer(), null, null, type);
+        }
+
+        @Override
+        public boolean runSync() {
+            if (started != null) {
+                started.countDown();
+            }
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String getResult() {
+            return (type == JapanizeType.KANA) ? name + ":KANA" : name;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.channel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * JapanizeSequencerのテスト
+ * @author ucchy
+ */
+public class JapanizeSequencerTest extends TestCase {
+
+    private static final int LINES = 200;
+    private static final int MAX_DELAY = 20;
+
+    private ScheduledExecutorService timer;
+    private ExecutorService workers;
+
+    @Override
+    protected void setUp() {
+        timer = Executors.newSingleThreadScheduledExecutor();
+        workers = Executors.newFixedThreadPool(4);
+    }
+
+    @Override
+    protected void tearDown() {
+        timer.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * 変換に掛かる時間がばらばらでも、発言順に配信されることを確認する
+     */
+    public void testOrderWithRandomDelay() throws InterruptedException {
+
+        JapanizeSequencer sequencer = new JapanizeSequencer(10000, () -> timer);
+        List<Integer> delivered = Collections.synchronizedList(new ArrayList<Integer>());
+        CountDownLatch latch = new CountDownLatch(LINES);
+        Random random = new Random(1);
+
+        for (int i = 0; i < LINES; i++) {
+            final int line = i;
+            final int delay = random.nextInt(MAX_DELAY);
+            final JapanizeSequencer.Ticket ticket = sequencer.reserve();
+            workers.execute(() -> {
+                sleep(delay);
+                ticket.complete(() -> {
+                    delivered.add(line);
+                    latch.countDown();
+                });
+            });
+        }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertEquals(LINES, delivered.size());
+        for (int i = 0; i < LINES; i++) {
+            assertEquals(i, (int) delivered.get(i));
+        }
+        assertEquals(0, sequencer.getPendingCount());
+        assertEquals(0, sequencer.getTimeoutCount());
+    }
+
+    /**
+     * キャンセルされた変換を飛ばして、後の発言が配信されることを確認する
+     */
+    public void testSkip() throws InterruptedException {
+
+        JapanizeSequencer sequencer = new JapanizeSequencer(10000, () -> timer);
+        List<Integer> delivered = Collections.synchronizedList(new ArrayList<Integer>());
+        CountDownLatch latch = new CountDownLatch(LINES / 2);
+        Random random = new Random(2);
+
+        for (int i = 0; i < LINES; i++) {
+            final int line = i;
+            final int delay = random.nextInt(MAX_DELAY);
+            final JapanizeSequencer.Ticket ticket = sequencer.reserve();
+            workers.execute(() -> {
+                sleep(delay);
+                if (line % 2 == 0) {
+                    ticket.skip();
+                } else {
+                    ticket.complete(() -> {
+                        delivered.add(line);
+                        latch.countDown();
+                    });
+                }
+            });
+        }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        for (int i = 0; i < delivered.size(); i++) {
+            assertEquals(i * 2 + 1, (int) delivered.get(i));
+        }
+        assertEquals(0, sequencer.getPendingCount());
+    }
+
+    /**
+     * 終わらない変換があっても、タイムアウト後に後の発言が配信されることを確認する
+     */
+    public void testTimeout() throws InterruptedException {
+
+        JapanizeSequencer sequencer = new JapanizeSequencer(100, () -> timer);
+        List<Integer> delivered = Collections.synchronizedList(new ArrayList<Integer>());
+        CountDownLatch timedOut = new CountDownLatch(2);
+        CountDownLatch latch = new CountDownLatch(3);
+
+        JapanizeSequencer.Ticket first = sequencer.reserve();
+        JapanizeSequencer.Ticket second = sequencer.reserve();
+        JapanizeSequencer.Ticket third = sequencer.reserve();
+
+        third.complete(() -> {
+            delivered.add(3);
+            timedOut.countDown();
+            latch.countDown();
+        });
+        second.complete(() -> {
+            delivered.add(2);
+            timedOut.countDown();
+            latch.countDown();
+        });
+
+        // 先の発言を待っているので、まだ配信されない
+        assertEquals(0, delivered.size());
+        assertEquals(2, sequencer.getPendingCount());
+
+        // タイムアウト後に、2番目と3番目が順番に配信される
+        assertTrue(timedOut.await(5, TimeUnit.SECONDS));
+        assertEquals(2, delivered.size());
+        assertEquals(2, (int) delivered.get(0));
+        assertEquals(3, (int) delivered.get(1));
+        assertEquals(1, sequencer.getTimeoutCount());
+
+        // 遅れて終わった変換は、すぐに配信される
+        first.complete(() -> {
+            delivered.add(1);
+            latch.countDown();
+        });
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals(1, (int) delivered.get(2));
+        assertEquals(1, sequencer.getLateCount());
+    }
+
+    /**
+     * 配信処理の実行中にロックを持っておらず、他のスレッドが結果を渡しても待たされないこと、
+     * その結果も発言順に配信されることを確認する
+     */
+    public void testDeliveryOutsideLock() throws InterruptedException {
+
+        JapanizeSequencer sequencer = new JapanizeSequencer(0, () -> timer);
+        List<Integer> delivered = Collections.synchronizedList(new ArrayList<Integer>());
+        JapanizeSequencer.Ticket first = sequencer.reserve();
+        JapanizeSequencer.Ticket second = sequencer.reserve();
+        CountDownLatch completed = new CountDownLatch(1);
+
+        first.complete(() -> {
+            // 配信中に、別のスレッドが次の結果を渡す
+            workers.execute(() -> {
+                second.complete(() -> delivered.add(2));
+                sequencer.getPendingCount();
+                completed.countDown();
+            });
+            try {
+                assertTrue(completed.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            delivered.add(1);
+        });
+
+        // 次の結果は、配信中だったこのスレッドが続けて配信する
+        assertEquals(0, completed.getCount());
+        assertEquals(2, delivered.size());
+        assertEquals(1, (int) delivered.get(0));
+        assertEquals(2, (int) delivered.get(1));
+        assertEquals(0, sequencer.getPendingCount());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.japanize;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import junit.framework.TestCase;
+
+/**
+ * JapanizeClassifierのテスト
+ * @author ucchy
+ */
+public class JapanizeClassifierTest extends TestCase {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("[%]([^%]+)[%]");
+    private static final Pattern URL = Pattern.compile("https?://");
+
+    private static final String[] SAMPLES = {
+            "", " ", "   ", "hello", "konnnichiha", "ｺﾝﾆﾁﾊ", "ｺﾝﾆﾁﾊ ｾｶｲ", "ｺﾝﾆﾁﾊ!",
+            "こんにちは", "nihongo 日本語", "café", "see https://example.com/a?b=c",
+            "http://x", "http:/x", "ttps://x", "%player_name%", "100%", "%%", "50% off 20%",
+    };
+
+    public void testClassify() {
+
+        assertEquals(JapanizeClassifier.ASCII, JapanizeClassifier.classify(""));
+        assertEquals(JapanizeClassifier.ASCII | JapanizeClassifier.HALFWIDTH_KANA,
+                JapanizeClassifier.classify("  "));
+        assertEquals(JapanizeClassifier.MULTIBYTE | JapanizeClassifier.HALFWIDTH_KANA,
+                JapanizeClassifier.classify("ｺﾝﾆﾁﾊ ｾｶｲ"));
+        assertEquals(JapanizeClassifier.MULTIBYTE, JapanizeClassifier.classify("ｺﾝﾆﾁﾊ!"));
+        assertEquals(JapanizeClassifier.ASCII | JapanizeClassifier.URL,
+                JapanizeClassifier.classify("see https://example.com/"));
+        assertEquals(JapanizeClassifier.ASCII | JapanizeClassifier.PLACEHOLDER,
+                JapanizeClassifier.classify("hi %player_name%"));
+
+        for (String sample : SAMPLES) {
+            int c = JapanizeClassifier.classify(sample);
+            assertEquals(sample, isNeedToJapanizeOld(sample), JapanizeClassifier.isNeedToJapanize(c));
+            assertEquals(sample, PLACEHOLDER.matcher(sample).find(),
+                    JapanizeClassifier.has(c, JapanizeClassifier.PLACEHOLDER));
+            assertEquals(sample, URL.matcher(sample).find(), JapanizeClassifier.has(c, JapanizeClassifier.URL));
+        }
+    }
+
+    /**
+     * ランダムな文字列で、以前の判定方法と結果が一致することを確認する
+     */
+    public void testCompatibility() {
+
+        char[] alphabet = {'a', 'z', ' ', '%', ':', '/', 'h', 't', 'p', 's',
+                'ｱ', 'ﾟ', '｡', 'あ', '漢', 'é'};
+        Random random = new Random(3);
+
+        for (int i = 0; i < 20000; i++) {
+            char[] chars = new char[random.nextInt(12)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String text = new String(chars);
+            int c = JapanizeClassifier.classify(text);
+            assertEquals(text, isNeedToJapanizeOld(text), JapanizeClassifier.isNeedToJapanize(c));
+            assertEquals(text, PLACEHOLDER.matcher(text).find(),
+                    JapanizeClassifier.has(c, JapanizeClassifier.PLACEHOLDER));
+            assertEquals(text, URL.matcher(text).find(), JapanizeClassifier.has(c, JapanizeClassifier.URL));
+        }
+    }
+
+    /**
+     * 以前の判定方法
+     */
+    private static boolean isNeedToJapanizeOld(String text) {
+        return !(text.getBytes(StandardCharsets.UTF_8).length > text.length()
+                || text.matches("[ \\uFF61-\\uFF9F]+"));
+    }
+}
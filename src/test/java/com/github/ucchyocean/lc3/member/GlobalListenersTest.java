@@ -0,0 +1,132 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.member;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+/**
+ * GlobalListenersのテスト
+ * @author ucchy
+ */
+public class GlobalListenersTest extends TestCase {
+
+    public void testUpdateAndRemove() {
+
+        GlobalListeners listeners = new GlobalListeners(() -> 0L);
+        Member admin = new Member(true);
+        Member player = new Member(false);
+
+        listeners.update(admin);
+        listeners.update(player);
+        assertEquals(1, listeners.size());
+
+        // 権限が変更された場合
+        admin.permitted = false;
+        player.permitted = true;
+        listeners.update(admin);
+        listeners.update(player);
+        assertEquals(1, listeners.size());
+        assertEquals(player, listeners.getListeners().iterator().next());
+
+        // ログアウトした場合
+        listeners.remove(player.uuid);
+        assertEquals(0, listeners.size());
+
+        // 作り直し
+        admin.permitted = true;
+        listeners.update(player);
+        listeners.refreshAll(Arrays.asList(admin, new Member(false)));
+        assertEquals(1, listeners.size());
+        assertEquals(admin, listeners.getListeners().iterator().next());
+    }
+
+    public void testAddTo() {
+
+        GlobalListeners listeners = new GlobalListeners(() -> 0L);
+        Member admin1 = new Member(true);
+        Member admin2 = new Member(true);
+        Member player = new Member(false);
+
+        List<ChannelMember> recipients = new ArrayList<ChannelMember>();
+        recipients.add(player);
+        listeners.addTo(recipients);
+        assertEquals(1, recipients.size());
+
+        listeners.update(admin1);
+        listeners.update(admin2);
+        recipients.add(new Member(admin1.uuid, false));
+        listeners.addTo(recipients);
+
+        // 既に受信者に含まれている人は、重複して追加しない
+        assertEquals(3, recipients.size());
+        assertTrue(recipients.contains(admin2));
+    }
+
+    public void testPeriodicRefresh() {
+
+        AtomicLong now = new AtomicLong();
+        GlobalListeners listeners = new GlobalListeners(now::get);
+        listeners.setRefreshInterval(10000);
+        Member admin = new Member(true);
+        Member player = new Member(false);
+        List<ChannelMember> online = Arrays.asList(admin, player);
+        listeners.setOnlinePlayers(() -> online);
+        listeners.refresh();
+        assertEquals(1, listeners.size());
+
+        // 権限の再計算のイベントが無くても、間隔が過ぎれば確認し直す
+        admin.permitted = false;
+        player.permitted = true;
+        List<ChannelMember> recipients = new ArrayList<ChannelMember>();
+        listeners.addTo(recipients);
+        assertEquals(admin, recipients.get(0));
+
+        now.set(TimeUnit.SECONDS.toNanos(10));
+        recipients.clear();
+        listeners.addTo(recipients);
+        assertEquals(1, recipients.size());
+        assertEquals(player, recipients.get(0));
+
+        // 0を指定すると、確認し直さない
+        listeners.setRefreshInterval(0);
+        player.permitted = false;
+        now.set(TimeUnit.SECONDS.toNanos(100));
+        recipients.clear();
+        listeners.addTo(recipients);
+        assertEquals(1, recipients.size());
+    }
+
+    /**
+     * パーミッションを変更できるテスト用のメンバー
+     */
+    private static class Member extends ChannelMemberOther {
+
+        private final UUID uuid;
+        private boolean permitted;
+
+        private Member(boolean permitted) {
+            this(UUID.randomUUID(), permitted);
+        }
+
+        private Member(UUID uuid, boolean permitted) {
+            super("player", "player", "", "", null, uuid.toString());
+            this.uuid = uuid;
+            this.permitted = permitted;
+        }
+
+        @Override
+        public boolean hasPermission(String node) {
+            return permitted && GlobalListeners.PERMISSION.equals(node);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.member;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.ucchyocean.lc3.member.MemberDecorationCache.Decoration;
+
+import junit.framework.TestCase;
+
+/**
+ * MemberDecorationCacheのテスト
+ * @author ucchy
+ */
+public class MemberDecorationCacheTest extends TestCase {
+
+    public void testHitAndInvalidate() {
+
+        MemberDecorationCache cache = new MemberDecorationCache(60000);
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("[Admin] ", cache.get(id, Decoration.PREFIX, () -> {
+                loads.incrementAndGet();
+                return "[Admin] ";
+            }));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(4, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.8, cache.getHitRate(), 0.0001);
+
+        // 種類が異なれば、別々に取得する
+        assertEquals("", cache.get(id, Decoration.SUFFIX, () -> ""));
+        assertEquals(2, cache.getMissCount());
+
+        // 破棄すると、取得し直す
+        cache.invalidate(id);
+        assertEquals("[Mod] ", cache.get(id, Decoration.PREFIX, () -> "[Mod] "));
+
+        cache.invalidateAll();
+        assertEquals("[User] ", cache.get(id, Decoration.PREFIX, () -> "[User] "));
+    }
+
+    public void testExpire() {
+
+        AtomicLong clock = new AtomicLong();
+        MemberDecorationCache cache = new MemberDecorationCache(20, clock::get);
+        UUID id = UUID.randomUUID();
+
+        assertEquals("a", cache.get(id, Decoration.DISPLAY_NAME, () -> "a"));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(19));
+        assertEquals("a", cache.get(id, Decoration.DISPLAY_NAME, () -> "b"));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals("b", cache.get(id, Decoration.DISPLAY_NAME, () -> "b"));
+
+        // 0を指定するとキャッシュしない
+        cache.setTtl(0);
+        assertEquals("c", cache.get(id, Decoration.DISPLAY_NAME, () -> "c"));
+        assertEquals("d", cache.get(id, Decoration.DISPLAY_NAME, () -> "d"));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.member;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import junit.framework.TestCase;
+
+/**
+ * PermissionSnapshotのテスト
+ * @author ucchy
+ */
+public class PermissionSnapshotTest extends TestCase {
+
+    public void testHitAndInvalidate() {
+
+        PermissionSnapshot snapshot = new PermissionSnapshot(60000);
+        UUID id = UUID.randomUUID();
+        Set<String> granted = new HashSet<String>();
+        granted.add("lunachat.allowcc");
+        AtomicInteger checks = new AtomicInteger();
+        Predicate<String> loader = node -> {
+            checks.incrementAndGet();
+            return granted.contains(node);
+        };
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(snapshot.hasPermission(id, "lunachat.allowcc", loader));
+            assertFalse(snapshot.hasPermission(id, "lunachat.speak.global", loader));
+        }
+        assertEquals(2, checks.get());
+        assertEquals(8, snapshot.getHitCount());
+
+        // 設定されているかどうかは、持っているかどうかとは別に保持する
+        assertTrue(snapshot.isPermissionSet(id, "lunachat.allowcc", node -> true));
+        assertEquals(2, checks.get());
+
+        // 権限が再計算されたら、確認し直す
+        granted.remove("lunachat.allowcc");
+        assertTrue(snapshot.hasPermission(id, "lunachat.allowcc", loader));
+        snapshot.invalidate(id);
+        assertFalse(snapshot.hasPermission(id, "lunachat.allowcc", loader));
+        assertEquals(3, checks.get());
+
+        granted.add("lunachat.speak.global");
+        snapshot.invalidateAll();
+        assertTrue(snapshot.hasPermission(id, "lunachat.speak.global", loader));
+    }
+
+    public void testExpire() {
+
+        AtomicLong clock = new AtomicLong();
+        PermissionSnapshot snapshot = new PermissionSnapshot(20, clock::get);
+        UUID id = UUID.randomUUID();
+
+        assertTrue(snapshot.hasPermission(id, "lunachat.allowcc", node -> true));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(19));
+        assertTrue(snapshot.hasPermission(id, "lunachat.allowcc", node -> false));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertFalse(snapshot.hasPermission(id, "lunachat.allowcc", node -> false));
+
+        // 0を指定するとスナップショットを使用しない
+        snapshot.setTtl(0);
+        assertTrue(snapshot.hasPermission(id, "lunachat.allowcc", node -> true));
+        assertFalse(snapshot.hasPermission(id, "lunachat.allowcc", node -> false));
+    }
+}
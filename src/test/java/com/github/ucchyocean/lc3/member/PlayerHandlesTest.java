@@ -0,0 +1,114 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.member;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import junit.framework.TestCase;
+
+/**
+ * PlayerHandlesのテスト
+ * @author ucchy
+ */
+public class PlayerHandlesTest extends TestCase {
+
+    public void testBindAndUnbind() {
+
+        Map<UUID, String> server = new ConcurrentHashMap<UUID, String>();
+        PlayerHandles<String> handles = new PlayerHandles<String>(server::get);
+        UUID id = UUID.randomUUID();
+
+        // 結び付けられていない場合は、サーバーから探す
+        assertNull(handles.getHandle(id));
+        assertNull(handles.get(null, id));
+        server.put(id, "before-join");
+        assertEquals("before-join", handles.get(null, id));
+        assertEquals(2, handles.getLookupCount());
+
+        // 結び付けた後は、サーバーから探さない
+        handles.bind(id, "player");
+        PlayerHandles.Handle<String> handle = handles.getHandle(id);
+        assertEquals("player", handles.get(handle, id));
+        assertEquals("player", handles.get(handle, id));
+        assertEquals(2, handles.getLookupCount());
+        assertEquals(1, handles.size());
+
+        // 解除すると、取り出し済みのハンドルもサーバーから探すようになる
+        handles.unbind(id);
+        server.remove(id);
+        assertNull(handles.get(handle, id));
+        assertEquals(3, handles.getLookupCount());
+        assertEquals(0, handles.size());
+
+        handles.bind(id, "player");
+        handles.clear();
+        assertNull(handles.getHandle(id));
+        assertNull(handles.get(null, id));
+    }
+
+    /**
+     * チャンネルの参加者のように、ログインより前に作成されて保持され続けるメンバーが、
+     * ログイン後と再ログイン後に、サーバーから探さずにプレイヤーを使えることを確認する
+     */
+    public void testMemberCreatedBeforeBind() {
+
+        Map<UUID, String> server = new ConcurrentHashMap<UUID, String>();
+        PlayerHandles<String> handles = new PlayerHandles<String>(server::get);
+        UUID id = UUID.randomUUID();
+        Member<String> member = new Member<String>(handles, id);
+
+        // ログイン前
+        assertNull(member.getPlayer());
+        assertEquals(1, handles.getLookupCount());
+
+        // ログインすると、保持していたメンバーも結び付けを使う
+        server.put(id, "first");
+        handles.bind(id, "first");
+        assertEquals("first", member.getPlayer());
+        assertEquals("first", member.getPlayer());
+        assertEquals(1, handles.getLookupCount());
+
+        // ログアウト中は、サーバーから探す
+        handles.unbind(id);
+        server.remove(id);
+        assertNull(member.getPlayer());
+        assertEquals(2, handles.getLookupCount());
+
+        // 再ログインすると、新しいハンドルに結び付け直す
+        server.put(id, "second");
+        handles.bind(id, "second");
+        assertEquals("second", member.getPlayer());
+        assertSame(handles.getHandle(id), member.handle);
+
+        // ログアウトせずに結び付け直された場合も、古いハンドルは使わない
+        handles.bind(id, "third");
+        assertEquals("third", member.getPlayer());
+        assertEquals(2, handles.getLookupCount());
+    }
+
+    /**
+     * ChannelMemberPlayer と同じようにハンドルを保持する、テスト用のメンバー
+     */
+    private static class Member<P> {
+
+        private final PlayerHandles<P> handles;
+        private final UUID id;
+        private PlayerHandles.Handle<P> handle;
+
+        private Member(PlayerHandles<P> handles, UUID id) {
+            this.handles = handles;
+            this.id = id;
+        }
+
+        private P getPlayer() {
+            PlayerHandles.Handle<P> current = handles.current(handle, id);
+            handle = current;
+            return handles.get(current, id);
+        }
+    }
+}
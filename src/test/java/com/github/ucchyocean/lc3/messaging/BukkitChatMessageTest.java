@@ -6,6 +6,14 @@
 package com.github.ucchyocean.lc3.messaging;
 
 import com.github.ucchyocean.lc3.member.ChannelMemberOther;
+import com.github.ucchyocean.lc3.util.BlockLocation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
 
 import junit.framework.TestCase;
 
@@ -36,4 +44,145 @@ public class BukkitChatMessageTest extends TestCase {
 
         assertTrue(member.toString().equals(after.getMember().toString()));
     }
+
+    /**
+     * 全ての項目を指定した場合の変換
+     */
+    public void testRoundTrip() {
+
+        String id = UUID.randomUUID().toString();
+        ChannelMemberOther member = new ChannelMemberOther("ucchy", "&aうっちー", "[p]", "[s]",
+                new BlockLocation("world_nether", -123456, 64, Integer.MIN_VALUE), id);
+        member.setWorldName("other_world");
+        BukkitChatMessage message = new BukkitChatMessage(member, "こんにちは", "global", Long.MAX_VALUE);
+
+        BukkitChatMessage after = BukkitChatMessage.fromByteArray(message.toByteArray());
+        assertNotNull(after);
+        assertMember(member, after.getMember());
+        assertEquals("other_world", after.getMember().getWorldName());
+        assertEquals("こんにちは", after.getMessage());
+        assertEquals("global", after.getChannelName());
+        assertEquals(Long.MAX_VALUE, after.getMessageId());
+
+        // UUIDでないIDと、省略可能な項目が無い場合
+        member = new ChannelMemberOther("console", "Console", "", "", null, "Not-A-UUID");
+        after = BukkitChatMessage.fromByteArray(new BukkitChatMessage(member, "").toByteArray());
+        assertNotNull(after);
+        assertMember(member, after.getMember());
+        assertNull(after.getChannelName());
+        assertEquals(0, after.getMessageId());
+
+        member = new ChannelMemberOther("<null>", "<null>", "", "", null, null);
+        after = BukkitChatMessage.fromByteArray(new BukkitChatMessage(member, "<null>").toByteArray());
+        assertNotNull(after);
+        assertMember(member, after.getMember());
+        assertEquals("<null>", after.getMessage());
+    }
+
+    /**
+     * writeUTFの制限（65535バイト）を超える長さの変換
+     */
+    public void testLongMessage() {
+
+        char[] chars = new char[40000];
+        Arrays.fill(chars, 'あ');
+        String text = new String(chars);
+
+        ChannelMemberOther member = new ChannelMemberOther("ucchy", "ucchy", text, "", null, null);
+        BukkitChatMessage after = BukkitChatMessage.fromByteArray(
+                new BukkitChatMessage(member, text + text).toByteArray());
+        assertNotNull(after);
+        assertEquals(text, after.getMember().getPrefix());
+        assertEquals(text + text, after.getMessage());
+    }
+
+    /**
+     * 以前の形式のデータの変換
+     */
+    public void testLegacyFormat() throws IOException {
+
+        String id = UUID.randomUUID().toString();
+        BukkitChatMessage after = BukkitChatMessage.fromByteArray(
+                legacyBytes("ucchy", "うっちー", "[p]", "[s]", "world,1,-2,3", id, "message"));
+        assertNotNull(after);
+        ChannelMemberOther member = after.getMember();
+        assertEquals("ucchy", member.getName());
+        assertEquals("うっちー", member.getDisplayName());
+        assertEquals("[p]", member.getPrefix());
+        assertEquals("[s]", member.getSuffix());
+        assertEquals("world,1,-2,3", member.getLocation().toString());
+        assertEquals(id, member.getId());
+        assertEquals("message", after.getMessage());
+        assertNull(after.getChannelName());
+
+        after = BukkitChatMessage.fromByteArray(
+                legacyBytes("ucchy", "ucchy", "", "", "<null>", "<null>", "message"));
+        assertNotNull(after);
+        assertNull(after.getMember().getLocation());
+        assertNull(after.getMember().getId());
+    }
+
+    /**
+     * 不正なデータを変換しても、例外が発生せずにnullが返ることを確認する
+     */
+    public void testFuzz() throws IOException {
+
+        Random random = new Random(41);
+        ChannelMemberOther member = new ChannelMemberOther("ucchy", "うっちー", "[p]", "[s]",
+                new BlockLocation("world", 10, 64, -10), UUID.randomUUID().toString());
+        byte[] current = new BukkitChatMessage(member, "hello", "global", 42).toByteArray();
+        byte[] legacy = legacyBytes("ucchy", "うっちー", "[p]", "[s]", "world,10,64,-10", "<null>", "hello");
+
+        assertNull(BukkitChatMessage.fromByteArray(new byte[0]));
+        assertNull(BukkitChatMessage.fromByteArray(null));
+
+        // 途中で切れたデータ
+        for (byte[] source : new byte[][]{current, legacy}) {
+            for (int length = 0; length < source.length; length++) {
+                assertNull(BukkitChatMessage.fromByteArray(Arrays.copyOf(source, length)));
+            }
+        }
+
+        // 一部を書き換えたデータと、ランダムなデータ
+        for (int i = 0; i < 20000; i++) {
+            byte[] bytes;
+            if (i % 3 == 2) {
+                bytes = new byte[random.nextInt(64)];
+                random.nextBytes(bytes);
+                if (bytes.length >= 3 && random.nextBoolean()) {
+                    bytes[0] = (byte) 0xFF;
+                    bytes[1] = 'L';
+                }
+            } else {
+                bytes = (i % 3 == 0 ? current : legacy).clone();
+                for (int j = random.nextInt(4); j >= 0; j--) {
+                    bytes[random.nextInt(bytes.length)] = (byte) random.nextInt(256);
+                }
+            }
+            BukkitChatMessage.fromByteArray(bytes);
+        }
+    }
+
+    private static void assertMember(ChannelMemberOther expected, ChannelMemberOther actual) {
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getDisplayName(), actual.getDisplayName());
+        assertEquals(expected.getPrefix(), actual.getPrefix());
+        assertEquals(expected.getSuffix(), actual.getSuffix());
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getWorldName(), actual.getWorldName());
+        assertEquals(String.valueOf(expected.getLocation()), String.valueOf(actual.getLocation()));
+    }
+
+    /**
+     * 以前の形式のデータを作成する
+     */
+    private static byte[] legacyBytes(String... values) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+        out.flush();
+        return baos.toByteArray();
+    }
 }
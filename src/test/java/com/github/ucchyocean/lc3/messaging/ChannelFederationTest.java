@@ -0,0 +1,105 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.messaging;
+
+import com.github.ucchyocean.lc3.LunaChat;
+import com.github.ucchyocean.lc3.member.ChannelMemberOther;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * ChannelFederationのテスト
+ * @author ucchy
+ */
+public class ChannelFederationTest extends TestCase {
+
+    public void testDelivery() {
+
+        InMemoryMessageBus.Network network = new InMemoryMessageBus.Network(false);
+        List<List<BukkitChatMessage>> inboxes = new ArrayList<List<BukkitChatMessage>>();
+        ChannelFederation[] servers = new ChannelFederation[3];
+        for (int i = 0; i < servers.length; i++) {
+            List<BukkitChatMessage> inbox = new ArrayList<BukkitChatMessage>();
+            inboxes.add(inbox);
+            servers[i] = new ChannelFederation(network.createNode("server" + i), 0, inbox::add);
+        }
+
+        ChannelMemberOther member = new ChannelMemberOther("ucchy", "うっちー", "[p]", "[s]",
+                null, UUID.randomUUID().toString());
+        assertTrue(servers[0].publish("trade", member, "こんにちは", false));
+        assertTrue(servers[1].publish("trade", member, "&a[trade] ucchy: line", true));
+
+        // 送信元には届かず、ほかのサーバーには1回ずつ届く
+        assertEquals(1, inboxes.get(0).size());
+        assertEquals(1, inboxes.get(1).size());
+        assertEquals(2, inboxes.get(2).size());
+        BukkitChatMessage received = inboxes.get(2).get(0);
+        assertEquals("trade", received.getChannelName());
+        assertEquals("こんにちは", received.getMessage());
+        assertEquals("[p]", received.getMember().getPrefix());
+        assertEquals(member.getId(), received.getMember().getId());
+        assertFalse(received.isPreformatted());
+        assertTrue(inboxes.get(0).get(0).isPreformatted());
+        assertEquals(2, servers[2].getReceivedCount());
+    }
+
+    public void testDeduplicate() {
+
+        InMemoryMessageBus.Network network = new InMemoryMessageBus.Network(false);
+        List<BukkitChatMessage> inbox = new ArrayList<BukkitChatMessage>();
+        ChannelFederation origin = new ChannelFederation(network.createNode("origin"), 0, m -> fail());
+        ChannelFederation peer = new ChannelFederation(network.createNode("peer"), 0, inbox::add);
+        InMemoryMessageBus other = network.createNode("other");
+
+        origin.publish("trade", new ChannelMemberOther("ucchy"), "hello", false);
+        assertEquals(1, inbox.size());
+
+        // 同じデータが、別の経路からもう一度届いた場合
+        // 送り返されてきた自分の発言も無視する
+        byte[] frame = new BukkitChatMessage(inbox.get(0).getMember(), "hello",
+                "trade", inbox.get(0).getMessageId()).toByteArray();
+        assertEquals(2, other.publish(LunaChat.PMC_MESSAGE, frame).join().intValue());
+        assertEquals(1, inbox.size());
+        assertEquals(1, peer.getDuplicatedCount());
+        assertEquals(1, origin.getDuplicatedCount());
+
+        // チャンネル名やメッセージIDの無いデータは無視する
+        other.publish(LunaChat.PMC_MESSAGE,
+                new BukkitChatMessage(new ChannelMemberOther("ucchy"), "hello").toByteArray());
+        other.publish(LunaChat.PMC_MESSAGE, new byte[]{1, 2, 3});
+        assertEquals(1, inbox.size());
+        assertEquals(1, peer.getReceivedCount());
+    }
+
+    public void testRateLimit() {
+
+        long[] now = new long[1];
+        InMemoryMessageBus.Network network = new InMemoryMessageBus.Network(false);
+        List<BukkitChatMessage> inbox = new ArrayList<BukkitChatMessage>();
+        ChannelFederation origin = new ChannelFederation(network.createNode("origin"), 5, m -> { }, () -> now[0]);
+        new ChannelFederation(network.createNode("peer"), 0, inbox::add);
+
+        ChannelMemberOther member = new ChannelMemberOther("ucchy");
+        for (int i = 0; i < 10; i++) {
+            origin.publish("trade", member, "spam " + i, false);
+        }
+        assertEquals(5, inbox.size());
+        assertEquals(5, origin.getLimitedCount());
+
+        // 0.4秒経過すると、2回分送信できるようになる
+        now[0] += TimeUnit.MILLISECONDS.toNanos(400);
+        for (int i = 0; i < 10; i++) {
+            origin.publish("trade", member, "spam " + i, false);
+        }
+        assertEquals(7, inbox.size());
+        assertEquals(7, origin.getPublishedCount());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.messaging;
+
+import com.github.ucchyocean.lc3.LunaChat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import junit.framework.TestCase;
+
+/**
+ * InMemoryMessageBusのテスト
+ * @author ucchy
+ */
+public class InMemoryMessageBusTest extends TestCase {
+
+    public void testPublishSubscribe() {
+
+        InMemoryMessageBus.Network network = new InMemoryMessageBus.Network(false);
+        InMemoryMessageBus proxy = network.createNode("proxy");
+        InMemoryMessageBus lobby = network.createNode("lobby");
+        InMemoryMessageBus survival = network.createNode("survival");
+
+        List<Envelope> received = new ArrayList<Envelope>();
+        MessageBus.Subscription subscription = proxy.subscribe(LunaChat.PMC_MESSAGE, received::add);
+        survival.subscribe(LunaChat.PMC_MESSAGE, e -> fail());
+
+        // 送信元には届かず、ほかのノードに届く
+        byte[] payload = {1, 2, 3};
+        assertEquals(2, survival.publish(LunaChat.PMC_MESSAGE, payload).join().intValue());
+        payload[0] = 9;
+        lobby.publish("other:topic", payload);
+        assertEquals(1, received.size());
+        assertEquals("survival", received.get(0).getSource());
+        assertNull(received.get(0).getVia());
+        assertTrue(Arrays.equals(new byte[]{1, 2, 3}, received.get(0).getPayload()));
+
+        // 購読を解除すると届かなくなる
+        subscription.unsubscribe();
+        survival.publish(LunaChat.PMC_MESSAGE, payload);
+        assertEquals(1, received.size());
+    }
+
+    public void testBatching() {
+
+        InMemoryMessageBus.Network network = new InMemoryMessageBus.Network(false);
+        InMemoryMessageBus proxy = network.createNode("proxy");
+        InMemoryMessageBus lobby = network.createNode("lobby");
+
+        List<Envelope> received = new ArrayList<Envelope>();
+        proxy.subscribe(LunaChat.PMC_MESSAGE, received::add);
+
+        // まとめて送信する間は、flushされるまで届かず、結果も完了しない
+        lobby.setBatching(true);
+        CompletableFuture<Integer> first = lobby.publish(LunaChat.PMC_MESSAGE, new byte[]{1});
+        CompletableFuture<Integer> second = lobby.publish(LunaChat.PMC_MESSAGE, new byte[]{2});
+        assertTrue(received.isEmpty());
+        assertFalse(first.isDone());
+
+        lobby.flush();
+        assertEquals(2, received.size());
+        assertEquals(1, received.get(0).getPayload()[0]);
+        assertEquals(2, received.get(1).getPayload()[0]);
+        assertEquals(1, first.join().intValue());
+        assertEquals(1, second.join().intValue());
+
+        // まとめる設定を無効にすると、送信待ちも送信される
+        lobby.publish(LunaChat.PMC_MESSAGE, new byte[]{3});
+        lobby.setBatching(false);
+        assertEquals(3, received.size());
+    }
+}
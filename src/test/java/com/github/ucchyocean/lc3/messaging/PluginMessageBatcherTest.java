@@ -0,0 +1,133 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.messaging;
+
+import com.github.ucchyocean.lc3.member.ChannelMemberOther;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * PluginMessageBatcherのテスト
+ * @author ucchy
+ */
+public class PluginMessageBatcherTest extends TestCase {
+
+    public void testEncodeDecode() {
+
+        List<byte[]> frames = new ArrayList<byte[]>();
+        for (int i = 0; i < 5; i++) {
+            ChannelMemberOther member = new ChannelMemberOther("player" + i);
+            frames.add(new BukkitChatMessage(member, "message " + i).toByteArray());
+        }
+        frames.add(new byte[0]);
+
+        byte[] bytes = PluginMessageBatcher.encode(frames);
+        assertTrue(PluginMessageBatcher.isBatch(bytes));
+        assertFalse(PluginMessageBatcher.isBatch(frames.get(0)));
+
+        List<byte[]> decoded = PluginMessageBatcher.decode(bytes);
+        assertNotNull(decoded);
+        assertEquals(frames.size(), decoded.size());
+        for (int i = 0; i < frames.size(); i++) {
+            assertTrue(Arrays.equals(frames.get(i), decoded.get(i)));
+        }
+        assertEquals("message 3", BukkitChatMessage.fromByteArray(decoded.get(3)).getMessage());
+
+        // 途中で切れたデータ
+        for (int length = 0; length < bytes.length; length++) {
+            assertNull(PluginMessageBatcher.decode(Arrays.copyOf(bytes, length)));
+        }
+
+        // ランダムなデータでも例外が発生しないこと
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            byte[] data = new byte[3 + random.nextInt(32)];
+            random.nextBytes(data);
+            data[0] = (byte) 0xFF;
+            data[1] = 'B';
+            PluginMessageBatcher.decode(data);
+        }
+    }
+
+    public void testDeadline() {
+
+        List<byte[]> sent = new ArrayList<byte[]>();
+        PluginMessageBatcher batcher = new PluginMessageBatcher(sent::add);
+
+        batcher.add(new byte[]{1}, 2);
+        batcher.add(new byte[]{2}, 2);
+        batcher.tick();
+        assertEquals(0, sent.size());
+        batcher.add(new byte[]{3}, 2);
+        batcher.tick();
+        assertEquals(1, sent.size());
+        assertEquals(3, PluginMessageBatcher.decode(sent.get(0)).size());
+
+        // 送信待ちが無ければ送信しない
+        batcher.tick();
+        batcher.tick();
+        assertEquals(1, sent.size());
+
+        // 短い期限のメッセージが追加された場合は、そちらに合わせる
+        batcher.add(new byte[]{4}, 5);
+        batcher.add(new byte[]{5}, 1);
+        batcher.tick();
+        assertEquals(2, sent.size());
+
+        batcher.add(new byte[]{6}, 5);
+        batcher.flush();
+        assertEquals(3, sent.size());
+        assertEquals(3, batcher.getBatchCount());
+        assertEquals(6, batcher.getFrameCount());
+    }
+
+    public void testSizeLimit() {
+
+        List<byte[]> sent = new ArrayList<byte[]>();
+        PluginMessageBatcher batcher = new PluginMessageBatcher(sent::add);
+
+        byte[] frame = new byte[10000];
+        for (int i = 0; i < 10; i++) {
+            batcher.add(frame, 20);
+        }
+
+        // 上限を超えたので、次のtickで送信される
+        batcher.tick();
+        int total = 0;
+        for (byte[] bytes : sent) {
+            assertTrue(bytes.length < PluginMessageBatcher.MAX_BATCH_BYTES + frame.length + 16);
+            total += PluginMessageBatcher.decode(bytes).size();
+        }
+        assertTrue(sent.size() > 1);
+        assertEquals(10, total);
+    }
+
+    /**
+     * 1tickに複数の発言がある場合に、まとめて送信されることを確認する
+     */
+    public void testMetrics() {
+
+        PluginMessageBatcher batcher = new PluginMessageBatcher(bytes -> {});
+        Random random = new Random(7);
+
+        for (int tick = 0; tick < 1200; tick++) {
+            for (int i = random.nextInt(10); i > 0; i--) {
+                byte[] frame = new BukkitChatMessage(
+                        new ChannelMemberOther("player" + i), "hello " + tick).toByteArray();
+                batcher.add(frame, 1);
+            }
+            batcher.tick();
+        }
+        batcher.flush();
+
+        assertTrue(batcher.getFrameCount() > batcher.getBatchCount());
+    }
+}
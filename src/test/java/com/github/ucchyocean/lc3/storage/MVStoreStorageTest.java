@@ -0,0 +1,224 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * MVStoreStorageのテスト
+ * @author ucchy
+ */
+public class MVStoreStorageTest extends TestCase {
+
+    private File folder;
+
+    @Override
+    protected void setUp() throws IOException {
+        folder = Files.createTempDirectory("lunachat-mvstore").toFile();
+    }
+
+    @Override
+    protected void tearDown() {
+        delete(folder);
+    }
+
+    public void testRoundTrip() {
+
+        MVStoreStorage storage = new MVStoreStorage(folder);
+        Map<String, Object> channel = new HashMap<String, Object>();
+        channel.put("name", "test");
+        channel.put("members", Arrays.asList("$a", "$b"));
+        assertTrue(storage.saveChannel("test", channel));
+        storage.getKeyValueStore("japanize").put("$a", "false");
+        storage.close();
+
+        storage = new MVStoreStorage(folder);
+        Map<String, Map<String, Object>> channels = storage.loadChannels();
+        assertEquals(1, channels.size());
+        assertEquals("test", channels.get("test").get("name"));
+        assertEquals(Arrays.asList("$a", "$b"), channels.get("test").get("members"));
+        assertEquals("false", storage.getKeyValueStore("japanize").load().get("$a"));
+
+        assertTrue(storage.removeChannel("test"));
+        assertFalse(storage.removeChannel("test"));
+        assertTrue(storage.loadChannels().isEmpty());
+        storage.close();
+    }
+
+    /**
+     * プレイヤーごとの設定の変更は、変更ごとにはコミットされず、まとめてコミットされることを確認する
+     */
+    public void testCoalescedCommit() {
+
+        MVStoreStorage storage = new MVStoreStorage(folder);
+        KeyValueStore store = storage.getKeyValueStore("japanize");
+        store.flush();
+        assertFalse(storage.hasPendingChanges());
+
+        for (int i = 0; i < 100; i++) {
+            store.put("$" + i, "true");
+        }
+        store.remove("$0");
+        assertTrue(storage.hasPendingChanges());
+        assertEquals(99, store.load().size());
+
+        // 同じ値の書き込みでは、変更ありにならない
+        store.flush();
+        assertFalse(storage.hasPendingChanges());
+        store.put("$1", "true");
+        assertFalse(storage.hasPendingChanges());
+
+        // チャンネルの保存で、コミット待ちの変更も一緒にコミットされる
+        store.put("$1", "false");
+        assertTrue(storage.saveChannel("test", new HashMap<String, Object>()));
+        assertFalse(storage.hasPendingChanges());
+        storage.close();
+
+        storage = new MVStoreStorage(folder);
+        assertEquals("false", storage.getKeyValueStore("japanize").load().get("$1"));
+        storage.close();
+    }
+
+    /**
+     * Yamlファイルからの取り込みで、取り込み元のファイルが変更されないことを確認する
+     */
+    public void testImportFromYaml() throws IOException {
+
+        File channels = new File(folder, "channels");
+        channels.mkdirs();
+        write(new File(channels, "test.yml"), "name: test\nmembers:\n- $a\n");
+        File legacy = new File(folder, "japanize.yml");
+        write(legacy, "$a: 'false'\n$b: 'true'\n");
+
+        MVStoreStorage storage = new MVStoreStorage(folder);
+        assertFalse(storage.isImported());
+        YamlStorage yaml = new YamlStorage(folder, true);
+        assertEquals(1, storage.importFrom(yaml, "japanize", "hidelist"));
+        yaml.close();
+        assertTrue(storage.isImported());
+
+        assertEquals("test", storage.loadChannels().get("test").get("name"));
+        Map<String, Object> japanize = storage.getKeyValueStore("japanize").load();
+        assertEquals(2, japanize.size());
+        assertEquals("false", japanize.get("$a"));
+        assertTrue(storage.getKeyValueStore("hidelist").load().isEmpty());
+        storage.close();
+
+        assertTrue(legacy.exists());
+        assertFalse(new File(folder, "japanize.yml" + YamlKeyValueStore.MIGRATED_SUFFIX).exists());
+        assertFalse(new File(folder, "japanize").exists());
+
+        // 取り込み元は変更できない
+        try {
+            yaml.getKeyValueStore("japanize").put("$c", "true");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // OK
+        }
+        assertFalse(yaml.saveChannel("other", new HashMap<String, Object>()));
+        assertFalse(new File(channels, "other.yml").exists());
+    }
+
+    /**
+     * 取り込みに失敗した場合は、データベースが閉じられ、何も取り込まれないことを確認する
+     */
+    public void testOpenFailedImport() throws IOException {
+
+        File channels = new File(folder, "channels");
+        channels.mkdirs();
+        write(new File(channels, "test.yml"), "name: test\n");
+        YamlStorage broken = new YamlStorage(folder, true) {
+            @Override
+            public Map<String, Map<String, Object>> loadChannels() {
+                throw new IllegalStateException("broken");
+            }
+        };
+
+        assertNull(MVStoreStorage.open(folder, broken, "japanize"));
+
+        // 閉じられているので、もう一度開くことができる
+        MVStoreStorage storage = new MVStoreStorage(folder);
+        assertFalse(storage.isImported());
+        assertFalse(storage.isActive());
+        assertTrue(storage.loadChannels().isEmpty());
+        storage.close();
+
+        // 次回は取り込み直される
+        storage = MVStoreStorage.open(folder, new YamlStorage(folder, true), "japanize");
+        assertNotNull(storage);
+        assertEquals(1, storage.getImportedCount());
+        storage.close();
+    }
+
+    /**
+     * Yamlストレージとの切り替えで、変更が失われないことを確認する
+     */
+    public void testSwitchStorage() throws IOException {
+
+        File channels = new File(folder, "channels");
+        channels.mkdirs();
+        write(new File(channels, "a.yml"), "name: a\n");
+        write(new File(channels, "removed.yml"), "name: removed\n");
+
+        // mvstore で使用して、変更する
+        MVStoreStorage storage = MVStoreStorage.open(folder, new YamlStorage(folder, true), "japanize");
+        assertEquals(2, storage.getImportedCount());
+        Map<String, Object> channel = new HashMap<String, Object>();
+        channel.put("name", "b");
+        assertTrue(storage.saveChannel("b", channel));
+        assertTrue(storage.removeChannel("removed"));
+        storage.getKeyValueStore("japanize").put("$a", "false");
+        storage.close();
+
+        // yaml へ切り替えると、書き出される
+        YamlStorage yaml = new YamlStorage(folder);
+        assertEquals(2, MVStoreStorage.exportIfActive(folder, yaml, "japanize"));
+        assertEquals(new HashSet<String>(Arrays.asList("a", "b")), yaml.loadChannels().keySet());
+        assertEquals("false", yaml.getKeyValueStore("japanize").load().get("$a"));
+        assertEquals(0, MVStoreStorage.exportIfActive(folder, yaml, "japanize"));
+
+        // yaml が変更されていなければ、mvstore へ戻しても取り込み直さない
+        storage = MVStoreStorage.open(folder, new YamlStorage(folder, true), "japanize");
+        assertEquals(-1, storage.getImportedCount());
+        storage.close();
+        assertEquals(2, MVStoreStorage.exportIfActive(folder, yaml, "japanize"));
+
+        // yaml で使用して変更すると、mvstore へ戻したときに取り込み直す
+        assertTrue(yaml.removeChannel("b"));
+        yaml.getKeyValueStore("japanize").put("$a", "true");
+        yaml.close();
+        assertTrue(channels.setLastModified(System.currentTimeMillis() + 10000));
+
+        storage = MVStoreStorage.open(folder, new YamlStorage(folder, true), "japanize");
+        assertEquals(1, storage.getImportedCount());
+        assertEquals(new HashSet<String>(Arrays.asList("a")), storage.loadChannels().keySet());
+        assertEquals("true", storage.getKeyValueStore("japanize").load().get("$a"));
+        storage.close();
+    }
+
+    private static void write(File file, String text) throws IOException {
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * YamlKeyValueStoreのテスト
+ * @author ucchy
+ */
+public class YamlKeyValueStoreTest extends TestCase {
+
+    private File folder;
+
+    @Override
+    protected void setUp() throws IOException {
+        folder = Files.createTempDirectory("lunachat-yaml").toFile();
+    }
+
+    @Override
+    protected void tearDown() {
+        delete(folder);
+    }
+
+    public void testRoundTrip() {
+
+        YamlKeyValueStore store = new YamlKeyValueStore(folder, "japanize");
+        assertTrue(store.load().isEmpty());
+        store.put("$a", "false");
+        store.put("$b", true);
+        store.put("$c", Arrays.asList("x", "y"));
+        store.remove("$b");
+        store.flush();
+
+        Map<String, Object> data = new YamlKeyValueStore(folder, "japanize").load();
+        assertEquals(2, data.size());
+        assertEquals("false", data.get("$a"));
+        assertEquals(Arrays.asList("x", "y"), data.get("$c"));
+
+        store.clear();
+        store.flush();
+        assertTrue(new YamlKeyValueStore(folder, "japanize").load().isEmpty());
+    }
+
+    /**
+     * キーがシャードに分けて保存され、変更のあったシャードだけが書き込まれることを確認する
+     */
+    public void testShardLayout() throws IOException {
+
+        YamlKeyValueStore store = new YamlKeyValueStore(folder, "hidelist", 4);
+        for (int i = 0; i < 40; i++) {
+            store.put("$" + i, "value" + i);
+        }
+        store.flush();
+
+        File shards = new File(folder, "hidelist");
+        String[] names = shards.list();
+        Arrays.sort(names);
+        assertEquals(Arrays.asList("00.yml", "01.yml", "02.yml", "03.yml"), Arrays.asList(names));
+        assertFalse(new File(folder, "hidelist.yml").exists());
+
+        // 1件だけ変更すると、そのキーのシャードだけが書き換えられる
+        String key = "$7";
+        File target = new File(shards, String.format("%02x.yml", (key.hashCode() & 0x7fffffff) % 4));
+        File other = null;
+        for (String name : names) {
+            if (!name.equals(target.getName())) {
+                other = new File(shards, name);
+                break;
+            }
+        }
+        String before = read(other);
+        write(other, before + "# untouched\n");
+        store.put(key, "changed");
+        store.flush();
+        assertTrue(read(target).contains("changed"));
+        assertEquals(before + "# untouched\n", read(other));
+    }
+
+    /**
+     * 変更はすぐには書き込まれず、まとめて1回で書き込まれることを確認する
+     */
+    public void testCoalescing() {
+
+        YamlKeyValueStore store = new YamlKeyValueStore(folder, "japanize", 1);
+        store.load();
+        for (int i = 0; i < 100; i++) {
+            store.put("$a", "value" + i);
+        }
+        assertFalse(new File(folder, "japanize/00.yml").exists());
+
+        store.flush();
+        assertEquals("value99", new YamlKeyValueStore(folder, "japanize", 1).load().get("$a"));
+
+        // 同じ値の書き込みでは、変更ありにならない
+        File shard = new File(folder, "japanize/00.yml");
+        long modified = shard.lastModified();
+        assertTrue(shard.setLastModified(modified - 10000));
+        store.put("$a", "value99");
+        store.flush();
+        assertEquals(modified - 10000, shard.lastModified());
+    }
+
+    /**
+     * 一時ファイル経由で置き換えられ、一時ファイルが残らないこと、
+     * 書き込み前の一時ファイルが残っていても読み込みに影響しないことを確認する
+     */
+    public void testAtomicReplace() throws IOException {
+
+        YamlKeyValueStore store = new YamlKeyValueStore(folder, "japanize", 1);
+        store.put("$a", "first");
+        store.flush();
+
+        File shards = new File(folder, "japanize");
+        write(new File(shards, "00.yml.tmp"), "$a: broken\n");
+        assertEquals("first", new YamlKeyValueStore(folder, "japanize", 1).load().get("$a"));
+
+        store.put("$a", "second");
+        store.flush();
+        assertEquals(Arrays.asList("00.yml"), Arrays.asList(shards.list()));
+        assertEquals("second", new YamlKeyValueStore(folder, "japanize", 1).load().get("$a"));
+    }
+
+    /**
+     * 1ファイル形式の name.yml が、シャードへ移行されて name.yml.migrated に改名されることを確認する
+     */
+    public void testMigration() throws IOException {
+
+        File legacy = new File(folder, "japanize.yml");
+        write(legacy, "$a: 'false'\n$b: 'true'\n");
+
+        Map<String, Object> data = new YamlKeyValueStore(folder, "japanize").load();
+        assertEquals(2, data.size());
+        assertEquals("false", data.get("$a"));
+        assertFalse(legacy.exists());
+        assertTrue(new File(folder, "japanize.yml" + YamlKeyValueStore.MIGRATED_SUFFIX).exists());
+        assertTrue(new File(folder, "japanize").isDirectory());
+
+        // 移行後は、シャードから読み込む
+        assertEquals(data, new YamlKeyValueStore(folder, "japanize").load());
+    }
+
+    /**
+     * シャードの書き込みに失敗した場合は、name.yml を残したまま再試行し、
+     * 全てのシャードを書き込めてから改名することを確認する
+     */
+    public void testMigrationFailure() throws IOException {
+
+        File legacy = new File(folder, "japanize.yml");
+        write(legacy, "$a: 'false'\n$b: 'true'\n");
+
+        // シャードの格納フォルダを作れないようにする
+        File blocker = new File(folder, "japanize");
+        write(blocker, "");
+
+        YamlKeyValueStore store = new YamlKeyValueStore(folder, "japanize");
+        Map<String, Object> data = store.load();
+        assertEquals(2, data.size());
+        assertTrue(legacy.exists());
+        assertFalse(new File(folder, "japanize.yml" + YamlKeyValueStore.MIGRATED_SUFFIX).exists());
+
+        // 次回の起動でも、name.yml から読み込まれる
+        assertEquals(data, new YamlKeyValueStore(folder, "japanize", 16, true).load());
+
+        // 書き込めるようになれば、再試行で移行が完了する
+        assertTrue(blocker.delete());
+        store.flush();
+        assertFalse(legacy.exists());
+        assertTrue(new File(folder, "japanize.yml" + YamlKeyValueStore.MIGRATED_SUFFIX).exists());
+        assertEquals(data, new YamlKeyValueStore(folder, "japanize").load());
+    }
+
+    /**
+     * 読み込み専用の場合は、移行も書き込みも行わないことを確認する
+     */
+    public void testReadOnly() throws IOException {
+
+        File legacy = new File(folder, "japanize.yml");
+        write(legacy, "$a: 'false'\n");
+
+        YamlKeyValueStore store = new YamlKeyValueStore(folder, "japanize", 16, true);
+        assertEquals("false", store.load().get("$a"));
+        store.flush();
+        assertTrue(legacy.exists());
+        assertFalse(new File(folder, "japanize").exists());
+        try {
+            store.put("$b", "true");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // OK
+        }
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 書き込み用スレッドを停止すると、待ち時間を待たずに書き込まれ、
+     * 停止した後の変更は、新しいスレッドで書き込まれることを確認する
+     */
+    public void testShutdown() {
+
+        YamlKeyValueStore store = new YamlKeyValueStore(folder, "japanize", 1);
+        store.load();
+        store.put("$a", "true");
+        assertFalse(new File(folder, "japanize/00.yml").exists());
+
+        StoreWriter.shutdown();
+        assertEquals("true", new YamlKeyValueStore(folder, "japanize", 1).load().get("$a"));
+
+        store.put("$a", "false");
+        StoreWriter.shutdown();
+        assertEquals("false", new YamlKeyValueStore(folder, "japanize", 1).load().get("$a"));
+    }
+
+    /**
+     * 再試行の待ち時間は、失敗するたびに倍になり、上限を超えないことを確認する
+     */
+    public void testRetryDelay() {
+
+        assertEquals(StoreWriter.FLUSH_DELAY_MILLIS, StoreWriter.retryDelay(1));
+        assertEquals(StoreWriter.FLUSH_DELAY_MILLIS * 2, StoreWriter.retryDelay(2));
+        assertEquals(StoreWriter.FLUSH_DELAY_MILLIS * 4, StoreWriter.retryDelay(3));
+        assertEquals(StoreWriter.MAX_RETRY_DELAY_MILLIS, StoreWriter.retryDelay(StoreWriter.MAX_RETRIES * 10));
+    }
+
+    private static void write(File file, String text) throws IOException {
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.util;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * MessageTemplateのテスト
+ * @author ucchy
+ */
+public class MessageTemplateTest extends TestCase {
+
+    public void testFormat() {
+
+        MessageTemplate template = MessageTemplate.compile(null,
+                "&f[%color%%channel%&f]&7%player% joined. 100%", "color", "channel", "player");
+        assertFalse(template.isEmpty());
+        assertEquals("§f[§aworld§f]§7ucchy joined. 100%", template.format("&a", "world", "ucchy"));
+        assertEquals("&f[&aworld&f]&7ucchy joined. 100%", template.formatRaw("&a", "world", "ucchy"));
+
+        // 前に付ける文字列のキーワードは置き換えない
+        template = MessageTemplate.compile("&c[%label%] ", "%label% is invalid.", "label");
+        assertEquals("§c[%label%] test is invalid.", template.format("test"));
+
+        // 引数の順番とキーワードの出現順が異なる場合
+        template = MessageTemplate.compile("", "%b%-%a%-%b%", "a", "b");
+        assertEquals("2-1-2", template.format("1", "2"));
+
+        assertTrue(MessageTemplate.compile(null, "").isEmpty());
+        assertEquals("&c", MessageTemplate.compile("&c", "").formatRaw());
+        assertTrue(MessageTemplate.compile(null, null).isEmpty());
+        assertEquals("", MessageTemplate.compile("&c", null).format());
+    }
+
+    /**
+     * 境界をまたいでカラーコードが構成される場合
+     */
+    public void testOpenEnd() {
+
+        MessageTemplate template = MessageTemplate.compile(null, "&%c%text", "c");
+        assertEquals("§atext", template.format("a"));
+
+        template = MessageTemplate.compile(null, "%c%%d%text", "c", "d");
+        assertEquals("§x§1§1§2§2§3§3text", template.format("&#12", "3"));
+        assertEquals("§x§1§2§3§4§5§6text", template.format("#123", "456"));
+
+        assertTrue(MessageTemplate.isOpenEnd("&"));
+        assertTrue(MessageTemplate.isOpenEnd("abc&#12345"));
+        assertTrue(MessageTemplate.isOpenEnd("#ab"));
+        assertFalse(MessageTemplate.isOpenEnd("&a"));
+        assertFalse(MessageTemplate.isOpenEnd("#abcdef"));
+        assertFalse(MessageTemplate.isOpenEnd("#xyz"));
+    }
+
+    /**
+     * ランダムな文字列で、以前の作成方法と結果が一致することを確認する
+     */
+    public void testCompatibility() {
+
+        char[] alphabet = {'a', 'b', 'f', 'g', 'k', 'r', '1', '9', '&', '#', '%', 'x', ' '};
+        String[] keywords = {"x", "ab", "k"};
+        // 引数にキーワードが含まれる場合は、以前の方法だと引数の中まで置き換えられてしまうので、引数には%を含めない
+        char[] argAlphabet = {'a', 'f', '1', '&', '#', 'x'};
+        Random random = new Random(5);
+
+        for (int i = 0; i < 20000; i++) {
+            String message = randomText(random, alphabet, 16);
+            String prefix = random.nextBoolean() ? randomText(random, alphabet, 4) : null;
+            Object[] args = {
+                    randomText(random, argAlphabet, 5), randomText(random, argAlphabet, 5),
+                    randomText(random, argAlphabet, 5)};
+
+            KeywordReplacer kr = new KeywordReplacer(message);
+            for (int j = 0; j < keywords.length; j++) {
+                kr.replace("%" + keywords[j] + "%", args[j].toString());
+            }
+            String expected = Utility.replaceColorCode((prefix == null ? "" : prefix) + kr);
+
+            MessageTemplate template = MessageTemplate.compile(prefix, message, keywords);
+            assertEquals(message + " " + java.util.Arrays.toString(args), expected, template.format(args));
+        }
+    }
+
+    private static String randomText(Random random, char[] alphabet, int max) {
+        char[] chars = new char[random.nextInt(max)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.util;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import junit.framework.TestCase;
+
+/**
+ * PlaceholderScannerのテスト
+ * @author ucchy
+ */
+public class PlaceholderScannerTest extends TestCase {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("%[^%]+%");
+
+    public void testStrip() {
+
+        assertEquals("hello ", PlaceholderScanner.strip("hello %player_name%"));
+        assertEquals("100%", PlaceholderScanner.strip("100%"));
+        assertEquals("%", PlaceholderScanner.strip("%%a%"));
+        assertEquals("a  b", PlaceholderScanner.strip("a %x% %y%b"));
+        assertNull(PlaceholderScanner.strip(null));
+
+        String text = "no placeholders";
+        assertSame(text, PlaceholderScanner.strip(text));
+
+        assertTrue(PlaceholderScanner.hasCandidate("hi %player%"));
+        assertFalse(PlaceholderScanner.hasCandidate("50%% off"));
+        assertFalse(PlaceholderScanner.hasCandidate("100%"));
+    }
+
+    /**
+     * ランダムな文字列で、正規表現による置き換えと結果が一致することを確認する
+     */
+    public void testCompatibility() {
+
+        char[] alphabet = {'a', 'b', '%', ' ', '_'};
+        Random random = new Random(7);
+
+        for (int i = 0; i < 20000; i++) {
+            char[] chars = new char[random.nextInt(14)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String text = new String(chars);
+            assertEquals(text, PLACEHOLDER.matcher(text).replaceAll(""), PlaceholderScanner.strip(text));
+            assertEquals(text, PLACEHOLDER.matcher(text).find(), PlaceholderScanner.hasCandidate(text));
+        }
+    }
+}
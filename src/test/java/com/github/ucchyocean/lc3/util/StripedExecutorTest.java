@@ -0,0 +1,146 @@
+/*
+ * @author     ucchy
+ * @license    LGPLv3
+ * @copyright  Copyright ucchy 2020
+ */
+package com.github.ucchyocean.lc3.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * StripedExecutorのテスト
+ * @author ucchy
+ */
+public class StripedExecutorTest extends TestCase {
+
+    /**
+     * 同じキーの処理が、登録した順番に実行されることを確認する
+     */
+    public void testOrderPerKey() throws InterruptedException {
+
+        StripedExecutor executor = new StripedExecutor("test", 4, 1000);
+        UUID[] players = new UUID[8];
+        List<List<Integer>> results = new ArrayList<List<Integer>>();
+        for (int i = 0; i < players.length; i++) {
+            players[i] = UUID.randomUUID();
+            results.add(Collections.synchronizedList(new ArrayList<Integer>()));
+        }
+
+        int lines = 200;
+        CountDownLatch latch = new CountDownLatch(players.length * lines);
+        for (int line = 0; line < lines; line++) {
+            for (int p = 0; p < players.length; p++) {
+                final int n = line;
+                final List<Integer> result = results.get(p);
+                assertTrue(executor.execute(players[p], () -> {
+                    result.add(n);
+                    latch.countDown();
+                }));
+            }
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        for (List<Integer> result : results) {
+            assertEquals(lines, result.size());
+            for (int i = 0; i < lines; i++) {
+                assertEquals(i, result.get(i).intValue());
+            }
+        }
+        // 集計は処理の実行後に行われるので、少し待つ
+        for (int i = 0; i < 100 && executor.getCompletedCount() < players.length * lines; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(players.length * lines, executor.getCompletedCount());
+        long total = 0;
+        for (long count : executor.getHistogram()) {
+            total += count;
+        }
+        assertEquals(players.length * lines, total);
+        executor.shutdown();
+    }
+
+    /**
+     * 異なるレーンの処理が、並列に実行されることを確認する
+     */
+    public void testParallel() throws InterruptedException {
+
+        StripedExecutor executor = new StripedExecutor("test", 2, 10);
+        String a = "a";
+        String b = null;
+        for (int i = 0; b == null; i++) {
+            if (executor.indexOf("b" + i) != executor.indexOf(a)) {
+                b = "b" + i;
+            }
+        }
+
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(a, () -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.execute(b, done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        blocked.countDown();
+        executor.shutdown();
+    }
+
+    /**
+     * 待ち行列があふれた場合に、登録が拒否されることを確認する
+     */
+    public void testQueueLimit() throws InterruptedException {
+
+        StripedExecutor executor = new StripedExecutor("test", 1, 2);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        assertTrue(executor.execute("a", () -> {
+            started.countDown();
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(executor.execute("a", () -> { }));
+        assertTrue(executor.execute("b", () -> { }));
+        assertFalse(executor.execute("a", () -> { }));
+        assertEquals(1, executor.getRejectedCount());
+        assertEquals(2, executor.getQueueDepth());
+        assertEquals(2, executor.getMaxQueueDepth());
+
+        // bStats 用の値は、取得するたびに数え直される
+        assertEquals(1, executor.takeIntervalRejectedCount());
+        assertEquals(2, executor.takeIntervalMaxQueueDepth());
+        assertEquals(0, executor.takeIntervalRejectedCount());
+        assertEquals(0, executor.takeIntervalMaxQueueDepth());
+        assertEquals(1, executor.getRejectedCount());
+        assertEquals(2, executor.getMaxQueueDepth());
+
+        blocked.countDown();
+        for (int i = 0; i < 100 && executor.getCompletedCount() < 3; i++) {
+            Thread.sleep(10);
+        }
+        Map<String, Long> histogram = executor.getLabeledHistogram();
+        assertEquals(StripedExecutor.getBucketBounds().length + 1, histogram.size());
+        assertTrue(histogram.containsKey("<1ms") && histogram.containsKey(">=1000ms"));
+        long total = 0;
+        for (long count : histogram.values()) {
+            total += count;
+        }
+        assertEquals(3, total);
+        executor.shutdown();
+    }
+}